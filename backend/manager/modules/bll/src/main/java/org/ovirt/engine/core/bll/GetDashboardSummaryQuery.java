@@ -0,0 +1,25 @@
+package org.ovirt.engine.core.bll;
+
+import javax.inject.Inject;
+
+import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.common.queries.QueryParametersBase;
+import org.ovirt.engine.core.vdsbroker.monitoring.DashboardSummaryAggregator;
+
+/**
+ * Returns the inventory counts and the cluster utilization of the dashboard, as maintained from the monitoring.
+ */
+public class GetDashboardSummaryQuery<P extends QueryParametersBase> extends QueriesCommandBase<P> {
+
+    @Inject
+    private DashboardSummaryAggregator dashboardSummaryAggregator;
+
+    public GetDashboardSummaryQuery(P parameters, EngineContext engineContext) {
+        super(parameters, engineContext);
+    }
+
+    @Override
+    protected void executeQueryCommand() {
+        getQueryReturnValue().setReturnValue(dashboardSummaryAggregator.getSummary());
+    }
+}
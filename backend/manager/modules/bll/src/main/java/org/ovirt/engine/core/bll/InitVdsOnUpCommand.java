@@ -151,6 +151,7 @@ public class InitVdsOnUpCommand extends StorageHandlingCommandBase<HostStoragePo
         vdsDynamicDao.updateVdsDynamicPowerManagementPolicyFlag(
                 getVds().getId(),
                 getVds().isPowerManagementControlledByPolicy());
+        resourceManager.invalidateCachedVds(getVds().getId());
 
         if (getVds().getHighlyAvailableIsConfigured()) {
             haMaintenanceFailed = !hostedEngineHelper.updateHaLocalMaintenanceMode(getVds(), false);
@@ -65,6 +65,7 @@ import org.ovirt.engine.core.dao.VmDynamicDao;
 import org.ovirt.engine.core.dao.network.NetworkDao;
 import org.ovirt.engine.core.dao.scheduling.AffinityGroupDao;
 import org.ovirt.engine.core.utils.ReplacementUtils;
+import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.CancelMigrationVDSParameters;
 
 @InternalCommandAttribute
@@ -99,6 +100,8 @@ public class MaintenanceNumberOfVdssCommand<T extends MaintenanceNumberOfVdssPar
     @Inject
     private ImageTransferDao imageTransferDao;
     @Inject
+    private ResourceManager resourceManager;
+    @Inject
     @Typed(ConcurrentChildCommandsExecutionCallback.class)
     private Instance<ConcurrentChildCommandsExecutionCallback> callbackProvider;
     @Inject
@@ -232,6 +235,7 @@ public class MaintenanceNumberOfVdssCommand<T extends MaintenanceNumberOfVdssPar
             for (Guid vdsId : getParameters().getVdsIdList()) {
                 vdsDynamicDao.updateVdsDynamicPowerManagementPolicyFlag(vdsId, false);
             }
+            resourceManager.invalidateCachedVds(getParameters().getVdsIdList());
         }
 
         setSucceeded(true);
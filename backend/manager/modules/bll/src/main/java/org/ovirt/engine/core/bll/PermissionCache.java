@@ -0,0 +1,242 @@
+package org.ovirt.engine.core.bll;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.VdcObjectType;
+import org.ovirt.engine.core.common.businessentities.ActionGroup;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.PermissionChangeNotifier;
+import org.ovirt.engine.core.dao.PermissionDao;
+import org.ovirt.engine.core.utils.transaction.TransactionCompletionListener;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the permissions found by {@link PermissionDao#getEntityPermissions} when the authorization of the commands
+ * is checked, so a user running many commands on the same objects does not evaluate the permissions in the database
+ * over and over.
+ *
+ * Only found permissions are cached, so a granted permission is taken into account immediately. The lookups which
+ * found a permission are invalidated by the {@link PermissionChangeNotifier} when the permission is removed through
+ * the DAOs, the lookups of an action group when it is removed from a role, and all the lookups when roles or groups
+ * are changed. The lookups of a user are invalidated when the groups of the user are refreshed on login. The
+ * entries also expire after <code>PermissionCacheTimeToLiveInSeconds</code> to take changes of the hierarchy of the
+ * objects into account.
+ */
+@Singleton
+public class PermissionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionCache.class);
+
+    private static final int MAX_ENTRIES = 100000;
+
+    @Inject
+    private PermissionDao permissionDao;
+
+    @Inject
+    private PermissionChangeNotifier permissionChangeNotifier;
+
+    private final ConcurrentMap<PermissionKey, CachedPermission> permissions = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        permissionChangeNotifier.addListener(new PermissionChangeNotifier.Listener() {
+            @Override
+            public void permissionsRemoved(Collection<Guid> permissionIds) {
+                invalidatePermissions(permissionIds);
+            }
+
+            @Override
+            public void actionGroupRemoved(ActionGroup actionGroup) {
+                invalidateActionGroup(actionGroup);
+            }
+
+            @Override
+            public void permissionsChanged() {
+                invalidate();
+            }
+        });
+    }
+
+    /**
+     * @return the id of a permission which grants the action group on the object to the user or to one of its groups,
+     * <code>null</code> if there is none
+     */
+    public Guid getEntityPermissions(Guid userId, ActionGroup actionGroup, Guid objectId, VdcObjectType objectType) {
+        long timeToLive = Config.<Integer> getValue(ConfigValues.PermissionCacheTimeToLiveInSeconds) * 1000L;
+        if (timeToLive <= 0) {
+            return permissionDao.getEntityPermissions(userId, actionGroup, objectId, objectType);
+        }
+
+        PermissionKey key = new PermissionKey(userId, actionGroup, objectId, objectType);
+        long now = System.currentTimeMillis();
+        CachedPermission cached = permissions.get(key);
+        if (cached != null && cached.expirationTime > now) {
+            hits.incrementAndGet();
+            return cached.permissionId;
+        }
+
+        misses.incrementAndGet();
+        Guid permissionId = permissionDao.getEntityPermissions(userId, actionGroup, objectId, objectType);
+        if (permissionId != null) {
+            if (permissions.size() >= MAX_ENTRIES) {
+                permissions.clear();
+            }
+            permissions.put(key, new CachedPermission(permissionId, now + timeToLive));
+        } else if (cached != null) {
+            permissions.remove(key, cached);
+        }
+        return permissionId;
+    }
+
+    /**
+     * Invalidates the cached permissions of all the users. When called within a transaction, the cache is invalidated
+     * again once the transaction completes, so permissions which are looked up before the change is committed are
+     * not kept.
+     */
+    public void invalidate() {
+        invalidate(permissions::clear);
+    }
+
+    /**
+     * Invalidates the cached permissions of the given user, like {@link #invalidate()}.
+     */
+    public void invalidateUser(Guid userId) {
+        invalidate(() -> permissions.keySet().removeIf(key -> key.userId.equals(userId)));
+    }
+
+    /**
+     * Invalidates the lookups which found one of the given permissions, like {@link #invalidate()}.
+     */
+    public void invalidatePermissions(Collection<Guid> permissionIds) {
+        if (permissionIds.isEmpty()) {
+            return;
+        }
+        Set<Guid> removedIds = new HashSet<>(permissionIds);
+        invalidate(() -> permissions.values().removeIf(cached -> removedIds.contains(cached.permissionId)));
+    }
+
+    /**
+     * Invalidates the lookups of the given action group, like {@link #invalidate()}.
+     */
+    public void invalidateActionGroup(ActionGroup actionGroup) {
+        invalidate(() -> permissions.keySet().removeIf(key -> key.actionGroup == actionGroup));
+    }
+
+    private void invalidate(Runnable invalidation) {
+        doInvalidate(invalidation);
+        if (TransactionSupport.current() != null) {
+            TransactionSupport.registerRollbackHandler(new TransactionCompletionListener() {
+                @Override
+                public void onSuccess() {
+                    doInvalidate(invalidation);
+                }
+
+                @Override
+                public void onRollback() {
+                    doInvalidate(invalidation);
+                }
+            });
+        }
+    }
+
+    private void doInvalidate(Runnable invalidation) {
+        invalidation.run();
+        logInvalidation();
+    }
+
+    private void logInvalidation() {
+        long count = invalidations.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug("Permission cache invalidated, hits: {}, misses: {}, hit rate: {}%, invalidations: {}",
+                    getHits(),
+                    getMisses(),
+                    getHitRate(),
+                    count);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * @return the percentage of the lookups which were answered by the cache
+     */
+    public long getHitRate() {
+        long currentHits = hits.get();
+        long lookups = currentHits + misses.get();
+        return lookups == 0 ? 0 : currentHits * 100 / lookups;
+    }
+
+    private static class PermissionKey {
+        private final Guid userId;
+        private final ActionGroup actionGroup;
+        private final Guid objectId;
+        private final VdcObjectType objectType;
+
+        PermissionKey(Guid userId, ActionGroup actionGroup, Guid objectId, VdcObjectType objectType) {
+            this.userId = userId;
+            this.actionGroup = actionGroup;
+            this.objectId = objectId;
+            this.objectType = objectType;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PermissionKey)) {
+                return false;
+            }
+            PermissionKey other = (PermissionKey) obj;
+            return Objects.equals(userId, other.userId)
+                    && actionGroup == other.actionGroup
+                    && Objects.equals(objectId, other.objectId)
+                    && objectType == other.objectType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, actionGroup, objectId, objectType);
+        }
+    }
+
+    private static class CachedPermission {
+        private final Guid permissionId;
+        private final long expirationTime;
+
+        CachedPermission(Guid permissionId, long expirationTime) {
+            this.permissionId = permissionId;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
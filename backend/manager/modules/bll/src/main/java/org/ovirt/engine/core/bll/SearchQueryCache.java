@@ -0,0 +1,196 @@
+package org.ovirt.engine.core.bll;
+
+import java.lang.management.ManagementFactory;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.aaa.QueryData;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the SQL queries compiled from search expressions, so repeated searches do not have to be parsed and translated
+ * again. The cache is bounded both by size and by the age of the entries: entries older than the configured time to
+ * live are compiled again, and when the cache is full the entries are evicted in insertion order, giving entries which
+ * were read since the last eviction round a second chance.
+ */
+@Singleton
+public class SearchQueryCache implements SearchQueryCacheMonitorMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchQueryCache.class);
+
+    private final ConcurrentMap<String, CachedQuery> queries = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private int maxSize;
+    private long timeToLiveInMillis;
+    private ObjectName objectName;
+
+    public SearchQueryCache() {
+    }
+
+    SearchQueryCache(int maxSize, long timeToLiveInMillis) {
+        this.maxSize = maxSize;
+        this.timeToLiveInMillis = timeToLiveInMillis;
+    }
+
+    @PostConstruct
+    private void init() {
+        maxSize = Config.<Integer>getValue(ConfigValues.SearchQueryCacheMaxSize);
+        timeToLiveInMillis =
+                TimeUnit.MINUTES.toMillis(Config.<Integer>getValue(ConfigValues.SearchQueryCacheTimeToLiveInMinutes));
+        try {
+            objectName = new ObjectName("SearchQueryCache:type=" + SearchQueryCache.class.getName());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (Exception e) {
+            objectName = null;
+            log.warn("Failed to register the search query cache monitoring into JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    @PreDestroy
+    private void unregisterFromJMX() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (Exception e) {
+            log.warn("Failed to unregister the search query cache monitoring from JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    /**
+     * Returns the compiled query of the given search key
+     *
+     * @param searchKey
+     *            the key of the search, composed of the search expression and the parameters affecting its compilation
+     * @return the compiled query or {@code null} if it is not cached or it is too old
+     */
+    public QueryData get(String searchKey) {
+        CachedQuery cached = queries.get(searchKey);
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        if (isExpired(cached)) {
+            expirations.increment();
+            misses.increment();
+            return null;
+        }
+        cached.referenced = true;
+        hits.increment();
+        return cached.data;
+    }
+
+    public void put(String searchKey, QueryData data) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (queries.put(searchKey, new CachedQuery(data)) == null) {
+            insertionOrder.add(searchKey);
+            evictIfFull();
+        }
+    }
+
+    private boolean isExpired(CachedQuery cached) {
+        return System.currentTimeMillis() - cached.data.getDate() >= timeToLiveInMillis;
+    }
+
+    private void evictIfFull() {
+        // each entry gets a single second chance per round, so two rounds are enough to free a slot
+        int attempts = 2 * queries.size() + 1;
+        while (queries.size() > maxSize && attempts-- > 0) {
+            String searchKey = insertionOrder.poll();
+            if (searchKey == null) {
+                return;
+            }
+            CachedQuery cached = queries.get(searchKey);
+            if (cached == null) {
+                continue;
+            }
+            if (cached.referenced && !isExpired(cached)) {
+                cached.referenced = false;
+                insertionOrder.add(searchKey);
+            } else if (queries.remove(searchKey, cached)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return queries.size();
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public void clear() {
+        queries.clear();
+        insertionOrder.clear();
+    }
+
+    @Override
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        expirations.reset();
+        evictions.reset();
+    }
+
+    private static class CachedQuery {
+        private final QueryData data;
+        private volatile boolean referenced;
+
+        private CachedQuery(QueryData data) {
+            this.data = data;
+        }
+    }
+}
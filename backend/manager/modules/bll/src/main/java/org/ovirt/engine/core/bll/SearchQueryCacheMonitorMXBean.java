@@ -0,0 +1,52 @@
+package org.ovirt.engine.core.bll;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface SearchQueryCacheMonitorMXBean {
+
+    /**
+     * The following method will return the number of compiled queries currently kept in the cache
+     */
+    int getSize();
+
+    /**
+     * The following method will return the maximal number of compiled queries kept in the cache
+     */
+    int getMaxSize();
+
+    /**
+     * The following method will return the number of searches served from the cache
+     */
+    long getHitCount();
+
+    /**
+     * The following method will return the number of searches which had to be compiled
+     */
+    long getMissCount();
+
+    /**
+     * The following method will return the number of cached queries dropped because they were too old
+     */
+    long getExpirationCount();
+
+    /**
+     * The following method will return the number of cached queries dropped because the cache was full
+     */
+    long getEvictionCount();
+
+    /**
+     * The following method will return the ratio of searches served from the cache
+     */
+    double getHitRatio();
+
+    /**
+     * The following method will allow to clear the cache via JMX console
+     */
+    void clear();
+
+    /**
+     * The following method will reset all the collected statistics
+     */
+    void resetStatistics();
+}
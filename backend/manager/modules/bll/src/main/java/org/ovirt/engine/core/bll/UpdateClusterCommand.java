@@ -310,6 +310,8 @@ public class UpdateClusterCommand<T extends ManagementNetworkOnClusterOperationP
             getCompensationContext().stateChanged();
             return null;
         });
+        // the hosts are loaded together with the data of their cluster
+        invalidateCachedHosts();
 
         if (isAddedToStoragePool) {
             for (VDS vds : allForCluster) {
@@ -381,10 +383,15 @@ public class UpdateClusterCommand<T extends ManagementNetworkOnClusterOperationP
 
             return null;
         });
+        invalidateCachedHosts();
 
         setSucceeded(true);
     }
 
+    private void invalidateCachedHosts() {
+        resourceManager.invalidateCachedVds(allForCluster.stream().map(VDS::getId).collect(Collectors.toList()));
+    }
+
     private void updateDefaultNetworkProvider() {
         if (getCluster().hasDefaultNetworkProviderId(oldCluster.getDefaultNetworkProviderId())) {
             return;
@@ -110,6 +110,13 @@ public abstract class VdsCommand<T extends VdsActionParameters> extends CommandB
         runSleepOnReboot(VDSStatus.NonResponsive);
     }
 
+    /**
+     * Makes the monitoring reload the host from the DB, should be called after the host is changed in the DB directly.
+     */
+    protected void invalidateCachedVds(Guid vdsId) {
+        resourceManager.invalidateCachedVds(vdsId);
+    }
+
     protected void runSleepOnReboot(final VDSStatus status) {
         ThreadPoolUtil.execute(() -> sleepOnReboot(status));
     }
@@ -63,6 +63,7 @@ public class VdsPowerDownCommand<T extends VdsPowerDownParameters> extends VdsCo
                 vdsDynamicDao.updateVdsDynamicPowerManagementPolicyFlag(
                         getVdsId(),
                         getVds().getDynamicData().isPowerManagementControlledByPolicy());
+                invalidateCachedVds(getVdsId());
             }
 
         } else if (getParameters().getFallbackToPowerManagement() && getVds().isPmEnabled()) {
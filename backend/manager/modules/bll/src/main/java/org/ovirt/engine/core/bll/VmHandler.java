@@ -13,8 +13,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
@@ -401,6 +403,26 @@ public class VmHandler implements BackendService {
         updateDisksVmDataForVm(vm);
     }
 
+    /**
+     * Same as {@link #updateDisksFromDb(VM)} for many VMs, using a single query for the disks and a single query for
+     * the disk VM elements of all of them.
+     */
+    public void updateDisksFromDb(Collection<VM> vms) {
+        List<Guid> vmIds = vms.stream().map(VM::getId).collect(Collectors.toList());
+        Map<Guid, List<Disk>> disksByVm = diskDao.getAllForVms(vmIds);
+        Map<VmDeviceId, DiskVmElement> diskVmElements = diskVmElementDao.getAllForVms(vmIds, null, false)
+                .stream()
+                .collect(Collectors.toMap(DiskVmElement::getId, Function.identity()));
+        for (VM vm : vms) {
+            vm.clearDisks();
+            updateDisksForVm(vm, disksByVm.getOrDefault(vm.getId(), Collections.emptyList()));
+            for (Disk disk : vm.getDiskMap().values()) {
+                DiskVmElement dve = diskVmElements.get(new VmDeviceId(disk.getId(), vm.getId()));
+                disk.setDiskVmElements(Collections.singletonList(dve));
+            }
+        }
+    }
+
     public void updateDisksForVm(VM vm, Collection<? extends Disk> disks) {
         for (Disk disk : disks) {
             if (disk.isAllowSnapshot() && !disk.isDiskSnapshot()) {
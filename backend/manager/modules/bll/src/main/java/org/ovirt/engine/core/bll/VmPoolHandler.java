@@ -115,6 +115,13 @@ public class VmPoolHandler implements BackendService {
         return acquireLock(lock) ? vmId : Guid.Empty;
     }
 
+    /**
+     * Releases the lock of a VM which was selected with its lock left acquired, but is not going to be run.
+     */
+    public void releaseVm(Guid vmId) {
+        lockManager.releaseLock(createLock(vmId));
+    }
+
     private Stream<Guid> selectVms(Guid vmPoolId, VMStatus vmStatus, Predicate<Guid> vmIdFilter, boolean leaveLocked) {
         List<VmPoolMap> vmPoolMaps = vmPoolDao.getVmMapsInVmPoolByVmPoolIdAndStatus(vmPoolId, vmStatus);
         if (vmPoolMaps == null) {
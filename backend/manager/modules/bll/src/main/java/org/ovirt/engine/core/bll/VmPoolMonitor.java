@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.bll;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -20,6 +21,8 @@ import javax.inject.Singleton;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.ovirt.engine.core.bll.interfaces.BackendInternal;
 import org.ovirt.engine.core.bll.job.ExecutionHandler;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
+import org.ovirt.engine.core.bll.scheduling.SchedulingParameters;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.BackendService;
 import org.ovirt.engine.core.common.VdcObjectType;
@@ -27,6 +30,7 @@ import org.ovirt.engine.core.common.action.ActionReturnValue;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.RunVmParams;
 import org.ovirt.engine.core.common.asynctasks.EntityInfo;
+import org.ovirt.engine.core.common.businessentities.Cluster;
 import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.common.businessentities.VmPool;
 import org.ovirt.engine.core.common.businessentities.VmStatic;
@@ -37,6 +41,7 @@ import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogable;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogableImpl;
+import org.ovirt.engine.core.dao.ClusterDao;
 import org.ovirt.engine.core.dao.VmDao;
 import org.ovirt.engine.core.dao.VmPoolDao;
 import org.ovirt.engine.core.dao.VmStaticDao;
@@ -65,6 +70,10 @@ public class VmPoolMonitor implements BackendService {
     @Inject
     private VmStaticDao vmStaticDao;
     @Inject
+    private ClusterDao clusterDao;
+    @Inject
+    private SchedulingManager schedulingManager;
+    @Inject
     protected BackendInternal backend;
     @Inject
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
@@ -148,6 +157,11 @@ public class VmPoolMonitor implements BackendService {
 
     /***
      * Prestarts the given amount of VMs in the given VM Pool.
+     *
+     * The VMs are selected in batches. Hosts for all the VMs of a batch are selected by a single pass of the
+     * scheduler before the VMs are started, so starting them does not filter and weigh all the cluster hosts again
+     * for every VM. All the VMs of a batch are locked when selected, the ones which are not attempted because too
+     * many attempts failed are unlocked again.
      */
     private void prestartVms(VmPool vmPool, int numOfVmsToPrestart) {
         int failedAttempts = 0;
@@ -162,12 +176,25 @@ public class VmPoolMonitor implements BackendService {
                         .iterator();
         while (failedAttempts < maxFailedAttempts && prestartedVms < numOfVmsToPrestart
                 && iterator.hasNext()) {
-            Guid vmId = iterator.next();
-            if (prestartVm(vmId, !vmPool.isStateful(), vmPool.getName())) {
-                prestartedVms++;
-                failedAttempts = 0;
-            } else {
-                failedAttempts++;
+            List<Guid> batch = new ArrayList<>();
+            while (batch.size() < numOfVmsToPrestart - prestartedVms && iterator.hasNext()) {
+                batch.add(iterator.next());
+            }
+
+            reserveHostsForVms(vmPool, batch);
+            try {
+                for (Guid vmId : batch) {
+                    if (failedAttempts >= maxFailedAttempts) {
+                        vmPoolHandler.releaseVm(vmId);
+                    } else if (prestartVm(vmId, !vmPool.isStateful(), vmPool.getName())) {
+                        prestartedVms++;
+                        failedAttempts = 0;
+                    } else {
+                        failedAttempts++;
+                    }
+                }
+            } finally {
+                schedulingManager.releaseReservedPlacements(batch);
             }
         }
 
@@ -181,6 +208,31 @@ public class VmPoolMonitor implements BackendService {
         }
     }
 
+    /**
+     * Selects hosts for the given VMs of the pool in a single scheduling pass. VMs which cannot be placed are
+     * scheduled again, one by one, when they are started.
+     */
+    private void reserveHostsForVms(VmPool vmPool, List<Guid> vmIds) {
+        if (vmIds.size() < 2) {
+            return;
+        }
+
+        Cluster cluster = clusterDao.get(vmPool.getClusterId());
+        Set<Guid> batchIds = new HashSet<>(vmIds);
+        List<VM> vms = vmDao.getAllForVmPool(vmPool.getVmPoolId()).stream()
+                .filter(vm -> batchIds.contains(vm.getId()))
+                .collect(Collectors.toList());
+        Map<Guid, Guid> placements = schedulingManager.scheduleBatch(cluster,
+                vms,
+                new SchedulingParameters(),
+                new HashMap<>(),
+                null);
+        log.debug("Reserved hosts for {} out of {} VMs of VmPool '{}'",
+                placements.size(),
+                vmIds.size(),
+                vmPool.getVmPoolId());
+    }
+
     private void collectVmPrestartFailureReasons(Guid vmId, Map<String, Set<Guid>> failureReasons, List<String> messages) {
         String reason = messages.stream()
                 .filter(EngineMessage::contains)
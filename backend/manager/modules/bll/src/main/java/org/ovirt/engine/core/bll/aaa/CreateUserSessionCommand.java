@@ -18,6 +18,7 @@ import org.ovirt.engine.core.aaa.AuthenticationProfileRepository;
 import org.ovirt.engine.core.aaa.CreateUserSessionsError;
 import org.ovirt.engine.core.bll.CommandBase;
 import org.ovirt.engine.core.bll.NonTransactiveCommandAttribute;
+import org.ovirt.engine.core.bll.PermissionCache;
 import org.ovirt.engine.core.bll.context.CommandContext;
 import org.ovirt.engine.core.bll.utils.PermissionSubject;
 import org.ovirt.engine.core.common.AuditLogType;
@@ -49,6 +50,8 @@ public class CreateUserSessionCommand<T extends CreateUserSessionParameters> ext
     private DbGroupDao dbGroupDao;
     @Inject
     private RoleDao roleDao;
+    @Inject
+    private PermissionCache permissionCache;
 
     private static final String UNKNOWN = "UNKNOWN";
     private static final String OVIRT_ADMINISTRATOR = "ovirt-administrator";
@@ -105,6 +108,8 @@ public class CreateUserSessionCommand<T extends CreateUserSessionParameters> ext
             dbUserDao.save(user);
         } else if (!dbUser.equals(user)) {
             dbUserDao.update(user);
+            // the groups of the user may have changed
+            permissionCache.invalidateUser(user.getId());
         }
         return user;
     }
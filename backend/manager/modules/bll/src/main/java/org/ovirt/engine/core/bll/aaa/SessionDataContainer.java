@@ -1,9 +1,11 @@
 package org.ovirt.engine.core.bll.aaa;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -12,7 +14,6 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
@@ -58,13 +59,21 @@ public class SessionDataContainer {
 
     private ConcurrentMap<String, SessionInfo> sessionInfoMap = new ConcurrentHashMap<>();
 
+    /**
+     * Indexes of the sessions by their engine session sequence id and by their SSO access token, so validating a token
+     * or looking a session up does not scan all the sessions. They are updated when the attributes are set and when
+     * the session is removed.
+     */
+    private ConcurrentMap<Long, String> sessionIdBySeqId = new ConcurrentHashMap<>();
+
+    private ConcurrentMap<String, Set<String>> sessionIdsBySsoAccessToken = new ConcurrentHashMap<>();
+
     private static final String USER_PARAMETER_NAME = "user";
     private static final String SOURCE_IP = "source_ip";
     private static final String PROFILE_PARAMETER_NAME = "profile";
     private static final String HARD_LIMIT_PARAMETER_NAME = "hard_limit";
     private static final String SOFT_LIMIT_PARAMETER_NAME = "soft_limit";
     private static final String ENGINE_SESSION_SEQ_ID = "engine_session_seq_id";
-    private static final String ENGINE_SESSION_ID = "engine_session_id";
     private static final String PRINCIPAL_PARAMETER_NAME = "username";
     private static final String SSO_ACCESS_TOKEN_PARAMETER_NAME = "sso_access_token";
     private static final String SSO_IS_OVIRT_APP_API_SCOPE_PARAMETER_NAME = "sso_is_ovirt_app_api_scope";
@@ -125,7 +134,6 @@ public class SessionDataContainer {
         SessionInfo sessionInfo = getSessionInfo(sessionId);
         if (sessionInfo == null) {
             sessionInfo = new SessionInfo();
-            sessionInfo.contentOfSession.put(ENGINE_SESSION_ID, sessionId);
             // Add default soft-limit interval for new sessions
             sessionInfo.contentOfSession.put(SOFT_LIMIT_INTERVAL_PARAMETER_NAME,
                     Config.<Integer> getValue(ConfigValues.UserSessionTimeOutInterval));
@@ -134,7 +142,34 @@ public class SessionDataContainer {
                 sessionInfo = oldSessionInfo;
             }
         }
-        sessionInfo.contentOfSession.put(key, value);
+        Object oldValue = sessionInfo.contentOfSession.put(key, value);
+        updateIndexes(sessionId, key, oldValue, value);
+    }
+
+    private void updateIndexes(String sessionId, String key, Object oldValue, Object value) {
+        if (ENGINE_SESSION_SEQ_ID.equals(key)) {
+            if (oldValue != null) {
+                sessionIdBySeqId.remove(oldValue, sessionId);
+            }
+            if (value != null) {
+                sessionIdBySeqId.put((Long) value, sessionId);
+            }
+        } else if (SSO_ACCESS_TOKEN_PARAMETER_NAME.equals(key)) {
+            if (oldValue != null) {
+                removeFromSsoAccessTokenIndex((String) oldValue, sessionId);
+            }
+            if (value != null) {
+                sessionIdsBySsoAccessToken.computeIfAbsent((String) value, k -> ConcurrentHashMap.newKeySet())
+                        .add(sessionId);
+            }
+        }
+    }
+
+    private void removeFromSsoAccessTokenIndex(String ssoToken, String sessionId) {
+        sessionIdsBySsoAccessToken.computeIfPresent(ssoToken, (token, sessionIds) -> {
+            sessionIds.remove(sessionId);
+            return sessionIds.isEmpty() ? null : sessionIds;
+        });
     }
 
     private SessionInfo getSessionInfo(String sessionId) {
@@ -144,7 +179,8 @@ public class SessionDataContainer {
     private void persistEngineSession(String sessionId) {
         SessionInfo sessionInfo = getSessionInfo(sessionId);
         if (sessionInfo != null) {
-            sessionInfo.contentOfSession.put(ENGINE_SESSION_SEQ_ID,
+            setData(sessionId,
+                    ENGINE_SESSION_SEQ_ID,
                     engineSessionDao.save(new EngineSession(getUser(sessionId, false), sessionId, getSourceIp(sessionId))));
             setSessionStartTime(sessionId);
         }
@@ -158,24 +194,16 @@ public class SessionDataContainer {
     }
 
     public String getSessionIdBySeqId(long sessionSequenceId) {
-        String sessionId = null;
-        for (SessionInfo sessionInfo : sessionInfoMap.values()) {
-            if (Long.valueOf(sessionSequenceId).equals(sessionInfo.contentOfSession.get(ENGINE_SESSION_SEQ_ID))) {
-                sessionId = (String) sessionInfo.contentOfSession.get(ENGINE_SESSION_ID);
-                break;
-            }
-        }
-        return sessionId;
+        return sessionIdBySeqId.get(sessionSequenceId);
     }
 
     public String getSessionIdBySsoAccessToken(String ssoToken) {
         String sessionId = null;
         if (StringUtils.isNotEmpty(ssoToken)) {
-            for (SessionInfo sessionInfo : sessionInfoMap.values()) {
-                if (ssoToken.equals(sessionInfo.contentOfSession.get(SSO_ACCESS_TOKEN_PARAMETER_NAME))) {
-                    sessionId = (String) sessionInfo.contentOfSession.get(ENGINE_SESSION_ID);
-                    break;
-                }
+            Set<String> sessionIds = sessionIdsBySsoAccessToken.getOrDefault(ssoToken, Collections.emptySet());
+            Iterator<String> iter = sessionIds.iterator();
+            if (iter.hasNext()) {
+                sessionId = iter.next();
             }
         }
         return sessionId;
@@ -187,16 +215,12 @@ public class SessionDataContainer {
 
     public void cleanupEngineSessionsForSsoAccessToken(String ssoAccessToken) {
         if (StringUtils.isNotEmpty(ssoAccessToken)) {
-            Iterator<Entry<String, SessionInfo>> iter = sessionInfoMap.entrySet().iterator();
-            while (iter.hasNext()) {
-                Entry<String, SessionInfo> entry = iter.next();
-                ConcurrentMap<String, Object> sessionMap = entry.getValue().contentOfSession;
-                if (ssoAccessToken.equals(sessionMap.get(SSO_ACCESS_TOKEN_PARAMETER_NAME))) {
-                    removeSessionImpl(entry.getKey(),
-                            Acct.ReportReason.PRINCIPAL_SESSION_EXPIRED,
-                            "Session has expired for principal %1$s",
-                            getUserName(entry.getKey()));
-                }
+            Set<String> sessionIds = sessionIdsBySsoAccessToken.getOrDefault(ssoAccessToken, Collections.emptySet());
+            for (String sessionId : new ArrayList<>(sessionIds)) {
+                removeSessionImpl(sessionId,
+                        Acct.ReportReason.PRINCIPAL_SESSION_EXPIRED,
+                        "Session has expired for principal %1$s",
+                        getUserName(sessionId));
             }
         }
     }
@@ -229,9 +253,7 @@ public class SessionDataContainer {
     public final void cleanExpiredUsersSessionsImpl() {
         Date now = new Date();
         Iterator<Entry<String, SessionInfo>>  iter = sessionInfoMap.entrySet().iterator();
-        Set<String> tokens = sessionInfoMap.values().stream()
-                .map(sessionInfo -> (String) sessionInfo.contentOfSession.get(SSO_ACCESS_TOKEN_PARAMETER_NAME))
-                .collect(Collectors.toSet());
+        Set<String> tokens = new HashSet<>(sessionIdsBySsoAccessToken.keySet());
         // retrieve session statues from SSO
         Map<String, Boolean> sessionStatuses = ssoSessionValidator.getSessionStatuses(tokens);
 
@@ -452,7 +474,15 @@ public class SessionDataContainer {
                 msgArgs
                 );
         engineSessionDao.remove(getEngineSessionSeqId(sessionId));
-        sessionInfoMap.remove(sessionId);
+        SessionInfo sessionInfo = sessionInfoMap.remove(sessionId);
+        if (sessionInfo != null) {
+            ConcurrentMap<String, Object> sessionMap = sessionInfo.contentOfSession;
+            updateIndexes(sessionId, ENGINE_SESSION_SEQ_ID, sessionMap.get(ENGINE_SESSION_SEQ_ID), null);
+            updateIndexes(sessionId,
+                    SSO_ACCESS_TOKEN_PARAMETER_NAME,
+                    sessionMap.get(SSO_ACCESS_TOKEN_PARAMETER_NAME),
+                    null);
+        }
     }
 
     class SsoSessionValidator {
@@ -5,11 +5,21 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -62,6 +72,7 @@ import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogable;
 import org.ovirt.engine.core.dao.gluster.GlusterDBUtils;
 import org.ovirt.engine.core.utils.lock.EngineLock;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.utils.timer.OnTimerMethodAnnotation;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.slf4j.Logger;
@@ -87,6 +98,14 @@ public class GlusterSyncJob extends GlusterJob {
     @Inject
     private GlusterThinDeviceService thinDeviceService;
 
+    /**
+     * The clusters whose data of each kind is being refreshed. A cluster is not refreshed again while its previous
+     * refresh is still running, e.g. after the job stopped waiting for it because a server did not respond.
+     */
+    private final Set<Guid> lightWeightRefreshes = ConcurrentHashMap.newKeySet();
+    private final Set<Guid> heavyWeightRefreshes = ConcurrentHashMap.newKeySet();
+    private final Set<Guid> selfHealRefreshes = ConcurrentHashMap.newKeySet();
+
     @Override
     public Collection<GlusterJobSchedulingDetails> getSchedulingDetails() {
         return Arrays.asList(
@@ -111,19 +130,119 @@ public class GlusterSyncJob extends GlusterJob {
     @OnTimerMethodAnnotation("refreshLightWeightData")
     public void refreshLightWeightData() {
         log.debug("Refreshing Gluster Data [lightweight]");
-        List<Cluster> clusters = clusterDao.getAll();
+        refreshClusters("lightweight", lightWeightRefreshes, this::refreshClusterData);
+    }
 
-        for (Cluster cluster : clusters) {
-            if (cluster.supportsGlusterService()) {
-                try {
-                    refreshClusterData(cluster);
-                } catch (Exception e) {
-                    log.error("Error while refreshing Gluster lightweight data of cluster '{}': {}",
-                            cluster.getName(),
-                            e.getMessage());
-                    log.debug("Exception", e);
-                }
+    /**
+     * Refreshes the data of the clusters which support the gluster service. The clusters are refreshed in parallel by
+     * up to <code>GlusterRefreshThreads</code> threads of the engine thread pool, so a cluster whose servers respond
+     * slowly does not delay the refresh of the other clusters. The job stops waiting for the refresh of a cluster
+     * after <code>GlusterRefreshClusterTimeoutInSecs</code>, the refresh goes on in the background and the cluster is
+     * skipped by the following runs until it ends. Such a refresh still holds its thread, so it is counted against
+     * <code>GlusterRefreshThreads</code> until it ends, and the clusters are skipped while these refreshes hold all
+     * the threads.
+     *
+     * @param dataName
+     *            the kind of data refreshed, for the log
+     * @param runningRefreshes
+     *            the clusters whose refresh of this kind of data is running
+     * @param refresher
+     *            refreshes the data of a cluster
+     */
+    void refreshClusters(String dataName, Set<Guid> runningRefreshes, Consumer<Cluster> refresher) {
+        int threads = Config.<Integer> getValue(ConfigValues.GlusterRefreshThreads);
+        long timeout = TimeUnit.SECONDS.toMillis(
+                Config.<Integer> getValue(ConfigValues.GlusterRefreshClusterTimeoutInSecs));
+        CompletionService<Cluster> completionService = threads > 1 ? ThreadPoolUtil.createCompletionService() : null;
+        // the time by which the refresh of each running cluster should end, the earliest first
+        Map<Cluster, Long> deadlines = new LinkedHashMap<>();
+
+        for (Cluster cluster : clusterDao.getAll()) {
+            if (!cluster.supportsGlusterService()) {
+                continue;
+            }
+            if (!runningRefreshes.add(cluster.getId())) {
+                log.warn("Skipping refreshing Gluster {} data of cluster '{}', its previous refresh is still running",
+                        dataName,
+                        cluster.getName());
+                continue;
+            }
+
+            Runnable refresh = () -> refreshCluster(dataName, cluster, runningRefreshes, refresher);
+            if (completionService == null) {
+                refresh.run();
+                continue;
+            }
+            // the running refreshes, other than the one of this cluster, include those the job stopped waiting for
+            while (runningRefreshes.size() > threads && !deadlines.isEmpty()) {
+                awaitClusterRefresh(dataName, completionService, deadlines);
+            }
+            if (runningRefreshes.size() > threads) {
+                runningRefreshes.remove(cluster.getId());
+                log.warn("Skipping refreshing Gluster {} data of cluster '{}', all the {} refresh threads are held by "
+                                + "refreshes which did not end in time",
+                        dataName,
+                        cluster.getName(),
+                        threads);
+                continue;
+            }
+            try {
+                completionService.submit(refresh, cluster);
+                deadlines.put(cluster, System.currentTimeMillis() + timeout);
+            } catch (RejectedExecutionException e) {
+                refresh.run();
+            }
+        }
+
+        while (!deadlines.isEmpty()) {
+            awaitClusterRefresh(dataName, completionService, deadlines);
+        }
+    }
+
+    private void refreshCluster(String dataName,
+            Cluster cluster,
+            Set<Guid> runningRefreshes,
+            Consumer<Cluster> refresher) {
+        try {
+            refresher.accept(cluster);
+        } catch (Exception e) {
+            log.error("Error while refreshing Gluster {} data of cluster '{}': {}",
+                    dataName,
+                    cluster.getName(),
+                    e.getMessage());
+            log.debug("Exception", e);
+        } finally {
+            runningRefreshes.remove(cluster.getId());
+        }
+    }
+
+    /**
+     * Waits until the refresh of one of the running clusters ends, or until the earliest deadline passes, in which
+     * case the job stops waiting for that cluster.
+     */
+    private void awaitClusterRefresh(String dataName,
+            CompletionService<Cluster> completionService,
+            Map<Cluster, Long> deadlines) {
+        Entry<Cluster, Long> earliest = deadlines.entrySet().iterator().next();
+        try {
+            Future<Cluster> done = completionService.poll(
+                    Math.max(0, earliest.getValue() - System.currentTimeMillis()),
+                    TimeUnit.MILLISECONDS);
+            if (done != null) {
+                deadlines.remove(done.get());
+            } else {
+                deadlines.remove(earliest.getKey());
+                log.warn("Refreshing Gluster {} data of cluster '{}' did not end in time, it is skipped until it ends",
+                        dataName,
+                        earliest.getKey().getName());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deadlines.clear();
+        } catch (ExecutionException e) {
+            // the refresh of a cluster handles its exceptions, only errors get here
+            log.error("Error while refreshing Gluster {} data: {}", dataName, e.getMessage());
+            log.debug("Exception", e);
         }
     }
 
@@ -460,8 +579,11 @@ public class GlusterSyncJob extends GlusterJob {
             // remove deleted volumes must happen before adding new ones,
             // to handle cases where user deleted a volume and created a
             // new one with same name in a very short time
-            removeDeletedVolumes(cluster.getId(), volumesMap);
-            updateExistingAndNewVolumes(cluster.getId(), volumesMap);
+            Map<Guid, GlusterVolumeEntity> existingVolumes = volumeDao.getByClusterId(cluster.getId())
+                    .stream()
+                    .collect(Collectors.toMap(GlusterVolumeEntity::getId, Function.identity()));
+            removeDeletedVolumes(cluster.getId(), existingVolumes.values(), volumesMap);
+            updateExistingAndNewVolumes(cluster.getId(), existingVolumes, volumesMap);
         } finally {
             releaseLock(cluster.getId());
         }
@@ -496,9 +618,11 @@ public class GlusterSyncJob extends GlusterJob {
         return result.getSucceeded() ? (Map<Guid, GlusterVolumeEntity>) result.getReturnValue() : null;
     }
 
-    private void removeDeletedVolumes(Guid clusterId, Map<Guid, GlusterVolumeEntity> volumesMap) {
+    private void removeDeletedVolumes(Guid clusterId,
+            Collection<GlusterVolumeEntity> existingVolumes,
+            Map<Guid, GlusterVolumeEntity> volumesMap) {
         List<Guid> idsToRemove = new ArrayList<>();
-        for (GlusterVolumeEntity volume : volumeDao.getByClusterId(clusterId)) {
+        for (GlusterVolumeEntity volume : existingVolumes) {
             if (!volumesMap.containsKey(volume.getId())) {
                 idsToRemove.add(volume.getId());
                 log.debug("Volume '{}' has been removed directly using the gluster CLI. Removing it from engine as well.",
@@ -523,14 +647,16 @@ public class GlusterSyncJob extends GlusterJob {
         }
     }
 
-    private void updateExistingAndNewVolumes(Guid clusterId, Map<Guid, GlusterVolumeEntity> volumesMap) {
+    private void updateExistingAndNewVolumes(Guid clusterId,
+            Map<Guid, GlusterVolumeEntity> existingVolumes,
+            Map<Guid, GlusterVolumeEntity> volumesMap) {
         Cluster cluster = clusterDao.get(clusterId);
 
         for (Entry<Guid, GlusterVolumeEntity> entry : volumesMap.entrySet()) {
             GlusterVolumeEntity volume = entry.getValue();
             log.debug("Analyzing volume '{}'", volume.getName());
 
-            GlusterVolumeEntity existingVolume = volumeDao.getById(entry.getKey());
+            GlusterVolumeEntity existingVolume = existingVolumes.get(entry.getKey());
             if (existingVolume == null) {
                 try {
                     createVolume(volume);
@@ -914,19 +1040,7 @@ public class GlusterSyncJob extends GlusterJob {
     @OnTimerMethodAnnotation("refreshHeavyWeightData")
     public void refreshHeavyWeightData() {
         log.debug("Refreshing Gluster Data [heavyweight]");
-
-        for (Cluster cluster : clusterDao.getAll()) {
-            if (cluster.supportsGlusterService()) {
-                try {
-                    refreshClusterHeavyWeightData(cluster);
-                } catch (Exception e) {
-                    log.error("Error while refreshing Gluster heavyweight data of cluster '{}': {}",
-                            cluster.getName(),
-                            e.getMessage());
-                    log.debug("Exception", e);
-                }
-            }
-        }
+        refreshClusters("heavyweight", heavyWeightRefreshes, this::refreshClusterHeavyWeightData);
     }
 
     private void refreshClusterHeavyWeightData(Cluster cluster) {
@@ -1100,20 +1214,7 @@ public class GlusterSyncJob extends GlusterJob {
     @OnTimerMethodAnnotation("refreshSelfHealInfo")
     public void refreshSelfHealInfo() {
         log.debug("Refreshing Gluster Self Heal Data");
-
-        for (Cluster cluster : clusterDao.getAll()) {
-            if (cluster.supportsGlusterService()) {
-                try {
-                    refreshSelfHealData(cluster);
-                } catch (Exception e) {
-                    log.error("Error while refreshing Gluster self heal data of cluster '{}': {}",
-                            cluster.getName(),
-                            e.getMessage());
-                    log.debug("Exception", e);
-                }
-            }
-        }
-
+        refreshClusters("self heal", selfHealRefreshes, this::refreshSelfHealData);
         log.debug("Refreshing Gluster Self Heal data is completed");
     }
 
@@ -262,6 +262,7 @@ public class UpdateVdsCommand<T extends UpdateVdsActionParameters>  extends VdsC
             public Void runInTransaction() {
                 getCompensationContext().snapshotEntity(getVds().getStaticData());
                 vdsStaticDao.update(getParameters().getVdsStaticData());
+                invalidateCachedVds(getVdsId());
                 updateFenceAgents();// TODO: what compensation needed for fencing?
                 getCompensationContext().stateChanged();
                 return null;
@@ -124,6 +124,7 @@ public class UpgradeHostInternalCommand<T extends UpgradeHostParameters> extends
         VdsDynamic dynamicHostData = vdsDynamicDao.get(getVdsId());
         dynamicHostData.setUpdateAvailable(false);
         vdsDynamicDao.update(dynamicHostData);
+        invalidateCachedVds(getVdsId());
 
         if (getVds().getVdsType() == VDSType.VDS && !getParameters().isReboot()) {
             if (getParameters().getInitialStatus() == VDSStatus.Maintenance) {
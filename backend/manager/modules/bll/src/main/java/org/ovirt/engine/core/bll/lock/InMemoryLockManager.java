@@ -9,10 +9,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -26,16 +28,25 @@ import javax.ejb.TransactionAttributeType;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
 
+import org.ovirt.engine.core.bll.utils.DurationHistogram;
 import org.ovirt.engine.core.common.errors.EngineMessage;
 import org.ovirt.engine.core.common.locks.LockInfo;
 import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.utils.EngineLocalConfig;
 import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.lock.LockManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * The following class an implementation of internal locking mechanism
+ * The following class an implementation of internal locking mechanism.
+ *
+ * The locks are kept in a number of stripes, every stripe is guarded by its own monitor and a key is always mapped to
+ * the same stripe. An {@link EngineLock} which contains several keys locks all the stripes of its keys in ascending
+ * order, so acquiring it remains an all-or-nothing operation and no deadlock is possible between two multi-key locks.
+ * With a single stripe (the default) the behaviour is the same as a single global lock. Threads waiting in
+ * {@link #acquireLockWait(EngineLock)} are queued on the key which prevented them from acquiring the lock and are woken
+ * up only when that key is released.
  */
 @Startup
 @Singleton(name = "LockManager")
@@ -45,19 +56,51 @@ import org.slf4j.LoggerFactory;
 public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBean {
 
     private static final Pair<Boolean, Set<String>> LOCK_INSERT_SUCCESS_RESULT = new Pair<>(Boolean.TRUE, Collections.<String>emptySet());
-    /** A map which is contains all internal representation of locks **/
-    private final Map<String, InternalLockView> locks = new HashMap<>();
-    /** A lock which is used to synchronized acquireLock(), acquireLockWait() and releaseLock() operations **/
-    private final Lock globalLock = new ReentrantLock();
-    /** A condition which is used in order to notify for waiting threads that some lock was released**/
-    private final Condition releasedLock = globalLock.newCondition();
+    private static final String LOCK_MANAGER_STRIPES = "ENGINE_LOCK_MANAGER_STRIPES";
+    private static final int DEFAULT_STRIPES_COUNT = 1;
+    private static final int MAX_STRIPES_COUNT = 1024;
+
+    /** The stripes which contain all internal representation of locks **/
+    private LockStripe[] stripes;
+
+    /** Number of acquire attempts which failed because of a conflicting lock **/
+    private final LongAdder failedAcquisitions = new LongAdder();
+    /** Time spent waiting for a stripe monitor which was held by another thread **/
+    private final DurationHistogram stripeContention = new DurationHistogram();
+    /** Time spent inside acquireLockWait() until the lock was acquired **/
+    private final DurationHistogram lockWaitTime = new DurationHistogram();
 
     private MBeanServer platformMBeanServer;
     private ObjectName objectName = null;
     private static final Logger log = LoggerFactory.getLogger(InMemoryLockManager.class);
 
+    public InMemoryLockManager() {
+        this(DEFAULT_STRIPES_COUNT);
+    }
+
+    InMemoryLockManager(int stripesCount) {
+        initStripes(stripesCount);
+    }
+
     @PostConstruct
-    public void registerInJMX() {
+    public void init() {
+        initStripes(EngineLocalConfig.getInstance().getInteger(LOCK_MANAGER_STRIPES, DEFAULT_STRIPES_COUNT));
+        registerInJMX();
+    }
+
+    private void initStripes(int stripesCount) {
+        if (stripesCount < 1 || stripesCount > MAX_STRIPES_COUNT) {
+            log.warn("Invalid number of lock manager stripes '{}', using '{}'", stripesCount, DEFAULT_STRIPES_COUNT);
+            stripesCount = DEFAULT_STRIPES_COUNT;
+        }
+        stripes = new LockStripe[stripesCount];
+        for (int i = 0; i < stripesCount; i++) {
+            stripes[i] = new LockStripe();
+        }
+        log.info("In memory lock manager is using {} lock stripe(s)", stripesCount);
+    }
+
+    private void registerInJMX() {
         try {
             objectName = new ObjectName("InMemoryLockManager:type=" + this.getClass().getName());
             platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
@@ -79,11 +122,11 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     @Override
     public Pair<Boolean, Set<String>> acquireLock(EngineLock lock) {
         log.debug("Before acquiring lock '{}'", lock);
-        globalLock.lock();
+        List<LockStripe> lockedStripes = lockStripes(lock);
         try {
             return acquireLockInternal(lock);
         } finally {
-            globalLock.unlock();
+            unlockStripes(lockedStripes);
         }
     }
 
@@ -91,16 +134,16 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     public void acquireLockWait(EngineLock lock) {
         log.debug("Before acquiring and wait lock '{}'", lock);
         validateLockForAcquireAndWait(lock);
-        globalLock.lock();
+        long start = System.nanoTime();
         try {
-            while (!acquireLockInternal(lock).getFirst()) {
+            while (!acquireLock(lock).getFirst()) {
                 log.info("Failed to acquire lock and wait lock '{}'", lock);
-                releasedLock.await();
+                awaitRelease(lock);
             }
         } catch (InterruptedException ignore) {
 
         } finally {
-            globalLock.unlock();
+            lockWaitTime.record(System.nanoTime() - start);
         }
     }
 
@@ -111,10 +154,59 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         }
     }
 
+    /**
+     * The following method blocks until one of the keys which prevented the given lock from being acquired is
+     * released. If the conflicting key was already released in the meantime, the method returns immediately so the
+     * caller can retry.
+     */
+    private void awaitRelease(EngineLock lock) throws InterruptedException {
+        if (lock.getSharedLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getSharedLocks().entrySet()) {
+                if (awaitRelease(buildHashMapKey(entry), false)) {
+                    return;
+                }
+            }
+        }
+        if (lock.getExclusiveLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getExclusiveLocks().entrySet()) {
+                if (awaitRelease(buildHashMapKey(entry), true)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits on the queue of the given key if the key still conflicts with the requested lock type
+     * @return true if the thread has waited, false if the key does not conflict anymore
+     */
+    private boolean awaitRelease(String key, boolean exclusive) throws InterruptedException {
+        LockStripe stripe = getStripe(key);
+        lockStripe(stripe);
+        try {
+            InternalLockView lock = stripe.locks.get(key);
+            if (lock == null || !exclusive && !lock.getExclusive()) {
+                return false;
+            }
+            KeyWaitQueue waitQueue = stripe.waitQueues.computeIfAbsent(key, k -> new KeyWaitQueue(stripe.monitor));
+            waitQueue.waiters++;
+            try {
+                waitQueue.released.await();
+            } finally {
+                if (--waitQueue.waiters == 0) {
+                    stripe.waitQueues.remove(key);
+                }
+            }
+            return true;
+        } finally {
+            stripe.monitor.unlock();
+        }
+    }
+
     @Override
     public void releaseLock(EngineLock lock) {
         log.debug("Before releasing a lock '{}'", lock);
-        globalLock.lock();
+        List<LockStripe> lockedStripes = lockStripes(lock);
         try {
             if (lock.getSharedLocks() != null) {
                 lock.getSharedLocks().entrySet().stream().forEach(entry ->
@@ -124,21 +216,22 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
                 lock.getExclusiveLocks().entrySet().stream().forEach(entry ->
                     releaseExclusiveLock(buildHashMapKey(entry)));
             }
-            releasedLock.signalAll();
         } finally {
-            globalLock.unlock();
+            unlockStripes(lockedStripes);
         }
     }
 
     @Override
     public void clear() {
         log.warn("Cleaning all in memory locks");
-        globalLock.lock();
-        try {
-            locks.clear();
-            releasedLock.signalAll();
-        } finally {
-            globalLock.unlock();
+        for (LockStripe stripe : stripes) {
+            lockStripe(stripe);
+            try {
+                stripe.locks.clear();
+                stripe.waitQueues.values().forEach(waitQueue -> waitQueue.released.signalAll());
+            } finally {
+                stripe.monitor.unlock();
+            }
         }
     }
 
@@ -147,9 +240,10 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         log.warn("The following lock is going to be released via external call, lockId '{}', error message can be"
                 + " left for shared lock",
                 lockId);
-        globalLock.lock();
+        LockStripe stripe = getStripe(lockId);
+        lockStripe(stripe);
         try {
-            InternalLockView lock = locks.get(lockId);
+            InternalLockView lock = stripe.locks.get(lockId);
             if (lock == null) {
                 log.warn("Lock with id '{}' does not exist and can not be released via external call", lockId);
                 return false;
@@ -159,26 +253,72 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
             } else {
                 releaseSharedLock(lockId, null);
             }
-            releasedLock.signalAll();
         } finally {
-            globalLock.unlock();
+            stripe.monitor.unlock();
         }
         log.warn("Lock '{}' was released via external call", lockId);
         return true;
     }
 
+    /**
+     * The locks are shown without taking the stripe monitors, the result is a weakly consistent view of the locks
+     */
     @Override
     public List<String> showAllLocks() {
         log.debug("All in memory locks will be shown");
-        globalLock.lock();
         try {
-            return locks.entrySet().stream().map(this::createLockDescription).collect(Collectors.toList());
+            List<String> result = new ArrayList<>();
+            for (LockStripe stripe : stripes) {
+                stripe.locks.entrySet().stream().map(this::createLockDescription).forEach(result::add);
+            }
+            return result;
         } finally {
-            globalLock.unlock();
             log.debug("All in memory locks were shown");
         }
     }
 
+    @Override
+    public int getStripesCount() {
+        return stripes.length;
+    }
+
+    @Override
+    public long getFailedAcquisitionsCount() {
+        return failedAcquisitions.sum();
+    }
+
+    @Override
+    public long getContendedStripeAcquisitionsCount() {
+        return stripeContention.getCount();
+    }
+
+    @Override
+    public Map<String, Long> getStripeContentionHistogram() {
+        return stripeContention.toMap();
+    }
+
+    @Override
+    public long getLockWaitCount() {
+        return lockWaitTime.getCount();
+    }
+
+    @Override
+    public long getLockWaitTotalMillis() {
+        return lockWaitTime.getTotalMillis();
+    }
+
+    @Override
+    public Map<String, Long> getLockWaitTimeHistogram() {
+        return lockWaitTime.toMap();
+    }
+
+    @Override
+    public void resetStatistics() {
+        failedAcquisitions.reset();
+        stripeContention.reset();
+        lockWaitTime.reset();
+    }
+
     private String createLockDescription(Entry<String, InternalLockView> e) {
         return "The object id is : " + e.getKey() + ' ' + e.getValue();
     }
@@ -190,19 +330,79 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         return entry.getKey() + entry.getValue().getFirst();
     }
 
+    private LockStripe getStripe(String key) {
+        return stripes.length == 1 ? stripes[0] : stripes[getStripeIndex(key)];
+    }
+
+    private int getStripeIndex(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % stripes.length;
+    }
+
+    /**
+     * Locks all the stripes which are used by the keys of the given lock. The stripes are always locked in ascending
+     * order in order to prevent deadlocks between locks which share more than one stripe
+     * @return the stripes which were locked, in the order they were locked
+     */
+    private List<LockStripe> lockStripes(EngineLock lock) {
+        if (stripes.length == 1) {
+            lockStripe(stripes[0]);
+            return Collections.singletonList(stripes[0]);
+        }
+
+        SortedSet<Integer> indexes = new TreeSet<>();
+        if (lock.getSharedLocks() != null) {
+            lock.getSharedLocks().entrySet().forEach(entry -> indexes.add(getStripeIndex(buildHashMapKey(entry))));
+        }
+        if (lock.getExclusiveLocks() != null) {
+            lock.getExclusiveLocks().entrySet().forEach(entry -> indexes.add(getStripeIndex(buildHashMapKey(entry))));
+        }
+
+        List<LockStripe> lockedStripes = new ArrayList<>(indexes.size());
+        try {
+            for (Integer index : indexes) {
+                lockStripe(stripes[index]);
+                lockedStripes.add(stripes[index]);
+            }
+        } catch (RuntimeException e) {
+            unlockStripes(lockedStripes);
+            throw e;
+        }
+        return lockedStripes;
+    }
+
+    private void lockStripe(LockStripe stripe) {
+        if (stripe.monitor.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        stripe.monitor.lock();
+        stripeContention.record(System.nanoTime() - start);
+    }
+
+    private void unlockStripes(List<LockStripe> lockedStripes) {
+        for (int i = lockedStripes.size() - 1; i >= 0; i--) {
+            lockedStripes.get(i).monitor.unlock();
+        }
+    }
+
     /**
      * The following method contains a logic for acquiring a lock. It is comprised of two steps:
      * 1. Check if the lock can be acquired
      * 2. If the first step succeeds, acquire a lock
+     * The stripes of all the keys of the lock should be locked by the caller
      */
     private Pair<Boolean, Set<String>> acquireLockInternal(EngineLock lock) {
         Pair<Boolean, Set<String>> result = acquireLockInternalStep(lock, true);
         if (!result.getFirst()) {
+            failedAcquisitions.increment();
             return result;
         }
 
         result = acquireLockInternalStep(lock, false);
         if (!result.getFirst()) {
+            failedAcquisitions.increment();
             return result;
         }
 
@@ -246,16 +446,16 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
      *            - is insert or check if lock can be inserted
      */
     private Pair<Boolean, Set<String>> insertSharedLock(String key, String message, boolean isCheckOnly) {
+        Map<String, InternalLockView> locks = getStripe(key).locks;
         InternalLockView lock = locks.get(key);
         if (lock != null) {
             if (!isCheckOnly) {
-                lock.increaseCount();
-                lock.addMessage(message);
+                locks.put(key, lock.addSharedLock(message));
             } else if (lock.getExclusive()) {
                 return new Pair<>(Boolean.FALSE, lock.getMessages());
             }
         } else if (!isCheckOnly) {
-            locks.put(key, new InternalLockView(1, message, false));
+            locks.put(key, new InternalLockView(1, Collections.singletonList(message), false));
         }
         return LOCK_INSERT_SUCCESS_RESULT;
     }
@@ -265,20 +465,23 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
      * added only if there is not exist any shared or exclusive lock for given key
      */
     private Pair<Boolean, Set<String>> insertExclusiveLock(String key, String message, boolean isCheckOnly) {
+        Map<String, InternalLockView> locks = getStripe(key).locks;
         InternalLockView lock = locks.get(key);
         if (lock != null) {
             return new Pair<>(Boolean.FALSE, lock.getMessages());
         }
         if (!isCheckOnly) {
-            locks.put(key, new InternalLockView(0, message, true));
+            locks.put(key, new InternalLockView(0, Collections.singletonList(message), true));
         }
         return LOCK_INSERT_SUCCESS_RESULT;
     }
 
     private void releaseExclusiveLock(String key) {
-        InternalLockView lock = locks.get(key);
+        LockStripe stripe = getStripe(key);
+        InternalLockView lock = stripe.locks.get(key);
         if (lock != null && lock.getExclusive()) {
-            locks.remove(key);
+            stripe.locks.remove(key);
+            stripe.signalReleased(key);
             log.debug("The exclusive lock for key '{}' is released and lock is removed from map", key);
         } else if (lock == null) {
             log.warn("Trying to release exclusive lock which does not exist, lock key: '{}'", key);
@@ -288,16 +491,17 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     }
 
     private void releaseSharedLock(String key, String message) {
-        InternalLockView lock = locks.get(key);
+        LockStripe stripe = getStripe(key);
+        InternalLockView lock = stripe.locks.get(key);
         if (lock != null) {
             if (lock.getCount() > 0) {
-                lock.decreaseCount();
                 log.debug("The shared lock for key '{}' is released.", key);
-                if (lock.getCount() == 0) {
-                    locks.remove(key);
+                if (lock.getCount() == 1) {
+                    stripe.locks.remove(key);
+                    stripe.signalReleased(key);
                     log.debug("The shared lock for key '{}' is removed from map", key);
                 } else {
-                    lock.removeMessage(message);
+                    stripe.locks.put(key, lock.removeSharedLock(message));
                 }
             } else {
                 log.warn("Trying to decrease a shared lock for key: '{}' , but shared index is 0", key);
@@ -307,9 +511,13 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         }
     }
 
+    /**
+     * The lock info is read without taking the stripe monitor, the internal lock views are immutable so a
+     * consistent view of a single key is returned
+     */
     @Override
     public LockInfo getLockInfo(String key) {
-        InternalLockView internalLockView = locks.get(key);
+        InternalLockView internalLockView = getStripe(key).locks.get(key);
         if (internalLockView == null) {
             return null;
         }
@@ -334,22 +542,61 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     }
 
     /**
-     * The following class represents different locks which are kept inside InMemoryLockManager
+     * The following class represents a part of the locks which is guarded by its own monitor. The map of the locks
+     * is modified only while holding the monitor, but can be read without it
+     */
+    private static class LockStripe {
+
+        /** A monitor which is used to synchronize modifications of the locks of this stripe **/
+        private final ReentrantLock monitor = new ReentrantLock();
+        /** A map which contains the internal representation of the locks of this stripe **/
+        private final Map<String, InternalLockView> locks = new ConcurrentHashMap<>();
+        /** Threads waiting in acquireLockWait() for a key of this stripe to be released **/
+        private final Map<String, KeyWaitQueue> waitQueues = new HashMap<>();
+
+        /**
+         * Notifies the threads which wait for the given key, should be called while holding the monitor
+         */
+        private void signalReleased(String key) {
+            KeyWaitQueue waitQueue = waitQueues.get(key);
+            if (waitQueue != null) {
+                waitQueue.released.signalAll();
+            }
+        }
+    }
+
+    /**
+     * The following class represents the threads waiting for a release of a single key
+     */
+    private static class KeyWaitQueue {
+
+        /** A condition which is used in order to notify waiting threads that the key was released **/
+        private final Condition released;
+        /** Number of threads waiting on the condition, guarded by the stripe monitor **/
+        private int waiters;
+
+        public KeyWaitQueue(ReentrantLock monitor) {
+            released = monitor.newCondition();
+        }
+    }
+
+    /**
+     * The following class represents different locks which are kept inside InMemoryLockManager. Instances are
+     * immutable so they can be read without holding the stripe monitor
      */
     private static class InternalLockView {
 
         /** Number for shared locks **/
-        private int count;
+        private final int count;
         /** Indicate if the lock is exclusive and not allowing any other exclusive/shared locks with the same key **/
         private final boolean exclusive;
         /** Contains error messages for that key **/
-        private List<String> messages;
+        private final List<String> messages;
 
-        public InternalLockView(int count, String message, boolean exclusive) {
+        public InternalLockView(int count, List<String> messages, boolean exclusive) {
             this.count = count;
             this.exclusive = exclusive;
-            messages = new ArrayList<>();
-            messages.add(message);
+            this.messages = messages;
         }
 
         public boolean getExclusive() {
@@ -360,28 +607,24 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
             return count;
         }
 
-        public void increaseCount() {
-            count++;
+        public InternalLockView addSharedLock(String message) {
+            List<String> newMessages = new ArrayList<>(messages);
+            newMessages.add(message);
+            return new InternalLockView(count + 1, newMessages, exclusive);
         }
 
-        public void decreaseCount() {
-            count--;
+        public InternalLockView removeSharedLock(String message) {
+            List<String> newMessages = new ArrayList<>(messages);
+            if (message != null) {
+                newMessages.remove(message);
+            }
+            return new InternalLockView(count - 1, newMessages, exclusive);
         }
 
         public Set<String> getMessages() {
             return new HashSet<>(messages);
         }
 
-        public void addMessage(String message) {
-            messages.add(message);
-        }
-
-        public void removeMessage(String message) {
-            if (message != null) {
-                messages.remove(message);
-            }
-        }
-
         @Override
         public String toString() {
             if(exclusive) {
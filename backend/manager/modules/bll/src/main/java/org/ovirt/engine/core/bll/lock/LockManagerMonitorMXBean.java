@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.bll.lock;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * The following interface is used as interface for JMX bean
@@ -21,4 +22,44 @@ public interface LockManagerMonitorMXBean {
      * The following method will release a lock with provided lockId
      */
     boolean releaseLock(String lockId);
+
+    /**
+     * The following method will return the number of stripes the locks are divided to
+     */
+    int getStripesCount();
+
+    /**
+     * The following method will return the number of lock acquisitions which failed because of a conflicting lock
+     */
+    long getFailedAcquisitionsCount();
+
+    /**
+     * The following method will return the number of times a thread had to wait for an internal stripe monitor
+     */
+    long getContendedStripeAcquisitionsCount();
+
+    /**
+     * The following method will return the distribution of the time spent waiting for internal stripe monitors
+     */
+    Map<String, Long> getStripeContentionHistogram();
+
+    /**
+     * The following method will return the number of completed acquire and wait operations
+     */
+    long getLockWaitCount();
+
+    /**
+     * The following method will return the total time in milliseconds spent in acquire and wait operations
+     */
+    long getLockWaitTotalMillis();
+
+    /**
+     * The following method will return the distribution of the time spent in acquire and wait operations
+     */
+    Map<String, Long> getLockWaitTimeHistogram();
+
+    /**
+     * The following method will reset all the collected contention and wait time statistics
+     */
+    void resetStatistics();
 }
@@ -28,6 +28,7 @@ public class CommitNetworkChangesCommand<T extends VdsActionParameters> extends
                         new VdsIdVDSCommandParametersBase(getParameters().getVdsId()));
 
         vdsDynamicDao.updateNetConfigDirty(getParameters().getVdsId(), false);
+        invalidateCachedVds(getParameters().getVdsId());
         setSucceeded(retVal.getSucceeded());
     }
 
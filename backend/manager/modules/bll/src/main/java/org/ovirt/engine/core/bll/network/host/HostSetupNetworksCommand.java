@@ -945,6 +945,7 @@ public class HostSetupNetworksCommand<T extends HostSetupNetworksParameters> ext
                 userConfiguredNetworkData);
 
             vdsDynamicDao.updateNetConfigDirty(updatedHost.getId(), updatedHost.getNetConfigDirty());
+            invalidateCachedVds(updatedHost.getId());
 
             // Update cluster networks (i.e. check if need to activate each new network)
             networkClusterHelper.setStatus(getClusterId(), getModifiedNetworks());
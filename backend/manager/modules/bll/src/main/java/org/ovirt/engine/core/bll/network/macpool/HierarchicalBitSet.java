@@ -0,0 +1,127 @@
+package org.ovirt.engine.core.bll.network.macpool;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed size bit set, which keeps for every word of bits a summary bit telling whether the word is full, and so on up
+ * to a single word. Searching for the next clear bit skips full words using the summaries, so it does not degrade
+ * when most of the bits are set.
+ */
+class HierarchicalBitSet {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+    private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+    private static final long FULL_WORD = -1L;
+
+    private final int size;
+
+    /**
+     * {@code levels[0]} holds the bits, bit {@code i} of {@code levels[n]} is set when word {@code i} of
+     * {@code levels[n - 1]} is full. Bits beyond the end of each level are set, so they are never reported as clear.
+     */
+    private final long[][] levels;
+
+    HierarchicalBitSet(int size) {
+        this.size = size;
+
+        List<long[]> levelList = new ArrayList<>();
+        int bitsInLevel = size;
+        do {
+            long[] words = new long[wordsFor(bitsInLevel)];
+            setPadding(words, bitsInLevel);
+            levelList.add(words);
+            bitsInLevel = words.length;
+        } while (bitsInLevel > 1);
+        levels = levelList.toArray(new long[levelList.size()][]);
+
+        for (int level = 0; level < levels.length - 1; level++) {
+            long[] words = levels[level];
+            for (int i = 0; i < words.length; i++) {
+                if (words[i] == FULL_WORD) {
+                    setBit(levels[level + 1], i);
+                }
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean get(int index) {
+        return (levels[0][index >>> ADDRESS_BITS_PER_WORD] & (1L << index)) != 0;
+    }
+
+    void set(int index) {
+        int bitIndex = index;
+        for (long[] words : levels) {
+            int wordIndex = bitIndex >>> ADDRESS_BITS_PER_WORD;
+            words[wordIndex] |= 1L << bitIndex;
+            if (words[wordIndex] != FULL_WORD) {
+                return;
+            }
+            bitIndex = wordIndex;
+        }
+    }
+
+    void clear(int index) {
+        int bitIndex = index;
+        for (long[] words : levels) {
+            int wordIndex = bitIndex >>> ADDRESS_BITS_PER_WORD;
+            boolean wasFull = words[wordIndex] == FULL_WORD;
+            words[wordIndex] &= ~(1L << bitIndex);
+            if (!wasFull) {
+                return;
+            }
+            bitIndex = wordIndex;
+        }
+    }
+
+    /**
+     * @return index of the first clear bit at or after {@code fromIndex}, or {@link #size()} when there is none.
+     */
+    int nextClearBit(int fromIndex) {
+        if (fromIndex >= size) {
+            return size;
+        }
+        int index = nextClearBit(0, fromIndex);
+        return index < 0 ? size : index;
+    }
+
+    private int nextClearBit(int level, int fromIndex) {
+        long[] words = levels[level];
+        int wordIndex = fromIndex >>> ADDRESS_BITS_PER_WORD;
+        if (wordIndex >= words.length) {
+            return -1;
+        }
+
+        long clearBits = ~words[wordIndex] & (FULL_WORD << fromIndex);
+        if (clearBits != 0) {
+            return (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(clearBits);
+        }
+
+        int nextWordIndex = level == levels.length - 1
+                ? -1
+                : nextClearBit(level + 1, wordIndex + 1);
+        if (nextWordIndex < 0) {
+            return -1;
+        }
+        return (nextWordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(~words[nextWordIndex]);
+    }
+
+    private static int wordsFor(int bits) {
+        return (int) (((long) bits + BITS_PER_WORD - 1) >>> ADDRESS_BITS_PER_WORD);
+    }
+
+    private static void setPadding(long[] words, int bits) {
+        int usedBitsInLastWord = bits & (BITS_PER_WORD - 1);
+        if (usedBitsInLastWord != 0) {
+            words[words.length - 1] = FULL_WORD << usedBitsInLastWord;
+        }
+    }
+
+    private static void setBit(long[] words, int index) {
+        words[index >>> ADDRESS_BITS_PER_WORD] |= 1L << index;
+    }
+}
@@ -0,0 +1,157 @@
+package org.ovirt.engine.core.bll.network.macpool;
+
+/**
+ * Counts occurrences of primitive {@code long} values, like {@link ObjectCounter} does for objects, without boxing
+ * the values. The values are kept in an open addressing hash table using linear probing.
+ */
+class LongCounter {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean allowDuplicate;
+
+    private long[] keys;
+
+    /**
+     * number of occurrences of the key at the same index, 0 marks a free slot.
+     */
+    private int[] counts;
+    private int size;
+    private int duplicatesCount;
+
+    LongCounter(boolean allowDuplicate) {
+        this.allowDuplicate = allowDuplicate;
+        keys = new long[INITIAL_CAPACITY];
+        counts = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * add instance if possible, incrementing number of its occurrences.
+     * @param key instance to add.
+     * @return true if instance was added  && count incremented.
+     */
+    public boolean increase(long key) {
+        return increase(key, allowDuplicate);
+    }
+
+    public boolean increase(long key, boolean allowDuplicate) {
+        int slot = findSlot(key);
+        if (counts[slot] == 0) {
+            keys[slot] = key;
+            counts[slot] = 1;
+            size++;
+            if (size * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            return true;
+        } else if (allowDuplicate) {
+            if (++counts[slot] == 2) {
+                duplicatesCount++;
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * decrements number of its occurrences, removing instance if possible(count reaches zero).
+     *
+     * @param key instance to remove.
+     */
+    public void decrease(long key) {
+        int slot = findSlot(key);
+        if (counts[slot] == 0) {
+            return;
+        }
+
+        int count = --counts[slot];
+        if (count == 1) {
+            duplicatesCount--;
+        } else if (count == 0) {
+            size--;
+            removeSlot(slot);
+        }
+    }
+
+    /**
+     * @param key instance to look for
+     * @return true if there's at least one occurrence of given instance.
+     */
+    public boolean contains(long key) {
+        return counts[findSlot(key)] != 0;
+    }
+
+    /**
+     * @param key instance to look for
+     * @return number of occurrences of given instance, 0 when instance was not added.
+     */
+    public int count(long key) {
+        return counts[findSlot(key)];
+    }
+
+    public boolean containsDuplicates() {
+        return duplicatesCount > 0;
+    }
+
+    public boolean containsCounts() {
+        return size > 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the slot holding the key, or the free slot where the key should be added.
+     */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (counts[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Frees the slot and moves back the following keys of the same probe sequence, so no tombstones are needed.
+     */
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        int freeSlot = slot;
+        int current = (slot + 1) & mask;
+        while (counts[current] != 0) {
+            int home = hash(keys[current]) & mask;
+            boolean canMove = freeSlot <= current
+                    ? home <= freeSlot || home > current
+                    : home <= freeSlot && home > current;
+            if (canMove) {
+                keys[freeSlot] = keys[current];
+                counts[freeSlot] = counts[current];
+                freeSlot = current;
+            }
+            current = (current + 1) & mask;
+        }
+        counts[freeSlot] = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -2,7 +2,6 @@ package org.ovirt.engine.core.bll.network.macpool;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.commons.lang.Validate;
@@ -11,13 +10,13 @@ import org.ovirt.engine.core.common.errors.EngineException;
 
 class MacsStorage {
     private final boolean allowDuplicates;
-    private List<Range> ranges = new LinkedList<>();
-    private ObjectCounter<Long> customMacs;
+    private List<Range> ranges = new ArrayList<>();
+    private LongCounter customMacs;
     private int startIndexForEmptyRangeSearch = 0;
 
     public MacsStorage(boolean allowDuplicates) {
         this.allowDuplicates = allowDuplicates;
-        customMacs = new ObjectCounter<>(this.allowDuplicates);
+        customMacs = new LongCounter(this.allowDuplicates);
     }
 
     Range addRange(Range range) {
@@ -126,7 +125,8 @@ class MacsStorage {
     }
 
     private Range findIncludingRange(long mac) {
-        for (Range range : ranges) {
+        for (int i = 0; i < ranges.size(); i++) {
+            Range range = ranges.get(i);
             if (range.contains(mac)) {
                 return range;
             }
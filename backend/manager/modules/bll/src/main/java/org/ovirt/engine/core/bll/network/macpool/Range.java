@@ -1,7 +1,6 @@
 package org.ovirt.engine.core.bll.network.macpool;
 
 import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.List;
 
 import org.apache.commons.lang.Validate;
@@ -9,20 +8,24 @@ import org.apache.commons.lang.math.LongRange;
 
 class Range {
     private final LongRange range;
+    private final long rangeStart;
+    private final long rangeEnd;
     private final int numberOfMacsInRange;
 
     /**
-     * object counter, which holds number of MACs duplicates.
+     * counter, which holds number of MACs duplicates.
      */
-    private final ObjectCounter<Integer> macDuplicityCount = new ObjectCounter<>(true);
+    private final LongCounter macDuplicityCount = new LongCounter(true);
     private int availableMacsCount;
 
-    private BitSet usedMacs;
+    private final HierarchicalBitSet usedMacs;
     private int startingLocationWhenSearchingForUnusedMac = 0;
 
     public Range(LongRange range) {
         this.range = range;
-        long numberOfMacsLong =  (range.getMaximumLong() - range.getMinimumLong()) + 1;
+        this.rangeStart = range.getMinimumLong();
+        this.rangeEnd = range.getMaximumLong();
+        long numberOfMacsLong =  (rangeEnd - rangeStart) + 1;
         Validate.isTrue(numberOfMacsLong <= Integer.MAX_VALUE,
                 String.format("Range too big; Range shouldn't be bigger than %1$s, but passed one "
                         + "contains %2$s elements.", Integer.MAX_VALUE, numberOfMacsLong));
@@ -30,11 +33,11 @@ class Range {
         numberOfMacsInRange = (int) numberOfMacsLong;
 
         this.availableMacsCount = numberOfMacsInRange;
-        this.usedMacs = new BitSet(numberOfMacsInRange);
+        this.usedMacs = new HierarchicalBitSet(numberOfMacsInRange);
     }
 
     public boolean contains(long mac) {
-        return range.containsLong(mac);
+        return mac >= rangeStart && mac <= rangeEnd;
     }
 
     public boolean containsDuplicates() {
@@ -59,7 +62,7 @@ class Range {
 
         if (!usedMacs.get(arrayIndex)) {
             availableMacsCount--;
-            usedMacs.set(arrayIndex, true);
+            usedMacs.set(arrayIndex);
             return true;
         }
 
@@ -71,7 +74,7 @@ class Range {
     }
 
     private int macToArrayIndex(long mac) {
-        return (int) (mac - range.getMinimumLong());
+        return (int) (mac - rangeStart);
     }
 
     public boolean isAllocated(long mac) {
@@ -91,7 +94,7 @@ class Range {
         if (duplicatesExist) {
             macDuplicityCount.decrease(arrayIndex);
         } else {
-            usedMacs.set(arrayIndex, false);
+            usedMacs.clear(arrayIndex);
             availableMacsCount++;
         }
     }
@@ -112,17 +115,18 @@ class Range {
         List<Long> result = new ArrayList<>(numberOfMacs);
 
         for (int count = 0; count < numberOfMacs; count++) {
-            final long mac = findUnusedMac();
+            final int index = findUnusedMacIndex();
 
             // Well duplicates may be allowed, but we're using unallocated mac.
-            use(mac, false);
-            result.add(mac);
+            usedMacs.set(index);
+            availableMacsCount--;
+            result.add(rangeStart + index);
         }
 
         return result;
     }
 
-    private long findUnusedMac() {
+    private int findUnusedMacIndex() {
         int index = usedMacs.nextClearBit(startingLocationWhenSearchingForUnusedMac);
         boolean notFound = index == numberOfMacsInRange;
         if (notFound) {
@@ -130,7 +134,7 @@ class Range {
         }
         startingLocationWhenSearchingForUnusedMac = (index + 1) % numberOfMacsInRange;
 
-        return range.getMinimumLong() + index;
+        return index;
     }
 
     boolean overlaps(Range other) {
@@ -162,6 +162,7 @@ public class RestartVdsCommand<T extends FenceVdsActionParameters> extends VdsCo
             vdsDynamicDao.update(vdsDynamic);
             return null;
         });
+        invalidateCachedVds(hostId);
     }
 
     private void executeFenceVdsManuallyAction(final Guid vdsId, String sessionId) {
@@ -161,6 +161,7 @@ public class StopVdsCommand<T extends FenceVdsActionParameters> extends FenceVds
             vdsDynamicDao.updateVdsDynamicPowerManagementPolicyFlag(
                     getVdsId(),
                     getVds().getDynamicData().isPowerManagementControlledByPolicy());
+            invalidateCachedVds(getVdsId());
         }
     }
 }
@@ -6,8 +6,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
@@ -39,12 +40,19 @@ import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Keeps the quotas of the storage pools in a cache and accounts their consumption by the commands.
+ *
+ * The consumption is accounted without locking, in atomic counters of every cached quota (see {@link QuotaUsage}).
+ * A command first reserves its requests on the counters, and then validates them against the usage seen by the
+ * reservation. If any of the requests is not valid, all of its reservations are rolled back.
+ */
 @Singleton
 public class QuotaManager implements BackendService {
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private final Logger log = LoggerFactory.getLogger(QuotaManager.class);
-    private Map<Guid, Map<Guid, Quota>> storagePoolQuotaMap = new HashMap<>();
-    private Map<Guid, Guid> storagePoolDefaultQuotaIdMap = new HashMap<>();
+    private volatile ConcurrentMap<Guid, ConcurrentMap<Guid, QuotaUsage>> storagePoolQuotaMap =
+            new ConcurrentHashMap<>();
+    private volatile ConcurrentMap<Guid, Guid> storagePoolDefaultQuotaIdMap = new ConcurrentHashMap<>();
 
     private final List<Integer> nonCountableQutoaVmStatusesList = new ArrayList<>();
 
@@ -83,19 +91,12 @@ public class QuotaManager implements BackendService {
     }
 
     public void removeQuotaFromCache(Guid storagePoolId, List<Guid> quotaList) {
-        lock.writeLock().lock();
-        try {
-            if (!storagePoolQuotaMap.containsKey(storagePoolId)) {
-                return;
-            }
-            synchronized (storagePoolQuotaMap.get(storagePoolId)) {
-                Map<Guid, Quota> map = storagePoolQuotaMap.get(storagePoolId);
-                for (Guid quotaId : quotaList) {
-                    map.remove(quotaId);
-                }
-            }
-        } finally {
-            lock.writeLock().unlock();
+        Map<Guid, QuotaUsage> map = storagePoolQuotaMap.get(storagePoolId);
+        if (map == null) {
+            return;
+        }
+        for (Guid quotaId : quotaList) {
+            map.remove(quotaId);
         }
     }
 
@@ -104,36 +105,25 @@ public class QuotaManager implements BackendService {
     }
 
     public void removeStoragePoolFromCache(Guid storagePoolId) {
-        lock.writeLock().lock();
-        try {
-            storagePoolQuotaMap.remove(storagePoolId);
-            storagePoolDefaultQuotaIdMap.remove(storagePoolId);
-        } finally {
-            lock.writeLock().unlock();
-        }
+        storagePoolQuotaMap.remove(storagePoolId);
+        storagePoolDefaultQuotaIdMap.remove(storagePoolId);
     }
 
-    private void addStoragePoolToCache(Guid storagePoolId) {
-        if (storagePoolQuotaMap.containsKey(storagePoolId)) {
-            return;
+    /**
+     * Adds the storage pool to the cache, if it is not cached yet.
+     *
+     * @return - the cached quotas of the storage pool
+     */
+    private ConcurrentMap<Guid, QuotaUsage> addStoragePoolToCache(Guid storagePoolId) {
+        ConcurrentMap<Guid, QuotaUsage> quotaMap = storagePoolQuotaMap.get(storagePoolId);
+        if (quotaMap != null) {
+            return quotaMap;
         }
 
-        storagePoolQuotaMap.put(storagePoolId, new HashMap<>());
+        // the default quota id is cached first, so it is available once the quotas of the pool are
         Quota defaultQuota = getQuotaDao().getDefaultQuotaForStoragePool(storagePoolId);
         storagePoolDefaultQuotaIdMap.put(storagePoolId, defaultQuota.getId());
-    }
-
-    private void addStoragePoolToCacheWithLock(Guid storagePoolId) {
-        if (storagePoolQuotaMap.containsKey(storagePoolId)) {
-            return;
-        }
-
-        lock.writeLock().lock();
-        try {
-            addStoragePoolToCache(storagePoolId);
-        } finally {
-            lock.writeLock().unlock();
-        }
+        return storagePoolQuotaMap.computeIfAbsent(storagePoolId, id -> new ConcurrentHashMap<>());
     }
 
     /**
@@ -203,19 +193,12 @@ public class QuotaManager implements BackendService {
             throw new InvalidQuotaParametersException("Null storage pool passed to QuotaManager");
         }
 
-        addStoragePoolToCacheWithLock(storagePool.getId());
+        Map<Guid, QuotaUsage> quotaMap = addStoragePoolToCache(storagePool.getId());
 
         QuotaManagerAuditLogger auditLogger = new QuotaManagerAuditLogger(command, auditLogDirector);
 
-        lock.readLock().lock();
-        try {
-            if (command.getStoragePool().getQuotaEnforcementType() != QuotaEnforcementTypeEnum.DISABLED) {
-                synchronized (storagePoolQuotaMap.get(storagePool.getId())) {
-                    return consumeQuotaParameters(params, command, auditLogger);
-                }
-            }
-        } finally {
-            lock.readLock().unlock();
+        if (command.getStoragePool().getQuotaEnforcementType() != QuotaEnforcementTypeEnum.DISABLED) {
+            return consumeQuotaParameters(params, command, quotaMap, auditLogger);
         }
 
         return true;
@@ -226,19 +209,19 @@ public class QuotaManager implements BackendService {
      *
      * @param quotaId - quota id
      * @param storagePoolId - storage pool containing this quota
+     * @param quotaMap - cached quotas of the storage pool
      * @return - found quota. null if not found.
      */
-    private Quota fetchQuotaFromCache(Guid quotaId, Guid storagePoolId) throws InvalidQuotaParametersException {
-        Map<Guid, Quota> quotaMap = storagePoolQuotaMap.get(storagePoolId);
-
-        Quota quota = quotaMap.get(quotaId);
+    private QuotaUsage fetchQuotaFromCache(Guid quotaId, Guid storagePoolId, Map<Guid, QuotaUsage> quotaMap)
+            throws InvalidQuotaParametersException {
+        QuotaUsage quotaUsage = quotaMap.get(quotaId);
         // if quota was not found in cache - look for it in DB
-        if (quota == null) {
-            quota = getQuotaDao().getById(quotaId);
+        if (quotaUsage == null) {
+            Quota quota = getQuotaDao().getById(quotaId);
             if (quota != null) {
-                // cache in quota map
+                // cache in quota map, unless a concurrent command already did
                 if (storagePoolId.equals(quota.getStoragePoolId())) {
-                    quotaMap.put(quotaId, quota);
+                    quotaUsage = quotaMap.computeIfAbsent(quotaId, id -> new QuotaUsage(quota));
                 } else {
                     throw new InvalidQuotaParametersException(
                             String.format("Quota %s does not match storage pool %s", quotaId.toString()
@@ -246,90 +229,23 @@ public class QuotaManager implements BackendService {
                 }
             }
         }
-        return quota;
+        return quotaUsage;
     }
 
     public void updateUsage(List<Quota> quotaList) {
-        List<Quota> needToCache = new ArrayList<>();
-
         if (quotaList == null) {
             return;
         }
 
-        lock.readLock().lock();
-        try {
-            for (Quota quotaExternal : quotaList) {
-                // look for the quota in the cache
-                Map<Guid, Quota> quotaMap = storagePoolQuotaMap.get(quotaExternal.getStoragePoolId());
-                Quota quota = null;
-                if (quotaMap != null) {
-                    quota = quotaMap.get(quotaExternal.getId());
-                }
-
-                // if quota not in cache look for it in DB and add it to cache
-                if (quota == null) {
-                    needToCache.add(quotaExternal);
-                } else {
-                    copyUsageData(quota, quotaExternal);
-                }
+        for (Quota quotaExternal : quotaList) {
+            // look for the quota in the cache, if not in cache look for it in DB and add it to cache
+            Map<Guid, QuotaUsage> quotaMap = addStoragePoolToCache(quotaExternal.getStoragePoolId());
+            QuotaUsage quotaUsage =
+                    fetchQuotaFromCache(quotaExternal.getId(), quotaExternal.getStoragePoolId(), quotaMap);
+            if (quotaUsage != null) {
+                quotaUsage.copyUsageTo(quotaExternal);
             }
-        } finally {
-            lock.readLock().unlock();
         }
-
-        // if some of the quota are not in cache and need to be cached
-        if (!needToCache.isEmpty()) {
-            lock.writeLock().lock();
-            try {
-                for (Quota quotaExternal : needToCache) {
-                    addStoragePoolToCache(quotaExternal.getStoragePoolId());
-
-                    Quota quota = fetchQuotaFromCache(quotaExternal.getId(), quotaExternal.getStoragePoolId());
-                    if (quota != null) {
-                        copyUsageData(quota, quotaExternal);
-                    }
-                }
-            } finally {
-                lock.writeLock().unlock();
-            }
-        }
-    }
-
-    private void copyUsageData(Quota quota, Quota quotaExternal) {
-        if (quota.getGlobalQuotaStorage() != null) {
-            quotaExternal.setGlobalQuotaStorage(copyQuotaStorageUsage(quota.getGlobalQuotaStorage()));
-        }
-        if (quota.getGlobalQuotaCluster() != null) {
-            quotaExternal.setGlobalQuotaCluster(copyQuotaClusterUsage(quota.getGlobalQuotaCluster()));
-        }
-
-        if (quota.getQuotaStorages() != null) {
-            quotaExternal.setQuotaStorages(new ArrayList<>());
-            for (QuotaStorage quotaStorage : quota.getQuotaStorages()) {
-                quotaExternal.getQuotaStorages().add(copyQuotaStorageUsage(quotaStorage));
-            }
-        }
-
-        if (quota.getQuotaClusters() != null) {
-            quotaExternal.setQuotaClusters(new ArrayList<>());
-            for (QuotaCluster quotaCluster : quota.getQuotaClusters()) {
-                quotaExternal.getQuotaClusters().add(copyQuotaClusterUsage(quotaCluster));
-            }
-        }
-    }
-
-    private QuotaStorage copyQuotaStorageUsage(QuotaStorage quotaStorage) {
-        return new QuotaStorage(null, null, null,
-                quotaStorage.getStorageSizeGB(),
-                quotaStorage.getStorageSizeGBUsage());
-    }
-
-    private QuotaCluster copyQuotaClusterUsage(QuotaCluster quotaCluster) {
-        return new QuotaCluster(null, null, null,
-                quotaCluster.getVirtualCpu(),
-                quotaCluster.getVirtualCpuUsage(),
-                quotaCluster.getMemSizeMB(),
-                quotaCluster.getMemSizeMBUsage());
     }
 
     /**
@@ -357,27 +273,21 @@ public class QuotaManager implements BackendService {
             return;
         }
 
-        Map<Guid, Map<Guid, Quota>> newStoragePoolQuotaMap = new HashMap<>();
-        Map<Guid, Guid> newDefaultQuotaIdMap = new HashMap<>();
+        ConcurrentMap<Guid, ConcurrentMap<Guid, QuotaUsage>> newStoragePoolQuotaMap = new ConcurrentHashMap<>();
+        ConcurrentMap<Guid, Guid> newDefaultQuotaIdMap = new ConcurrentHashMap<>();
 
         for (Quota quota : allQuotaIncludingConsumption) {
-            if (!newStoragePoolQuotaMap.containsKey(quota.getStoragePoolId())) {
-                newStoragePoolQuotaMap.put(quota.getStoragePoolId(), new HashMap<>());
-            }
-            newStoragePoolQuotaMap.get(quota.getStoragePoolId()).put(quota.getId(), quota);
+            newStoragePoolQuotaMap.computeIfAbsent(quota.getStoragePoolId(), id -> new ConcurrentHashMap<>())
+                    .put(quota.getId(), new QuotaUsage(quota));
 
             if (quota.isDefault()) {
                 newDefaultQuotaIdMap.put(quota.getStoragePoolId(), quota.getId());
             }
         }
 
-        lock.writeLock().lock();
-        try {
-            storagePoolQuotaMap = newStoragePoolQuotaMap;
-            storagePoolDefaultQuotaIdMap = newDefaultQuotaIdMap;
-        } finally {
-            lock.writeLock().unlock();
-        }
+        // the default quota ids are replaced first, so they are available for all the replaced quotas
+        storagePoolDefaultQuotaIdMap = newDefaultQuotaIdMap;
+        storagePoolQuotaMap = newStoragePoolQuotaMap;
         long timeEnd = System.currentTimeMillis();
         log.info("Quota Cache updated. ({} msec)", timeEnd-timeStart);
     }
@@ -386,13 +296,8 @@ public class QuotaManager implements BackendService {
         int quotaCount = getQuotaDao().getQuotaCount();
         int cacheCount = 0;
 
-        lock.readLock().lock();
-        try {
-            for(Map<Guid, Quota> quotaMap : storagePoolQuotaMap.values()) {
-                cacheCount += quotaMap.size();
-            }
-        } finally {
-            lock.readLock().unlock();
+        for(Map<Guid, QuotaUsage> quotaMap : storagePoolQuotaMap.values()) {
+            cacheCount += quotaMap.size();
         }
 
         return cacheCount < quotaCount * Config.<Integer> getValue(ConfigValues.MinimumPercentageToUpdateQuotaCache)/100;
@@ -410,7 +315,7 @@ public class QuotaManager implements BackendService {
 
     public Guid getDefaultQuotaId(Guid storagePoolId) {
         if (!storagePoolDefaultQuotaIdMap.containsKey(storagePoolId)) {
-            addStoragePoolToCacheWithLock(storagePoolId);
+            addStoragePoolToCache(storagePoolId);
         }
 
         return storagePoolDefaultQuotaIdMap.get(storagePoolId);
@@ -447,6 +352,7 @@ public class QuotaManager implements BackendService {
 
     private boolean consumeQuotaParameters(List<QuotaConsumptionParameter> parameters,
             CommandBase<?> command,
+            Map<Guid, QuotaUsage> quotaMap,
             QuotaManagerAuditLogger auditLogger) {
 
         boolean hardEnforcement =
@@ -454,23 +360,27 @@ public class QuotaManager implements BackendService {
 
         // Process the quota consumption parameters to a list of Requests
         // Each Request instance aggregates all requested consumptions against a single quota limit
-        Optional<List<Request>> requests = createRequests(parameters, command, hardEnforcement, auditLogger);
+        Optional<List<Request>> requests = createRequests(parameters, command, quotaMap, hardEnforcement, auditLogger);
         if (!requests.isPresent()) {
             return false;
         }
 
-        // Validate that all requests satisfy the quota limits
+        // Each request is reserved on the usage counters of the cached quota, and then validated against the usage
+        // seen by the reservation, which includes the reservations of concurrent commands.
+        // This changes only the cached quota usage in the QuotaManager, nothing is written to the DB.
+        List<Request> reservedRequests = new ArrayList<>();
         for (Request request : requests.get()) {
+            request.reserve();
+            reservedRequests.add(request);
+
             ValidationResult validation = request.validate(hardEnforcement, auditLogger);
             if(!validation.isValid()) {
+                reservedRequests.forEach(Request::rollback);
                 command.getReturnValue().getValidationMessages().addAll(validation.getMessagesAsStrings());
                 return false;
             }
         }
 
-        // After successful validation, the requests are applied.
-        // This changes only the cached quota objects in the QuotaManager, nothing is written to the DB.
-        requests.get().forEach(Request::apply);
         return true;
     }
 
@@ -481,6 +391,7 @@ public class QuotaManager implements BackendService {
      */
     private Optional<List<Request>> createRequests(List<QuotaConsumptionParameter> parameters,
             CommandBase<?> command,
+            Map<Guid, QuotaUsage> quotaMap,
             boolean hardEnforcement,
             QuotaManagerAuditLogger auditLogger) {
 
@@ -493,11 +404,11 @@ public class QuotaManager implements BackendService {
         for (QuotaConsumptionParameter param: parameters) {
             // Use default quota if the id is empty
             if(Guid.isNullOrEmpty(param.getQuotaGuid())) {
-                param.setQuotaGuid(storagePoolDefaultQuotaIdMap.get(command.getStoragePoolId()));
+                param.setQuotaGuid(getDefaultQuotaId(command.getStoragePoolId()));
             }
 
-            Quota quota = fetchQuotaFromCache(param.getQuotaGuid(), command.getStoragePoolId());
-            if (quota == null) {
+            QuotaUsage quotaUsage = fetchQuotaFromCache(param.getQuotaGuid(), command.getStoragePoolId(), quotaMap);
+            if (quotaUsage == null) {
                 log.error("The quota id '{}' is not found in backend and DB.", param.getQuotaGuid());
                 if (hardEnforcement) {
                     command.getReturnValue().getValidationMessages().add(
@@ -517,12 +428,12 @@ public class QuotaManager implements BackendService {
             ValidationResult validation = ValidationResult.VALID;
             if (param instanceof QuotaClusterConsumptionParameter) {
                 validation = validateAndAddToClusterRequests((QuotaClusterConsumptionParameter) param,
-                        quota,
+                        quotaUsage,
                         command.getClass().getName(),
                         clusterRequests);
             } else if (param instanceof QuotaStorageConsumptionParameter) {
                 validation = validateAndAddToStorageRequests((QuotaStorageConsumptionParameter) param,
-                        quota,
+                        quotaUsage,
                         command.getClass().getName(),
                         storageRequests);
             }
@@ -544,7 +455,7 @@ public class QuotaManager implements BackendService {
      * If the parameter is valid, it is added to the corresponding Request in the requestMap.
      */
     private ValidationResult validateAndAddToClusterRequests(QuotaClusterConsumptionParameter param,
-            Quota quota,
+            QuotaUsage quotaUsage,
             String commandClassName,
             Map<Pair<Guid, Guid>, ClusterRequest> requestMap) {
 
@@ -553,24 +464,21 @@ public class QuotaManager implements BackendService {
             return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_IS_NOT_VALID);
         }
 
+        Quota quota = quotaUsage.getQuota();
         Pair<Guid, Guid> key = quota.isGlobalClusterQuota()?
                 new Pair<>(quota.getId(), null) :
                 new Pair<>(quota.getId(), param.getClusterId());
 
         if (!requestMap.containsKey(key)) {
             // Quota must be a global cluster quota or be defined for the same cluster as is the consumption parameter.
-            QuotaCluster quotaCluster = quota.isGlobalClusterQuota() ?
-                    quota.getGlobalQuotaCluster() :
-                    quota.getQuotaClusters().stream()
-                            .filter(c -> c.getClusterId().equals(param.getClusterId()))
-                            .findAny().orElse(null);
+            QuotaUsage.ClusterUsage clusterUsage = quotaUsage.getClusterUsage(param.getClusterId());
 
-            if (quotaCluster == null) {
+            if (clusterUsage == null) {
                 log.error("Quota Vds parameters from command '{}'. Vds group does not match quota", commandClassName);
                 return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_IS_NOT_VALID);
             }
 
-            requestMap.put(key, new ClusterRequest(quota, quotaCluster));
+            requestMap.put(key, new ClusterRequest(quota, clusterUsage));
         }
 
         // If the quota is released, the values in the request will be negative
@@ -594,7 +502,7 @@ public class QuotaManager implements BackendService {
      * If the parameter is valid, it is added to the corresponding Request in the requestMap.
      */
     private ValidationResult validateAndAddToStorageRequests(QuotaStorageConsumptionParameter param,
-            Quota quota,
+            QuotaUsage quotaUsage,
             String commandClassName,
             Map<Pair<Guid, Guid>, StorageRequest> requestMap) {
 
@@ -603,6 +511,7 @@ public class QuotaManager implements BackendService {
             return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_IS_NOT_VALID);
         }
 
+        Quota quota = quotaUsage.getQuota();
         Pair<Guid, Guid> key = quota.isGlobalStorageQuota() ?
                 new Pair<>(quota.getId(), null) :
                 new Pair<>(quota.getId(), param.getStorageDomainId());
@@ -610,18 +519,14 @@ public class QuotaManager implements BackendService {
         if (!requestMap.containsKey(key)) {
             // Quota must be a global storage quota or be defined for
             // the same storage domain as is the consumption parameter.
-            QuotaStorage quotaStorage = quota.isGlobalStorageQuota() ?
-                    quota.getGlobalQuotaStorage() :
-                    quota.getQuotaStorages().stream()
-                            .filter(s -> s.getStorageId().equals(param.getStorageDomainId()))
-                            .findAny().orElse(null);
+            QuotaUsage.StorageUsage storageUsage = quotaUsage.getStorageUsage(param.getStorageDomainId());
 
-            if (quotaStorage == null) {
+            if (storageUsage == null) {
                 log.error("Quota storage parameters from command '{}'. Storage domain does not match quota", commandClassName);
                 return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_NO_QUOTA_SET_FOR_DOMAIN);
             }
 
-            requestMap.put(key, new StorageRequest(quota, quotaStorage));
+            requestMap.put(key, new StorageRequest(quota, storageUsage));
         }
 
         // If the quota is released, the values in the request will be negative
@@ -653,27 +558,35 @@ public class QuotaManager implements BackendService {
         }
 
         /**
-         * Validate that the request satisfies quota limits
+         * Reserve the request on the usage of the quota in the QuotaManager cache,
+         * remembering the usage before the reservation
+         */
+        public abstract void reserve();
+
+        /**
+         * Validate that the reserved request satisfies quota limits
          */
         public abstract ValidationResult validate(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger);
 
         /**
-         * Apply the request on the current quota in the QuotaManager cache
+         * Return the reserved request back to the usage of the quota in the QuotaManager cache
          */
-        public abstract void apply();
+        public abstract void rollback();
     }
 
     /**
      * Request for cluster quota
      */
     private class ClusterRequest extends Request{
-        private QuotaCluster quotaCluster;
+        private QuotaUsage.ClusterUsage clusterUsage;
         private int coresRequest = 0;
         private long memoryRequestMB = 0L;
+        private int currentCores;
+        private long currentMemoryMB;
 
-        public ClusterRequest(Quota quota, QuotaCluster quotaCluster) {
+        public ClusterRequest(Quota quota, QuotaUsage.ClusterUsage clusterUsage) {
             super(quota);
-            this.quotaCluster = quotaCluster;
+            this.clusterUsage = clusterUsage;
         }
 
         public void addCpu(int cpu) {
@@ -684,8 +597,16 @@ public class QuotaManager implements BackendService {
             memoryRequestMB += memMB;
         }
 
+        @Override
+        public void reserve() {
+            currentCores = clusterUsage.addVirtualCpu(coresRequest);
+            currentMemoryMB = clusterUsage.addMemSizeMB(memoryRequestMB);
+        }
+
         @Override
         public ValidationResult validate(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger) {
+            QuotaCluster quotaCluster = clusterUsage.getQuotaCluster();
+
             // The ClusterQuota must allow cpu and memory
             if (quotaCluster.getVirtualCpu() == 0 || quotaCluster.getMemSizeMB() == 0) {
                 return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_IS_NOT_VALID);
@@ -705,11 +626,11 @@ public class QuotaManager implements BackendService {
             }
 
             double requestedCoresPercent = 100 * ((double) coresRequest / (double) cpuLimit);
-            double currentCoresPercent = 100 * ((double) quotaCluster.getVirtualCpuUsage() / (double) cpuLimit);
+            double currentCoresPercent = 100 * ((double) currentCores / (double) cpuLimit);
             double newCoresPercent = requestedCoresPercent + currentCoresPercent;
 
             double requestedMemoryPercent = 100 * ((double) memoryRequestMB / (double) memLimit);
-            double currentMemoryPercent = 100 * ((double) quotaCluster.getMemSizeMBUsage() / (double) memLimit);
+            double currentMemoryPercent = 100 * ((double) currentMemoryMB / (double) memLimit);
             double newMemoryPercent = requestedMemoryPercent + currentMemoryPercent;
 
             int threshold = getQuota().getThresholdClusterPercentage();
@@ -752,9 +673,9 @@ public class QuotaManager implements BackendService {
         }
 
         @Override
-        public void apply() {
-            quotaCluster.setVirtualCpuUsage(coresRequest);
-            quotaCluster.setMemSizeMBUsage(memoryRequestMB);
+        public void rollback() {
+            clusterUsage.addVirtualCpu(-coresRequest);
+            clusterUsage.addMemSizeMB(-memoryRequestMB);
         }
     }
 
@@ -762,21 +683,27 @@ public class QuotaManager implements BackendService {
      * Request for storage quota
      */
     private class StorageRequest extends Request {
-        private QuotaStorage quotaStorage;
+        private QuotaUsage.StorageUsage storageUsage;
         private double storageRequestGB = 0.0;
+        private double currentStorageGB;
 
-        public StorageRequest(Quota quota, QuotaStorage quotaStorage) {
+        public StorageRequest(Quota quota, QuotaUsage.StorageUsage storageUsage) {
             super(quota);
-            this.quotaStorage = quotaStorage;
+            this.storageUsage = storageUsage;
         }
 
         public void addStorage(double storageGB) {
             storageRequestGB += storageGB;
         }
 
+        @Override
+        public void reserve() {
+            currentStorageGB = storageUsage.addStorageSizeGB(storageRequestGB);
+        }
+
         @Override
         public ValidationResult validate(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger) {
-            long storageLimit = quotaStorage.getStorageSizeGB();
+            long storageLimit = storageUsage.getQuotaStorage().getStorageSizeGB();
 
             // Valid if quota is unlimited
             if (storageLimit == QuotaStorage.UNLIMITED) {
@@ -789,7 +716,7 @@ public class QuotaManager implements BackendService {
             }
 
             double requestStoragePercent = 100 * (storageRequestGB / (double) storageLimit);
-            double currentStoragePercent = 100 * (quotaStorage.getStorageSizeGBUsage() / (double) storageLimit);
+            double currentStoragePercent = 100 * (currentStorageGB / (double) storageLimit);
             double newStoragePercent = currentStoragePercent + requestStoragePercent;
 
             int threshold = getQuota().getThresholdStoragePercentage();
@@ -828,8 +755,8 @@ public class QuotaManager implements BackendService {
         }
 
         @Override
-        public void apply() {
-            quotaStorage.setStorageSizeGBUsage(storageRequestGB);
+        public void rollback() {
+            storageUsage.addStorageSizeGB(-storageRequestGB);
         }
     }
 }
@@ -0,0 +1,198 @@
+package org.ovirt.engine.core.bll.quota;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.ovirt.engine.core.common.businessentities.Quota;
+import org.ovirt.engine.core.common.businessentities.QuotaCluster;
+import org.ovirt.engine.core.common.businessentities.QuotaStorage;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * A {@link Quota} cached by the {@link QuotaManager}, together with atomic counters of the consumption of each of its
+ * cluster and storage limits. The counters start from the usage the quota was loaded with, and are updated by the
+ * consumption requests without locking.
+ */
+class QuotaUsage {
+
+    private final Quota quota;
+
+    private final ClusterUsage globalClusterUsage;
+
+    /**
+     * The key is the cluster id.
+     */
+    private final Map<Guid, ClusterUsage> clusterUsages;
+
+    private final StorageUsage globalStorageUsage;
+
+    /**
+     * The key is the storage domain id.
+     */
+    private final Map<Guid, StorageUsage> storageUsages;
+
+    QuotaUsage(Quota quota) {
+        this.quota = quota;
+        globalClusterUsage = quota.getGlobalQuotaCluster() == null ?
+                null :
+                new ClusterUsage(quota.getGlobalQuotaCluster());
+        clusterUsages = toUsageMap(quota.getQuotaClusters(), QuotaCluster::getClusterId, ClusterUsage::new);
+        globalStorageUsage = quota.getGlobalQuotaStorage() == null ?
+                null :
+                new StorageUsage(quota.getGlobalQuotaStorage());
+        storageUsages = toUsageMap(quota.getQuotaStorages(), QuotaStorage::getStorageId, StorageUsage::new);
+    }
+
+    private static <T, U> Map<Guid, U> toUsageMap(List<T> limits,
+            Function<T, Guid> idMapper,
+            Function<T, U> usageMapper) {
+        if (limits == null) {
+            return Collections.emptyMap();
+        }
+        return limits.stream().collect(Collectors.toMap(idMapper, usageMapper, (first, second) -> first));
+    }
+
+    public Quota getQuota() {
+        return quota;
+    }
+
+    /**
+     * @return the usage of the global cluster limit for a global cluster quota, otherwise the usage of the limit
+     * defined for the cluster. null if the quota has no limit for the cluster.
+     */
+    public ClusterUsage getClusterUsage(Guid clusterId) {
+        return quota.isGlobalClusterQuota() ? globalClusterUsage : clusterUsages.get(clusterId);
+    }
+
+    /**
+     * @return the usage of the global storage limit for a global storage quota, otherwise the usage of the limit
+     * defined for the storage domain. null if the quota has no limit for the storage domain.
+     */
+    public StorageUsage getStorageUsage(Guid storageDomainId) {
+        return quota.isGlobalStorageQuota() ? globalStorageUsage : storageUsages.get(storageDomainId);
+    }
+
+    /**
+     * Copies the limits and the current usage to the given quota.
+     */
+    public void copyUsageTo(Quota quotaExternal) {
+        if (globalStorageUsage != null) {
+            quotaExternal.setGlobalQuotaStorage(globalStorageUsage.toQuotaStorage());
+        }
+        if (globalClusterUsage != null) {
+            quotaExternal.setGlobalQuotaCluster(globalClusterUsage.toQuotaCluster());
+        }
+
+        if (quota.getQuotaStorages() != null) {
+            quotaExternal.setQuotaStorages(new ArrayList<>());
+            for (QuotaStorage quotaStorage : quota.getQuotaStorages()) {
+                quotaExternal.getQuotaStorages().add(storageUsages.get(quotaStorage.getStorageId()).toQuotaStorage());
+            }
+        }
+
+        if (quota.getQuotaClusters() != null) {
+            quotaExternal.setQuotaClusters(new ArrayList<>());
+            for (QuotaCluster quotaCluster : quota.getQuotaClusters()) {
+                quotaExternal.getQuotaClusters().add(clusterUsages.get(quotaCluster.getClusterId()).toQuotaCluster());
+            }
+        }
+    }
+
+    /**
+     * Consumption of a cluster limit of the quota.
+     */
+    static class ClusterUsage {
+        private final QuotaCluster quotaCluster;
+        private final AtomicInteger virtualCpuUsage;
+        private final AtomicLong memSizeMBUsage;
+
+        ClusterUsage(QuotaCluster quotaCluster) {
+            this.quotaCluster = quotaCluster;
+            virtualCpuUsage = new AtomicInteger(
+                    quotaCluster.getVirtualCpuUsage() == null ? 0 : quotaCluster.getVirtualCpuUsage());
+            memSizeMBUsage = new AtomicLong(
+                    quotaCluster.getMemSizeMBUsage() == null ? 0L : quotaCluster.getMemSizeMBUsage());
+        }
+
+        public QuotaCluster getQuotaCluster() {
+            return quotaCluster;
+        }
+
+        public int getVirtualCpuUsage() {
+            return virtualCpuUsage.get();
+        }
+
+        public long getMemSizeMBUsage() {
+            return memSizeMBUsage.get();
+        }
+
+        /**
+         * @return the cpu usage before adding
+         */
+        public int addVirtualCpu(int cpu) {
+            return virtualCpuUsage.getAndAdd(cpu);
+        }
+
+        /**
+         * @return the memory usage before adding
+         */
+        public long addMemSizeMB(long memMB) {
+            return memSizeMBUsage.getAndAdd(memMB);
+        }
+
+        private QuotaCluster toQuotaCluster() {
+            return new QuotaCluster(null, null, null,
+                    quotaCluster.getVirtualCpu(),
+                    getVirtualCpuUsage(),
+                    quotaCluster.getMemSizeMB(),
+                    getMemSizeMBUsage());
+        }
+    }
+
+    /**
+     * Consumption of a storage limit of the quota. The usage in GB is kept as the bits of the double value.
+     */
+    static class StorageUsage {
+        private final QuotaStorage quotaStorage;
+        private final AtomicLong storageSizeGBUsageBits;
+
+        StorageUsage(QuotaStorage quotaStorage) {
+            this.quotaStorage = quotaStorage;
+            storageSizeGBUsageBits = new AtomicLong(Double.doubleToRawLongBits(
+                    quotaStorage.getStorageSizeGBUsage() == null ? 0.0 : quotaStorage.getStorageSizeGBUsage()));
+        }
+
+        public QuotaStorage getQuotaStorage() {
+            return quotaStorage;
+        }
+
+        public double getStorageSizeGBUsage() {
+            return Double.longBitsToDouble(storageSizeGBUsageBits.get());
+        }
+
+        /**
+         * @return the storage usage before adding
+         */
+        public double addStorageSizeGB(double storageGB) {
+            while (true) {
+                long currentBits = storageSizeGBUsageBits.get();
+                double current = Double.longBitsToDouble(currentBits);
+                if (storageSizeGBUsageBits.compareAndSet(currentBits, Double.doubleToRawLongBits(current + storageGB))) {
+                    return current;
+                }
+            }
+        }
+
+        private QuotaStorage toQuotaStorage() {
+            return new QuotaStorage(null, null, null,
+                    quotaStorage.getStorageSizeGB(),
+                    getStorageSizeGBUsage());
+        }
+    }
+}
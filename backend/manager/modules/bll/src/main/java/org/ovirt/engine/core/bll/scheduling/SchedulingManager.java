@@ -146,6 +146,11 @@ public class SchedulingManager implements BackendService {
 
     private final ConcurrentHashMap<Guid, Semaphore> clusterLockMap = new ConcurrentHashMap<>();
 
+    /**
+     * [vm id, host id] map of placements selected by {@link #scheduleBatch} which were not used yet
+     */
+    private final ConcurrentHashMap<Guid, Guid> reservedPlacements = new ConcurrentHashMap<>();
+
     private final Map<Guid, Boolean> clusterId2isHaReservationSafe = new HashMap<>();
 
     private final Guid defaultSelectorGuid = InternalPolicyUnits.getGuid(RankSelectorPolicyUnit.class);
@@ -336,16 +341,19 @@ public class SchedulingManager implements BackendService {
             lockCluster(cluster.getId());
             List<VDS> hosts = fetchHosts(cluster.getId(), hostBlackList, hostWhiteList);
             vmHandler.updateVmStatistics(vm);
-            fetchNumaNodes(vm, hosts);
+            fetchVmNumaNodes(vm);
             ClusterPolicy policy = policyMap.get(cluster.getClusterPolicyId());
             SchedulingContext context = new SchedulingContext(cluster,
                     createClusterPolicyParameters(cluster),
                     schedulingParameters);
 
+            Guid reservedHostId = consumeReservedPlacement(vm, destHostIdList);
+            fetchHostNumaNodes(hosts);
+
             Supplier<Optional<Guid>> findBestHost = () -> {
                 context.getMessages().clear();
                 refreshCachedPendingValues(hosts);
-                return selectHost(policy, hosts, vm, destHostIdList, context, correlationId);
+                return selectHost(policy, hosts, vm, destHostIdList, reservedHostId, context, correlationId);
             };
 
             Optional<Guid> bestHost = findBestHost.get();
@@ -379,10 +387,123 @@ public class SchedulingManager implements BackendService {
         }
     }
 
+    /**
+     * Places the given VMs in a single pass over one snapshot of the cluster. The cluster is locked once for the whole
+     * batch and the hosts and their NUMA nodes are fetched once. The pending resources of every placed VM are
+     * registered before the next VM is scheduled and only the cached pending values of the selected host are
+     * refreshed, so the following placements see the resources taken by the previous ones.
+     *
+     * The selected hosts are kept as reservations. A following {@link #schedule} call for the VM still filters all
+     * the cluster hosts, but selects the reserved host without weighing the hosts again if it passed the filters.
+     * Reservations which are not used should be dropped by {@link #releaseReservedPlacements(Collection)}.
+     *
+     * @param cluster - the cluster all the VMs belong to
+     * @param vms - the VMs to place, in the order they should be placed
+     * @param schedulingParameters - parameters used for all the VMs in the batch
+     * @param messages - filled with the scheduling messages of every VM, by VM id
+     * @param correlationId - correlation id used for logging
+     * @return [vm id, host id] map of the selected hosts, VMs which could not be placed are not part of the map
+     */
+    public Map<Guid, Guid> scheduleBatch(Cluster cluster,
+            List<VM> vms,
+            SchedulingParameters schedulingParameters,
+            Map<Guid, List<String>> messages,
+            String correlationId) {
+        Map<Guid, Guid> placements = new HashMap<>();
+        if (vms.isEmpty()) {
+            return placements;
+        }
+
+        prepareClusterLock(cluster.getId());
+        try {
+            log.debug("Batch scheduling of {} VMs started, correlation Id: {}", vms.size(), correlationId);
+            checkAllowOverbooking(cluster);
+            lockCluster(cluster.getId());
+            List<VDS> hosts = fetchHosts(cluster.getId(), Collections.emptyList(), Collections.emptyList());
+            fetchHostNumaNodes(hosts);
+            refreshCachedPendingValues(hosts);
+            Map<Guid, VDS> hostsById = hosts.stream().collect(Collectors.toMap(VDS::getId, host -> host));
+            ClusterPolicy policy = policyMap.get(cluster.getClusterPolicyId());
+            Map<String, String> policyParameters = createClusterPolicyParameters(cluster);
+
+            for (VM vm : vms) {
+                vmHandler.updateVmStatistics(vm);
+                fetchVmNumaNodes(vm);
+                SchedulingContext context = new SchedulingContext(cluster, policyParameters, schedulingParameters);
+                // Delaying would make the snapshot of the hosts stale for the rest of the batch
+                context.setCanDelay(false);
+
+                Optional<Guid> bestHost =
+                        selectHost(policy, hosts, vm, Collections.emptyList(), null, context, correlationId);
+                messages.put(vm.getId(), new ArrayList<>(context.getMessages()));
+                if (!bestHost.isPresent()) {
+                    continue;
+                }
+
+                VDS host = hostsById.get(bestHost.get());
+                addPendingResources(vm, host);
+                markVfsAsUsedByVm(vm, host.getId());
+                refreshCachedPendingValues(Collections.singletonList(host));
+                reservedPlacements.put(vm.getId(), host.getId());
+                placements.put(vm.getId(), host.getId());
+            }
+
+            return placements;
+        } catch (InterruptedException e) {
+            log.error("batch scheduling interrupted, correlation Id: {}: {}", correlationId, e.getMessage());
+            log.debug("Exception: ", e);
+            return placements;
+        } finally {
+            releaseCluster(cluster.getId());
+
+            log.debug("Batch scheduling ended, {} out of {} VMs were placed, correlation Id: {}",
+                    placements.size(),
+                    vms.size(),
+                    correlationId);
+        }
+    }
+
+    /**
+     * Drops the placements reserved by {@link #scheduleBatch} for the given VMs, if they were not used, together
+     * with their pending resources.
+     */
+    public void releaseReservedPlacements(Collection<Guid> vmIds) {
+        for (Guid vmId : vmIds) {
+            if (reservedPlacements.remove(vmId) != null) {
+                log.debug("Releasing unused host reservation of VM '{}'", vmId);
+                getPendingResourceManager().clearVm(vmId);
+            }
+        }
+    }
+
+    /**
+     * Returns the host reserved for the VM by {@link #scheduleBatch}, or <code>null</code> if there is none or it is
+     * not one of the requested destination hosts. The pending resources of the reservation are cleared, so the VM is
+     * not counted twice by the filters.
+     */
+    private Guid consumeReservedPlacement(VM vm, List<Guid> destHostIdList) {
+        Guid reservedHostId = reservedPlacements.remove(vm.getId());
+        if (reservedHostId == null) {
+            return null;
+        }
+
+        getPendingResourceManager().clearVm(vm);
+        if (!destHostIdList.isEmpty() && !destHostIdList.contains(reservedHostId)) {
+            return null;
+        }
+
+        return reservedHostId;
+    }
+
+    /**
+     * Filters the given hosts and selects the best one of them. The reserved host, if given, is selected without
+     * weighing the hosts as long as it passed the filters.
+     */
     private Optional<Guid> selectHost(ClusterPolicy policy,
             List<VDS> hosts,
             VM vm,
             List<Guid> destHostIdList,
+            Guid reservedHostId,
             SchedulingContext context,
             String correlationId) {
         List<VDS> hostList = runFilters(policy.getFilters(),
@@ -401,6 +522,15 @@ public class SchedulingManager implements BackendService {
             return Optional.empty();
         }
 
+        if (reservedHostId != null) {
+            if (hostList.stream().anyMatch(host -> host.getId().equals(reservedHostId))) {
+                return Optional.of(reservedHostId);
+            }
+            log.debug("Host '{}' reserved for VM '{}' cannot run it anymore, weighing all hosts",
+                    reservedHostId,
+                    vm.getId());
+        }
+
         return selectBestHost(vm, destHostIdList, hostList, policy, context);
     }
 
@@ -411,8 +541,15 @@ public class SchedulingManager implements BackendService {
     }
 
     private void fetchNumaNodes(VM vm, List<VDS> hosts) {
+        fetchVmNumaNodes(vm);
+        fetchHostNumaNodes(hosts);
+    }
+
+    private void fetchVmNumaNodes(VM vm) {
         vm.setvNumaNodeList(vmNumaNodeDao.getAllVmNumaNodeByVmId(vm.getId()));
+    }
 
+    private void fetchHostNumaNodes(List<VDS> hosts) {
         for (VDS host : hosts) {
             host.setNumaNodeList(vdsNumaNodeDao.getAllVdsNumaNodeByVdsId(host.getId()));
         }
@@ -1196,6 +1333,7 @@ public class SchedulingManager implements BackendService {
      * number of possible hosts that can run the VM.
      */
     public void clearPendingVm(VmStatic vm) {
+        reservedPlacements.remove(vm.getId());
         getPendingResourceManager().clearVm(vm);
     }
 }
@@ -0,0 +1,50 @@
+package org.ovirt.engine.core.bll.storage.disk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.ovirt.engine.core.bll.QueriesCommandBase;
+import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.bll.storage.disk.image.ImagesHandler;
+import org.ovirt.engine.core.common.businessentities.storage.Disk;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
+import org.ovirt.engine.core.common.businessentities.storage.DiskStorageType;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
+import org.ovirt.engine.core.dao.DiskDao;
+
+/**
+ * Returns the disks with the given ids the same way {@link GetDiskAndSnapshotsByDiskIdQuery} returns a single disk:
+ * LUN disks as they are, and images aggregated with their snapshots.
+ */
+public class GetDisksAndSnapshotsByDiskIdsQuery<P extends IdsQueryParameters> extends QueriesCommandBase<P> {
+    @Inject
+    private DiskDao diskDao;
+
+    @Inject
+    private ImagesHandler imagesHandler;
+
+    public GetDisksAndSnapshotsByDiskIdsQuery(P parameters, EngineContext context) {
+        super(parameters, context);
+    }
+
+    @Override
+    protected void executeQueryCommand() {
+        List<Disk> allDisks = diskDao.getAllFromDisksIncludingSnapshotsByDiskIds(getParameters().getIds(),
+                getUserID(),
+                getParameters().isFiltered());
+
+        Map<Boolean, List<Disk>> disksSplitByLun = allDisks.stream()
+                .collect(Collectors.partitioningBy(disk -> disk.getDiskStorageType() == DiskStorageType.LUN));
+
+        List<Disk> result = new ArrayList<>(disksSplitByLun.get(true));
+        result.addAll(imagesHandler.aggregateDiskImagesSnapshots(disksSplitByLun.get(false).stream()
+                .map(DiskImage.class::cast)
+                .collect(Collectors.toList())));
+
+        getQueryReturnValue().setReturnValue(result);
+    }
+}
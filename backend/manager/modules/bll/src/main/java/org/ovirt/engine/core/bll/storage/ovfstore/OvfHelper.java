@@ -4,6 +4,7 @@ import static org.ovirt.engine.core.bll.storage.disk.image.DisksFilter.ONLY_ACTI
 import static org.ovirt.engine.core.bll.storage.disk.image.DisksFilter.ONLY_SNAPABLE;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -227,6 +228,23 @@ public class OvfHelper {
         fullEntityOvfData.setUserToRoles(userToRoles);
     }
 
+    /**
+     * Same as {@link #populateUserToRoles(FullEntityOvfData, Guid)}, but takes the roles from the given permissions
+     * on the entity instead of loading the permissions of each user.
+     */
+    public void populateUserToRoles(FullEntityOvfData fullEntityOvfData, Collection<Permission> entityPermissions) {
+        Map<String, Set<String>> userToRoles = new HashMap<>();
+        fullEntityOvfData.getDbUsers().forEach(dbUser -> {
+            Set<String> roles = new HashSet<>();
+            entityPermissions.stream()
+                    .filter(permission -> dbUser.getId().equals(permission.getAdElementId()))
+                    .forEach(permission -> roles.add(permission.getRoleName()));
+            userToRoles.put(dbUser.getLoginName(), roles);
+        });
+
+        fullEntityOvfData.setUserToRoles(userToRoles);
+    }
+
     private void loadVmData(VM vm) {
         if (vm.getInterfaces().isEmpty()) {
             vm.setInterfaces(vmNetworkInterfaceDao.getAllForVm(vm.getId()));
@@ -4,7 +4,9 @@ import static org.ovirt.engine.core.bll.storage.disk.image.DisksFilter.ONLY_ACTI
 import static org.ovirt.engine.core.bll.storage.disk.image.DisksFilter.ONLY_SNAPABLE;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -126,19 +128,46 @@ public class OvfUpdateProcessHelper {
     }
 
     public ArrayList<DiskImage> getVmImagesFromDb(VM vm) {
-        ArrayList<DiskImage> allVmImages = new ArrayList<>();
-        List<DiskImage> filteredDisks = DisksFilter.filterImageDisks(vm.getDiskList(), ONLY_SNAPABLE, ONLY_ACTIVE);
-
-        for (DiskImage diskImage : filteredDisks) {
-            allVmImages.addAll(diskImageDao.getAllSnapshotsForLeaf(diskImage.getImageId()));
-        }
+        return getVmsImagesFromDb(Collections.singletonList(vm)).get(vm.getId());
+    }
 
-        for (DiskImage disk : allVmImages) {
-            DiskVmElement dve = diskVmElementDao.get(new VmDeviceId(disk.getId(), vm.getId()));
-            disk.setDiskVmElements(Collections.singletonList(dve));
+    /**
+     * Returns the images of the given vms by the vm id, the images of the disks of all the vms are loaded at once.
+     */
+    public Map<Guid, ArrayList<DiskImage>> getVmsImagesFromDb(Collection<VM> vms) {
+        Map<Guid, List<DiskImage>> filteredDisksByVm = vms.stream()
+                .collect(Collectors.toMap(VM::getId,
+                        vm -> DisksFilter.filterImageDisks(vm.getDiskList(), ONLY_SNAPABLE, ONLY_ACTIVE)));
+        List<Guid> leafIds = filteredDisksByVm.values()
+                .stream()
+                .flatMap(List::stream)
+                .map(DiskImage::getImageId)
+                .distinct()
+                .collect(Collectors.toList());
+        // the images of each disk are returned ordered by the images chain, the chain of a leaf is within its disk
+        Map<Guid, List<DiskImage>> imagesByDisk = leafIds.isEmpty() ? Collections.emptyMap()
+                : diskImageDao.getAllSnapshotsForLeaves(leafIds)
+                        .stream()
+                        .collect(Collectors.groupingBy(DiskImage::getId));
+
+        Map<Guid, ArrayList<DiskImage>> allVmsImages = new HashMap<>();
+        for (VM vm : vms) {
+            ArrayList<DiskImage> allVmImages = new ArrayList<>();
+            for (DiskImage diskImage : filteredDisksByVm.get(vm.getId())) {
+                // all the images of the disk share the disk VM element of the active image, if it was loaded already
+                DiskVmElement dve = diskImage.getDiskVmElementForVm(vm.getId());
+                if (dve == null) {
+                    dve = diskVmElementDao.get(new VmDeviceId(diskImage.getId(), vm.getId()));
+                }
+                for (DiskImage disk : imagesByDisk.getOrDefault(diskImage.getId(), Collections.emptyList())) {
+                    disk.setDiskVmElements(Collections.singletonList(dve));
+                    allVmImages.add(disk);
+                }
+            }
+            allVmsImages.put(vm.getId(), allVmImages);
         }
 
-        return allVmImages;
+        return allVmsImages;
     }
 
     /**
@@ -8,7 +8,10 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -21,15 +24,18 @@ import org.ovirt.engine.core.bll.context.CommandContext;
 import org.ovirt.engine.core.bll.storage.StorageHandlingCommandBase;
 import org.ovirt.engine.core.bll.storage.disk.image.DisksFilter;
 import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.common.VdcObjectType;
 import org.ovirt.engine.core.common.action.LockProperties;
 import org.ovirt.engine.core.common.action.ProcessOvfUpdateParameters;
 import org.ovirt.engine.core.common.businessentities.Label;
+import org.ovirt.engine.core.common.businessentities.Permission;
 import org.ovirt.engine.core.common.businessentities.Snapshot;
 import org.ovirt.engine.core.common.businessentities.StorageDomain;
 import org.ovirt.engine.core.common.businessentities.StorageDomainOvfInfo;
 import org.ovirt.engine.core.common.businessentities.StorageDomainOvfInfoStatus;
 import org.ovirt.engine.core.common.businessentities.StorageDomainStatus;
 import org.ovirt.engine.core.common.businessentities.StoragePool;
+import org.ovirt.engine.core.common.businessentities.StorageServerConnections;
 import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.common.businessentities.VMStatus;
 import org.ovirt.engine.core.common.businessentities.VmTemplate;
@@ -38,6 +44,7 @@ import org.ovirt.engine.core.common.businessentities.aaa.DbUser;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
 import org.ovirt.engine.core.common.businessentities.storage.FullEntityOvfData;
 import org.ovirt.engine.core.common.businessentities.storage.ImageStatus;
+import org.ovirt.engine.core.common.businessentities.storage.LUNStorageServerConnectionMap;
 import org.ovirt.engine.core.common.businessentities.storage.LunDisk;
 import org.ovirt.engine.core.common.config.Config;
 import org.ovirt.engine.core.common.config.ConfigValues;
@@ -50,10 +57,12 @@ import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.compat.KeyValuePairCompat;
 import org.ovirt.engine.core.dao.DbUserDao;
 import org.ovirt.engine.core.dao.LabelDao;
+import org.ovirt.engine.core.dao.PermissionDao;
 import org.ovirt.engine.core.dao.SnapshotDao;
 import org.ovirt.engine.core.dao.StorageDomainDao;
 import org.ovirt.engine.core.dao.StorageDomainOvfInfoDao;
 import org.ovirt.engine.core.dao.StorageServerConnectionDao;
+import org.ovirt.engine.core.dao.StorageServerConnectionLunMapDao;
 import org.ovirt.engine.core.dao.VmAndTemplatesGenerationsDao;
 import org.ovirt.engine.core.dao.VmDao;
 import org.ovirt.engine.core.dao.VmStaticDao;
@@ -83,6 +92,8 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
     @Inject
     private StorageServerConnectionDao storageServerConnectionDao;
     @Inject
+    private StorageServerConnectionLunMapDao storageServerConnectionLunMapDao;
+    @Inject
     private VmTemplateDao vmTemplateDao;
     @Inject
     private VmDao vmDao;
@@ -93,6 +104,8 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
     @Inject
     private DbUserDao dbUserDao;
     @Inject
+    private PermissionDao permissionDao;
+    @Inject
     private OvfHelper ovfHelper;
 
     private int itemsCountPerUpdate;
@@ -262,8 +275,8 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
         vmTemplateHandler.updateDisksFromDb(template);
     }
 
-    protected void updateVmDisksFromDb(VM vm) {
-        vmHandler.updateDisksFromDb(vm);
+    protected void updateVmsDisksFromDb(List<VM> vms) {
+        vmHandler.updateDisksFromDb(vms);
     }
 
     @Override
@@ -317,62 +330,141 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
     }
 
     /**
-     * Create and returns map contains valid vms metadata
+     * Create and returns map contains valid vms metadata. The data of the vms is loaded for all of them at once rather
+     * than per vm.
      */
     protected Map<Guid, KeyValuePairCompat<String, List<Guid>>> populateVmsMetadataForOvfUpdate(List<Guid> idsToProcess) {
         Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata = new HashMap<>();
-        List<VM> vms = vmDao.getVmsByIds(idsToProcess);
+        List<VM> vms = vmDao.getVmsByIds(idsToProcess)
+                .stream()
+                .filter(vm -> VMStatus.ImageLocked != vm.getStatus())
+                .collect(Collectors.toList());
+        if (vms.isEmpty()) {
+            return vmsAndTemplateMetadata;
+        }
+
+        updateVmsDisksFromDb(vms);
+        vms = vms.stream().filter(vm -> verifyImagesStatus(vm.getDiskList())).collect(Collectors.toList());
+        if (vms.isEmpty()) {
+            return vmsAndTemplateMetadata;
+        }
+
+        Map<Guid, ArrayList<DiskImage>> vmsImages = ovfUpdateProcessHelper.getVmsImagesFromDb(vms);
+        Map<Guid, List<Snapshot>> snapshotsByVm = snapshotDao.getAllWithConfiguration(getIds(vms))
+                .stream()
+                .collect(Collectors.groupingBy(Snapshot::getVmId));
+
+        List<VM> vmsToUpdate = new ArrayList<>();
         for (VM vm : vms) {
-            if (VMStatus.ImageLocked != vm.getStatus()) {
-                updateVmDisksFromDb(vm);
-                if (!verifyImagesStatus(vm.getDiskList())) {
-                    continue;
-                }
-                ArrayList<DiskImage> vmImages = ovfUpdateProcessHelper.getVmImagesFromDb(vm);
-                if (!verifyImagesStatus(vmImages)) {
-                    continue;
-                }
-                vm.setSnapshots(snapshotDao.getAllWithConfiguration(vm.getId()));
-                if (!verifySnapshotsStatus(vm.getSnapshots())) {
-                    continue;
-                }
+            if (!verifyImagesStatus(vmsImages.get(vm.getId()))) {
+                continue;
+            }
+            vm.setSnapshots(snapshotsByVm.getOrDefault(vm.getId(), new ArrayList<>()));
+            if (!verifySnapshotsStatus(vm.getSnapshots())) {
+                continue;
+            }
 
-                ovfUpdateProcessHelper.loadVmData(vm);
-                Long currentDbGeneration = vmStaticDao.getDbGeneration(vm.getId());
-                if (currentDbGeneration == null) {
-                    log.warn("currentDbGeneration of VM (name: '{}', id: '{}') is null, probably because the VM was deleted during the run of OvfDataUpdater.",
-                            vm.getName(),
-                            vm.getId());
-                    continue;
-                }
-                if (vm.getStaticData().getDbGeneration() == currentDbGeneration) {
-                    List<LunDisk> lunDisks = DisksFilter.filterLunDisks(vm.getDiskMap().values());
-                    for (LunDisk lun : lunDisks) {
-                        lun.getLun().setLunConnections(storageServerConnectionDao.getAllForLun(lun.getLun().getId()));
-                    }
+            ovfUpdateProcessHelper.loadVmData(vm);
+            vmsToUpdate.add(vm);
+        }
+        if (vmsToUpdate.isEmpty()) {
+            return vmsAndTemplateMetadata;
+        }
 
-                    List<AffinityGroup> affinityGroups = affinityGroupDao.getAllAffinityGroupsByVmId(vm.getId());
-                    List<Label> affinityLabels = labelDao.getAllByEntityIds(Collections.singletonList(vm.getId()));
-                    Set<DbUser> dbUsers = new HashSet<>(dbUserDao.getAllForVm(vm.getId()));
-                    FullEntityOvfData fullEntityOvfData = new FullEntityOvfData(vm);
-                    fullEntityOvfData.setDiskImages(vmImages);
-                    fullEntityOvfData.setLunDisks(lunDisks);
-                    fullEntityOvfData.setAffinityGroups(affinityGroups);
-                    fullEntityOvfData.setAffinityLabels(affinityLabels);
-                    fullEntityOvfData.setDbUsers(dbUsers);
-                    ovfHelper.populateUserToRoles(fullEntityOvfData, vm.getId());
-                    proccessedOvfConfigurationsInfo.add(ovfUpdateProcessHelper.buildMetadataDictionaryForVm(vm,
-                            vmsAndTemplateMetadata,
-                            fullEntityOvfData));
-                    proccessedIdsInfo.add(vm.getId());
-                    proccessedOvfGenerationsInfo.add(vm.getStaticData().getDbGeneration());
-                    proccessDisksDomains(vm.getDiskList());
+        // the generations are read after the data of the vms was loaded, to skip vms that were changed meanwhile
+        List<Guid> idsToUpdate = getIds(vmsToUpdate);
+        Map<Guid, Long> currentDbGenerations = vmStaticDao.getDbGenerations(idsToUpdate);
+        Map<Guid, List<AffinityGroup>> affinityGroupsByVm = new HashMap<>();
+        for (AffinityGroup affinityGroup : affinityGroupDao.getAllAffinityGroupsByVmIds(idsToUpdate)) {
+            for (Guid vmId : affinityGroup.getVmIds()) {
+                affinityGroupsByVm.computeIfAbsent(vmId, k -> new ArrayList<>()).add(affinityGroup);
+            }
+        }
+        Map<Guid, List<Label>> affinityLabelsByVm = new HashMap<>();
+        for (Label label : labelDao.getAllByEntityIds(idsToUpdate)) {
+            for (Guid vmId : label.getVms()) {
+                affinityLabelsByVm.computeIfAbsent(vmId, k -> new ArrayList<>()).add(label);
+            }
+        }
+        Map<String, List<StorageServerConnections>> lunConnections = getLunConnections(vmsToUpdate);
+        Map<Guid, DbUser> usersById = dbUserDao.getAllForVms(idsToUpdate)
+                .stream()
+                .collect(Collectors.toMap(DbUser::getId, Function.identity(), (user1, user2) -> user1));
+        Map<Guid, List<Permission>> permissionsByVm = permissionDao.getAllForObjectIds(idsToUpdate)
+                .stream()
+                .collect(Collectors.groupingBy(Permission::getObjectId));
+
+        for (VM vm : vmsToUpdate) {
+            Long currentDbGeneration = currentDbGenerations.get(vm.getId());
+            if (currentDbGeneration == null) {
+                log.warn("currentDbGeneration of VM (name: '{}', id: '{}') is null, probably because the VM was deleted during the run of OvfDataUpdater.",
+                        vm.getName(),
+                        vm.getId());
+                continue;
+            }
+            if (vm.getStaticData().getDbGeneration() == currentDbGeneration) {
+                List<LunDisk> lunDisks = DisksFilter.filterLunDisks(vm.getDiskMap().values());
+                for (LunDisk lun : lunDisks) {
+                    lun.getLun().setLunConnections(new ArrayList<>(
+                            lunConnections.getOrDefault(lun.getLun().getId(), Collections.emptyList())));
                 }
+
+                List<Permission> vmPermissions = permissionsByVm.getOrDefault(vm.getId(), Collections.emptyList());
+                Set<DbUser> dbUsers = vmPermissions.stream()
+                        .filter(permission -> permission.getObjectType() == VdcObjectType.VM)
+                        .map(permission -> usersById.get(permission.getAdElementId()))
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet());
+                FullEntityOvfData fullEntityOvfData = new FullEntityOvfData(vm);
+                fullEntityOvfData.setDiskImages(vmsImages.get(vm.getId()));
+                fullEntityOvfData.setLunDisks(lunDisks);
+                fullEntityOvfData.setAffinityGroups(affinityGroupsByVm.getOrDefault(vm.getId(), new ArrayList<>()));
+                fullEntityOvfData.setAffinityLabels(affinityLabelsByVm.getOrDefault(vm.getId(), new ArrayList<>()));
+                fullEntityOvfData.setDbUsers(dbUsers);
+                ovfHelper.populateUserToRoles(fullEntityOvfData, vmPermissions);
+                proccessedOvfConfigurationsInfo.add(ovfUpdateProcessHelper.buildMetadataDictionaryForVm(vm,
+                        vmsAndTemplateMetadata,
+                        fullEntityOvfData));
+                proccessedIdsInfo.add(vm.getId());
+                proccessedOvfGenerationsInfo.add(vm.getStaticData().getDbGeneration());
+                proccessDisksDomains(vm.getDiskList());
             }
         }
         return vmsAndTemplateMetadata;
     }
 
+    /**
+     * Returns the connections of the direct LUN disks of the given vms by the LUN id.
+     */
+    private Map<String, List<StorageServerConnections>> getLunConnections(List<VM> vms) {
+        List<String> lunIds = vms.stream()
+                .flatMap(vm -> DisksFilter.filterLunDisks(vm.getDiskMap().values()).stream())
+                .map(lun -> lun.getLun().getId())
+                .distinct()
+                .collect(Collectors.toList());
+        if (lunIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<LUNStorageServerConnectionMap> lunConnectionMaps = storageServerConnectionLunMapDao.getAllForLuns(lunIds);
+        Map<String, StorageServerConnections> connectionsById = storageServerConnectionDao.getByIds(
+                lunConnectionMaps.stream()
+                        .map(LUNStorageServerConnectionMap::getStorageServerConnection)
+                        .distinct()
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(StorageServerConnections::getId, Function.identity()));
+        return lunConnectionMaps.stream()
+                .filter(map -> connectionsById.containsKey(map.getStorageServerConnection()))
+                .collect(Collectors.groupingBy(LUNStorageServerConnectionMap::getLunId,
+                        Collectors.mapping(map -> connectionsById.get(map.getStorageServerConnection()),
+                                Collectors.toList())));
+    }
+
+    private static List<Guid> getIds(List<VM> vms) {
+        return vms.stream().map(VM::getId).collect(Collectors.toList());
+    }
+
     protected void proccessDisksDomains(List<DiskImage> disks) {
         if (disks.isEmpty()) {
             proccessedDomains.addAll(activeDataDomainsIds);
@@ -92,6 +92,8 @@ public final class AsyncTaskManager implements BackendService {
 
     private CountDownLatch irsBrokerLatch;
 
+    private final StoragePoolPollingSchedule pollingSchedule = new StoragePoolPollingSchedule();
+
     @PostConstruct
     private void init() {
         cacheTimeInMinutes = Config.<Long>getValue(ConfigValues.AsyncTaskStatusCachingTimeInMinutes);
@@ -402,8 +404,8 @@ public final class AsyncTaskManager implements BackendService {
     }
 
     /**
-     * Fetch all tasks statuses from each storagePoolId , and update the tasks
-     * map with the updated statuses.
+     * Fetch the tasks statuses of each storage pool whose poll is due, and update
+     * its tasks with the updated statuses.
      */
     private void pollAndUpdateAsyncTasks() {
         if (logChangedMap) {
@@ -411,103 +413,120 @@ public final class AsyncTaskManager implements BackendService {
                     tasks.size(), numberOfTasksToPoll());
         }
 
-        // Fetch Set of pool id's
-        Set<Guid> poolsOfActiveTasks = getPoolIdsTasks();
+        pollingSchedule.tick();
+        long maxIntervalInTicks = Config.<Long> getValue(ConfigValues.AsyncTaskMaxPollingRate)
+                / Math.max(1, Config.<Long> getValue(ConfigValues.AsyncTaskPollingRate));
+
+        Map<Guid, List<SPMTask>> tasksToPollByPool = getTasksToPollByPool();
+        pollingSchedule.retainAll(tasksToPollByPool.keySet());
+        for (Entry<Guid, List<SPMTask>> entry : tasksToPollByPool.entrySet()) {
+            Guid storagePoolID = entry.getKey();
+            if (!pollingSchedule.isDue(storagePoolID)) {
+                log.debug("Not polling the {} tasks of storage pool '{}', polling them every {} rounds.",
+                        entry.getValue().size(),
+                        storagePoolID,
+                        pollingSchedule.getIntervalInTicks(storagePoolID));
+                continue;
+            }
 
-        // Get all tasks from all the SPMs.
-        Map<Guid, Map<Guid, AsyncTaskStatus>> poolsAllTasksMap = getSPMsTasksStatuses(poolsOfActiveTasks);
+            long startTime = System.currentTimeMillis();
+            Map<Guid, AsyncTaskStatus> asyncTasksForPoolMap = getSPMTasksStatuses(storagePoolID);
+            long duration = System.currentTimeMillis() - startTime;
+            if (asyncTasksForPoolMap == null) {
+                pollingSchedule.failed(storagePoolID, entry.getValue().size(), duration);
+                continue;
+            }
 
-        // For each task that found on each pool id
-        updateTaskStatuses(poolsAllTasksMap);
+            boolean changed = updateTaskStatuses(entry.getValue(), asyncTasksForPoolMap);
+            pollingSchedule.polled(storagePoolID, changed, maxIntervalInTicks, entry.getValue().size(), duration);
+        }
     }
 
     /**
-     * Update task status based on asyncTaskMap.
+     * Update the tasks of a storage pool based on asyncTasksForPoolMap.
      *
-     * @param poolsAllTasksMap Task statuses Map fetched from VDSM.
+     * @param tasksToPoll the polled tasks of the storage pool.
+     * @param asyncTasksForPoolMap Task statuses Map fetched from VDSM.
+     * @return whether the status of a task changed or a task is not polled anymore
      */
-    private void updateTaskStatuses(
-            Map<Guid, Map<Guid, AsyncTaskStatus>> poolsAllTasksMap) {
-        for (SPMTask task : tasks.values()) {
-            if (task.getShouldPoll()) {
-                Map<Guid, AsyncTaskStatus> asyncTasksForPoolMap = poolsAllTasksMap
-                        .get(task.getStoragePoolID());
+    private boolean updateTaskStatuses(List<SPMTask> tasksToPoll, Map<Guid, AsyncTaskStatus> asyncTasksForPoolMap) {
+        boolean changed = false;
+        for (SPMTask task : tasksToPoll) {
+            AsyncTaskStatus cachedAsyncTaskStatus = asyncTasksForPoolMap.get(task.getVdsmTaskId());
+            changed |= task.getState() != AsyncTaskState.Polling
+                    || cachedAsyncTaskStatus == null
+                    || cachedAsyncTaskStatus.getStatus() != task.getLastTaskStatus().getStatus();
 
-                // If the storage pool id exists
-                if (asyncTasksForPoolMap != null) {
-                    AsyncTaskStatus cachedAsyncTaskStatus = asyncTasksForPoolMap
-                            .get(task.getVdsmTaskId());
+            log.debug("Updating task of command {} with id '{}' to status '{}'.",
+                    task.getParameters().getDbAsyncTask().getActionType(),
+                    task.getCommandId(),
+                    cachedAsyncTaskStatus);
 
-                    log.debug("Updating task of command {} with id '{}' to status '{}'.",
-                            task.getParameters().getDbAsyncTask().getActionType(),
-                            task.getCommandId(),
-                            cachedAsyncTaskStatus);
-
-                    // task found in VDSM.
-                    task.updateTask(cachedAsyncTaskStatus);
-                }
-            } else {
-                log.debug("Not updating task of command {} with id '{}' and status '{}'.",
-                        task.getParameters().getDbAsyncTask().getActionType(),
-                        task.getCommandId(),
-                        task.getLastTaskStatus());
-            }
+            // task found in VDSM.
+            task.updateTask(cachedAsyncTaskStatus);
         }
-
+        return changed;
     }
 
     /**
-     * Call VDSCommand for each pool id fetched from poolsOfActiveTasks , and
-     * Initialize a map with each storage pool Id task statuses.
+     * Call VDSCommand for the storage pool and return its task statuses.
      *
-     * @param poolsOfActiveTasks - Set of all the active tasks fetched from
-     * tasks.
-     * @return poolsAsyncTaskMap - Map which contains tasks for each storage
-     * pool id.
+     * @param storagePoolID - the storage pool whose tasks are polled.
+     * @return the statuses of the tasks of the storage pool, <code>null</code> if they could not be fetched.
      */
-    private Map<Guid, Map<Guid, AsyncTaskStatus>> getSPMsTasksStatuses(Set<Guid> poolsOfActiveTasks) {
-        Map<Guid, Map<Guid, AsyncTaskStatus>> poolsAsyncTaskMap = new HashMap<>();
-
-        // For each pool Id (SPM) ,add its tasks to the map.
-        for (Guid storagePoolID : poolsOfActiveTasks) {
-            try {
-                Map<Guid, AsyncTaskStatus> map = coco.getAllTasksStatuses(storagePoolID);
-                if (map != null) {
-                    poolsAsyncTaskMap.put(storagePoolID, map);
-                }
-            } catch (RuntimeException e) {
-                if ((e instanceof EngineException)
-                        && (((EngineException) e).getErrorCode() == EngineError.VDS_NETWORK_ERROR)) {
-                    log.debug("Get SPM task statuses: Calling Command {}VDSCommand, "
-                                    + "with storagePoolId '{}') threw an exception.",
-                            VDSCommandType.SPMGetAllTasksStatuses, storagePoolID);
-                } else {
-                    log.debug("Get SPM task statuses: Calling Command {}VDSCommand, "
-                                    + "with storagePoolId '{}') threw an exception: {}",
-                            VDSCommandType.SPMGetAllTasksStatuses, storagePoolID, e.getMessage());
-                }
-                log.debug("Exception", e);
+    private Map<Guid, AsyncTaskStatus> getSPMTasksStatuses(Guid storagePoolID) {
+        try {
+            return coco.getAllTasksStatuses(storagePoolID);
+        } catch (RuntimeException e) {
+            if ((e instanceof EngineException)
+                    && (((EngineException) e).getErrorCode() == EngineError.VDS_NETWORK_ERROR)) {
+                log.debug("Get SPM task statuses: Calling Command {}VDSCommand, "
+                                + "with storagePoolId '{}') threw an exception.",
+                        VDSCommandType.SPMGetAllTasksStatuses, storagePoolID);
+            } else {
+                log.debug("Get SPM task statuses: Calling Command {}VDSCommand, "
+                                + "with storagePoolId '{}') threw an exception: {}",
+                        VDSCommandType.SPMGetAllTasksStatuses, storagePoolID, e.getMessage());
             }
+            log.debug("Exception", e);
+            return null;
         }
-
-        return poolsAsyncTaskMap;
     }
 
     /**
-     * Get a Set of all the storage pool id's of tasks that should pool.
+     * Group the tasks that should poll by their storage pool id.
      *
-     * @return - Set of active tasks.
+     * @return - the tasks to poll of each storage pool.
      * @see SPMAsyncTask#getShouldPoll()
      */
-    private Set<Guid> getPoolIdsTasks() {
-        Set<Guid> poolsOfActiveTasks = new HashSet<>();
+    private Map<Guid, List<SPMTask>> getTasksToPollByPool() {
+        Map<Guid, List<SPMTask>> tasksToPollByPool = new HashMap<>();
 
         for (SPMTask task : tasks.values()) {
             if (task.getShouldPoll()) {
-                poolsOfActiveTasks.add(task.getStoragePoolID());
+                tasksToPollByPool.computeIfAbsent(task.getStoragePoolID(), id -> new ArrayList<>()).add(task);
+            } else {
+                log.debug("Not updating task of command {} with id '{}' and status '{}'.",
+                        task.getParameters().getDbAsyncTask().getActionType(),
+                        task.getCommandId(),
+                        task.getLastTaskStatus());
             }
         }
-        return poolsOfActiveTasks;
+        return tasksToPollByPool;
+    }
+
+    /**
+     * @return the number of tasks polled on each storage pool by its last poll
+     */
+    public Map<Guid, Integer> getPolledTasksCounts() {
+        return pollingSchedule.getTasksCounts();
+    }
+
+    /**
+     * @return the duration in milliseconds of the last poll of the tasks of each storage pool
+     */
+    public Map<Guid, Long> getPollDurations() {
+        return pollingSchedule.getPollDurations();
     }
 
     /**
@@ -558,6 +577,7 @@ public final class AsyncTaskManager implements BackendService {
                 // Set the indication to true for logging tasks status on next
                 // execution.
                 addTaskToMap(task.getVdsmTaskId(), task);
+                pollingSchedule.pollNext(task.getStoragePoolID());
             } else {
                 SPMTask existingTask = tasks.get(task.getVdsmTaskId());
                 if (existingTask.getParameters().getDbAsyncTask().getActionType() == ActionType.Unknown
@@ -610,7 +630,9 @@ public final class AsyncTaskManager implements BackendService {
 
     public synchronized void startPollingTask(Guid vdsmTaskId) {
         if (tasks.containsKey(vdsmTaskId)) {
-            tasks.get(vdsmTaskId).startPollingTask();
+            SPMTask task = tasks.get(vdsmTaskId);
+            task.startPollingTask();
+            pollingSchedule.pollNext(task.getStoragePoolID());
         }
     }
 
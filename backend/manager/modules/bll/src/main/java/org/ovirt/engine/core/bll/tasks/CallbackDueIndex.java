@@ -0,0 +1,84 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Hashed timer wheel which indexes the command callbacks by the polling tick they are due in. Advancing the wheel by
+ * one tick returns only the callbacks which are due, so the poller does not have to visit the callbacks of idle
+ * commands on every tick.
+ *
+ * A command is kept at most once in the index, scheduling a command again replaces its previous due tick. Stale
+ * bucket entries are dropped lazily when their bucket is visited.
+ */
+class CallbackDueIndex {
+
+    private final List<Set<Guid>> buckets;
+    private final Map<Guid, Long> dueTicks = new HashMap<>();
+    private long currentTick;
+
+    CallbackDueIndex(int wheelSize) {
+        buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Schedules the callback of the command to be due after the given number of ticks, at least one tick from now.
+     */
+    public synchronized void schedule(Guid cmdId, long delayInTicks) {
+        long dueTick = currentTick + Math.max(1, delayInTicks);
+        dueTicks.put(cmdId, dueTick);
+        buckets.get(bucketOf(dueTick)).add(cmdId);
+    }
+
+    public synchronized void remove(Guid cmdId) {
+        Long dueTick = dueTicks.remove(cmdId);
+        if (dueTick != null) {
+            buckets.get(bucketOf(dueTick)).remove(cmdId);
+        }
+    }
+
+    public synchronized boolean contains(Guid cmdId) {
+        return dueTicks.containsKey(cmdId);
+    }
+
+    public synchronized int size() {
+        return dueTicks.size();
+    }
+
+    /**
+     * Moves the wheel one tick forward and returns the commands whose callbacks became due. The returned commands are
+     * removed from the index and should be scheduled again by the caller if they need further polling.
+     */
+    public synchronized List<Guid> advance() {
+        currentTick++;
+        List<Guid> due = new ArrayList<>();
+        Iterator<Guid> iterator = buckets.get(bucketOf(currentTick)).iterator();
+        while (iterator.hasNext()) {
+            Guid cmdId = iterator.next();
+            Long dueTick = dueTicks.get(cmdId);
+            if (dueTick == null || bucketOf(dueTick) != bucketOf(currentTick)) {
+                // the command was removed or scheduled to a different bucket
+                iterator.remove();
+            } else if (dueTick <= currentTick) {
+                iterator.remove();
+                dueTicks.remove(cmdId);
+                due.add(cmdId);
+            }
+        }
+        return due;
+    }
+
+    private int bucketOf(long tick) {
+        return (int) (tick % buckets.size());
+    }
+}
@@ -75,6 +75,8 @@ public class CoCoEventSubscriber extends EventSubscriber {
             if (commandEntityFromCache != null) {
                 commandEntityFromCache.setWaitingForEvent(false);
             }
+            // the callback is not polled while waiting for the event, so it should be polled on the next loop
+            commandsRepository.scheduleCallback(cmdId, 0);
         }
     }
 }
@@ -1,20 +1,31 @@
 package org.ovirt.engine.core.bll.tasks;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.inject.Inject;
+import javax.management.ObjectName;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.ovirt.engine.core.bll.tasks.interfaces.CommandCallback;
+import org.ovirt.engine.core.bll.utils.DurationHistogram;
 import org.ovirt.engine.core.common.BackendService;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.businessentities.CommandEntity;
@@ -27,14 +38,37 @@ import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class CommandCallbacksPoller implements BackendService {
+public class CommandCallbacksPoller implements BackendService, CommandCallbacksPollerMonitorMXBean {
 
     @Inject
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     private ManagedScheduledExecutorService executor;
 
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.CoCo)
+    private ManagedExecutorService callbacksExecutor;
+
     private static final Logger log = LoggerFactory.getLogger(CommandCallbacksPoller.class);
     private long pollingRate;
+    private boolean parallelCallbacksEnabled;
+
+    /**
+     * Limits the number of callbacks invoked in parallel, a permit is held by each group of callbacks submitted to
+     * the callbacks executor
+     */
+    private Semaphore callbackPermits;
+
+    /**
+     * The root commands whose callbacks are invoked at the moment, callbacks of the same root command are never
+     * invoked in parallel in order to keep the ordering between a parent and its children
+     */
+    private final Set<Guid> inFlightRootCommands = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger activeCallbacks = new AtomicInteger();
+    private final LongAdder deferredCallbacks = new LongAdder();
+    private final DurationHistogram callbackLatency = new DurationHistogram();
+    private volatile int lastDueCallbacksCount;
+    private ObjectName objectName;
 
     @Inject
     private CommandsRepository commandsRepository;
@@ -44,10 +78,13 @@ public class CommandCallbacksPoller implements BackendService {
     private int repeatEndMethodsOnFailMaxRetries;
 
     @PostConstruct
-    private void init() {
+    void init() {
         log.info("Start initializing {}", getClass().getSimpleName());
         pollingRate = Config.<Long>getValue(ConfigValues.AsyncCommandPollingLoopInSeconds);
         repeatEndMethodsOnFailMaxRetries = Config.<Integer>getValue(ConfigValues.RepeatEndMethodsOnFailMaxRetries);
+        parallelCallbacksEnabled = Config.<Boolean>getValue(ConfigValues.AsyncCommandParallelCallbacksEnabled);
+        callbackPermits = new Semaphore(Config.<Integer>getValue(ConfigValues.AsyncCommandMaxParallelCallbacks));
+        registerInJMX();
         initCommandExecutor();
         executor.scheduleWithFixedDelay(this::invokeCallbackMethods,
                 pollingRate,
@@ -56,6 +93,30 @@ public class CommandCallbacksPoller implements BackendService {
         log.info("Finished initializing {}", getClass().getSimpleName());
     }
 
+    private void registerInJMX() {
+        try {
+            objectName = new ObjectName("CommandCallbacksPoller:type=" + CommandCallbacksPoller.class.getName());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (Exception e) {
+            objectName = null;
+            log.warn("Failed to register the callbacks poller monitoring into JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    @PreDestroy
+    private void unregisterFromJMX() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (Exception e) {
+            log.warn("Failed to unregister the callbacks poller monitoring from JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
     private boolean endCallback(Guid cmdId, CommandCallback callback, CommandStatus status) {
         try {
             boolean shouldRepeatEndMethodsOnFail = callback.shouldRepeatEndMethodsOnFail(cmdId);
@@ -129,106 +190,181 @@ public class CommandCallbacksPoller implements BackendService {
         }
     }
 
-    private void invokeCallbackMethodsImpl() {
-        Iterator<Entry<Guid, CallbackTiming>> iterator = commandsRepository.getCallbacksTiming().entrySet().iterator();
-        while (iterator.hasNext()) {
-            Entry<Guid, CallbackTiming> entry = iterator.next();
-
-            Guid cmdId = entry.getKey();
-            CallbackTiming callbackTiming = entry.getValue();
-            CommandEntity commandEntity = commandsRepository.getCommandEntity(cmdId);
-            CorrelationIdTracker.setCorrelationId(commandEntity != null
-                    ? commandEntity.getCommandParameters().getCorrelationId() : null);
-            if (commandEntity != null && updateCommandWaitingForEvent(commandEntity, callbackTiming)) {
-                continue;
+    void invokeCallbackMethodsImpl() {
+        List<Guid> dueCmdIds = commandsRepository.pollDueCallbacks();
+        lastDueCallbacksCount = dueCmdIds.size();
+        if (parallelCallbacksEnabled) {
+            dispatchCallbacks(dueCmdIds);
+        } else {
+            dueCmdIds.forEach(this::invokeCallback);
+        }
+        commandsRepository.markExpiredCommandsAsFailure();
+    }
+
+    /**
+     * Submits the due callbacks to the callbacks executor, grouped by their root command. The callbacks of a group are
+     * invoked one after another, children before their root command, and a group is postponed to the next polling loop
+     * if the callbacks of its root command are still being invoked or the maximal number of parallel callbacks is
+     * reached.
+     *
+     * @param dueCmdIds
+     *            the ids of the commands whose callbacks are due
+     */
+    private void dispatchCallbacks(List<Guid> dueCmdIds) {
+        Map<Guid, List<Guid>> cmdIdsByRoot = dueCmdIds.stream()
+                .collect(Collectors.groupingBy(this::getRootCommandId, LinkedHashMap::new, Collectors.toList()));
+        cmdIdsByRoot.forEach((rootCmdId, cmdIds) -> {
+            cmdIds.sort(Comparator.comparing(rootCmdId::equals));
+            if (!inFlightRootCommands.add(rootCmdId)) {
+                deferCallbacks(cmdIds);
+                return;
+            }
+            if (!callbackPermits.tryAcquire()) {
+                inFlightRootCommands.remove(rootCmdId);
+                deferCallbacks(cmdIds);
+                return;
+            }
+            try {
+                callbacksExecutor.submit(() -> {
+                    try {
+                        cmdIds.forEach(this::invokeCallback);
+                    } finally {
+                        callbackPermits.release();
+                        inFlightRootCommands.remove(rootCmdId);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                log.debug("Callbacks executor rejected the callbacks of root command '{}'", rootCmdId);
+                callbackPermits.release();
+                inFlightRootCommands.remove(rootCmdId);
+                deferCallbacks(cmdIds);
             }
+        });
+    }
 
-            // Decrement counter; execute if it reaches 0
-            callbackTiming.setRemainingDelay(callbackTiming.getRemainingDelay() - pollingRate);
-            ActionType cmdActionType = commandEntity == null ? ActionType.Unknown : commandEntity.getCommandType();
-            if (callbackTiming.getRemainingDelay() > 0) {
-                log.debug("The command {} ({}) has remaining delay {}, polling will be skipped.",
-                        cmdActionType,
-                        cmdId,
-                        callbackTiming.getRemainingDelay());
-                continue;
+    private Guid getRootCommandId(Guid cmdId) {
+        CommandEntity commandEntity = commandsRepository.getCommandEntity(cmdId);
+        return commandEntity == null || Guid.isNullOrEmpty(commandEntity.getRootCommandId())
+                ? cmdId
+                : commandEntity.getRootCommandId();
+    }
+
+    private void deferCallbacks(List<Guid> cmdIds) {
+        cmdIds.forEach(cmdId -> commandsRepository.scheduleCallback(cmdId, pollingRate));
+        deferredCallbacks.add(cmdIds.size());
+    }
+
+    private void invokeCallback(Guid cmdId) {
+        long start = System.nanoTime();
+        activeCallbacks.incrementAndGet();
+        try {
+            invokeCallbackImpl(cmdId);
+        } catch (Throwable t) {
+            logInvocationCallbackError(t);
+            // make sure the callback of the command is not lost because of the failure
+            if (commandsRepository.getCallbackTiming(cmdId) != null) {
+                commandsRepository.scheduleCallback(cmdId, pollingRate);
             }
+        } finally {
+            CorrelationIdTracker.setCorrelationId(null);
+            activeCallbacks.decrementAndGet();
+            callbackLatency.record(System.nanoTime() - start);
+        }
+    }
 
-            CommandCallback callback = callbackTiming.getCallback();
-            CommandStatus status = commandsRepository.getCommandStatus(cmdId);
-            log.debug("Command {} ({}) in status {}", cmdActionType, cmdId, status);
-            boolean runCallbackAgain = false;
-            boolean errorInCallback = false;
-            try {
-                switch (status) {
-                    case FAILED:
-                    case SUCCEEDED:
-                        runCallbackAgain = endCallback(cmdId, callback, status);
-                        break;
-                    case ACTIVE:
-                        if (commandEntity == null) {
-                            log.info("Not invoking command's {} doPolling method command entity is null, callback is {}.",
-                                    cmdId,
-                                    callbackTiming.getCallback() == null ? "NULL" : callbackTiming.getCallback().getClass().getCanonicalName());
-                        } else if (commandEntity.isExecuted()) {
-                            log.debug("Invoking command's {} ({}) doPolling method.", cmdActionType, cmdId);
-                            callback.doPolling(cmdId, getChildCommandIds(cmdId));
-                        }
-                        break;
-                    case EXECUTION_FAILED:
-                        if (callback.pollOnExecutionFailed()) {
-                            log.debug("Invoking command's {} ({}) doPolling method.", cmdActionType, cmdId);
-                            callback.doPolling(cmdId, getChildCommandIds(cmdId));
-                        } else {
-                            log.info("Not invoking command's {} ({}) doPolling method callback's pollOnExecutionFailed is false.",
-                                    cmdActionType, cmdId);
-                        }
-                        break;
-                    default:
-                        break;
-                }
-            } catch (Throwable ex) {
-                errorInCallback = true;
-                log.info("Exception in invoking callback of command {} ({}): {}",
-                        cmdActionType,
-                        cmdId,
-                        ExceptionUtils.getRootCauseMessage(ex));
-                log.debug("Exception", ex);
-                handleError(ex, status, cmdId);
-            } finally {
-                if ((CommandStatus.FAILED == status || (CommandStatus.SUCCEEDED == status && !errorInCallback))
-                        && !runCallbackAgain) {
-                    log.debug("Callback of command {} ({}) has been notified, removing command from command repository.",
-                            cmdActionType, cmdId);
-                    commandsRepository.updateCallbackNotified(cmdId);
-                    iterator.remove();
-                    CommandEntity cmdEntity = commandsRepository.getCommandEntity(entry.getKey());
-                    if (cmdEntity != null) {
-                        // When a child finishes, its parent's callback should execute shortly thereafter
-                        CallbackTiming rootCmdContainer =
-                                commandsRepository.getCallbackTiming(cmdEntity.getRootCommandId());
-                        if (rootCmdContainer != null) {
-                            rootCmdContainer.setInitialDelay(pollingRate);
-                            rootCmdContainer.setRemainingDelay(pollingRate);
-                        }
+    private void invokeCallbackImpl(Guid cmdId) {
+        CallbackTiming callbackTiming = commandsRepository.getCallbackTiming(cmdId);
+        if (callbackTiming == null) {
+            // the callback was removed since it was scheduled
+            return;
+        }
+
+        CommandEntity commandEntity = commandsRepository.getCommandEntity(cmdId);
+        CorrelationIdTracker.setCorrelationId(commandEntity != null
+                ? commandEntity.getCommandParameters().getCorrelationId() : null);
+        if (commandEntity != null && updateCommandWaitingForEvent(commandEntity, callbackTiming)) {
+            // the event subscriber will reschedule the callback once the event arrives
+            long waitOnEventRemainingMillis = callbackTiming.getWaitOnEventEndTime() - System.currentTimeMillis();
+            commandsRepository.scheduleCallback(cmdId, TimeUnit.MILLISECONDS.toSeconds(waitOnEventRemainingMillis) + 1);
+            return;
+        }
+
+        ActionType cmdActionType = commandEntity == null ? ActionType.Unknown : commandEntity.getCommandType();
+        CommandCallback callback = callbackTiming.getCallback();
+        CommandStatus status = commandsRepository.getCommandStatus(cmdId);
+        log.debug("Command {} ({}) in status {}", cmdActionType, cmdId, status);
+        boolean runCallbackAgain = false;
+        boolean errorInCallback = false;
+        try {
+            switch (status) {
+                case FAILED:
+                case SUCCEEDED:
+                    runCallbackAgain = endCallback(cmdId, callback, status);
+                    break;
+                case ACTIVE:
+                    if (commandEntity == null) {
+                        log.info("Not invoking command's {} doPolling method command entity is null, callback is {}.",
+                                cmdId,
+                                callbackTiming.getCallback() == null ? "NULL" : callbackTiming.getCallback().getClass().getCanonicalName());
+                    } else if (commandEntity.isExecuted()) {
+                        log.debug("Invoking command's {} ({}) doPolling method.", cmdActionType, cmdId);
+                        callback.doPolling(cmdId, getChildCommandIds(cmdId));
+                    }
+                    break;
+                case EXECUTION_FAILED:
+                    if (callback.pollOnExecutionFailed()) {
+                        log.debug("Invoking command's {} ({}) doPolling method.", cmdActionType, cmdId);
+                        callback.doPolling(cmdId, getChildCommandIds(cmdId));
+                    } else {
+                        log.info("Not invoking command's {} ({}) doPolling method callback's pollOnExecutionFailed is false.",
+                                cmdActionType, cmdId);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (Throwable ex) {
+            errorInCallback = true;
+            log.info("Exception in invoking callback of command {} ({}): {}",
+                    cmdActionType,
+                    cmdId,
+                    ExceptionUtils.getRootCauseMessage(ex));
+            log.debug("Exception", ex);
+            handleError(ex, status, cmdId);
+        } finally {
+            if ((CommandStatus.FAILED == status || (CommandStatus.SUCCEEDED == status && !errorInCallback))
+                    && !runCallbackAgain) {
+                log.debug("Callback of command {} ({}) has been notified, removing command from command repository.",
+                        cmdActionType, cmdId);
+                commandsRepository.updateCallbackNotified(cmdId);
+                commandsRepository.removeFromCallbackMap(cmdId);
+                CommandEntity cmdEntity = commandsRepository.getCommandEntity(cmdId);
+                if (cmdEntity != null) {
+                    // When a child finishes, its parent's callback should execute shortly thereafter
+                    CallbackTiming rootCmdContainer =
+                            commandsRepository.getCallbackTiming(cmdEntity.getRootCommandId());
+                    if (rootCmdContainer != null) {
+                        rootCmdContainer.setInitialDelay(pollingRate);
+                        rootCmdContainer.setRemainingDelay(pollingRate);
+                        commandsRepository.scheduleCallback(cmdEntity.getRootCommandId(), pollingRate);
                     }
-                } else if (status != commandsRepository.getCommandStatus(cmdId)) {
-                    log.debug("Command {} ({}) status {} has been updated to {}, command will be polled again.",
-                            cmdActionType, cmdId,
-                            commandsRepository.getCommandStatus(cmdId),
-                            status);
-                    callbackTiming.setInitialDelay(pollingRate);
-                    callbackTiming.setRemainingDelay(pollingRate);
-                } else {
-                    log.debug("Command {} ({}) will be polled again, updating initial and remaining delay.", cmdActionType, cmdId);
-                    long maxDelay = Config.<Long>getValue(ConfigValues.AsyncCommandPollingRateInSeconds);
-                    callbackTiming.setInitialDelay(Math.min(maxDelay, callbackTiming.getInitialDelay() * 2));
-                    callbackTiming.setRemainingDelay(callbackTiming.getInitialDelay());
                 }
+            } else if (status != commandsRepository.getCommandStatus(cmdId)) {
+                log.debug("Command {} ({}) status {} has been updated to {}, command will be polled again.",
+                        cmdActionType, cmdId,
+                        commandsRepository.getCommandStatus(cmdId),
+                        status);
+                callbackTiming.setInitialDelay(pollingRate);
+                callbackTiming.setRemainingDelay(pollingRate);
+                commandsRepository.scheduleCallback(cmdId, pollingRate);
+            } else {
+                log.debug("Command {} ({}) will be polled again, updating initial and remaining delay.", cmdActionType, cmdId);
+                long maxDelay = Config.<Long>getValue(ConfigValues.AsyncCommandPollingRateInSeconds);
+                callbackTiming.setInitialDelay(Math.min(maxDelay, callbackTiming.getInitialDelay() * 2));
+                callbackTiming.setRemainingDelay(callbackTiming.getInitialDelay());
+                commandsRepository.scheduleCallback(cmdId, callbackTiming.getInitialDelay());
             }
         }
-        CorrelationIdTracker.setCorrelationId(null);
-        commandsRepository.markExpiredCommandsAsFailure();
     }
 
     private void handleError(Throwable ex, CommandStatus status, Guid cmdId) {
@@ -297,4 +433,55 @@ public class CommandCallbacksPoller implements BackendService {
         }
         return false;
     }
+
+    @Override
+    public boolean isParallelCallbacksEnabled() {
+        return parallelCallbacksEnabled;
+    }
+
+    @Override
+    public int getTrackedCallbacksCount() {
+        return commandsRepository.getCallbacksTiming().size();
+    }
+
+    @Override
+    public int getScheduledCallbacksCount() {
+        return commandsRepository.getScheduledCallbacksCount();
+    }
+
+    @Override
+    public int getLastDueCallbacksCount() {
+        return lastDueCallbacksCount;
+    }
+
+    @Override
+    public int getActiveCallbacksCount() {
+        return activeCallbacks.get();
+    }
+
+    @Override
+    public long getDeferredCallbacksCount() {
+        return deferredCallbacks.sum();
+    }
+
+    @Override
+    public long getInvokedCallbacksCount() {
+        return callbackLatency.getCount();
+    }
+
+    @Override
+    public long getCallbackLatencyTotalMillis() {
+        return callbackLatency.getTotalMillis();
+    }
+
+    @Override
+    public Map<String, Long> getCallbackLatencyHistogram() {
+        return callbackLatency.toMap();
+    }
+
+    @Override
+    public void resetStatistics() {
+        deferredCallbacks.reset();
+        callbackLatency.reset();
+    }
 }
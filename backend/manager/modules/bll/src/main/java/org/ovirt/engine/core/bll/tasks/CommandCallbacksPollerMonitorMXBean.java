@@ -0,0 +1,60 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import java.util.Map;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface CommandCallbacksPollerMonitorMXBean {
+
+    /**
+     * The following method will return whether the callbacks are invoked in parallel
+     */
+    boolean isParallelCallbacksEnabled();
+
+    /**
+     * The following method will return the number of commands whose callbacks are tracked by the poller
+     */
+    int getTrackedCallbacksCount();
+
+    /**
+     * The following method will return the number of callbacks scheduled for one of the next polling loops
+     */
+    int getScheduledCallbacksCount();
+
+    /**
+     * The following method will return the number of callbacks which were due in the last polling loop
+     */
+    int getLastDueCallbacksCount();
+
+    /**
+     * The following method will return the number of callbacks being invoked at the moment
+     */
+    int getActiveCallbacksCount();
+
+    /**
+     * The following method will return the number of callbacks postponed to the next polling loop because their root
+     * command was handled at the moment or there was no free worker
+     */
+    long getDeferredCallbacksCount();
+
+    /**
+     * The following method will return the number of callback invocations
+     */
+    long getInvokedCallbacksCount();
+
+    /**
+     * The following method will return the total time in milliseconds spent in callback invocations
+     */
+    long getCallbackLatencyTotalMillis();
+
+    /**
+     * The following method will return the distribution of the time spent in callback invocations
+     */
+    Map<String, Long> getCallbackLatencyHistogram();
+
+    /**
+     * The following method will reset all the collected statistics
+     */
+    void resetStatistics();
+}
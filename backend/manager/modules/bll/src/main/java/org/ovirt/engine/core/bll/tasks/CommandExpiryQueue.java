@@ -0,0 +1,66 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Queue of the commands ordered by the time their life ends, so the poller checks only the commands which expired
+ * instead of all the commands with callbacks on every polling loop.
+ *
+ * A command is kept at most once in the queue, adding a command again replaces its previous expiry time.
+ */
+class CommandExpiryQueue {
+
+    private final NavigableMap<Long, Set<Guid>> commandsByExpiryTime = new TreeMap<>();
+    private final Map<Guid, Long> expiryTimes = new HashMap<>();
+
+    public synchronized void add(Guid cmdId, long expiryTime) {
+        remove(cmdId);
+        expiryTimes.put(cmdId, expiryTime);
+        commandsByExpiryTime.computeIfAbsent(expiryTime, time -> new HashSet<>()).add(cmdId);
+    }
+
+    public synchronized void remove(Guid cmdId) {
+        Long expiryTime = expiryTimes.remove(cmdId);
+        if (expiryTime != null) {
+            Set<Guid> cmdIds = commandsByExpiryTime.get(expiryTime);
+            cmdIds.remove(cmdId);
+            if (cmdIds.isEmpty()) {
+                commandsByExpiryTime.remove(expiryTime);
+            }
+        }
+    }
+
+    public synchronized boolean contains(Guid cmdId) {
+        return expiryTimes.containsKey(cmdId);
+    }
+
+    public synchronized int size() {
+        return expiryTimes.size();
+    }
+
+    /**
+     * Removes and returns the commands which expired by the given time, in the order they expired.
+     */
+    public synchronized List<Guid> pollExpired(long time) {
+        List<Guid> expired = new ArrayList<>();
+        Iterator<Set<Guid>> iterator = commandsByExpiryTime.headMap(time, true).values().iterator();
+        while (iterator.hasNext()) {
+            for (Guid cmdId : iterator.next()) {
+                expiryTimes.remove(cmdId);
+                expired.add(cmdId);
+            }
+            iterator.remove();
+        }
+        return expired;
+    }
+}
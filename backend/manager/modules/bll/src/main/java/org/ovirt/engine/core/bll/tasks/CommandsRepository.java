@@ -2,7 +2,6 @@ package org.ovirt.engine.core.bll.tasks;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -40,7 +39,10 @@ import org.slf4j.LoggerFactory;
 public class CommandsRepository {
 
     private static final Logger log = LoggerFactory.getLogger(CommandsRepository.class);
+    private static final int CALLBACKS_WHEEL_SIZE = 512;
     private final ConcurrentMap<Guid, CallbackTiming> callbacksTiming;
+    private final CallbackDueIndex callbacksDueIndex = new CallbackDueIndex(CALLBACKS_WHEEL_SIZE);
+    private final CommandExpiryQueue commandsExpiryQueue = new CommandExpiryQueue();
     private final CommandsCache commandsCache;
     private final CommandContextsCache contextsCache;
     private final ConcurrentHashMap<Guid, List<Guid>> childHierarchy;
@@ -110,6 +112,48 @@ public class CommandsRepository {
 
     public void addToCallbackMap(Guid commandId, CallbackTiming callbackTiming) {
         callbacksTiming.put(commandId, callbackTiming);
+        scheduleCallback(commandId, callbackTiming.getRemainingDelay());
+        trackExpiry(getCommandEntity(commandId));
+        getChildCommandIds(commandId).forEach(childCmdId -> trackExpiry(getCommandEntity(childCmdId)));
+    }
+
+    public void removeFromCallbackMap(Guid commandId) {
+        callbacksTiming.remove(commandId);
+        callbacksDueIndex.remove(commandId);
+        CommandEntity cmdEntity = getCommandEntity(commandId);
+        if (cmdEntity == null || !isChildOfCallback(cmdEntity)) {
+            commandsExpiryQueue.remove(commandId);
+        }
+    }
+
+    /**
+     * Schedules the next invocation of the command's callback by the polling loop
+     *
+     * @param commandId
+     *            the id of the command
+     * @param delayInSeconds
+     *            the delay after which the callback should be invoked, rounded up to whole polling loops
+     */
+    public void scheduleCallback(Guid commandId, long delayInSeconds) {
+        long pollingLoop = getPollingLoopInSeconds();
+        callbacksDueIndex.schedule(commandId, (delayInSeconds + pollingLoop - 1) / pollingLoop);
+    }
+
+    private long getPollingLoopInSeconds() {
+        return Math.max(1, Config.<Long>getValue(ConfigValues.AsyncCommandPollingLoopInSeconds));
+    }
+
+    /**
+     * Advances the callbacks index by one polling loop
+     *
+     * @return the ids of the commands whose callbacks are due, they are not scheduled anymore
+     */
+    public List<Guid> pollDueCallbacks() {
+        return callbacksDueIndex.advance();
+    }
+
+    public int getScheduledCallbacksCount() {
+        return callbacksDueIndex.size();
     }
 
     public void persistCommand(CommandEntity cmdEntity, CommandContext cmdContext) {
@@ -140,6 +184,7 @@ public class CommandsRepository {
                         commandsCache.get(cmdEntity.getParentCommandId()).isCallbackEnabled()
                 )) {
             buildCmdHierarchy(cmdEntity);
+            trackExpiry(cmdEntity);
             if (!cmdEntity.isCallbackNotified()) {
                 addToCallbackMap(cmdEntity);
             }
@@ -217,6 +262,7 @@ public class CommandsRepository {
     public void removeCommand(Guid commandId) {
         commandsCache.remove(commandId);
         contextsCache.remove(commandId);
+        commandsExpiryQueue.remove(commandId);
         updateCmdHierarchy(commandId);
     }
 
@@ -331,33 +377,57 @@ public class CommandsRepository {
         return callbacksTiming.get(commandId);
     }
 
+    /**
+     * Marks the commands whose life has ended while they are still active as failed. Only the commands which expired
+     * since the previous polling loop are checked: a command with a callback as long as it has no children, else its
+     * children, which are polled by its callback.
+     */
     public void markExpiredCommandsAsFailure() {
-        for (Guid commandId : callbacksTiming.keySet()) {
-            List<Guid> childCmdIds = getChildCommandIds(commandId);
-            if (childCmdIds.isEmpty()) {
-                markExpiredCommandAsFailure(commandId);
-            } else {
-                childCmdIds.forEach(this::markExpiredCommandAsFailure);
+        markExpiredCommandsAsFailure(System.currentTimeMillis());
+    }
+
+    void markExpiredCommandsAsFailure(long now) {
+        for (Guid cmdId : commandsExpiryQueue.pollExpired(now)) {
+            CommandEntity cmdEntity = getCommandEntity(cmdId);
+            if (cmdEntity == null || !(callbacksTiming.containsKey(cmdId) || isChildOfCallback(cmdEntity))) {
+                // the expiry is tracked again once the command or its parent is added to the callbacks
+                continue;
+            }
+            CommandStatus status = cmdEntity.getCommandStatus();
+            if (status == CommandStatus.ACTIVE
+                    && (isChildOfCallback(cmdEntity) || getChildCommandIds(cmdId).isEmpty())) {
+                markExpiredCommandAsFailure(cmdEntity);
+            } else if (status == CommandStatus.NOT_STARTED || status == CommandStatus.ACTIVE) {
+                // the command may still start or lose its children, check it again on the next polling loop
+                commandsExpiryQueue.add(cmdId, now + TimeUnit.SECONDS.toMillis(getPollingLoopInSeconds()));
             }
         }
     }
 
-    private void markExpiredCommandAsFailure(Guid cmdId) {
-        CommandEntity cmdEntity = getCommandEntity(cmdId);
-        if (cmdEntity != null && cmdEntity.getCommandStatus() == CommandStatus.ACTIVE) {
-            Calendar cal = Calendar.getInstance();
-            Integer cmdLifeTimeInMin = cmdEntity.getCommandParameters().getLifeInMinutes();
-            cal.add(Calendar.MINUTE, -1 * (cmdLifeTimeInMin == null ?
-                    Config.<Integer>getValue(ConfigValues.CoCoLifeInMinutes) :
-                    cmdLifeTimeInMin));
-            if (cmdEntity.getCreatedAt().getTime() < cal.getTime().getTime()) {
-                log.warn("Marking expired command as Failed: command '{} ({})' that started at '{}' has been marked as Failed.",
-                        cmdEntity.getCommandType(),
-                        cmdEntity.getId(),
-                        cmdEntity.getCreatedAt());
-                updateCommandStatus(cmdId, CommandStatus.FAILED);
-            }
+    private void trackExpiry(CommandEntity cmdEntity) {
+        if (cmdEntity == null || cmdEntity.getCreatedAt() == null) {
+            return;
         }
+        Integer cmdLifeTimeInMin = cmdEntity.getCommandParameters().getLifeInMinutes();
+        long lifeTimeInMillis = TimeUnit.MINUTES.toMillis(cmdLifeTimeInMin == null ?
+                Config.<Integer>getValue(ConfigValues.CoCoLifeInMinutes) :
+                cmdLifeTimeInMin);
+        commandsExpiryQueue.add(cmdEntity.getId(), cmdEntity.getCreatedAt().getTime() + lifeTimeInMillis);
+    }
+
+    private boolean isChildOfCallback(CommandEntity cmdEntity) {
+        Guid parentCmdId = cmdEntity.getParentCommandId();
+        return !Guid.isNullOrEmpty(parentCmdId)
+                && !parentCmdId.equals(cmdEntity.getId())
+                && callbacksTiming.containsKey(parentCmdId);
+    }
+
+    private void markExpiredCommandAsFailure(CommandEntity cmdEntity) {
+        log.warn("Marking expired command as Failed: command '{} ({})' that started at '{}' has been marked as Failed.",
+                cmdEntity.getCommandType(),
+                cmdEntity.getId(),
+                cmdEntity.getCreatedAt());
+        updateCommandStatus(cmdEntity.getId(), CommandStatus.FAILED);
     }
 
     public void addEventSubscription(CommandEntity command, CoCoEventSubscriber subscription) {
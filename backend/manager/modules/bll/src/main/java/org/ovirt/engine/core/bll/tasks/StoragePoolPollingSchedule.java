@@ -0,0 +1,119 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Schedules the polls of the SPM tasks of each storage pool, in polling ticks. The tasks of a pool are polled on every
+ * tick while their statuses change, each poll which finds no change doubles the interval of the pool up to the given
+ * maximum, so the long running tasks, e.g. copying a template disk to many domains, are not polled on every tick. A
+ * pool is polled on the next tick again once one of its tasks is added or starts polling.
+ *
+ * The number of polled tasks and the duration of the last poll of each pool are kept for monitoring.
+ */
+class StoragePoolPollingSchedule {
+
+    private final Map<Guid, Polling> pollings = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * Moves the schedule one tick forward.
+     */
+    public synchronized void tick() {
+        currentTick++;
+    }
+
+    /**
+     * @return whether the tasks of the pool should be polled on the current tick, the pools which were never polled
+     * are due
+     */
+    public synchronized boolean isDue(Guid storagePoolId) {
+        Polling polling = pollings.get(storagePoolId);
+        return polling == null || polling.dueTick <= currentTick;
+    }
+
+    /**
+     * Records a poll of the tasks of the pool and schedules the next one.
+     *
+     * @param changed
+     *            whether the poll found a task whose status changed or which needs handling
+     * @param maxIntervalInTicks
+     *            the maximal number of ticks between the polls of the pool
+     * @param tasksCount
+     *            the number of polled tasks of the pool
+     * @param durationInMillis
+     *            the duration of the poll
+     */
+    public synchronized void polled(Guid storagePoolId,
+            boolean changed,
+            long maxIntervalInTicks,
+            int tasksCount,
+            long durationInMillis) {
+        Polling polling = pollings.computeIfAbsent(storagePoolId, id -> new Polling());
+        polling.intervalInTicks = changed ? 1 : Math.min(polling.intervalInTicks * 2, Math.max(1, maxIntervalInTicks));
+        polling.dueTick = currentTick + polling.intervalInTicks;
+        polling.tasksCount = tasksCount;
+        polling.durationInMillis = durationInMillis;
+    }
+
+    /**
+     * Records a poll of the tasks of the pool which failed, the pool is polled again after its current interval.
+     */
+    public synchronized void failed(Guid storagePoolId, int tasksCount, long durationInMillis) {
+        Polling polling = pollings.computeIfAbsent(storagePoolId, id -> new Polling());
+        polling.dueTick = currentTick + polling.intervalInTicks;
+        polling.tasksCount = tasksCount;
+        polling.durationInMillis = durationInMillis;
+    }
+
+    /**
+     * Makes the tasks of the pool due on the next tick and resets its interval.
+     */
+    public synchronized void pollNext(Guid storagePoolId) {
+        Polling polling = pollings.get(storagePoolId);
+        if (polling != null) {
+            polling.intervalInTicks = 1;
+            polling.dueTick = currentTick + 1;
+        }
+    }
+
+    /**
+     * Forgets the pools which have no more tasks to poll.
+     */
+    public synchronized void retainAll(Set<Guid> storagePoolIds) {
+        pollings.keySet().retainAll(storagePoolIds);
+    }
+
+    public synchronized long getIntervalInTicks(Guid storagePoolId) {
+        Polling polling = pollings.get(storagePoolId);
+        return polling == null ? 1 : polling.intervalInTicks;
+    }
+
+    /**
+     * @return the number of tasks polled by the last poll of each pool
+     */
+    public synchronized Map<Guid, Integer> getTasksCounts() {
+        Map<Guid, Integer> counts = new HashMap<>();
+        pollings.forEach((storagePoolId, polling) -> counts.put(storagePoolId, polling.tasksCount));
+        return counts;
+    }
+
+    /**
+     * @return the duration in milliseconds of the last poll of each pool
+     */
+    public synchronized Map<Guid, Long> getPollDurations() {
+        Map<Guid, Long> durations = new HashMap<>();
+        pollings.forEach((storagePoolId, polling) -> durations.put(storagePoolId, polling.durationInMillis));
+        return durations;
+    }
+
+    private static final class Polling {
+        private long intervalInTicks = 1;
+        private long dueTick;
+        private int tasksCount;
+        private long durationInMillis;
+    }
+}
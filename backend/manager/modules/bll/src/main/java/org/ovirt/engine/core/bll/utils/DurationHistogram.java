@@ -0,0 +1,66 @@
+package org.ovirt.engine.core.bll.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The following class collects durations into a fixed set of exponential buckets, it is used in order to expose
+ * latencies and wait times via JMX without keeping the individual samples
+ */
+public class DurationHistogram {
+
+    /** Upper bounds (exclusive) of the buckets in milliseconds, the last bucket is unbounded **/
+    private static final long[] BUCKET_BOUNDS_MS = { 1, 10, 100, 1000, 10000, 60000 };
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+    private final LongAdder totalNanos = new LongAdder();
+
+    public DurationHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long durationNanos) {
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        int index = 0;
+        while (index < BUCKET_BOUNDS_MS.length && durationMs >= BUCKET_BOUNDS_MS[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        totalNanos.add(durationNanos);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+    }
+
+    /**
+     * Returns the number of samples per bucket, the keys are ordered from the shortest to the longest bucket
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            result.put("<" + BUCKET_BOUNDS_MS[i] + "ms", buckets[i].sum());
+        }
+        result.put(">=" + BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1] + "ms", buckets[BUCKET_BOUNDS_MS.length].sum());
+        return result;
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        totalNanos.reset();
+    }
+}
@@ -0,0 +1,98 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.ovirt.engine.core.common.VdcObjectType;
+import org.ovirt.engine.core.common.action.DetachUserFromVmFromPoolParameters;
+import org.ovirt.engine.core.common.businessentities.ActionGroup;
+import org.ovirt.engine.core.common.businessentities.Permission;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.PermissionChangeNotifier;
+import org.ovirt.engine.core.dao.PermissionDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith(MockConfigExtension.class)
+public class DetachUserFromVmFromPoolCommandTest extends BaseCommandTest {
+
+    private static final Guid POOL_ID = Guid.newGuid();
+    private static final Guid USER_ID = Guid.newGuid();
+    private static final Guid VM_ID = Guid.newGuid();
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.PermissionCacheTimeToLiveInSeconds, 60));
+    }
+
+    @Mock
+    private PermissionDao permissionDao;
+
+    @Spy
+    private PermissionChangeNotifier permissionChangeNotifier = new PermissionChangeNotifier();
+
+    @InjectMocks
+    private PermissionCache permissionCache;
+
+    @InjectMocks
+    private DetachUserFromVmFromPoolCommand<DetachUserFromVmFromPoolParameters> command =
+            new DetachUserFromVmFromPoolCommand<>(
+                    new DetachUserFromVmFromPoolParameters(POOL_ID, USER_ID, VM_ID, false), null);
+
+    private Permission permission;
+
+    @BeforeEach
+    public void setUp() {
+        permissionCache.init();
+
+        permission = new Permission(USER_ID, PredefinedRoles.ENGINE_USER.getId(), VM_ID, VdcObjectType.VM);
+        when(permissionDao.getForRoleAndAdElementAndObject(PredefinedRoles.ENGINE_USER.getId(), USER_ID, VM_ID))
+                .thenReturn(permission);
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(permission.getId());
+
+        // like PermissionDaoImpl, removing the permission notifies the change
+        doAnswer(invocation -> {
+            when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM))
+                    .thenReturn(null);
+            permissionChangeNotifier.permissionsRemoved(Collections.singletonList(permission.getId()));
+            return null;
+        }).when(permissionDao).remove(permission.getId());
+    }
+
+    @Test
+    public void testDetachRemovesUserPermission() {
+        command.executeCommand();
+
+        verify(permissionDao).remove(permission.getId());
+        assertTrue(command.getReturnValue().getSucceeded());
+    }
+
+    @Test
+    public void testDetachInvalidatesCachedPermission() {
+        assertEquals(permission.getId(), getRunVmPermission());
+        assertEquals(permission.getId(), getRunVmPermission());
+        assertEquals(1, permissionCache.getHits());
+
+        command.executeCommand();
+
+        assertNull(getRunVmPermission());
+    }
+
+    private Guid getRunVmPermission() {
+        return permissionCache.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM);
+    }
+}
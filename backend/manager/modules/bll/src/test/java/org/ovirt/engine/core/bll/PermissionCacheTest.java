@@ -0,0 +1,172 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import javax.transaction.TransactionManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ovirt.engine.core.common.VdcObjectType;
+import org.ovirt.engine.core.common.businessentities.ActionGroup;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.PermissionChangeNotifier;
+import org.ovirt.engine.core.dao.PermissionDao;
+import org.ovirt.engine.core.utils.InjectedMock;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.MockedConfig;
+
+@ExtendWith({MockitoExtension.class, MockConfigExtension.class, InjectorExtension.class})
+public class PermissionCacheTest {
+
+    private static final Guid USER_ID = Guid.newGuid();
+    private static final Guid VM_ID = Guid.newGuid();
+    private static final Guid PERMISSION_ID = Guid.newGuid();
+
+    @Mock
+    private PermissionDao permissionDao;
+
+    @Spy
+    private PermissionChangeNotifier permissionChangeNotifier = new PermissionChangeNotifier();
+
+    @Mock
+    @InjectedMock
+    public TransactionManager transactionManager;
+
+    @InjectMocks
+    private PermissionCache permissionCache;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.PermissionCacheTimeToLiveInSeconds, 60));
+    }
+
+    public static Stream<MockConfigDescriptor<?>> disabledCache() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.PermissionCacheTimeToLiveInSeconds, 0));
+    }
+
+    @Test
+    public void testFoundPermissionIsCached() {
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+
+        verify(permissionDao, times(1)).getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM);
+        assertEquals(1, permissionCache.getHits());
+        assertEquals(1, permissionCache.getMisses());
+        assertEquals(50, permissionCache.getHitRate());
+    }
+
+    @Test
+    public void testMissingPermissionIsNotCached() {
+        assertNull(getRunVmPermission());
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+        assertEquals(0, permissionCache.getHits());
+    }
+
+    @Test
+    public void testPermissionIsCachedPerActionGroup() {
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+        assertNull(permissionCache.getEntityPermissions(USER_ID, ActionGroup.DELETE_VM, VM_ID, VdcObjectType.VM));
+        assertEquals(0, permissionCache.getHits());
+    }
+
+    @Test
+    public void testPermissionChangeInvalidatesCache() {
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+        permissionCache.init();
+
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+        permissionChangeNotifier.permissionsChanged();
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+
+        verify(permissionDao, times(2)).getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM);
+        assertEquals(0, permissionCache.getHits());
+        assertEquals(1, permissionCache.getInvalidations());
+    }
+
+    @Test
+    public void testRemovedPermissionIsInvalidated() {
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+        permissionCache.init();
+
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+        permissionChangeNotifier.permissionsRemoved(Collections.singletonList(PERMISSION_ID));
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+
+        verify(permissionDao, times(2)).getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM);
+        assertEquals(0, permissionCache.getHits());
+    }
+
+    @Test
+    public void testRemovalOfOtherPermissionKeepsCache() {
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+        permissionCache.init();
+
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+        permissionChangeNotifier.permissionsRemoved(Collections.singletonList(Guid.newGuid()));
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+
+        verify(permissionDao, times(1)).getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM);
+        assertEquals(1, permissionCache.getHits());
+    }
+
+    @Test
+    public void testRemovedActionGroupIsInvalidated() {
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.DELETE_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+        permissionCache.init();
+
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+        assertEquals(PERMISSION_ID,
+                permissionCache.getEntityPermissions(USER_ID, ActionGroup.DELETE_VM, VM_ID, VdcObjectType.VM));
+        permissionChangeNotifier.actionGroupRemoved(ActionGroup.DELETE_VM);
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+        assertEquals(PERMISSION_ID,
+                permissionCache.getEntityPermissions(USER_ID, ActionGroup.DELETE_VM, VM_ID, VdcObjectType.VM));
+
+        verify(permissionDao, times(1)).getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM);
+        verify(permissionDao, times(2)).getEntityPermissions(USER_ID, ActionGroup.DELETE_VM, VM_ID, VdcObjectType.VM);
+    }
+
+    @Test
+    @MockedConfig("disabledCache")
+    public void testDisabledCache() {
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+        assertEquals(PERMISSION_ID, getRunVmPermission());
+
+        verify(permissionDao, times(2)).getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM);
+    }
+
+    private Guid getRunVmPermission() {
+        return permissionCache.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM);
+    }
+}
@@ -0,0 +1,60 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.aaa.QueryData;
+
+public class SearchQueryCacheTest {
+
+    private static final long TIME_TO_LIVE = TimeUnit.DAYS.toMillis(1);
+
+    @Test
+    public void cachedQueryIsReturned() {
+        SearchQueryCache cache = new SearchQueryCache(10, TIME_TO_LIVE);
+        QueryData data = createQueryData(System.currentTimeMillis());
+        assertNull(cache.get("Vms: status=up,100,false"));
+        cache.put("Vms: status=up,100,false", data);
+        assertSame(data, cache.get("Vms: status=up,100,false"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void expiredQueryIsNotReturned() {
+        SearchQueryCache cache = new SearchQueryCache(10, TIME_TO_LIVE);
+        cache.put("Hosts:,100,false", createQueryData(System.currentTimeMillis() - TIME_TO_LIVE));
+        assertNull(cache.get("Hosts:,100,false"));
+        assertEquals(1, cache.getExpirationCount());
+    }
+
+    @Test
+    public void cacheIsBoundedAndKeepsReadQueries() {
+        SearchQueryCache cache = new SearchQueryCache(2, TIME_TO_LIVE);
+        QueryData data = createQueryData(System.currentTimeMillis());
+        cache.put("a", data);
+        cache.put("b", data);
+        cache.get("a");
+        cache.put("c", data);
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(data, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertSame(data, cache.get("c"));
+    }
+
+    @Test
+    public void nothingIsCachedWhenMaxSizeIsZero() {
+        SearchQueryCache cache = new SearchQueryCache(0, TIME_TO_LIVE);
+        cache.put("a", createQueryData(System.currentTimeMillis()));
+        assertEquals(0, cache.getSize());
+    }
+
+    private static QueryData createQueryData(long date) {
+        return new QueryData("select * from vms", date, null, null);
+    }
+}
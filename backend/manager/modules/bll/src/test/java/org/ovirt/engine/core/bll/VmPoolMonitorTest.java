@@ -0,0 +1,173 @@
+package org.ovirt.engine.core.bll;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.interfaces.BackendInternal;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
+import org.ovirt.engine.core.common.action.ActionReturnValue;
+import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.businessentities.VmPool;
+import org.ovirt.engine.core.common.businessentities.VmStatic;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
+import org.ovirt.engine.core.dao.ClusterDao;
+import org.ovirt.engine.core.dao.VmDao;
+import org.ovirt.engine.core.dao.VmPoolDao;
+import org.ovirt.engine.core.dao.VmStaticDao;
+import org.ovirt.engine.core.utils.InjectedMock;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith({ MockitoExtension.class, MockConfigExtension.class, InjectorExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class VmPoolMonitorTest {
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.VmPoolMonitorBatchSize, 5),
+                MockConfigDescriptor.of(ConfigValues.VmPoolMonitorMaxAttempts, MAX_ATTEMPTS));
+    }
+
+    @Mock
+    private VmPoolHandler vmPoolHandler;
+    @Mock
+    private VmPoolDao vmPoolDao;
+    @Mock
+    private VmDao vmDao;
+    @Mock
+    private VmStaticDao vmStaticDao;
+    @Mock
+    private ClusterDao clusterDao;
+    @Mock
+    private SchedulingManager schedulingManager;
+    @Mock
+    private BackendInternal backend;
+    @Mock
+    private ManagedScheduledExecutorService schedulerService;
+
+    @Mock
+    @InjectedMock
+    public AuditLogDirector auditLogDirector;
+
+    @InjectMocks
+    private VmPoolMonitor vmPoolMonitor;
+
+    @Captor
+    private ArgumentCaptor<Runnable> monitoringJob;
+
+    private VmPool vmPool;
+    private Cluster cluster;
+    private List<VM> vms;
+    private List<Guid> vmIds;
+
+    @BeforeEach
+    public void setUp() {
+        cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        when(clusterDao.get(cluster.getId())).thenReturn(cluster);
+
+        vmPool = new VmPool();
+        vmPool.setVmPoolId(Guid.newGuid());
+        vmPool.setName("pool");
+        vmPool.setClusterId(cluster.getId());
+        vmPool.setPrestartedVms(3);
+        when(vmPoolDao.getAll()).thenReturn(Collections.singletonList(vmPool));
+
+        vms = Stream.generate(this::createVm).limit(3).collect(Collectors.toList());
+        vmIds = vms.stream().map(VM::getId).collect(Collectors.toList());
+        when(vmDao.getAllForVmPool(vmPool.getVmPoolId())).thenReturn(vms);
+        when(vmPoolHandler.selectNonPrestartedVms(eq(vmPool.getVmPoolId()), any())).thenReturn(vmIds.stream());
+    }
+
+    @Test
+    public void testPrestartReservesHostsForBatch() {
+        mockRunVm(true);
+
+        runMonitoringJob();
+
+        verify(schedulingManager).scheduleBatch(eq(cluster), eq(vms), any(), any(), any());
+        verify(backend, times(3)).runInternalAction(eq(ActionType.RunVm), any(), any());
+        verify(schedulingManager).releaseReservedPlacements(vmIds);
+        verify(vmPoolHandler, never()).releaseVm(any());
+    }
+
+    @Test
+    public void testPrestartStopsAfterMaxFailedAttempts() {
+        mockRunVm(false);
+
+        runMonitoringJob();
+
+        verify(backend, times(MAX_ATTEMPTS)).runInternalAction(eq(ActionType.RunVm), any(), any());
+        // the VM of the batch which was not attempted is unlocked
+        verify(vmPoolHandler).releaseVm(vmIds.get(2));
+        verify(schedulingManager).releaseReservedPlacements(vmIds);
+    }
+
+    @Test
+    public void testPrestartOfSingleVmDoesNotReserveHosts() {
+        vmPool.setPrestartedVms(1);
+        mockRunVm(true);
+
+        runMonitoringJob();
+
+        verify(schedulingManager, never()).scheduleBatch(any(), any(), any(), any(), any());
+        verify(backend, times(1)).runInternalAction(eq(ActionType.RunVm), any(), any());
+        verify(schedulingManager).releaseReservedPlacements(vmIds.subList(0, 1));
+    }
+
+    private void runMonitoringJob() {
+        vmPoolMonitor.triggerPoolMonitoringJob();
+        verify(schedulerService).scheduleWithFixedDelay(monitoringJob.capture(),
+                eq(0L),
+                anyLong(),
+                eq(TimeUnit.MINUTES));
+        monitoringJob.getValue().run();
+    }
+
+    private void mockRunVm(boolean succeeded) {
+        ActionReturnValue returnValue = new ActionReturnValue();
+        returnValue.setSucceeded(succeeded);
+        when(backend.runInternalAction(eq(ActionType.RunVm), any(), any())).thenReturn(returnValue);
+        when(schedulingManager.scheduleBatch(any(), any(), any(), any(), any())).thenReturn(Collections.emptyMap());
+    }
+
+    private VM createVm() {
+        VM vm = new VM();
+        vm.setId(Guid.newGuid());
+        VmStatic vmStatic = new VmStatic();
+        vmStatic.setId(vm.getId());
+        vmStatic.setName("vm-" + vm.getId());
+        when(vmStaticDao.get(vm.getId())).thenReturn(vmStatic);
+        return vm;
+    }
+}
@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.bll.aaa;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
@@ -40,6 +41,7 @@ public class SessionDataContainerTest {
     private static final String TEST_SSO_TOKEN = "someToken";
     private static final String USER = "user";
     private static final String SOFT_LIMIT = "soft_limit";
+    private static final long TEST_SEQ_ID = 7L;
 
     public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
         return Stream.of(MockConfigDescriptor.of(ConfigValues.UserSessionTimeOutInterval, 30));
@@ -60,6 +62,7 @@ public class SessionDataContainerTest {
     @BeforeEach
     public void setUpContainer() {
         when(engineSessionDao.remove(anyLong())).thenReturn(1);
+        when(engineSessionDao.save(any())).thenReturn(TEST_SEQ_ID);
         when(ssoSessionValidator.getSessionStatuses(any())).thenReturn(Collections.singletonMap(TEST_SSO_TOKEN, true));
         when(ssoSessionUtils.isSessionInUse(anyLong())).thenReturn(false);
 
@@ -105,6 +108,45 @@ public class SessionDataContainerTest {
         assertNull(container.getData(TEST_SESSION_ID, TEST_KEY, false),
                 "Get should return null since the session was removed");
     }
+
+    @Test
+    public void testGetSessionIdBySsoAccessToken() {
+        assertEquals(TEST_SESSION_ID, container.getSessionIdBySsoAccessToken(TEST_SSO_TOKEN));
+        assertNull(container.getSessionIdBySsoAccessToken("otherToken"));
+
+        container.setSsoAccessToken(TEST_SESSION_ID, "otherToken");
+        assertNull(container.getSessionIdBySsoAccessToken(TEST_SSO_TOKEN));
+        assertEquals(TEST_SESSION_ID, container.getSessionIdBySsoAccessToken("otherToken"));
+        clearSession();
+    }
+
+    @Test
+    public void testGetSessionIdBySeqId() {
+        assertEquals(TEST_SESSION_ID, container.getSessionIdBySeqId(TEST_SEQ_ID));
+        assertNull(container.getSessionIdBySeqId(TEST_SEQ_ID + 1));
+        clearSession();
+    }
+
+    @Test
+    public void testIndexesAreClearedOnRemove() {
+        container.removeSessionOnLogout(TEST_SESSION_ID);
+        assertNull(container.getSessionIdBySsoAccessToken(TEST_SSO_TOKEN));
+        assertNull(container.getSessionIdBySeqId(TEST_SEQ_ID));
+    }
+
+    @Test
+    public void testCleanupEngineSessionsForSsoAccessToken() {
+        String otherSessionId = "otherSession";
+        container.setUser(otherSessionId, mock(DbUser.class));
+        container.setSsoAccessToken(otherSessionId, TEST_SSO_TOKEN);
+
+        container.cleanupEngineSessionsForSsoAccessToken(TEST_SSO_TOKEN);
+
+        assertFalse(container.isSessionExists(TEST_SESSION_ID));
+        assertFalse(container.isSessionExists(otherSessionId));
+        assertNull(container.getSessionIdBySsoAccessToken(TEST_SSO_TOKEN));
+    }
+
     /* Tests for clearedExpiredSessions */
 
     @Test
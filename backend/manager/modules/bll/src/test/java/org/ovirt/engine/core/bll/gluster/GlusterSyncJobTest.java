@@ -1,5 +1,7 @@
 package org.ovirt.engine.core.bll.gluster;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
@@ -9,15 +11,25 @@ import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import javax.transaction.TransactionManager;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Answers;
@@ -69,6 +81,8 @@ import org.ovirt.engine.core.utils.InjectedMock;
 import org.ovirt.engine.core.utils.InjectorExtension;
 import org.ovirt.engine.core.utils.MockConfigDescriptor;
 import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.MockedConfig;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 
 @ExtendWith({MockitoExtension.class, MockConfigExtension.class, InjectorExtension.class})
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -82,7 +96,14 @@ public class GlusterSyncJobTest {
     private GlusterUtil glusterUtil;
 
     public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
-        return Stream.of(MockConfigDescriptor.of(ConfigValues.GlusterMetaVolumeName, "gluster_shared_storage"));
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.GlusterMetaVolumeName, "gluster_shared_storage"),
+                MockConfigDescriptor.of(ConfigValues.GlusterRefreshThreads, 1),
+                MockConfigDescriptor.of(ConfigValues.GlusterRefreshClusterTimeoutInSecs, 60));
+    }
+
+    public static Stream<MockConfigDescriptor<?>> parallelRefreshConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.GlusterRefreshThreads, 2),
+                MockConfigDescriptor.of(ConfigValues.GlusterRefreshClusterTimeoutInSecs, 1));
     }
 
     @Spy
@@ -155,6 +176,19 @@ public class GlusterSyncJobTest {
     private final List<Guid> addedBrickIds = new ArrayList<>();
     private final List<GlusterBrickEntity> bricksWithChangedStatus = new ArrayList<>();
 
+    private ExecutorService origExecutorService;
+    private ExecutorService executorService;
+    /**
+     * The clusters whose data is being refreshed by {@link #refreshClusters}
+     */
+    private final Set<Guid> runningRefreshes = ConcurrentHashMap.newKeySet();
+    /**
+     * The number of times each cluster was refreshed by {@link #refreshClusters}
+     */
+    private final Map<Guid, AtomicInteger> refreshCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger concurrentRefreshes = new AtomicInteger();
+    private final AtomicInteger maxConcurrentRefreshes = new AtomicInteger();
+
     private void createObjects() {
         existingServer1 = createServer(SERVER_ID_1, SERVER_NAME_1);
         existingServer2 = createServer(SERVER_ID_2, SERVER_NAME_2);
@@ -342,7 +376,6 @@ public class GlusterSyncJobTest {
         doReturn(Collections.singletonList(existingCluster)).when(clusterDao).getAll();
         doReturn(existingCluster).when(clusterDao).get(any());
         doReturn(existingServers).when(vdsDao).getAllForCluster(CLUSTER_ID);
-        doReturn(existingReplVol).when(volumeDao).getById(EXISTING_VOL_REPL_ID);
         doReturn(existingVolumes).when(volumeDao).getByClusterId(CLUSTER_ID);
     }
 
@@ -476,6 +509,152 @@ public class GlusterSyncJobTest {
         verifyMocksForHeavyWeight();
     }
 
+    @Test
+    @MockedConfig("parallelRefreshConfiguration")
+    public void testParallelRefreshRunsClustersConcurrently() throws InterruptedException {
+        setupParallelRefresh();
+        Cluster cluster1 = createGlusterCluster("cluster1");
+        Cluster cluster2 = createGlusterCluster("cluster2");
+        CountDownLatch started = new CountDownLatch(2);
+
+        refreshClusters(Arrays.asList(cluster1, cluster2), cluster -> {
+            started.countDown();
+            awaitLatch(started);
+        });
+
+        // each refresh waits for the other one to start, so they ended only if they ran concurrently
+        assertEquals(0, started.getCount());
+        assertEquals(1, getRefreshCount(cluster1));
+        assertEquals(1, getRefreshCount(cluster2));
+        assertTrue(runningRefreshes.isEmpty());
+    }
+
+    @Test
+    @MockedConfig("parallelRefreshConfiguration")
+    public void testParallelRefreshIsBoundedByThreads() throws InterruptedException {
+        setupParallelRefresh();
+        List<Cluster> clusters = Arrays.asList(createGlusterCluster("cluster1"),
+                createGlusterCluster("cluster2"),
+                createGlusterCluster("cluster3"),
+                createGlusterCluster("cluster4"));
+
+        refreshClusters(clusters, cluster -> sleep(100));
+
+        assertTrue(maxConcurrentRefreshes.get() <= 2);
+        clusters.forEach(cluster -> assertEquals(1, getRefreshCount(cluster)));
+    }
+
+    @Test
+    @MockedConfig("parallelRefreshConfiguration")
+    public void testClusterIsSkippedUntilRefreshWhichDidNotEndInTimeEnds() throws InterruptedException {
+        setupParallelRefresh();
+        Cluster cluster = createGlusterCluster("cluster");
+        CountDownLatch release = new CountDownLatch(1);
+        Consumer<Cluster> refresher = c -> awaitLatch(release);
+
+        // the job stops waiting for the refresh after the timeout, while it is still running
+        refreshClusters(Collections.singletonList(cluster), refresher);
+        assertEquals(1, getRefreshCount(cluster));
+        assertTrue(runningRefreshes.contains(cluster.getId()));
+
+        refreshClusters(Collections.singletonList(cluster), refresher);
+        assertEquals(1, getRefreshCount(cluster));
+
+        release.countDown();
+        awaitRefreshesEnd();
+        refreshClusters(Collections.singletonList(cluster), refresher);
+        assertEquals(2, getRefreshCount(cluster));
+    }
+
+    @Test
+    @MockedConfig("parallelRefreshConfiguration")
+    public void testRefreshesWhichDidNotEndInTimeHoldThreads() throws InterruptedException {
+        setupParallelRefresh();
+        Cluster stuckCluster1 = createGlusterCluster("stuck1");
+        Cluster stuckCluster2 = createGlusterCluster("stuck2");
+        Cluster cluster = createGlusterCluster("cluster");
+        CountDownLatch release = new CountDownLatch(1);
+        Consumer<Cluster> refresher = c -> {
+            if (c != cluster) {
+                awaitLatch(release);
+            }
+        };
+
+        refreshClusters(Collections.singletonList(stuckCluster1), refresher);
+        // the refresh of the first cluster still holds one of the two threads
+        refreshClusters(Arrays.asList(stuckCluster2, cluster), refresher);
+        assertTrue(maxConcurrentRefreshes.get() <= 2);
+        assertEquals(0, getRefreshCount(cluster));
+
+        release.countDown();
+        awaitRefreshesEnd();
+        refreshClusters(Collections.singletonList(cluster), refresher);
+        assertEquals(1, getRefreshCount(cluster));
+    }
+
+    @AfterEach
+    public void tearDownParallelRefresh() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+            ThreadPoolUtil.setExecutorService(origExecutorService);
+        }
+    }
+
+    private void setupParallelRefresh() {
+        origExecutorService = ThreadPoolUtil.getExecutorService();
+        executorService = Executors.newCachedThreadPool();
+        ThreadPoolUtil.setExecutorService(executorService);
+    }
+
+    private Cluster createGlusterCluster(String name) {
+        Cluster cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        cluster.setName(name);
+        cluster.setGlusterService(true);
+        return cluster;
+    }
+
+    private void refreshClusters(List<Cluster> clusters, Consumer<Cluster> refresher) {
+        doReturn(clusters).when(clusterDao).getAll();
+        glusterManager.refreshClusters("test", runningRefreshes, cluster -> {
+            refreshCounts.computeIfAbsent(cluster.getId(), id -> new AtomicInteger()).incrementAndGet();
+            maxConcurrentRefreshes.accumulateAndGet(concurrentRefreshes.incrementAndGet(), Math::max);
+            try {
+                refresher.accept(cluster);
+            } finally {
+                concurrentRefreshes.decrementAndGet();
+            }
+        });
+    }
+
+    private int getRefreshCount(Cluster cluster) {
+        AtomicInteger count = refreshCounts.get(cluster.getId());
+        return count == null ? 0 : count.get();
+    }
+
+    private void awaitRefreshesEnd() throws InterruptedException {
+        for (int i = 0; i < 100 && !runningRefreshes.isEmpty(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(runningRefreshes.isEmpty());
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void verifyMocksForHeavyWeight() {
         InOrder inOrder = inOrder(clusterDao, glusterUtil, volumeDao, glusterManager, brickDao);
 
@@ -7,6 +7,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -114,6 +116,53 @@ public class InMemoryLockManagerTest {
         lockManager.clear();
     }
 
+    @Test
+    public void checkStripedAcquireLockFailure() {
+        lockManager = new InMemoryLockManager(16);
+        assertEquals(16, lockManager.getStripesCount());
+        assertTrue(lockManager.acquireLock(updateAndLockLock).getFirst());
+        Pair<Boolean, Set<String>> lockResult = lockManager.acquireLock(lockLock1);
+        assertFalse(lockResult.getFirst());
+        assertTrue(lockResult.getSecond().contains(ERROR1));
+        lockResult = lockManager.acquireLock(updateLock2);
+        assertFalse(lockResult.getFirst());
+        assertTrue(lockResult.getSecond().contains(ERROR2));
+        assertEquals(2, lockManager.getFailedAcquisitionsCount());
+        assertEquals(2, lockManager.showAllLocks().size());
+        lockManager.releaseLock(updateAndLockLock);
+        assertTrue(lockManager.showAllLocks().isEmpty());
+        assertTrue(lockManager.acquireLock(lockLock1).getFirst());
+        assertTrue(lockManager.acquireLock(updateLock2).getFirst());
+        lockManager.releaseLock(lockLock1);
+        lockManager.releaseLock(updateLock2);
+        assertTrue(lockManager.showAllLocks().isEmpty());
+    }
+
+    @Test
+    public void checkAcquireLockWaitIsWokenUpOnRelease() throws InterruptedException {
+        lockManager = new InMemoryLockManager(16);
+        assertTrue(lockManager.acquireLock(lockLock2).getFirst());
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            lockManager.acquireLockWait(lockLock2);
+            acquired.countDown();
+        });
+        waiter.start();
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        lockManager.releaseLock(lockLock1);
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        lockManager.releaseLock(lockLock2);
+        assertTrue(acquired.await(10, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(1, lockManager.getLockWaitCount());
+        assertEquals(1L, lockManager.getLockWaitTimeHistogram().values().stream().mapToLong(Long::longValue).sum());
+        lockManager.releaseLock(lockLock2);
+        assertTrue(lockManager.showAllLocks().isEmpty());
+        lockManager.resetStatistics();
+        assertEquals(0, lockManager.getLockWaitCount());
+        assertEquals(0, lockManager.getFailedAcquisitionsCount());
+    }
+
     @Test
     public void checkShowLocks() {
         assertTrue(lockManager.acquireLock(lockLock1).getFirst());
@@ -0,0 +1,62 @@
+package org.ovirt.engine.core.bll.network.macpool;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class HierarchicalBitSetTest {
+
+    @Test
+    public void testNextClearBitOfEmptySet() {
+        HierarchicalBitSet bitSet = new HierarchicalBitSet(100);
+        assertThat(bitSet.nextClearBit(0), is(0));
+        assertThat(bitSet.nextClearBit(99), is(99));
+        assertThat(bitSet.nextClearBit(100), is(100));
+    }
+
+    @Test
+    public void testNextClearBitSkipsFullWords() {
+        int size = 64 * 64 * 3 + 7;
+        HierarchicalBitSet bitSet = new HierarchicalBitSet(size);
+        for (int i = 0; i < size - 1; i++) {
+            bitSet.set(i);
+        }
+        assertThat(bitSet.nextClearBit(0), is(size - 1));
+
+        bitSet.set(size - 1);
+        assertThat(bitSet.nextClearBit(0), is(size));
+
+        bitSet.clear(64 * 70 + 3);
+        assertThat(bitSet.get(64 * 70 + 3), is(false));
+        assertThat(bitSet.nextClearBit(0), is(64 * 70 + 3));
+        assertThat(bitSet.nextClearBit(64 * 70 + 4), is(size));
+    }
+
+    @Test
+    public void testBehavesLikeBitSet() {
+        int size = 64 * 64 * 2 + 33;
+        HierarchicalBitSet bitSet = new HierarchicalBitSet(size);
+        BitSet expected = new BitSet(size);
+        Random random = new Random(0);
+
+        for (int round = 0; round < 20000; round++) {
+            int index = random.nextInt(size);
+            // mostly setting bits, so the set becomes nearly full
+            if (random.nextInt(10) < 8) {
+                bitSet.set(index);
+                expected.set(index);
+            } else {
+                bitSet.clear(index);
+                expected.clear(index);
+            }
+
+            int from = random.nextInt(size);
+            assertThat(bitSet.get(from), is(expected.get(from)));
+            assertThat(bitSet.nextClearBit(from), is(Math.min(expected.nextClearBit(from), size)));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.ovirt.engine.core.bll.network.macpool;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class LongCounterTest {
+
+    @Test
+    public void testIncreaseNoDuplicates() {
+        LongCounter counter = new LongCounter(false);
+
+        assertThat(counter.increase(1), is(true));
+        assertThat(counter.increase(1), is(false));
+        assertThat(counter.increase(-3), is(true));
+
+        assertThat(counter.contains(0), is(false));
+        assertThat(counter.contains(1), is(true));
+        assertThat(counter.contains(-3), is(true));
+        assertThat(counter.count(1), is(1));
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+    }
+
+    @Test
+    public void testIncreaseAndDecreaseWithDuplicates() {
+        LongCounter counter = new LongCounter(true);
+
+        assertThat(counter.increase(1), is(true));
+        assertThat(counter.increase(1), is(true));
+        assertThat(counter.count(1), is(2));
+        assertThat(counter.containsDuplicates(), is(true));
+
+        counter.decrease(1);
+        assertThat(counter.count(1), is(1));
+        assertThat(counter.containsDuplicates(), is(false));
+
+        counter.decrease(1);
+        assertThat(counter.contains(1), is(false));
+        assertThat(counter.containsCounts(), is(false));
+
+        counter.decrease(1);
+        assertThat(counter.count(1), is(0));
+    }
+
+    @Test
+    public void testManyValues() {
+        LongCounter counter = new LongCounter(false);
+        int numberOfValues = 10000;
+        long base = 0x001a4a000000L;
+
+        for (int i = 0; i < numberOfValues; i++) {
+            assertThat(counter.increase(base + i * 17), is(true));
+        }
+        assertThat(counter.size(), is(numberOfValues));
+
+        for (int i = 0; i < numberOfValues; i += 2) {
+            counter.decrease(base + i * 17);
+        }
+        assertThat(counter.size(), is(numberOfValues / 2));
+
+        for (int i = 0; i < numberOfValues; i++) {
+            assertThat(counter.contains(base + i * 17), is(i % 2 == 1));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.bll.quota;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -363,6 +364,35 @@ public class QuotaManagerTest {
         assertAuditLogWritten(AuditLogType.USER_EXCEEDED_QUOTA_CLUSTER_GRACE_LIMIT);
     }
 
+    @Test
+    public void testConsumeAddsToCachedUsage() {
+        quota.setGlobalQuotaStorage(getQuotaStorage(100, 10));
+
+        assertTrue(consumeForStorageQuota(5d));
+        assertTrue(consumeForStorageQuota(5d));
+
+        assertEquals(20d, getCachedStorageUsage(quota), 0.001);
+    }
+
+    @Test
+    public void testRollbackWhenRequestIsNotValid() {
+        quota.setGlobalQuotaStorage(getQuotaStorage(100, 10));
+
+        Quota exceededQuota = mockBasicQuota();
+        exceededQuota.setGlobalQuotaStorage(getQuotaStorage(100, 130));
+        when(quotaDao.getById(exceededQuota.getId())).thenReturn(exceededQuota);
+
+        List<QuotaConsumptionParameter> parameters = new ArrayList<>();
+        parameters.add(createStorageConsumption(quota.getId(), 5d));
+        parameters.add(createStorageConsumption(exceededQuota.getId(), 1d));
+
+        assertFalse(quotaManager.consume(command, parameters));
+        assertNotEmptyValidateMessage();
+
+        assertEquals(10d, getCachedStorageUsage(quota), 0.001);
+        assertEquals(130d, getCachedStorageUsage(exceededQuota), 0.001);
+    }
+
     @Test
     public void testRemoveFromCache() {
         Quota quota1 = mockBasicQuota();
@@ -434,6 +464,14 @@ public class QuotaManagerTest {
         assertAuditLogNotWritten();
     }
 
+    private double getCachedStorageUsage(Quota cachedQuota) {
+        Quota quotaExternal = new Quota();
+        quotaExternal.setId(cachedQuota.getId());
+        quotaExternal.setStoragePoolId(cachedQuota.getStoragePoolId());
+        quotaManager.updateUsage(Collections.singletonList(quotaExternal));
+        return quotaExternal.getGlobalQuotaStorage().getStorageSizeGBUsage();
+    }
+
     /**
      * Mock a basic quota. Only the basic data (Id, name, threshold, grace...) is set.
      *
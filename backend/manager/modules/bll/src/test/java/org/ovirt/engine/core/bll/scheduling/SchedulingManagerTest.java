@@ -0,0 +1,298 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.VmHandler;
+import org.ovirt.engine.core.bll.network.host.VfScheduler;
+import org.ovirt.engine.core.bll.scheduling.external.ExternalSchedulerBroker;
+import org.ovirt.engine.core.bll.scheduling.external.ExternalSchedulerDiscovery;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.errors.EngineMessage;
+import org.ovirt.engine.core.common.scheduling.ClusterPolicy;
+import org.ovirt.engine.core.common.scheduling.PolicyUnit;
+import org.ovirt.engine.core.common.scheduling.PolicyUnitType;
+import org.ovirt.engine.core.common.scheduling.VmOverheadCalculator;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VdsDao;
+import org.ovirt.engine.core.dao.VdsNumaNodeDao;
+import org.ovirt.engine.core.dao.VmNumaNodeDao;
+import org.ovirt.engine.core.dao.scheduling.ClusterPolicyDao;
+import org.ovirt.engine.core.dao.scheduling.PolicyUnitDao;
+import org.ovirt.engine.core.utils.ExecutorServiceExtension;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+/**
+ * Tests the batch placement of {@link SchedulingManager} and the use of the hosts it reserves. The hosts are filtered
+ * by a single external filter, whose result is set per VM by the tests.
+ */
+@ExtendWith({ MockitoExtension.class, MockConfigExtension.class, InjectorExtension.class,
+        ExecutorServiceExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SchedulingManagerTest {
+
+    private static final Guid POLICY_ID = Guid.newGuid();
+    private static final Guid FILTER_ID = Guid.newGuid();
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.ExternalSchedulerEnabled, true),
+                MockConfigDescriptor.of(ConfigValues.EnableVdsLoadBalancing, false),
+                MockConfigDescriptor.of(ConfigValues.SchedulerAllowOverBooking, false),
+                MockConfigDescriptor.of(ConfigValues.SchedulerOverBookingThreshold, 10));
+    }
+
+    @Mock
+    private VdsDao vdsDao;
+    @Mock
+    private VmHandler vmHandler;
+    @Mock
+    private PolicyUnitDao policyUnitDao;
+    @Mock
+    private ClusterPolicyDao clusterPolicyDao;
+    @Mock
+    private ExternalSchedulerDiscovery exSchedulerDiscovery;
+    @Mock
+    private ExternalSchedulerBroker externalBroker;
+    @Mock
+    private VfScheduler vfScheduler;
+    @Mock
+    private VmOverheadCalculator vmOverheadCalculator;
+    @Mock
+    private VmNumaNodeDao vmNumaNodeDao;
+    @Mock
+    private VdsNumaNodeDao vdsNumaNodeDao;
+    @Mock
+    private RunVmDelayer runVmDelayer;
+
+    @InjectMocks
+    private SchedulingManager schedulingManager;
+
+    private Cluster cluster;
+    private VDS host1;
+    private VDS host2;
+    private VM vm1;
+    private VM vm2;
+
+    /**
+     * [vm id, ids of the hosts passing the filter for the VM]
+     */
+    private final Map<Guid, List<Guid>> allowedHosts = new HashMap<>();
+    /**
+     * The host ids given to the filter, for every call
+     */
+    private final List<List<Guid>> filteredHosts = new ArrayList<>();
+    /**
+     * [vm id, pending CPUs of host1 when the VM was filtered]
+     */
+    private final Map<Guid, Integer> pendingCpusOfHost1 = new HashMap<>();
+    /**
+     * [vm id, pending CPUs of host2 when the VM was filtered]
+     */
+    private final Map<Guid, Integer> pendingCpusOfHost2 = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        PolicyUnit filter = new PolicyUnit();
+        filter.setId(FILTER_ID);
+        filter.setName("filter");
+        filter.setInternal(false);
+        filter.setEnabled(true);
+        filter.setPolicyUnitType(PolicyUnitType.FILTER);
+        when(policyUnitDao.getAll()).thenReturn(Collections.singletonList(filter));
+
+        ClusterPolicy policy = new ClusterPolicy();
+        policy.setId(POLICY_ID);
+        policy.setName("policy");
+        policy.setFilters(Collections.singletonList(FILTER_ID));
+        when(clusterPolicyDao.getAll(any())).thenReturn(Collections.singletonList(policy));
+
+        schedulingManager.init();
+
+        cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        cluster.setClusterPolicyId(POLICY_ID);
+
+        host1 = createHost("host1");
+        host2 = createHost("host2");
+        when(vdsDao.getAllForClusterWithStatus(cluster.getId(), VDSStatus.Up))
+                .thenAnswer(invocation -> new ArrayList<>(Arrays.asList(host1, host2)));
+
+        vm1 = createVm();
+        vm2 = createVm();
+
+        when(externalBroker.runFilters(anyList(), anyList(), any(), anyMap())).thenAnswer(invocation -> {
+            List<Guid> hostIds = invocation.getArgument(1);
+            Guid vmId = invocation.getArgument(2);
+            filteredHosts.add(new ArrayList<>(hostIds));
+            pendingCpusOfHost1.put(vmId, host1.getPendingVcpusCount());
+            pendingCpusOfHost2.put(vmId, host2.getPendingVcpusCount());
+            List<Guid> allowed = allowedHosts.getOrDefault(vmId, Collections.emptyList());
+            return hostIds.stream().filter(allowed::contains).collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    public void testScheduleBatchPlacesAllVms() {
+        allowedHosts.put(vm1.getId(), Collections.singletonList(host1.getId()));
+        allowedHosts.put(vm2.getId(), Collections.singletonList(host2.getId()));
+
+        Map<Guid, Guid> placements = scheduleBatch(vm1, vm2);
+
+        assertEquals(2, placements.size());
+        assertEquals(host1.getId(), placements.get(vm1.getId()));
+        assertEquals(host2.getId(), placements.get(vm2.getId()));
+        verify(vdsDao, times(1)).getAllForClusterWithStatus(cluster.getId(), VDSStatus.Up);
+    }
+
+    @Test
+    public void testScheduleBatchSkipsVmsWhichCannotBePlaced() {
+        allowedHosts.put(vm1.getId(), Collections.singletonList(host1.getId()));
+        Map<Guid, List<String>> messages = new HashMap<>();
+
+        Map<Guid, Guid> placements = schedulingManager.scheduleBatch(cluster,
+                Arrays.asList(vm1, vm2),
+                new SchedulingParameters(),
+                messages,
+                null);
+
+        assertEquals(Collections.singletonMap(vm1.getId(), host1.getId()), placements);
+        assertTrue(messages.get(vm2.getId()).contains(EngineMessage.SCHEDULING_ALL_HOSTS_FILTERED_OUT.name()));
+    }
+
+    @Test
+    public void testScheduleBatchSeesResourcesOfPreviousPlacements() {
+        allowedHosts.put(vm1.getId(), Collections.singletonList(host1.getId()));
+        allowedHosts.put(vm2.getId(), Collections.singletonList(host1.getId()));
+
+        scheduleBatch(vm1, vm2);
+
+        assertEquals(0, (int) pendingCpusOfHost1.get(vm1.getId()));
+        assertEquals(vm1.getNumOfCpus(), (int) pendingCpusOfHost1.get(vm2.getId()));
+    }
+
+    @Test
+    public void testScheduleUsesReservedHost() {
+        allowedHosts.put(vm1.getId(), Collections.singletonList(host2.getId()));
+        scheduleBatch(vm1, vm2);
+
+        // host1 would be selected without the reservation
+        allowedHosts.put(vm1.getId(), Arrays.asList(host1.getId(), host2.getId()));
+        Optional<Guid> bestHost = schedule(vm1);
+
+        assertEquals(Optional.of(host2.getId()), bestHost);
+        // the reserved host is still verified against all the hosts of the cluster
+        assertEquals(2, filteredHosts.get(filteredHosts.size() - 1).size());
+    }
+
+    @Test
+    public void testScheduleIgnoresReservedHostFilteredOut() {
+        allowedHosts.put(vm1.getId(), Collections.singletonList(host2.getId()));
+        scheduleBatch(vm1, vm2);
+
+        allowedHosts.put(vm1.getId(), Collections.singletonList(host1.getId()));
+        Optional<Guid> bestHost = schedule(vm1);
+
+        assertEquals(Optional.of(host1.getId()), bestHost);
+    }
+
+    @Test
+    public void testReservationIsUsedOnce() {
+        allowedHosts.put(vm1.getId(), Collections.singletonList(host2.getId()));
+        scheduleBatch(vm1, vm2);
+
+        allowedHosts.put(vm1.getId(), Arrays.asList(host1.getId(), host2.getId()));
+        schedule(vm1);
+        allowedHosts.put(vm1.getId(), Collections.singletonList(host1.getId()));
+
+        assertEquals(Optional.of(host1.getId()), schedule(vm1));
+    }
+
+    @Test
+    public void testReleaseReservedPlacements() {
+        allowedHosts.put(vm1.getId(), Collections.singletonList(host2.getId()));
+        scheduleBatch(vm1, vm2);
+
+        schedulingManager.releaseReservedPlacements(Collections.singletonList(vm1.getId()));
+
+        allowedHosts.put(vm2.getId(), Collections.singletonList(host2.getId()));
+        Optional<Guid> bestHost = schedule(vm2);
+
+        assertEquals(Optional.of(host2.getId()), bestHost);
+        // the pending resources of the released reservation are not seen anymore
+        assertEquals(0, (int) pendingCpusOfHost2.get(vm2.getId()));
+    }
+
+    @Test
+    public void testScheduleBatchWithoutVms() {
+        assertTrue(scheduleBatch().isEmpty());
+        verify(vdsDao, never()).getAllForClusterWithStatus(cluster.getId(), VDSStatus.Up);
+        assertTrue(filteredHosts.isEmpty());
+    }
+
+    private Map<Guid, Guid> scheduleBatch(VM... vms) {
+        return schedulingManager.scheduleBatch(cluster,
+                Arrays.asList(vms),
+                new SchedulingParameters(),
+                new HashMap<>(),
+                null);
+    }
+
+    private Optional<Guid> schedule(VM vm) {
+        return schedulingManager.schedule(cluster,
+                vm,
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                new SchedulingParameters(),
+                new ArrayList<>(),
+                false,
+                null);
+    }
+
+    private static VDS createHost(String name) {
+        VDS host = new VDS();
+        host.setId(Guid.newGuid());
+        host.setVdsName(name);
+        return host;
+    }
+
+    private static VM createVm() {
+        VM vm = new VM();
+        vm.setId(Guid.newGuid());
+        vm.setNumOfSockets(2);
+        vm.setCpuPerSocket(1);
+        return vm;
+    }
+}
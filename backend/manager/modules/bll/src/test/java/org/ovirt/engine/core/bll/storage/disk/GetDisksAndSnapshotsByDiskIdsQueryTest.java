@@ -0,0 +1,53 @@
+package org.ovirt.engine.core.bll.storage.disk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.ovirt.engine.core.common.businessentities.storage.Disk;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
+import org.ovirt.engine.core.common.businessentities.storage.LunDisk;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.DiskDao;
+
+/**
+ * A test case for {@link GetDisksAndSnapshotsByDiskIdsQuery}.
+ * This test mocks away all the Daos, and just tests the flow of the query itself.
+ */
+public class GetDisksAndSnapshotsByDiskIdsQueryTest extends
+        AbstractGetDisksAndSnapshotsQueryTest<IdsQueryParameters, GetDisksAndSnapshotsByDiskIdsQuery<IdsQueryParameters>> {
+
+    @Mock
+    private DiskDao diskDao;
+
+    @Test
+    public void testQueryAggregatesSnapshotsOfEachDisk() {
+        List<Guid> diskIds = new ArrayList<>();
+        Collections.addAll(diskIds, diskWithSnapshots.getId(), diskWithoutSnapshots.getId(), ovfImage.getId(),
+                cinderDisk.getId(), lunDisk.getId());
+        List<Disk> disks = new ArrayList<>(snapshotsList);
+        Collections.addAll(disks, diskWithSnapshots, diskWithoutSnapshots, ovfImage, cinderDisk, lunDisk);
+        when(params.getIds()).thenReturn(diskIds);
+        when(diskDao.getAllFromDisksIncludingSnapshotsByDiskIds(diskIds,
+                getUser().getId(),
+                getQueryParameters().isFiltered())).thenReturn(disks);
+
+        getQuery().executeQueryCommand();
+        Collection<Disk> result = getQuery().getQueryReturnValue().getReturnValue();
+
+        assertEquals(5, result.size(), "wrong number of disks returned");
+        assertTrue(result.contains(lunDisk), "LUN disk should be returned");
+        assertEquals(3, diskWithSnapshots.getSnapshots().size(), "wrong number of snapshots");
+        result.stream()
+                .filter(disk -> !(disk instanceof LunDisk))
+                .forEach(disk -> assertTrue(((DiskImage) disk).getActive(), "disk should be active"));
+    }
+}
@@ -19,6 +19,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -57,6 +58,7 @@ import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.compat.KeyValuePairCompat;
 import org.ovirt.engine.core.dao.DbUserDao;
 import org.ovirt.engine.core.dao.LabelDao;
+import org.ovirt.engine.core.dao.PermissionDao;
 import org.ovirt.engine.core.dao.SnapshotDao;
 import org.ovirt.engine.core.dao.StorageDomainDao;
 import org.ovirt.engine.core.dao.StorageDomainOvfInfoDao;
@@ -112,6 +114,9 @@ public class ProcessOvfUpdateForStoragePoolCommandTest extends BaseCommandTest {
     @Mock
     private DbUserDao dbUserDao;
 
+    @Mock
+    private PermissionDao permissionDao;
+
     @Mock
     private OvfHelper ovfHelper;
 
@@ -141,11 +146,11 @@ public class ProcessOvfUpdateForStoragePoolCommandTest extends BaseCommandTest {
         // mock ovf data updater methods
         doNothing().when(ovfUpdateProcessHelper).loadTemplateData(any());
         doNothing().when(ovfUpdateProcessHelper).loadVmData(any());
-        doNothing().when(command).updateVmDisksFromDb(any());
+        doNothing().when(command).updateVmsDisksFromDb(any());
         doNothing().when(command).updateTemplateDisksFromDb(any());
 
         // dao related mocks.
-        doReturn(1L).when(vmStaticDao).getDbGeneration(any());
+        mockDbGeneration(1L);
         doReturn(pool1).when(command).getStoragePool();
 
         mockAnswers();
@@ -176,6 +181,14 @@ public class ProcessOvfUpdateForStoragePoolCommandTest extends BaseCommandTest {
         }
     }
 
+    private void mockDbGeneration(long dbGeneration) {
+        doReturn(dbGeneration).when(vmStaticDao).getDbGeneration(any());
+        doAnswer(invocation -> {
+            Collection<Guid> ids = (Collection<Guid>) invocation.getArguments()[0];
+            return ids.stream().collect(Collectors.toMap(Function.identity(), id -> dbGeneration));
+        }).when(vmStaticDao).getDbGenerations(any());
+    }
+
     private void mockAnswers() {
         doAnswer(invocation -> {
             VM vm = (VM) invocation.getArguments()[0];
@@ -416,6 +429,10 @@ public class ProcessOvfUpdateForStoragePoolCommandTest extends BaseCommandTest {
 
         executeCommand();
         verify(command, times(numberOfTimesToBeCalled(size, true))).performOvfUpdate(any());
+        // the users and permissions of the vms are loaded once for the whole batch
+        verify(dbUserDao).getAllForVms(any());
+        verify(dbUserDao, never()).getAllForVm(any());
+        verify(permissionDao).getAllForObjectIds(any());
 
         List<Guid> needToBeUpdated = new LinkedList<>(vmGuids);
         needToBeUpdated.addAll(templatesGuids);
@@ -539,7 +556,7 @@ public class ProcessOvfUpdateForStoragePoolCommandTest extends BaseCommandTest {
 
         initTestForPool(pool1, vmGuids, templatesGuids, removedGuids);
 
-        doReturn(2L).when(vmStaticDao).getDbGeneration(any());
+        mockDbGeneration(2L);
 
         executeCommand();
 
@@ -0,0 +1,64 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
+
+public class CallbackDueIndexTest {
+
+    private static final int WHEEL_SIZE = 4;
+
+    private final CallbackDueIndex index = new CallbackDueIndex(WHEEL_SIZE);
+
+    @Test
+    public void callbackIsDueAfterItsDelay() {
+        Guid cmdId = Guid.newGuid();
+        index.schedule(cmdId, 2);
+        assertTrue(index.advance().isEmpty());
+        assertEquals(Collections.singletonList(cmdId), index.advance());
+        assertFalse(index.contains(cmdId));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void callbackIsDueOnNextTickWhenDelayIsZero() {
+        Guid cmdId = Guid.newGuid();
+        index.schedule(cmdId, 0);
+        assertEquals(Collections.singletonList(cmdId), index.advance());
+    }
+
+    @Test
+    public void callbackLongerThanWheelIsDueOnlyAfterItsDelay() {
+        Guid cmdId = Guid.newGuid();
+        index.schedule(cmdId, WHEEL_SIZE * 2 + 1);
+        for (int i = 0; i < WHEEL_SIZE * 2; i++) {
+            assertTrue(index.advance().isEmpty());
+        }
+        assertEquals(Collections.singletonList(cmdId), index.advance());
+    }
+
+    @Test
+    public void reschedulingReplacesPreviousDueTick() {
+        Guid cmdId = Guid.newGuid();
+        index.schedule(cmdId, 1);
+        index.schedule(cmdId, 3);
+        assertEquals(1, index.size());
+        assertTrue(index.advance().isEmpty());
+        assertTrue(index.advance().isEmpty());
+        assertEquals(Collections.singletonList(cmdId), index.advance());
+    }
+
+    @Test
+    public void removedCallbackIsNotDue() {
+        Guid cmdId = Guid.newGuid();
+        index.schedule(cmdId, 1);
+        index.remove(cmdId);
+        assertFalse(index.contains(cmdId));
+        assertTrue(index.advance().isEmpty());
+    }
+}
@@ -0,0 +1,206 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.tasks.interfaces.CommandCallback;
+import org.ovirt.engine.core.common.action.ActionParametersBase;
+import org.ovirt.engine.core.common.businessentities.CommandEntity;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.CommandStatus;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.MockedConfig;
+
+/**
+ * Tests the dispatching of the due callbacks to the callbacks executor.
+ */
+@ExtendWith({MockitoExtension.class, MockConfigExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class CommandCallbacksPollerTest {
+
+    private static final long POLLING_RATE = 10;
+    private static final int MAX_PARALLEL_CALLBACKS = 2;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.AsyncCommandPollingLoopInSeconds, POLLING_RATE),
+                MockConfigDescriptor.of(ConfigValues.AsyncCommandPollingRateInSeconds, POLLING_RATE),
+                MockConfigDescriptor.of(ConfigValues.RepeatEndMethodsOnFailMaxRetries, 5),
+                MockConfigDescriptor.of(ConfigValues.AsyncCommandParallelCallbacksEnabled, true),
+                MockConfigDescriptor.of(ConfigValues.AsyncCommandMaxParallelCallbacks, MAX_PARALLEL_CALLBACKS)
+        );
+    }
+
+    public static Stream<MockConfigDescriptor<?>> serialCallbacksConfig() {
+        return Stream.concat(mockConfiguration(),
+                Stream.of(MockConfigDescriptor.of(ConfigValues.AsyncCommandParallelCallbacksEnabled, false)));
+    }
+
+    @Mock
+    private ManagedScheduledExecutorService executor;
+
+    @Mock
+    private ManagedExecutorService callbacksExecutor;
+
+    @Mock
+    private CommandsRepository commandsRepository;
+
+    @Mock
+    private CommandCallback callback;
+
+    @InjectMocks
+    private CommandCallbacksPoller poller;
+
+    private final Map<Guid, CommandEntity> commands = new HashMap<>();
+
+    /**
+     * The groups of callbacks submitted to the callbacks executor, not run until the test runs them
+     */
+    private final List<Runnable> submitted = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        when(commandsRepository.getCommands(true)).thenReturn(Collections.emptyList());
+        when(commandsRepository.getCommandEntity(any())).thenAnswer(invocation -> commands.get(invocation.getArgument(0)));
+        when(commandsRepository.getCallbackTiming(any())).thenAnswer(invocation ->
+                commands.containsKey(invocation.<Guid>getArgument(0)) ? new CallbackTiming(callback, POLLING_RATE) : null);
+        when(commandsRepository.getCommandStatus(any())).thenReturn(CommandStatus.ACTIVE);
+        when(commandsRepository.getChildCommandIds(any())).thenReturn(Collections.emptyList());
+        when(callbacksExecutor.submit(any(Runnable.class))).thenAnswer(invocation -> {
+            submitted.add(invocation.getArgument(0));
+            return null;
+        });
+        poller.init();
+    }
+
+    @Test
+    public void testCallbacksOfRootAreInvokedTogetherChildrenFirst() {
+        Guid rootCmdId = addCommand(null);
+        Guid firstChildCmdId = addCommand(rootCmdId);
+        Guid secondChildCmdId = addCommand(rootCmdId);
+
+        pollDueCallbacks(rootCmdId, firstChildCmdId, secondChildCmdId);
+
+        assertEquals(1, submitted.size());
+        verify(callback, never()).doPolling(any(), any());
+        submitted.get(0).run();
+        InOrder inOrder = inOrder(callback);
+        inOrder.verify(callback).doPolling(eq(firstChildCmdId), any());
+        inOrder.verify(callback).doPolling(eq(secondChildCmdId), any());
+        inOrder.verify(callback).doPolling(eq(rootCmdId), any());
+    }
+
+    @Test
+    public void testCallbacksOfDifferentRootsAreSubmittedSeparately() {
+        pollDueCallbacks(addCommand(null), addCommand(null));
+
+        assertEquals(2, submitted.size());
+        assertEquals(0, poller.getDeferredCallbacksCount());
+    }
+
+    @Test
+    public void testCallbacksOfInFlightRootAreDeferred() {
+        Guid rootCmdId = addCommand(null);
+        pollDueCallbacks(rootCmdId);
+
+        Guid childCmdId = addCommand(rootCmdId);
+        pollDueCallbacks(childCmdId);
+
+        assertEquals(1, submitted.size());
+        verify(commandsRepository).scheduleCallback(childCmdId, POLLING_RATE);
+        assertEquals(1, poller.getDeferredCallbacksCount());
+
+        // once the callbacks of the root are invoked, the callbacks of the same root may be submitted again
+        submitted.get(0).run();
+        pollDueCallbacks(childCmdId);
+        assertEquals(2, submitted.size());
+    }
+
+    @Test
+    public void testCallbacksAreDeferredWhenMaxParallelCallbacksReached() {
+        pollDueCallbacks(addCommand(null), addCommand(null));
+        Guid deferredCmdId = addCommand(null);
+
+        pollDueCallbacks(deferredCmdId);
+
+        assertEquals(MAX_PARALLEL_CALLBACKS, submitted.size());
+        verify(commandsRepository).scheduleCallback(deferredCmdId, POLLING_RATE);
+
+        // running a group releases its permit
+        submitted.get(0).run();
+        pollDueCallbacks(deferredCmdId);
+        assertEquals(MAX_PARALLEL_CALLBACKS + 1, submitted.size());
+    }
+
+    @Test
+    public void testCallbacksRejectedByExecutorAreDeferred() {
+        Guid cmdId = addCommand(null);
+        doThrow(new RejectedExecutionException()).when(callbacksExecutor).submit(any(Runnable.class));
+
+        pollDueCallbacks(cmdId);
+
+        verify(commandsRepository).scheduleCallback(cmdId, POLLING_RATE);
+        assertEquals(1, poller.getDeferredCallbacksCount());
+        verify(callback, never()).doPolling(any(), any());
+    }
+
+    @Test
+    @MockedConfig("serialCallbacksConfig")
+    public void testCallbacksAreInvokedByPollerWhenParallelCallbacksDisabled() {
+        Guid firstCmdId = addCommand(null);
+        Guid secondCmdId = addCommand(null);
+
+        pollDueCallbacks(firstCmdId, secondCmdId);
+
+        verify(callbacksExecutor, never()).submit(any(Runnable.class));
+        InOrder inOrder = inOrder(callback);
+        inOrder.verify(callback).doPolling(eq(firstCmdId), any());
+        inOrder.verify(callback).doPolling(eq(secondCmdId), any());
+        assertEquals(0, poller.getDeferredCallbacksCount());
+    }
+
+    private void pollDueCallbacks(Guid... cmdIds) {
+        when(commandsRepository.pollDueCallbacks()).thenReturn(new ArrayList<>(Arrays.asList(cmdIds)));
+        poller.invokeCallbackMethodsImpl();
+    }
+
+    private Guid addCommand(Guid rootCmdId) {
+        CommandEntity cmdEntity = new CommandEntity();
+        cmdEntity.setId(Guid.newGuid());
+        cmdEntity.setRootCommandId(rootCmdId);
+        cmdEntity.setCommandStatus(CommandStatus.ACTIVE);
+        cmdEntity.setCommandParameters(new ActionParametersBase());
+        cmdEntity.setExecuted(true);
+        commands.put(cmdEntity.getId(), cmdEntity);
+        return cmdEntity.getId();
+    }
+}
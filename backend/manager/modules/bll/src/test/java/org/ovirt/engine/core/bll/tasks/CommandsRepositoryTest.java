@@ -0,0 +1,140 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.tasks.interfaces.CommandCallback;
+import org.ovirt.engine.core.bll.tasks.interfaces.CommandContextsCache;
+import org.ovirt.engine.core.common.action.ActionParametersBase;
+import org.ovirt.engine.core.common.businessentities.CommandEntity;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.CommandStatus;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith({MockitoExtension.class, MockConfigExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class CommandsRepositoryTest {
+
+    private static final int LIFE_IN_MINUTES = 60;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.AsyncCommandPollingLoopInSeconds, 1L),
+                MockConfigDescriptor.of(ConfigValues.CoCoLifeInMinutes, LIFE_IN_MINUTES)
+        );
+    }
+
+    @Mock
+    private CommandsCache commandsCache;
+
+    @Mock
+    private CommandContextsCache contextsCache;
+
+    @Mock
+    private CommandCallback callback;
+
+    private CommandsRepository commandsRepository;
+
+    private final Map<Guid, CommandEntity> commands = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        when(commandsCache.get(any())).thenAnswer(invocation -> commands.get(invocation.getArgument(0)));
+        when(commandsCache.keySet()).thenAnswer(invocation -> commands.keySet());
+        commandsRepository = new CommandsRepository(commandsCache, contextsCache);
+    }
+
+    @Test
+    public void testExpiredCommandIsMarkedAsFailure() {
+        CommandEntity expired = addCommand(null, CommandStatus.ACTIVE, LIFE_IN_MINUTES + 1);
+        CommandEntity notExpired = addCommand(null, CommandStatus.ACTIVE, LIFE_IN_MINUTES - 1);
+        addToCallbackMap(expired);
+        addToCallbackMap(notExpired);
+
+        commandsRepository.markExpiredCommandsAsFailure();
+
+        verify(commandsCache).updateCommandStatus(expired.getId(), CommandStatus.FAILED);
+        verify(commandsCache, never()).updateCommandStatus(notExpired.getId(), CommandStatus.FAILED);
+    }
+
+    @Test
+    public void testCommandIsNotCheckedBeforeItExpires() {
+        CommandEntity notExpired = addCommand(null, CommandStatus.ACTIVE, LIFE_IN_MINUTES - 1);
+        addToCallbackMap(notExpired);
+        clearInvocations(commandsCache);
+
+        commandsRepository.markExpiredCommandsAsFailure();
+
+        verify(commandsCache, never()).get(notExpired.getId());
+    }
+
+    @Test
+    public void testChildrenAreMarkedAsFailureInsteadOfTheirParent() {
+        CommandEntity parent = addCommand(null, CommandStatus.ACTIVE, LIFE_IN_MINUTES + 1);
+        CommandEntity child = addCommand(parent.getId(), CommandStatus.ACTIVE, LIFE_IN_MINUTES + 1);
+        addToCallbackMap(parent);
+
+        commandsRepository.markExpiredCommandsAsFailure();
+
+        verify(commandsCache).updateCommandStatus(child.getId(), CommandStatus.FAILED);
+        verify(commandsCache, never()).updateCommandStatus(parent.getId(), CommandStatus.FAILED);
+    }
+
+    @Test
+    public void testExpiredCommandIsMarkedAsFailureOnceItStarts() {
+        CommandEntity command = addCommand(null, CommandStatus.NOT_STARTED, LIFE_IN_MINUTES + 1);
+        addToCallbackMap(command);
+
+        commandsRepository.markExpiredCommandsAsFailure();
+        verify(commandsCache, never()).updateCommandStatus(command.getId(), CommandStatus.FAILED);
+
+        command.setCommandStatus(CommandStatus.ACTIVE);
+        // the command is checked again on the next polling loop
+        commandsRepository.markExpiredCommandsAsFailure(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(2));
+        verify(commandsCache).updateCommandStatus(command.getId(), CommandStatus.FAILED);
+    }
+
+    @Test
+    public void testCommandRemovedFromCallbacksIsNotMarkedAsFailure() {
+        CommandEntity command = addCommand(null, CommandStatus.ACTIVE, LIFE_IN_MINUTES + 1);
+        addToCallbackMap(command);
+        commandsRepository.removeFromCallbackMap(command.getId());
+
+        commandsRepository.markExpiredCommandsAsFailure();
+
+        verify(commandsCache, never()).updateCommandStatus(command.getId(), CommandStatus.FAILED);
+    }
+
+    private CommandEntity addCommand(Guid parentCmdId, CommandStatus status, int ageInMinutes) {
+        CommandEntity cmdEntity = new CommandEntity();
+        cmdEntity.setId(Guid.newGuid());
+        cmdEntity.setParentCommandId(parentCmdId);
+        cmdEntity.setCommandStatus(status);
+        cmdEntity.setCommandParameters(new ActionParametersBase());
+        cmdEntity.setCreatedAt(new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(ageInMinutes)));
+        commands.put(cmdEntity.getId(), cmdEntity);
+        return cmdEntity;
+    }
+
+    private void addToCallbackMap(CommandEntity cmdEntity) {
+        commandsRepository.addToCallbackMap(cmdEntity.getId(), new CallbackTiming(callback, 1));
+    }
+}
@@ -0,0 +1,89 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
+
+public class StoragePoolPollingScheduleTest {
+
+    private static final Guid POOL_ID = Guid.newGuid();
+
+    private final StoragePoolPollingSchedule schedule = new StoragePoolPollingSchedule();
+
+    @Test
+    public void testNewPoolIsDue() {
+        schedule.tick();
+
+        assertTrue(schedule.isDue(POOL_ID));
+    }
+
+    @Test
+    public void testChangingPoolIsPolledEveryTick() {
+        schedule.tick();
+        schedule.polled(POOL_ID, true, 8, 1, 0);
+        schedule.tick();
+
+        assertTrue(schedule.isDue(POOL_ID));
+    }
+
+    @Test
+    public void testUnchangedPoolBacksOff() {
+        schedule.tick();
+        schedule.polled(POOL_ID, false, 8, 1, 0);
+        assertEquals(2, schedule.getIntervalInTicks(POOL_ID));
+
+        schedule.tick();
+        assertFalse(schedule.isDue(POOL_ID));
+        schedule.tick();
+        assertTrue(schedule.isDue(POOL_ID));
+
+        schedule.polled(POOL_ID, false, 8, 1, 0);
+        assertEquals(4, schedule.getIntervalInTicks(POOL_ID));
+        schedule.polled(POOL_ID, false, 8, 1, 0);
+        schedule.polled(POOL_ID, false, 8, 1, 0);
+        assertEquals(8, schedule.getIntervalInTicks(POOL_ID));
+
+        schedule.polled(POOL_ID, true, 8, 1, 0);
+        assertEquals(1, schedule.getIntervalInTicks(POOL_ID));
+    }
+
+    @Test
+    public void testPollNextMakesPoolDue() {
+        schedule.tick();
+        schedule.polled(POOL_ID, false, 8, 1, 0);
+        schedule.polled(POOL_ID, false, 8, 1, 0);
+
+        schedule.pollNext(POOL_ID);
+        schedule.tick();
+
+        assertTrue(schedule.isDue(POOL_ID));
+        assertEquals(1, schedule.getIntervalInTicks(POOL_ID));
+    }
+
+    @Test
+    public void testFailedPollKeepsInterval() {
+        schedule.tick();
+        schedule.polled(POOL_ID, false, 8, 1, 0);
+        schedule.failed(POOL_ID, 1, 0);
+
+        assertEquals(2, schedule.getIntervalInTicks(POOL_ID));
+    }
+
+    @Test
+    public void testPollStatisticsAreKept() {
+        schedule.tick();
+        schedule.polled(POOL_ID, true, 8, 3, 25);
+
+        assertEquals(Collections.singletonMap(POOL_ID, 3), schedule.getTasksCounts());
+        assertEquals(Collections.singletonMap(POOL_ID, 25L), schedule.getPollDurations());
+
+        schedule.retainAll(Collections.emptySet());
+
+        assertTrue(schedule.getTasksCounts().isEmpty());
+    }
+}
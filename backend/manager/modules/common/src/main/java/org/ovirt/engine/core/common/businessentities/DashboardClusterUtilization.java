@@ -0,0 +1,80 @@
+package org.ovirt.engine.core.common.businessentities;
+
+import java.io.Serializable;
+
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * The current CPU and memory usage of the hosts which are up in a cluster, as shown by the heat maps of the dashboard.
+ */
+public class DashboardClusterUtilization implements Serializable {
+
+    private static final long serialVersionUID = 3950167624810713589L;
+
+    private Guid clusterId;
+
+    private String clusterName;
+
+    /**
+     * The number of CPU cores of the hosts
+     */
+    private int cpuCores;
+
+    /**
+     * The number of CPU cores used by the hosts, the CPU usage percent of each host weighted by its cores
+     */
+    private double cpuUsedCores;
+
+    private long physicalMemMb;
+
+    private double memUsedMb;
+
+    public DashboardClusterUtilization() {
+    }
+
+    public DashboardClusterUtilization(Guid clusterId,
+            String clusterName,
+            int cpuCores,
+            double cpuUsedCores,
+            long physicalMemMb,
+            double memUsedMb) {
+        this.clusterId = clusterId;
+        this.clusterName = clusterName;
+        this.cpuCores = cpuCores;
+        this.cpuUsedCores = cpuUsedCores;
+        this.physicalMemMb = physicalMemMb;
+        this.memUsedMb = memUsedMb;
+    }
+
+    public Guid getClusterId() {
+        return clusterId;
+    }
+
+    public String getClusterName() {
+        return clusterName;
+    }
+
+    public int getCpuCores() {
+        return cpuCores;
+    }
+
+    public double getCpuUsedCores() {
+        return cpuUsedCores;
+    }
+
+    public long getPhysicalMemMb() {
+        return physicalMemMb;
+    }
+
+    public double getMemUsedMb() {
+        return memUsedMb;
+    }
+
+    public double getCpuUsagePercent() {
+        return cpuCores == 0 ? 0 : cpuUsedCores * 100 / cpuCores;
+    }
+
+    public double getMemUsagePercent() {
+        return physicalMemMb == 0 ? 0 : memUsedMb * 100 / physicalMemMb;
+    }
+}
@@ -0,0 +1,43 @@
+package org.ovirt.engine.core.common.businessentities;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The inventory counts and the utilization of the hosts and VMs shown by the dashboard, as maintained by the engine
+ * from the monitoring of the hosts and VMs.
+ */
+public class DashboardSummary implements Serializable {
+
+    private static final long serialVersionUID = -4462375310226519374L;
+
+    private Map<VDSStatus, Integer> hostCountsByStatus;
+
+    private Map<VMStatus, Integer> vmCountsByStatus;
+
+    private List<DashboardClusterUtilization> clusterUtilization;
+
+    public DashboardSummary() {
+        hostCountsByStatus = new HashMap<>();
+        vmCountsByStatus = new HashMap<>();
+        clusterUtilization = new ArrayList<>();
+    }
+
+    public Map<VDSStatus, Integer> getHostCountsByStatus() {
+        return hostCountsByStatus;
+    }
+
+    public Map<VMStatus, Integer> getVmCountsByStatus() {
+        return vmCountsByStatus;
+    }
+
+    /**
+     * @return the utilization of the clusters which have hosts that are up
+     */
+    public List<DashboardClusterUtilization> getClusterUtilization() {
+        return clusterUtilization;
+    }
+}
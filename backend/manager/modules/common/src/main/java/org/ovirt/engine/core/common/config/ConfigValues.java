@@ -66,6 +66,19 @@ public enum ConfigValues {
     @TypeConverterAttribute(Long.class)
     AsyncCommandPollingRateInSeconds,
 
+    /**
+     * Whether the callbacks of asynchronous commands are invoked on a pool of worker threads instead of sequentially
+     * on the polling thread. Callbacks of commands sharing the same root command are still invoked one by one.
+     */
+    @TypeConverterAttribute(Boolean.class)
+    AsyncCommandParallelCallbacksEnabled,
+
+    /**
+     * Maximum number of root commands whose callbacks are invoked in parallel.
+     */
+    @TypeConverterAttribute(Integer.class)
+    AsyncCommandMaxParallelCallbacks,
+
     /**
      * The rate (in seconds) to refresh the cache that holds the asynchronous tasks' statuses.
      */
@@ -140,6 +153,19 @@ public enum ConfigValues {
     @Reloadable
     @TypeConverterAttribute(Integer.class)
     SearchResultsLimit(ClientAccessLevel.User),
+
+    /**
+     * Maximum number of compiled search queries kept in the search query cache.
+     */
+    @TypeConverterAttribute(Integer.class)
+    SearchQueryCacheMaxSize,
+
+    /**
+     * Time (in minutes) after which a compiled search query is dropped from the search query cache and compiled again.
+     */
+    @TypeConverterAttribute(Integer.class)
+    SearchQueryCacheTimeToLiveInMinutes,
+
     @Reloadable
     @TypeConverterAttribute(Integer.class)
     VDSAttemptsToResetCount,
@@ -204,6 +230,14 @@ public enum ConfigValues {
     MaxNumOfThreadsPerCpu(ClientAccessLevel.User),
     @TypeConverterAttribute(Integer.class)
     NumberVmRefreshesBeforeSave,
+
+    /**
+     * Interval in minutes between the reloads of the dashboard summary maintained from the monitoring, which correct
+     * the changes of hosts and VMs made outside of the monitoring.
+     */
+    @TypeConverterAttribute(Integer.class)
+    DashboardSummaryReloadIntervalInMinutes,
+
     @TypeConverterAttribute(Integer.class)
     NumberVdsRefreshesBeforeTryToStartUnknownVms,
     @TypeConverterAttribute(Integer.class)
@@ -1361,6 +1395,112 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     UsageHistoryLimit,
 
+    /**
+     * Persist VM, VM interface and disk statistics only when they changed beyond the configured thresholds or when
+     * the full flush interval elapsed.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Boolean.class)
+    VmStatisticsDeltaPersistenceEnabled,
+
+    /**
+     * Interval (in seconds) after which the statistics of a VM are persisted even when they did not change.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    VmStatisticsFullFlushIntervalInSeconds,
+
+    /**
+     * Change (in percentage points) of a usage percentage statistic, like CPU or memory usage, which is persisted.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    VmStatisticsPercentageChangeThreshold,
+
+    /**
+     * Change (in percent of the persisted value) of a rate, counter or latency statistic which is persisted.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    VmStatisticsRelativeChangeThreshold,
+
+    /**
+     * Minimal number of statistics rows written by the monitoring at once which are written using a bulk copy instead
+     * of a batch of stored procedure calls, 0 disables the bulk copy.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    StatisticsBulkUpdateMinRows,
+
+    /**
+     * Whether the full list of the VMs of a host is fetched only when the VM status events of the host can not be
+     * trusted, instead of on every VM monitoring cycle.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Boolean.class)
+    AdaptiveVmMonitoringEnabled,
+
+    /**
+     * Interval (in seconds) after which the full list of the VMs of a host is fetched by adaptive VM monitoring even
+     * when the VM status events are trusted.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    AdaptiveVmMonitoringFullPollIntervalInSeconds,
+
+    /**
+     * Interval (in seconds) after which the host kept in memory by the host monitoring is reloaded from the database,
+     * 0 reloads it on every monitoring cycle.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    VdsCacheVerifyIntervalInSeconds,
+
+    /**
+     * Time (in seconds) the permissions found when checking the authorization of commands are cached for, 0 disables
+     * the cache.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    PermissionCacheTimeToLiveInSeconds,
+
+    /**
+     * Maximal number of audit log events waiting to be written to the database in the background, 0 writes the events
+     * synchronously.
+     */
+    @TypeConverterAttribute(Integer.class)
+    AuditLogQueueSize,
+
+    /**
+     * Maximal number of threads analyzing the VMs reported by a host in a monitoring cycle, 1 analyzes the VMs on the
+     * monitoring thread.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    VmAnalysisThreads,
+
+    /**
+     * Maximal number of clusters whose Gluster data is refreshed in parallel, 1 refreshes the clusters one after the
+     * other on the job thread.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    GlusterRefreshThreads,
+
+    /**
+     * Time (in seconds) the Gluster refresh jobs wait for the refresh of a cluster before going on without it.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    GlusterRefreshClusterTimeoutInSecs,
+
+    /**
+     * Maximal time (in seconds) between the polls of the SPM tasks of a storage pool whose statuses do not change.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Long.class)
+    AsyncTaskMaxPollingRate,
+
     @TypeConverterAttribute(Integer.class)
     MaxCpuLimitQosValue(ClientAccessLevel.Admin),
 
@@ -109,6 +109,7 @@ public enum QueryType implements Serializable {
 
     // Vm Network
     GetVmInterfacesByVmId(QueryAuthType.User),
+    GetVmInterfacesByVmIds(QueryAuthType.User),
     GetVmGuestAgentInterfacesByVmId(QueryAuthType.User),
     GetVmInterfaceFilterParametersByVmInterfaceId(QueryAuthType.User),
     GetVmInterfaceFilterParameterById(QueryAuthType.User),
@@ -213,6 +214,7 @@ public enum QueryType implements Serializable {
     GetUnregisteredDisk,
     GetDiskByDiskId(QueryAuthType.User),
     GetDiskAndSnapshotsByDiskId(QueryAuthType.User),
+    GetDisksAndSnapshotsByDiskIds(QueryAuthType.User),
     GetDiskSnapshotByImageId,
     GetAncestorImagesByImagesIds(QueryAuthType.User),
     GetImageTransferById(QueryAuthType.User),
@@ -222,6 +224,7 @@ public enum QueryType implements Serializable {
 
     GetDiskVmElementById(QueryAuthType.User),
     GetDiskVmElementsByVmId(QueryAuthType.User),
+    GetDiskVmElementsByVmIds(QueryAuthType.User),
 
     // Users queries
     GetUserVmsByUserIdAndGroups(QueryAuthType.User),
@@ -271,6 +274,7 @@ public enum QueryType implements Serializable {
 
     // System
     GetSystemStatistics,
+    GetDashboardSummary(QueryAuthType.Admin),
     IsOvirtCockpitSSOStarted,
 
     // Bookmarks
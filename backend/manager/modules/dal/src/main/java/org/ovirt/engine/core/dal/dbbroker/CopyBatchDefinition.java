@@ -0,0 +1,76 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Describes how a batch of rows is written using the PostgreSQL {@code COPY} command: the rows are copied into a
+ * session scoped staging table and merged into the target table by a single call of a stored procedure, instead of
+ * calling the update stored procedure once per row.
+ */
+public class CopyBatchDefinition {
+
+    private final String stagingTable;
+    private final String mergeProcedure;
+    private final String batchProcedure;
+    private final List<String> columnNames = new ArrayList<>();
+    private final List<String> columnDefinitions = new ArrayList<>();
+
+    /**
+     * @param stagingTable
+     *            the name of the temporary table the rows are copied to
+     * @param mergeProcedure
+     *            the stored procedure merging the staging table into the target table
+     * @param batchProcedure
+     *            the stored procedure updating a single row, used as a fallback when {@code COPY} is not available
+     */
+    public CopyBatchDefinition(String stagingTable, String mergeProcedure, String batchProcedure) {
+        this.stagingTable = stagingTable;
+        this.mergeProcedure = mergeProcedure;
+        this.batchProcedure = batchProcedure;
+    }
+
+    /**
+     * Adds a column to the staging table, the column name should match the parameter name used by the mapper of the
+     * rows
+     */
+    public CopyBatchDefinition addColumn(String name, String sqlType) {
+        columnNames.add(name);
+        columnDefinitions.add(name + " " + sqlType);
+        return this;
+    }
+
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(columnNames);
+    }
+
+    public String getMergeProcedure() {
+        return mergeProcedure;
+    }
+
+    public String getBatchProcedure() {
+        return batchProcedure;
+    }
+
+    /**
+     * The staging table lives as long as the database session, it is created on first usage and emptied before each
+     * batch
+     */
+    String getPrepareStagingTableSql() {
+        return String.format("CREATE TEMPORARY TABLE IF NOT EXISTS %1$s (%2$s); TRUNCATE %1$s",
+                stagingTable,
+                String.join(", ", columnDefinitions));
+    }
+
+    String getCopySql() {
+        return String.format("COPY %s (%s) FROM STDIN WITH (FORMAT csv)",
+                stagingTable,
+                columnNames.stream().collect(Collectors.joining(", ")));
+    }
+
+    String getMergeSql() {
+        return String.format("SELECT %s()", mergeProcedure);
+    }
+}
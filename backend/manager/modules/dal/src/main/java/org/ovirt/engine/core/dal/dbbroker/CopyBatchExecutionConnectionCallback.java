@@ -0,0 +1,119 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.ovirt.engine.core.utils.SerializationFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+/**
+ * Writes a set of rows by streaming them to a staging table using the PostgreSQL {@code COPY} command and merging the
+ * staging table into the target table with a single stored procedure call. Falls back to
+ * {@link BatchProcedureExecutionConnectionCallback} when the connection is not a PostgreSQL one.
+ */
+public final class CopyBatchExecutionConnectionCallback implements ConnectionCallback<Object> {
+    private static final Logger log = LoggerFactory.getLogger(CopyBatchExecutionConnectionCallback.class);
+
+    private final SimpleJdbcCallsHandler handler;
+    private final CopyBatchDefinition definition;
+    private final List<MapSqlParameterSource> executions;
+    private final String paramNamePrefix;
+
+    public CopyBatchExecutionConnectionCallback(SimpleJdbcCallsHandler handler,
+            CopyBatchDefinition definition,
+            List<MapSqlParameterSource> executions) {
+        this.handler = handler;
+        this.definition = definition;
+        this.executions = executions;
+        this.paramNamePrefix = handler.getDialect().getParamNamePrefix();
+    }
+
+    @Override
+    public Object doInConnection(Connection con) throws SQLException, DataAccessException {
+        if (!con.isWrapperFor(PGConnection.class)) {
+            log.debug("COPY is not supported by the connection, executing batch for procedure {}",
+                    definition.getBatchProcedure());
+            return new BatchProcedureExecutionConnectionCallback(handler,
+                    definition.getBatchProcedure(),
+                    executions).doInConnection(con);
+        }
+
+        log.debug("Executing copy of {} rows for procedure {}", executions.size(), definition.getMergeProcedure());
+        try (Statement stmt = con.createStatement()) {
+            stmt.execute(definition.getPrepareStagingTableSql());
+            copyRows(con.unwrap(PGConnection.class));
+            stmt.execute(definition.getMergeSql());
+            log.debug("Executed copy");
+        } catch (SQLException e) {
+            log.error("Can't execute copy: {}", e.getMessage());
+            log.debug("Exception", e);
+            throw e;
+        }
+
+        return null;
+    }
+
+    private void copyRows(PGConnection con) throws SQLException {
+        CopyIn copyIn = con.getCopyAPI().copyIn(definition.getCopySql());
+        try {
+            StringBuilder row = new StringBuilder();
+            for (MapSqlParameterSource execution : executions) {
+                row.setLength(0);
+                appendRow(row, execution.getValues());
+                byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+            }
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void appendRow(StringBuilder row, Map<String, Object> values) {
+        boolean first = true;
+        for (String column : definition.getColumnNames()) {
+            if (!first) {
+                row.append(',');
+            }
+            first = false;
+            Object value = values.containsKey(paramNamePrefix + column)
+                    ? values.get(paramNamePrefix + column)
+                    : values.get(column);
+            appendValue(row, value);
+        }
+        row.append('\n');
+    }
+
+    /**
+     * Appends the value in CSV format, a {@code null} is written as an unquoted empty value while any other value is
+     * quoted so an empty string is kept
+     */
+    private static void appendValue(StringBuilder row, Object value) {
+        if (value == null) {
+            return;
+        }
+
+        Object mapped = value;
+        if (mapped instanceof Date && !(mapped instanceof Timestamp)) {
+            mapped = new Timestamp(((Date) mapped).getTime());
+        } else if (mapped instanceof Map) {
+            mapped = SerializationFactory.getSerializer().serialize(mapped);
+        }
+
+        row.append('"').append(mapped.toString().replace("\"", "\"\"")).append('"');
+    }
+}
@@ -72,6 +72,21 @@ public class SimpleJdbcCallsHandler {
         executeStoredProcAsBatch(procedureName, sqlParams);
     }
 
+    /**
+     * Writes a set of rows in a single round-trip using the PostgreSQL {@code COPY} command, the rows are copied to a
+     * staging table and merged to the target table by the merge procedure of the definition
+     * @param definition the staging table and procedures to use
+     * @param paramValues list of objects to be converted to {@link MapSqlParameterSource}
+     * @param mapper mapper to use to convert the param value objects to {@link MapSqlParameterSource}
+     */
+    public <T> void executeCopyAsBatch(CopyBatchDefinition definition,
+            Collection<T> paramValues,
+            MapSqlParameterMapper<T> mapper) {
+        List<MapSqlParameterSource> sqlParams = paramValues.stream().map(mapper::map).collect(Collectors.toList());
+
+        jdbcTemplate.execute(new CopyBatchExecutionConnectionCallback(this, definition, sqlParams));
+    }
+
     public Map<String, Object> executeModification(final String procedureName, final MapSqlParameterSource paramSource) {
         return executeImpl(procedureName, paramSource, createCallForModification(procedureName));
     }
@@ -6,10 +6,9 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.apache.commons.lang.StringUtils;
+import org.ovirt.engine.core.common.AuditLogSeverity;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.businessentities.AuditLog;
-import org.ovirt.engine.core.dao.AuditLogDao;
-import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,7 +18,7 @@ public class AuditLogDirector {
     private static final int USERNAME_LENGTH = 255;
 
     @Inject
-    private AuditLogDao auditLogDao;
+    private AuditLogWriter auditLogWriter;
 
     public void log(AuditLogable auditLogable, AuditLogType logType) {
         log(auditLogable, logType, "");
@@ -39,13 +38,29 @@ public class AuditLogDirector {
      *            the message to be logged, which overrides the calculated message provided by the given auditLogable
      */
     public void log(AuditLogable auditLogable, AuditLogType logType, String message) {
+        log(auditLogable, logType, message, false);
+    }
+
+    public void logSynchronously(AuditLogable auditLogable, AuditLogType logType) {
+        logSynchronously(auditLogable, logType, "");
+    }
+
+    /**
+     * Log an event with the given message, like {@link #log(AuditLogable, AuditLogType, String)}, and return only once
+     * the event is saved in the database. Events are otherwise saved in the background, except alerts.
+     */
+    public void logSynchronously(AuditLogable auditLogable, AuditLogType logType, String message) {
+        log(auditLogable, logType, message, true);
+    }
+
+    private void log(AuditLogable auditLogable, AuditLogType logType, String message, boolean synchronous) {
         if (!logType.shouldBeLogged()) {
             return;
         }
 
         EventFloodRegulator eventFloodRegulator = new EventFloodRegulator(auditLogable, logType);
         if (eventFloodRegulator.isLegal()) {
-            AuditLog savedAuditLog = saveToDb(auditLogable, logType, message);
+            AuditLog savedAuditLog = saveToDb(auditLogable, logType, message, synchronous);
             if (savedAuditLog == null) {
                 log.warn("Unable to create AuditLog");
             } else {
@@ -54,7 +69,10 @@ public class AuditLogDirector {
         }
     }
 
-    private AuditLog saveToDb(AuditLogable auditLogable, AuditLogType logType, String loggerString) {
+    private AuditLog saveToDb(AuditLogable auditLogable,
+            AuditLogType logType,
+            String loggerString,
+            boolean synchronous) {
         AuditLog auditLog = create(auditLogable, logType, loggerString);
 
         if (auditLog == null) {
@@ -65,10 +83,8 @@ public class AuditLogDirector {
         // truncate user name
         auditLog.setUserName(StringUtils.abbreviate(auditLog.getUserName(), USERNAME_LENGTH));
 
-        TransactionSupport.executeInNewTransaction(() -> {
-            auditLogDao.save(auditLog);
-            return null;
-        });
+        // alerts are saved synchronously as they may be removed right after they are raised
+        auditLogWriter.write(auditLog, synchronous || auditLog.getSeverity() == AuditLogSeverity.ALERT);
         return auditLog;
     }
 
@@ -0,0 +1,224 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.dao.AuditLogDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPools;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the audit log events to the database. Events are queued and written in the background in batches, one
+ * transaction per batch, so the threads logging many events, e.g. during a storage domain outage, do not wait for an
+ * insert and its commit per event.
+ *
+ * Events are written synchronously when requested, when the queue is full and when <code>AuditLogQueueSize</code> is
+ * 0, after the queued events, so the events are written in the order they were logged. Queued events are written
+ * when the engine stops.
+ *
+ * The numbers of written, overflowing and dropped events, with the number of events of each type which were not
+ * logged because of their flood rate, are written to the engine log once per {@link #STATISTICS_INTERVAL_IN_MINUTES}
+ * when they changed.
+ */
+@Singleton
+public class AuditLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final long FLUSH_INTERVAL_IN_MILLIS = 500;
+
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private static final long STATISTICS_INTERVAL_IN_MINUTES = 60;
+
+    @Inject
+    private AuditLogDao auditLogDao;
+
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
+    private ManagedScheduledExecutorService executor;
+
+    private volatile BlockingQueue<AuditLog> queue;
+
+    private ScheduledFuture<?> flushJob;
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong overflows = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private String lastStatistics;
+
+    @PostConstruct
+    public void init() {
+        executor.scheduleWithFixedDelay(this::logStatistics,
+                STATISTICS_INTERVAL_IN_MINUTES,
+                STATISTICS_INTERVAL_IN_MINUTES,
+                TimeUnit.MINUTES);
+    }
+
+    /**
+     * Writes the event to the database.
+     *
+     * @param auditLog
+     *            the event to write
+     * @param synchronous
+     *            whether the event must be written before returning
+     */
+    public void write(AuditLog auditLog, boolean synchronous) {
+        if (!synchronous) {
+            BlockingQueue<AuditLog> pending = getQueue();
+            if (pending != null) {
+                if (pending.offer(auditLog)) {
+                    return;
+                }
+                overflows.incrementAndGet();
+                log.debug("The audit log queue is full, writing event '{}' synchronously", auditLog.getLogType());
+            }
+        }
+        writeAfterQueued(auditLog);
+    }
+
+    /**
+     * Writes the event to the database after the queued events, so it is not written before the events which were
+     * logged before it.
+     */
+    private synchronized void writeAfterQueued(AuditLog auditLog) {
+        flush();
+        saveInNewTransaction(Collections.singletonList(auditLog));
+        written.incrementAndGet();
+    }
+
+    private BlockingQueue<AuditLog> getQueue() {
+        if (queue == null) {
+            synchronized (this) {
+                if (queue == null) {
+                    int size = Config.<Integer> getValue(ConfigValues.AuditLogQueueSize);
+                    if (size <= 0) {
+                        return null;
+                    }
+                    flushJob = executor.scheduleWithFixedDelay(this::flush,
+                            FLUSH_INTERVAL_IN_MILLIS,
+                            FLUSH_INTERVAL_IN_MILLIS,
+                            TimeUnit.MILLISECONDS);
+                    queue = new ArrayBlockingQueue<>(size);
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Writes the queued events to the database. An event which cannot be written is dropped, so it does not prevent
+     * the following events from being written.
+     */
+    public synchronized void flush() {
+        if (queue == null) {
+            return;
+        }
+
+        List<AuditLog> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (queue.drainTo(batch, MAX_BATCH_SIZE) > 0) {
+            try {
+                saveInNewTransaction(batch);
+                written.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                log.warn("Failed to write a batch of {} audit log events, writing them one by one: {}",
+                        batch.size(),
+                        e.getMessage());
+                log.debug("Exception", e);
+                batch.forEach(this::saveOrDrop);
+            }
+            batch.clear();
+        }
+    }
+
+    private void saveOrDrop(AuditLog auditLog) {
+        try {
+            saveInNewTransaction(Collections.singletonList(auditLog));
+            written.incrementAndGet();
+        } catch (RuntimeException e) {
+            dropped.incrementAndGet();
+            log.error("Failed to write audit log event '{}', the event is dropped: {}",
+                    auditLog.getMessage(),
+                    e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    void saveInNewTransaction(List<AuditLog> auditLogs) {
+        TransactionSupport.executeInNewTransaction(() -> {
+            auditLogs.forEach(auditLogDao::save);
+            return null;
+        });
+    }
+
+    void logStatistics() {
+        Map<AuditLogType, Long> suppressed = EventFloodRegulator.getSuppressedCounts();
+        String statistics = String.format("%d events written, %d written synchronously because the queue was full, "
+                + "%d dropped, %d queued, events not logged because of their flood rate: %s",
+                getWrittenCount(),
+                getOverflowCount(),
+                getDroppedCount(),
+                getQueueDepth(),
+                suppressed.isEmpty() ? "none" : suppressed);
+        if (!statistics.equals(lastStatistics)) {
+            log.info("Audit log statistics: {}", statistics);
+            lastStatistics = statistics;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flushJob != null) {
+            flushJob.cancel(false);
+        }
+        flush();
+    }
+
+    /**
+     * @return the number of events waiting to be written
+     */
+    public int getQueueDepth() {
+        BlockingQueue<AuditLog> pending = queue;
+        return pending == null ? 0 : pending.size();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * @return the number of events which were written synchronously because the queue was full
+     */
+    public long getOverflowCount() {
+        return overflows.get();
+    }
+
+    /**
+     * @return the number of events which failed to be written
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -1,17 +1,18 @@
 package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
 
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.ovirt.engine.core.common.AuditLogType;
-import org.ovirt.engine.core.dal.utils.CacheManager;
 
 public class EventFloodRegulator {
 
+    private static final EventFloodTimeouts timeouts = new EventFloodTimeouts();
+
     private final AuditLogable event;
     private final AuditLogType logType;
     private boolean useTimeout;
     private long endTime;
-    private String timeoutObjectId;
 
     public EventFloodRegulator(AuditLogable event, AuditLogType logType) {
         this.event = event;
@@ -27,13 +28,7 @@ public class EventFloodRegulator {
      */
     public boolean isLegal() {
         if (useTimeout) {
-            String key = "".equals(timeoutObjectId) ? logType.toString() : timeoutObjectId;
-            String oldValue = CacheManager.getTimeoutBaseCache().putIfAbsent(
-                    key,
-                    key,
-                    endTime,
-                    TimeUnit.MILLISECONDS);
-            return oldValue == null;
+            return timeouts.startTimeout(createKey(), System.currentTimeMillis(), endTime);
         }
         return true;
     }
@@ -47,22 +42,33 @@ public class EventFloodRegulator {
                 : logType.getEventFloodRate();
         if (eventFloodRate > 0) {
             setEndTime(TimeUnit.SECONDS.toMillis(eventFloodRate));
-            timeoutObjectId = composeObjectId();
-        } else {
-            timeoutObjectId = "";
         }
     }
 
-    private String composeObjectId() {
-        return EventKeyComposer.composeObjectId(event, logType);
+    private EventFloodTimeouts.Key createKey() {
+        return new EventFloodTimeouts.Key(event, logType);
     }
 
     public void evict() {
-        CacheManager.getTimeoutBaseCache().computeIfPresent(composeObjectId(), (k, v) -> null);
+        timeouts.evict(createKey());
     }
 
     private void setEndTime(long value) {
         useTimeout = true;
         endTime = value;
     }
+
+    /**
+     * @return the number of events of the given type which were not logged because of their flood rate
+     */
+    public static long getSuppressedCount(AuditLogType logType) {
+        return timeouts.getSuppressedCount(logType);
+    }
+
+    /**
+     * @return the number of events of each type which were not logged because of their flood rate
+     */
+    public static Map<AuditLogType, Long> getSuppressedCounts() {
+        return timeouts.getSuppressedCounts();
+    }
 }
@@ -0,0 +1,198 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.lang.StringUtils;
+import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Keeps, for each event which was logged recently and has a flood rate, the time until which the same event is not
+ * logged again. The events are also kept in buckets of {@link #BUCKET_IN_MILLIS} by the end time of their timeout,
+ * and the buckets which ended are purged by the first event checked after they ended, so expiring the timeouts needs
+ * neither a thread nor a scan of all the running timeouts.
+ */
+class EventFloodTimeouts {
+
+    static final long BUCKET_IN_MILLIS = 1000;
+
+    /**
+     * The end time of a timeout which was purged, the entry is about to be removed and must not be restarted
+     */
+    private static final long PURGED = Long.MIN_VALUE;
+
+    private static final AuditLogType[] LOG_TYPES = AuditLogType.values();
+
+    private final ConcurrentMap<Key, AtomicLong> timeouts = new ConcurrentHashMap<>();
+
+    private final ConcurrentNavigableMap<Long, Set<Key>> buckets = new ConcurrentSkipListMap<>();
+
+    private final AtomicLongArray suppressed = new AtomicLongArray(LOG_TYPES.length);
+
+    /**
+     * Starts the timeout of the event if it has no running timeout.
+     *
+     * @param now
+     *            the current time in milliseconds
+     * @param duration
+     *            the duration of the timeout in milliseconds
+     * @return whether the event should be logged, i.e. it had no running timeout
+     */
+    boolean startTimeout(Key key, long now, long duration) {
+        purgeExpired(now);
+
+        long newEndTime = now + duration;
+        while (true) {
+            AtomicLong endTime = timeouts.get(key);
+            boolean started;
+            if (endTime == null) {
+                started = timeouts.putIfAbsent(key, new AtomicLong(newEndTime)) == null;
+            } else {
+                long currentEndTime = endTime.get();
+                if (currentEndTime > now) {
+                    suppressed.incrementAndGet(key.logType.ordinal());
+                    return false;
+                }
+                started = currentEndTime == PURGED
+                        ? timeouts.replace(key, endTime, new AtomicLong(newEndTime))
+                        : endTime.compareAndSet(currentEndTime, newEndTime);
+            }
+
+            if (started) {
+                buckets.computeIfAbsent(newEndTime / BUCKET_IN_MILLIS, bucket -> ConcurrentHashMap.newKeySet())
+                        .add(key);
+                return true;
+            }
+            // the timeout was changed concurrently, it is either running or purged now
+        }
+    }
+
+    void evict(Key key) {
+        timeouts.remove(key);
+    }
+
+    /**
+     * Removes the timeouts of the buckets which ended, unless they were restarted since. Each bucket is purged by
+     * the single thread which removed it.
+     */
+    private void purgeExpired(long now) {
+        long currentBucket = now / BUCKET_IN_MILLIS;
+        Map.Entry<Long, Set<Key>> bucket;
+        while ((bucket = buckets.firstEntry()) != null && bucket.getKey() < currentBucket) {
+            if (buckets.remove(bucket.getKey(), bucket.getValue())) {
+                bucket.getValue().forEach(key -> purge(key, now));
+            }
+        }
+    }
+
+    private void purge(Key key, long now) {
+        AtomicLong endTime = timeouts.get(key);
+        if (endTime == null) {
+            return;
+        }
+        long currentEndTime = endTime.get();
+        if (currentEndTime != PURGED && currentEndTime <= now && endTime.compareAndSet(currentEndTime, PURGED)) {
+            timeouts.remove(key, endTime);
+        }
+    }
+
+    int size() {
+        return timeouts.size();
+    }
+
+    long getSuppressedCount(AuditLogType logType) {
+        return suppressed.get(logType.ordinal());
+    }
+
+    /**
+     * @return the number of events of each type which were not logged because of their flood rate, only the types
+     * with suppressed events are included
+     */
+    Map<AuditLogType, Long> getSuppressedCounts() {
+        Map<AuditLogType, Long> counts = new EnumMap<>(AuditLogType.class);
+        for (int i = 0; i < LOG_TYPES.length; i++) {
+            long count = suppressed.get(i);
+            if (count > 0) {
+                counts.put(LOG_TYPES[i], count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Identifies the event by its type and by the ids of the entities it refers to, an empty id matches a missing
+     * one.
+     */
+    static final class Key {
+        private final AuditLogType logType;
+        private final Guid storageDomainId;
+        private final Guid storagePoolId;
+        private final Guid userId;
+        private final Guid clusterId;
+        private final Guid vdsId;
+        private final Guid vmId;
+        private final Guid vmTemplateId;
+        private final String customId;
+        private final int hashCode;
+
+        Key(AuditLogable event, AuditLogType logType) {
+            this.logType = logType;
+            storageDomainId = emptyGuidToNull(event.getStorageDomainId());
+            storagePoolId = emptyGuidToNull(event.getStoragePoolId());
+            userId = emptyGuidToNull(event.getUserId());
+            clusterId = emptyGuidToNull(event.getClusterId());
+            vdsId = emptyGuidToNull(event.getVdsId());
+            vmId = emptyGuidToNull(event.getVmId());
+            vmTemplateId = emptyGuidToNull(event.getVmTemplateId());
+            customId = StringUtils.defaultString(event.getCustomId());
+            hashCode = Objects.hash(logType,
+                    storageDomainId,
+                    storagePoolId,
+                    userId,
+                    clusterId,
+                    vdsId,
+                    vmId,
+                    vmTemplateId,
+                    customId);
+        }
+
+        private static Guid emptyGuidToNull(Guid guid) {
+            return Guid.isNullOrEmpty(guid) ? null : guid;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hashCode == other.hashCode
+                    && logType == other.logType
+                    && Objects.equals(storageDomainId, other.storageDomainId)
+                    && Objects.equals(storagePoolId, other.storagePoolId)
+                    && Objects.equals(userId, other.userId)
+                    && Objects.equals(clusterId, other.clusterId)
+                    && Objects.equals(vdsId, other.vdsId)
+                    && Objects.equals(vmId, other.vmId)
+                    && Objects.equals(vmTemplateId, other.vmTemplateId)
+                    && customId.equals(other.customId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.ovirt.engine.core.dal.dbbroker.generic;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.ovirt.engine.core.common.config.ConfigCommon;
+import org.ovirt.engine.core.common.config.ConfigValues;
+
+/**
+ * The values of the options, indexed by the ordinal of their {@link ConfigValues} constant, so reading an option is an
+ * array access, plus a map lookup for a version other than {@link ConfigCommon#defaultConfigurationVersion}.
+ *
+ * A snapshot is filled while the options are loaded and must not be modified once it is published to the readers.
+ */
+final class ConfigSnapshot {
+
+    private static final Object NO_VALUE = new Object();
+
+    private final Map<String, Object>[] valuesByVersion;
+
+    private final Object[] defaultValues;
+
+    @SuppressWarnings("unchecked")
+    ConfigSnapshot() {
+        int size = ConfigValues.values().length;
+        valuesByVersion = new Map[size];
+        defaultValues = new Object[size];
+        for (int i = 0; i < size; i++) {
+            defaultValues[i] = NO_VALUE;
+        }
+    }
+
+    void put(ConfigValues configValue, String version, Object value) {
+        int index = configValue.ordinal();
+        if (valuesByVersion[index] == null) {
+            valuesByVersion[index] = new HashMap<>();
+        }
+        valuesByVersion[index].put(version, value);
+        if (ConfigCommon.defaultConfigurationVersion.equals(version)) {
+            defaultValues[index] = value;
+        }
+    }
+
+    boolean contains(ConfigValues configValue, String version) {
+        int index = configValue.ordinal();
+        if (ConfigCommon.defaultConfigurationVersion.equals(version)) {
+            return defaultValues[index] != NO_VALUE;
+        }
+        return valuesByVersion[index] != null && valuesByVersion[index].containsKey(version);
+    }
+
+    /**
+     * @return the value of the option for the version, <code>null</code> if it has no value, see
+     * {@link #contains(ConfigValues, String)}
+     */
+    Object get(ConfigValues configValue, String version) {
+        int index = configValue.ordinal();
+        if (ConfigCommon.defaultConfigurationVersion.equals(version)) {
+            Object value = defaultValues[index];
+            return value == NO_VALUE ? null : value;
+        }
+        return valuesByVersion[index] == null ? null : valuesByVersion[index].get(version);
+    }
+
+    Map<String, Object> getValuesForAllVersions(ConfigValues configValue) {
+        return valuesByVersion[configValue.ordinal()];
+    }
+}
@@ -11,6 +11,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -24,7 +25,6 @@ import org.ovirt.engine.core.common.config.ConfigCommon;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.config.IConfigUtilsInterface;
 import org.ovirt.engine.core.common.config.OptionBehaviourAttribute;
-import org.ovirt.engine.core.common.config.Reloadable;
 import org.ovirt.engine.core.common.config.TypeConverterAttribute;
 import org.ovirt.engine.core.compat.Version;
 import org.ovirt.engine.core.dao.VdcOptionDao;
@@ -38,7 +38,14 @@ public class DBConfigUtils implements IConfigUtilsInterface {
     private static final Logger log = LoggerFactory.getLogger(DBConfigUtils.class);
 
     private static final String TEMP = "Temp";
-    private final Map<String, Map<String, Object>> _vdcOptionCache = new HashMap<>();
+
+    private static final Map<String, ConfigValues> CONFIG_VALUES_BY_NAME = Arrays.stream(ConfigValues.values())
+            .collect(Collectors.toMap(ConfigValues::name, Function.identity()));
+
+    /**
+     * Replaced as a whole when the options are refreshed, so readers never see partially loaded options.
+     */
+    private volatile ConfigSnapshot snapshot = new ConfigSnapshot();
 
     @Inject
     private VdcOptionDao vdcOptionDao;
@@ -130,54 +137,40 @@ public class DBConfigUtils implements IConfigUtilsInterface {
      */
     @PostConstruct
     public void refresh() {
-        _vdcOptionCache.clear();
+        ConfigSnapshot newSnapshot = new ConfigSnapshot();
         List<VdcOption> list = moveDependentToEnd(vdcOptionDao.getAll());
         for (VdcOption option : list) {
-            try {
-                if (!_vdcOptionCache.containsKey(option.getOptionName()) ||
-                        !_vdcOptionCache.get(option.getOptionName()).containsKey(option.getVersion()) ||
-                        isReloadable(option.getOptionName())) {
-                    updateOption(option);
-                }
-            } catch (NoSuchFieldException e) {
-                log.error("Not refreshing field '{}': does not exist in class {}.", option.getOptionName(),
-                        ConfigValues.class.getSimpleName());
+            Object value = getValue(option, newSnapshot);
+            ConfigValues configValue = CONFIG_VALUES_BY_NAME.get(option.getOptionName());
+            if (configValue != null) {
+                newSnapshot.put(configValue, option.getVersion(), value);
             }
         }
+        snapshot = newSnapshot;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> Map<String, T> getValuesForAllVersions(ConfigValues configValue) {
-        return (Map<String, T>) _vdcOptionCache.get(configValue.toString());
+        return (Map<String, T>) snapshot.getValuesForAllVersions(configValue);
     }
 
     @Override
     public <T> T getValue(ConfigValues name, String version) {
-        Map<String, T> values = getValuesForAllVersions(name);
-        if (valueExists(name, version)) {
-            return values.get(version);
+        return getValue(name, version, snapshot);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T getValue(ConfigValues name, String version, ConfigSnapshot values) {
+        if (values.contains(name, version)) {
+            return (T) values.get(name, version);
         }
         throw new IllegalArgumentException(name.toString() + " has no value for version: " + version);
     }
 
     @Override
     public boolean valueExists(ConfigValues configValue, String version) {
-        Map<String, Object> values = getValuesForAllVersions(configValue);
-        return values != null && values.containsKey(version);
-    }
-
-    private void updateOption(VdcOption option) {
-        Map<String, Object> values = _vdcOptionCache.get(option.getOptionName());
-        if (values == null) {
-            values = new HashMap<>();
-            _vdcOptionCache.put(option.getOptionName(), values);
-        }
-        values.put(option.getVersion(), getValue(option));
-    }
-
-    private static boolean isReloadable(String optionName) throws NoSuchFieldException {
-        return ConfigValues.class.getField(optionName).isAnnotationPresent(Reloadable.class);
+        return snapshot.contains(configValue, version);
     }
 
     private List<VdcOption> moveDependentToEnd(List<VdcOption> list) {
@@ -197,8 +190,11 @@ public class DBConfigUtils implements IConfigUtilsInterface {
 
     /**
      * Returns the typed value of the given option. returns default value if option.option_value is null
+     *
+     * @param loaded
+     *            the options loaded so far, which the value may depend on
      */
-    protected Object getValue(VdcOption option) {
+    private Object getValue(VdcOption option, ConfigSnapshot loaded) {
         Object result = option.getOptionValue();
         EnumValue enumValue = parseEnumValue(option.getOptionName());
         if (enumValue != null) {
@@ -224,11 +220,15 @@ public class DBConfigUtils implements IConfigUtilsInterface {
                         break;
                     case ValueDependent:
                         // get the config that this value depends on
-                        String prefix = getValue(optionBehaviour.dependentOn(), ConfigCommon.defaultConfigurationVersion);
+                        String prefix = getValue(optionBehaviour.dependentOn(),
+                                ConfigCommon.defaultConfigurationVersion,
+                                loaded);
                         // combine the prefix with the 'real value'
                         if (prefix != null) {
                             String realName = String.format("%1$s%2$s", prefix, optionBehaviour.realValue());
-                            result = getValue(ConfigValues.valueOf(realName), ConfigCommon.defaultConfigurationVersion);
+                            result = getValue(ConfigValues.valueOf(realName),
+                                    ConfigCommon.defaultConfigurationVersion,
+                                    loaded);
                         }
                         break;
                     case CommaSeparatedVersionArray:
@@ -5,6 +5,9 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -62,6 +65,12 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
         return result;
     };
 
+    /**
+     * The payloads last written for each command by {@link #saveOrUpdate(CommandEntity)}, so only the payloads which
+     * changed since are written when the command is updated again.
+     */
+    private final ConcurrentMap<Guid, WrittenPayloads> writtenPayloads = new ConcurrentHashMap<>();
+
     private MapSqlParameterMapper<CommandAssociatedEntity> cocoCmdEntityMapper = entity -> {
         CustomMapSqlParameterSource paramSource = getCustomMapSqlParameterSource();
         paramSource.addValue("command_id", entity.getCommandId()).
@@ -86,30 +95,44 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
 
     @Override
     protected MapSqlParameterSource createFullParametersMapper(CommandEntity entity) {
+        return createParametersMapper(entity, new Payloads(entity), null);
+    }
+
+    /**
+     * @param written
+     *            the payloads last written for the command, only the payloads which changed since are passed, the
+     *            others are passed as <code>null</code>. <code>null</code> to pass all the payloads.
+     */
+    private MapSqlParameterSource createParametersMapper(CommandEntity entity, Payloads payloads, Payloads written) {
+        boolean contextChanged = written == null || !Objects.equals(payloads.commandContext, written.commandContext);
+        boolean parametersChanged =
+                written == null || !Objects.equals(payloads.commandParameters, written.commandParameters);
+        boolean returnValueChanged = written == null || !Objects.equals(payloads.returnValue, written.returnValue);
+        boolean dataChanged = written == null || !Objects.equals(payloads.data, written.data);
         return getCustomMapSqlParameterSource().addValue("engine_session_seq_id", entity.getEngineSessionSeqId())
                 .addValue("user_id", Guid.isNullOrEmpty(entity.getUserId()) ? Guid.Empty : entity.getUserId())
                 .addValue("command_id", Guid.isNullOrEmpty(entity.getId()) ? Guid.Empty : entity.getId())
                 .addValue("command_type", entity.getCommandType().getValue())
                 .addValue("parent_command_id", entity.getParentCommandId())
                 .addValue("root_command_id", Guid.isNullOrEmpty(entity.getRootCommandId()) ? Guid.Empty : entity.getRootCommandId())
-                .addValue("command_context", SerializationFactory.getSerializer().serialize(entity.getCommandContext()))
-                .addValue("command_parameters", serializeParameters(entity.getCommandParameters()))
+                .addValue("command_context", contextChanged ? payloads.commandContext : null)
+                .addValue("command_context_changed", contextChanged)
+                .addValue("command_parameters", parametersChanged ? payloads.commandParameters : null)
+                .addValue("command_parameters_changed", parametersChanged)
                 .addValue("command_params_class", entity.getCommandParameters() == null ? null : entity.getCommandParameters().getClass().getName())
                 .addValue("created_at", entity.getCreatedAt())
                 .addValue("status", entity.getCommandStatus().toString())
                 .addValue("executed", entity.isExecuted())
                 .addValue("callback_enabled", entity.isCallbackEnabled())
-                .addValue("return_value", serializeReturnValue(entity.getReturnValue()))
+                .addValue("return_value", returnValueChanged ? payloads.returnValue : null)
+                .addValue("return_value_changed", returnValueChanged)
                 .addValue("return_value_class", entity.getReturnValue() == null ? null : entity.getReturnValue().getClass().getName())
-                .addValue("data", SerializationFactory.getSerializer().serialize(entity.getData()));
-    }
-
-    private String serializeReturnValue(ActionReturnValue retVal) {
-        return SerializationFactory.getSerializer().serialize(retVal);
+                .addValue("data", dataChanged ? payloads.data : null)
+                .addValue("data_changed", dataChanged);
     }
 
-    private String serializeParameters(ActionParametersBase params) {
-        return SerializationFactory.getSerializer().serialize(params);
+    private static String serialize(Object payload) {
+        return SerializationFactory.getSerializer().serializeCompact(payload);
     }
 
     @SuppressWarnings("unchecked")
@@ -144,8 +167,29 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
 
     @Override
     public void saveOrUpdate(CommandEntity commandEntity) {
-        MapSqlParameterSource parameterSource = createFullParametersMapper(commandEntity);
-        getCallsHandler().executeModification("InsertOrUpdateCommandEntity", parameterSource);
+        Payloads payloads = new Payloads(commandEntity);
+        WrittenPayloads state = writtenPayloads.computeIfAbsent(commandEntity.getId(), id -> new WrittenPayloads());
+        Payloads written = state.startWrite();
+        boolean succeeded = false;
+        try {
+            boolean updated = written != null
+                    && getCallsHandler().executeModificationReturnResult("UpdateCommandEntityChangedPayloads",
+                            createParametersMapper(commandEntity, payloads, written)) > 0;
+            if (!updated) {
+                // a new command, or one removed not through this DAO, is written with all its payloads
+                getCallsHandler().executeModification("InsertOrUpdateCommandEntity",
+                        createParametersMapper(commandEntity, payloads, null));
+            }
+            succeeded = true;
+        } finally {
+            state.endWrite(succeeded ? payloads : null);
+        }
+    }
+
+    @Override
+    public void remove(Guid id) {
+        super.remove(id);
+        writtenPayloads.remove(id);
     }
 
     @Override
@@ -169,6 +213,7 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
                 .addValue("date", cutoff);
 
         getCallsHandler().executeModification("DeleteCommandEntitiesOlderThanDate", parameterSource);
+        writtenPayloads.clear();
     }
 
     @Override
@@ -204,4 +249,54 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
                 parameterSource);
     }
 
+    /**
+     * The payloads last written for a command. Saves of the same command which overlap may write their changed
+     * payloads in any order, so the payloads are forgotten when saves overlap, and the next save writes all of them.
+     * The commands cache saves the commands outside of any transaction, so the written payloads are committed.
+     */
+    private static final class WrittenPayloads {
+        private Payloads payloads;
+        private int writers;
+        private boolean overlapped;
+
+        /**
+         * @return the payloads to write the changes from, <code>null</code> to write all the payloads
+         */
+        synchronized Payloads startWrite() {
+            writers++;
+            if (writers > 1) {
+                overlapped = true;
+            }
+            return overlapped ? null : payloads;
+        }
+
+        /**
+         * @param written
+         *            the payloads which were written, <code>null</code> if the write failed
+         */
+        synchronized void endWrite(Payloads written) {
+            writers--;
+            payloads = overlapped ? null : written;
+            if (writers == 0) {
+                overlapped = false;
+            }
+        }
+    }
+
+    /**
+     * The serialized payloads of a command.
+     */
+    private static final class Payloads {
+        private final String commandContext;
+        private final String commandParameters;
+        private final String returnValue;
+        private final String data;
+
+        Payloads(CommandEntity entity) {
+            commandContext = serialize(entity.getCommandContext());
+            commandParameters = serialize(entity.getCommandParameters());
+            returnValue = serialize(entity.getReturnValue());
+            data = serialize(entity.getData());
+        }
+    }
 }
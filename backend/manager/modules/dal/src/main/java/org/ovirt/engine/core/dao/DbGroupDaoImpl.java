@@ -2,6 +2,7 @@ package org.ovirt.engine.core.dao;
 
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -17,6 +18,9 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Singleton
 public class DbGroupDaoImpl extends BaseDao implements DbGroupDao {
 
+    @Inject
+    private PermissionChangeNotifier permissionChangeNotifier;
+
     @Override
     public DbGroup get(Guid id) {
         return getCallsHandler().executeRead("GetGroupById",
@@ -124,6 +128,7 @@ public class DbGroupDaoImpl extends BaseDao implements DbGroupDao {
                 .addValue("id", id);
 
         getCallsHandler().executeModification("DeleteGroup", parameterSource);
+        permissionChangeNotifier.permissionsChanged();
     }
 
     private static final RowMapper<DbGroup> dbGroupRowMapper = (rs, rowNum) -> {
@@ -41,6 +41,16 @@ public interface DiskImageDao extends ReadDao<DiskImage, Guid> {
      */
     List<DiskImage> getAllSnapshotsForLeaf(Guid id);
 
+    /**
+     * Retrieves all snapshots of the given leaf images, the snapshots of each disk are
+     * ordered by the images chain.
+     *
+     * @param ids
+     *            the leaf image ids
+     * @return the list of snapshots
+     */
+    List<DiskImage> getAllSnapshotsForLeaves(Collection<Guid> ids);
+
     /**
      * Retrieves all snapshots associated with the given storage domain.
      *
@@ -73,6 +73,15 @@ public class DiskImageDaoImpl extends BaseDao implements DiskImageDao {
                 parameterSource);
     }
 
+    @Override
+    public List<DiskImage> getAllSnapshotsForLeaves(Collection<Guid> ids) {
+        MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
+                .addValue("image_guids", createArrayOfUUIDs(ids));
+        return getCallsHandler().executeReadList("GetSnapshotsByLeafGuids",
+                DiskImageRowMapper.instance,
+                parameterSource);
+    }
+
     @Override
     public List<DiskImage> getAllSnapshotsForStorageDomain(Guid id) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
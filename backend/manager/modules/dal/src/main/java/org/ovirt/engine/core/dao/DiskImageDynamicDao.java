@@ -10,4 +10,11 @@ public interface DiskImageDynamicDao extends GenericDao<DiskImageDynamic, Guid>,
 
     public void updateAllDiskImageDynamicWithDiskIdByVmId(Collection<Pair<Guid, DiskImageDynamic>> diskImageDynamic);
 
+    /**
+     * Same as {@link #updateAllDiskImageDynamicWithDiskIdByVmId(Collection)} but writes all the disks in a single
+     * round-trip using a bulk copy
+     */
+    public void updateAllDiskImageDynamicWithDiskIdByVmIdInBulk(
+            Collection<Pair<Guid, DiskImageDynamic>> diskImageDynamic);
+
 }
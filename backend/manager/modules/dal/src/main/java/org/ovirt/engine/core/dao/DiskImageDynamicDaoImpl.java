@@ -11,6 +11,7 @@ import javax.inject.Singleton;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dal.dbbroker.CopyBatchDefinition;
 import org.ovirt.engine.core.dal.dbbroker.MapSqlParameterMapper;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -23,6 +24,19 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 public class DiskImageDynamicDaoImpl extends MassOperationsGenericDao<DiskImageDynamic, Guid>
         implements DiskImageDynamicDao {
 
+    private static final CopyBatchDefinition imageGroupCopyBatchDefinition =
+            new CopyBatchDefinition("disk_image_dynamic_copy",
+                    "Updatedisk_image_dynamic_by_disk_id_and_vm_idFromCopy",
+                    "Updatedisk_image_dynamic_by_disk_id_and_vm_id")
+                    .addColumn("vm_id", "UUID")
+                    .addColumn("image_group_id", "UUID")
+                    .addColumn("read_rate", "INT")
+                    .addColumn("write_rate", "INT")
+                    .addColumn("actual_size", "BIGINT")
+                    .addColumn("read_latency_seconds", "NUMERIC(18, 9)")
+                    .addColumn("write_latency_seconds", "NUMERIC(18, 9)")
+                    .addColumn("flush_latency_seconds", "NUMERIC(18, 9)");
+
     public DiskImageDynamicDaoImpl() {
         super("disk_image_dynamic");
         setProcedureNameForGet("Getdisk_image_dynamicByimage_id");
@@ -93,4 +107,14 @@ public class DiskImageDynamicDaoImpl extends MassOperationsGenericDao<DiskImageD
         getCallsHandler().executeStoredProcAsBatch("Updatedisk_image_dynamic_by_disk_id_and_vm_id",
                 sortDiskImageDynamicForUpdate(diskImageDynamicForVm), getBatchImageGroupMapper());
     }
+
+    @Override
+    public void updateAllDiskImageDynamicWithDiskIdByVmIdInBulk(
+            Collection<Pair<Guid, DiskImageDynamic>> diskImageDynamicForVm) {
+        if (diskImageDynamicForVm.isEmpty()) {
+            return;
+        }
+        getCallsHandler().executeCopyAsBatch(imageGroupCopyBatchDefinition,
+                sortDiskImageDynamicForUpdate(diskImageDynamicForVm), getBatchImageGroupMapper());
+    }
 }
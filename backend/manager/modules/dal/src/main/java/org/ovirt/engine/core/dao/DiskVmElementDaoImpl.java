@@ -101,6 +101,16 @@ public class DiskVmElementDaoImpl extends DefaultGenericDao<DiskVmElement, VmDev
                 parameterSource);
     }
 
+    public List<DiskVmElement> getAllForVms(Collection<Guid> vmIds, Guid userID, boolean isFiltered) {
+        MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
+                .addValue("vm_ids", createArrayOfUUIDs(vmIds))
+                .addValue("user_id", userID)
+                .addValue("is_filtered", isFiltered);
+        return getCallsHandler().executeReadList("GetDiskVmElementsForVms",
+                diskVmElementRowMapper,
+                parameterSource);
+    }
+
     public List<DiskVmElement> getAllPluggedToVm(Guid vmId) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource().addValue("vm_id", vmId);
         return getCallsHandler().executeReadList("GetDiskVmElementsPluggedToVm",
@@ -49,6 +49,12 @@ public interface MassOperationsDao<T extends BusinessEntity<?>, ID extends Seria
      */
     void updateAllInBatch(Collection<T> entities);
 
+    /**
+     * Updates the given entities in a single round-trip by copying them to a staging table and merging it to the
+     * entities table. Falls back to {@link #updateAllInBatch(Collection)} when the entity type does not support it.
+     */
+    void updateAllInBulk(Collection<T> entities);
+
     /**
      * Calls an insert stored procedure multiple times
      */
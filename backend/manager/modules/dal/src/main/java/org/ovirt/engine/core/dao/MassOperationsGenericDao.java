@@ -8,6 +8,7 @@ import java.util.List;
 
 import org.ovirt.engine.core.common.businessentities.BusinessEntity;
 import org.ovirt.engine.core.common.businessentities.comparators.BusinessEntityComparator;
+import org.ovirt.engine.core.dal.dbbroker.CopyBatchDefinition;
 import org.ovirt.engine.core.dal.dbbroker.MapSqlParameterMapper;
 
 /**
@@ -107,6 +108,30 @@ public abstract class MassOperationsGenericDao<T extends BusinessEntity<ID>, ID
         updateAllInBatch(getProcedureNameForUpdate(), entities, getBatchMapper());
     }
 
+    @Override
+    public void updateAllInBulk(Collection<T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        CopyBatchDefinition copyBatchDefinition = getCopyBatchDefinition();
+        if (copyBatchDefinition == null) {
+            updateAllInBatch(entities);
+            return;
+        }
+        // Keep the same locking order as the batch update
+        List<T> sortedEntities = new ArrayList<>(entities);
+        Collections.sort(sortedEntities, BusinessEntityComparator.newInstance());
+        getCallsHandler().executeCopyAsBatch(copyBatchDefinition, sortedEntities, getBatchMapper());
+    }
+
+    /**
+     * Returns the definition of the staging table and merge procedure used by {@link #updateAllInBulk(Collection)},
+     * or {@code null} when the entity does not support bulk updates
+     */
+    protected CopyBatchDefinition getCopyBatchDefinition() {
+        return null;
+    }
+
     public MapSqlParameterMapper<T> getBatchMapper() {
         return this::createFullParametersMapper;
     }
@@ -0,0 +1,77 @@
+package org.ovirt.engine.core.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.businessentities.ActionGroup;
+import org.ovirt.engine.core.compat.Guid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Notifies the registered listeners whenever permissions are removed, or roles or groups are changed, through the
+ * DAOs, so anything that caches the permissions found by permission checks is invalidated no matter which command
+ * made the change. Granting permissions or action groups is not notified, since it does not revoke a found
+ * permission.
+ */
+@Named
+@Singleton
+public class PermissionChangeNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionChangeNotifier.class);
+
+    public interface Listener {
+        /**
+         * The permissions with the given ids were removed.
+         */
+        void permissionsRemoved(Collection<Guid> permissionIds);
+
+        /**
+         * The action group was removed from a role, so the permissions with the role no longer grant it.
+         */
+        void actionGroupRemoved(ActionGroup actionGroup);
+
+        /**
+         * Roles or groups were changed, which may revoke any permission.
+         */
+        void permissionsChanged();
+    }
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void permissionsRemoved(Collection<Guid> permissionIds) {
+        notifyListeners(listener -> listener.permissionsRemoved(permissionIds));
+    }
+
+    public void actionGroupRemoved(ActionGroup actionGroup) {
+        notifyListeners(listener -> listener.actionGroupRemoved(actionGroup));
+    }
+
+    public void permissionsChanged() {
+        notifyListeners(Listener::permissionsChanged);
+    }
+
+    private void notifyListeners(Consumer<Listener> notification) {
+        for (Listener listener : listeners) {
+            try {
+                notification.accept(listener);
+            } catch (RuntimeException e) {
+                log.error("Failed to notify the permission change listener: {}", e.getMessage());
+                log.debug("Exception", e);
+            }
+        }
+    }
+}
@@ -125,6 +125,15 @@ public interface PermissionDao extends GenericDao<Permission, Guid> {
      */
     List<Permission> getAllForAdElementAndObjectId(Guid elementid, Guid objectid);
 
+    /**
+     * Retrieves all permissions for any of the specified objects.
+     *
+     * @param objectids
+     *            the objects
+     * @return the list of permissions
+     */
+    List<Permission> getAllForObjectIds(Collection<Guid> objectids);
+
 
     /**
      * Retrieves all permissions for the specified role and object.
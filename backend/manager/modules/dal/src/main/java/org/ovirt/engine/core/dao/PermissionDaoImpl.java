@@ -1,8 +1,11 @@
 package org.ovirt.engine.core.dao;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -12,6 +15,7 @@ import org.ovirt.engine.core.common.businessentities.Permission;
 import org.ovirt.engine.core.common.businessentities.RoleType;
 import org.ovirt.engine.core.common.config.Config;
 import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.mode.ApplicationMode;
 import org.ovirt.engine.core.compat.Guid;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -22,6 +26,9 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Named
 @Singleton
 public class PermissionDaoImpl extends BaseDao implements PermissionDao {
+    @Inject
+    private PermissionChangeNotifier permissionChangeNotifier;
+
     @Override
     public Permission get(Guid id) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
@@ -154,6 +161,16 @@ public class PermissionDaoImpl extends BaseDao implements PermissionDao {
                 parameterSource);
     }
 
+    @Override
+    public List<Permission> getAllForObjectIds(Collection<Guid> objectids) {
+        MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
+                .addValue("object_ids", createArrayOfUUIDs(objectids));
+
+        return getCallsHandler().executeReadList("GetPermissionsByObjectIds",
+                permissionRowMapper,
+                parameterSource);
+    }
+
     @Override
     public List<Permission> getAllForEntity(Guid id) {
         return getAllForEntity(id, -1, false);
@@ -262,13 +279,19 @@ public class PermissionDaoImpl extends BaseDao implements PermissionDao {
                 .addValue("id", id);
 
         getCallsHandler().executeModification("DeletePermission", parameterSource);
+        permissionChangeNotifier.permissionsRemoved(Collections.singletonList(id));
     }
 
     @Override
     public void removeForEntity(Guid id) {
+        List<Guid> permissionIds = getAllForEntity(id, -1, false, false, ApplicationMode.AllModes.getValue())
+                .stream()
+                .map(Permission::getId)
+                .collect(Collectors.toList());
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
                 .addValue("id", id);
         getCallsHandler().executeModification("DeletePermissionsByEntityId", parameterSource);
+        permissionChangeNotifier.permissionsRemoved(permissionIds);
     }
 
     @Override
@@ -2,6 +2,7 @@ package org.ovirt.engine.core.dao;
 
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -17,6 +18,9 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Named
 @Singleton
 public class RoleGroupMapDaoImpl extends BaseDao implements RoleGroupMapDao {
+    @Inject
+    private PermissionChangeNotifier permissionChangeNotifier;
+
     private static final RowMapper<RoleGroupMap> roleGroupMapRowMapper =(rs, rowNum) ->
         new RoleGroupMap(ActionGroup.forValue(rs.getInt("action_group_id")), getGuidDefaultEmpty(rs, "role_id"));
 
@@ -56,5 +60,6 @@ public class RoleGroupMapDaoImpl extends BaseDao implements RoleGroupMapDao {
                         id);
 
         getCallsHandler().executeModification("Delete_roles_groups", parameterSource);
+        permissionChangeNotifier.actionGroupRemoved(group);
     }
 }
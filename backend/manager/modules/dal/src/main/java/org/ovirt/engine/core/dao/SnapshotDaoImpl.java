@@ -3,6 +3,7 @@ package org.ovirt.engine.core.dao;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -111,6 +112,13 @@ public class SnapshotDaoImpl extends DefaultGenericDao<Snapshot, Guid> implement
         return getAll(vmId, null, false, true);
     }
 
+    @Override
+    public List<Snapshot> getAllWithConfiguration(Collection<Guid> vmIds) {
+        return getCallsHandler().executeReadList("GetAllFromSnapshotsByVmIdsWithConfiguration",
+                NO_CONFIG_ROW_MAPPER,
+                getCustomMapSqlParameterSource().addValue("vm_ids", createArrayOfUUIDs(vmIds)));
+    }
+
     @Override
     public List<Snapshot> getAll(Guid vmId) {
         return getAll(vmId, null, false);
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.ovirt.engine.core.common.businessentities.storage.LUNStorageServerConnectionMap;
@@ -17,4 +18,12 @@ public interface StorageServerConnectionLunMapDao extends GenericDao<LUNStorageS
      *            LUN id.
      */
     List<LUNStorageServerConnectionMap> getAll(final String lunId);
+
+    /**
+     * get all maps for the given LUN ids.
+     *
+     * @param lunIds
+     *            LUN ids.
+     */
+    List<LUNStorageServerConnectionMap> getAllForLuns(Collection<String> lunIds);
 }
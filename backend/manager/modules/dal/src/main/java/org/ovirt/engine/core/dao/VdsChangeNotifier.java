@@ -0,0 +1,63 @@
+package org.ovirt.engine.core.dao;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.compat.Guid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Notifies the registered listeners whenever the static or dynamic data of a host is changed through the DAOs, so
+ * anything that caches the host is invalidated no matter which command made the change.
+ */
+@Named
+@Singleton
+public class VdsChangeNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(VdsChangeNotifier.class);
+
+    private final List<Consumer<Guid>> listeners = new CopyOnWriteArrayList<>();
+
+    private final ThreadLocal<Boolean> suppressed = ThreadLocal.withInitial(() -> false);
+
+    public void addListener(Consumer<Guid> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<Guid> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Runs the given writes without notifying the listeners, for the owner of a cached host, which writes the changes
+     * of its cached host to the DB and needs not reload it.
+     */
+    public void runWithoutNotification(Runnable writes) {
+        boolean wasSuppressed = suppressed.get();
+        suppressed.set(true);
+        try {
+            writes.run();
+        } finally {
+            suppressed.set(wasSuppressed);
+        }
+    }
+
+    public void vdsChanged(Guid vdsId) {
+        if (suppressed.get()) {
+            return;
+        }
+        for (Consumer<Guid> listener : listeners) {
+            try {
+                listener.accept(vdsId);
+            } catch (RuntimeException e) {
+                log.error("Failed to notify the host change listener: {}", e.getMessage());
+                log.debug("Exception", e);
+            }
+        }
+    }
+}
@@ -41,6 +41,9 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
     @Inject
     private DnsResolverConfigurationDao dnsResolverConfigurationDao;
 
+    @Inject
+    private VdsChangeNotifier vdsChangeNotifier;
+
     private static final Logger log = LoggerFactory.getLogger(VdsDynamicDaoImpl.class);
 
     public VdsDynamicDaoImpl() {
@@ -143,11 +146,13 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
     @Override
     public void save(VdsDynamic vds) {
         getCallsHandler().executeModification("InsertVdsDynamic", createFullParametersMapperForSave(vds));
+        vdsChangeNotifier.vdsChanged(vds.getId());
     }
 
     @Override
     public void update(VdsDynamic vds) {
         getCallsHandler().executeModification("UpdateVdsDynamic", createFullParametersMapper(vds));
+        vdsChangeNotifier.vdsChanged(vds.getId());
     }
 
     public void updateDnsResolverConfiguration(Guid vdsId, DnsResolverConfiguration reportedDnsResolverConfiguration) {
@@ -162,6 +167,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 dnsResolverConfigurationDao.update(reportedDnsResolverConfiguration);
             }
         }
+        vdsChangeNotifier.vdsChanged(vdsId);
     }
 
     @Override
@@ -172,6 +178,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("vds_id", id);
 
         getCallsHandler().executeModification("DeleteVdsDynamic", parameterSource);
+        vdsChangeNotifier.vdsChanged(id);
     }
 
     @Override
@@ -184,6 +191,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
         MapSqlParameterSource parameterSource = getStatusSqlParameterSource(id, status);
 
         getCallsHandler().executeModification("UpdateVdsDynamicStatus", parameterSource);
+        vdsChangeNotifier.vdsChanged(id);
     }
 
     @Override
@@ -193,6 +201,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("maintenance_reason", host.getMaintenanceReason());
 
         getCallsHandler().executeModification("UpdateVdsDynamicStatusAndReasons", parameterSource);
+        vdsChangeNotifier.vdsChanged(host.getId());
     }
 
     @Override
@@ -218,6 +227,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("external_status", status);
 
         getCallsHandler().executeModification("UpdateHostExternalStatus", parameterSource);
+        vdsChangeNotifier.vdsChanged(id);
     }
 
     @Override
@@ -227,6 +237,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("net_config_dirty", netConfigDirty);
 
         getCallsHandler().executeModification("UpdateVdsDynamicNetConfigDirty", parameterSource);
+        vdsChangeNotifier.vdsChanged(id);
     }
 
     @Override
@@ -237,7 +248,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("controlled_by_pm_policy", controlledByPmPolicy);
 
         getCallsHandler().executeModification("UpdateVdsDynamicPowerManagementPolicyFlag", parameterSource);
-
+        vdsChangeNotifier.vdsChanged(id);
     }
 
     private MapSqlParameterSource createFullParametersMapperForSave(VdsDynamic vds) {
@@ -355,6 +366,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 getCustomMapSqlParameterSource()
                         .addValue("vds_id", id)
                         .addValue("cpu_flags", cpuFlags));
+        vdsChangeNotifier.vdsChanged(id);
     }
 
     @Override
@@ -372,5 +384,6 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("is_update_available", updateAvailable);
 
         getCallsHandler().executeModification("UpdateVdsDynamicIsUpdateAvailable", parameterSource);
+        vdsChangeNotifier.vdsChanged(id);
     }
 }
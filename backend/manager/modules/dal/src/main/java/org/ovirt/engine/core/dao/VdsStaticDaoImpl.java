@@ -3,6 +3,7 @@ package org.ovirt.engine.core.dao;
 import java.io.IOException;
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -26,6 +27,9 @@ import org.springframework.jdbc.core.simple.SimpleJdbcCall;
 @Singleton
 public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
 
+    @Inject
+    private VdsChangeNotifier vdsChangeNotifier;
+
     @Override
     public VdsStatic get(Guid id) {
         return getCallsHandler().executeRead("GetVdsStaticByVdsId",
@@ -67,6 +71,7 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
         }
         new SimpleJdbcCall(getJdbcTemplate()).withProcedureName("InsertVdsStatic")
                 .execute(getInsertOrUpdateParams(vds));
+        vdsChangeNotifier.vdsChanged(id);
     }
 
     /**
@@ -76,6 +81,7 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
     @Override
     public void update(VdsStatic vds) {
         getCallsHandler().executeModification("UpdateVdsStatic", getInsertOrUpdateParams(vds));
+        vdsChangeNotifier.vdsChanged(vds.getId());
     }
 
     private MapSqlParameterSource getInsertOrUpdateParams(final VdsStatic vds) {
@@ -113,6 +119,7 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
                 .addValue("vds_id", id);
 
         getCallsHandler().executeModification("DeleteVdsStatic", parameterSource);
+        vdsChangeNotifier.vdsChanged(id);
     }
 
     @Override
@@ -173,6 +180,7 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
                 getCustomMapSqlParameterSource()
                         .addValue("vds_id", vdsStaticId)
                         .addValue("last_stored_kernel_cmdline", lastStoredKernelCmdline));
+        vdsChangeNotifier.vdsChanged(vdsStaticId);
     }
 
     @Override
@@ -182,6 +190,7 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
                 getCustomMapSqlParameterSource()
                         .addValue("vds_id", vdsStaticId)
                         .addValue("reinstall_required", reinstallRequired));
+        vdsChangeNotifier.vdsChanged(vdsStaticId);
     }
 
     @Override
@@ -7,6 +7,7 @@ import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.businessentities.VmStatistics;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dal.dbbroker.CopyBatchDefinition;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -15,6 +16,19 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 public class VmStatisticsDaoImpl extends MassOperationsGenericDao<VmStatistics, Guid>
         implements VmStatisticsDao {
 
+    private static final CopyBatchDefinition copyBatchDefinition =
+            new CopyBatchDefinition("vm_statistics_copy", "UpdateVmStatisticsFromCopy", "UpdateVmStatistics")
+                    .addColumn("vm_guid", "UUID")
+                    .addColumn("cpu_sys", "DECIMAL(18, 0)")
+                    .addColumn("cpu_user", "DECIMAL(18, 0)")
+                    .addColumn("elapsed_time", "DECIMAL(18, 0)")
+                    .addColumn("usage_cpu_percent", "INT")
+                    .addColumn("usage_mem_percent", "INT")
+                    .addColumn("usage_network_percent", "INT")
+                    .addColumn("disks_usage", "TEXT")
+                    .addColumn("guest_mem_buffered", "BIGINT")
+                    .addColumn("guest_mem_cached", "BIGINT");
+
     public VmStatisticsDaoImpl() {
         super("VmStatistics");
         setProcedureNameForGet("GetVmStatisticsByVmGuid");
@@ -48,6 +62,11 @@ public class VmStatisticsDaoImpl extends MassOperationsGenericDao<VmStatistics,
                 .addValue("guest_mem_cached", statistics.getGuestMemoryCached());
     }
 
+    @Override
+    protected CopyBatchDefinition getCopyBatchDefinition() {
+        return copyBatchDefinition;
+    }
+
     @Override
     protected RowMapper<VmStatistics> createEntityRowMapper() {
         return vmStatisticsRowMapper;
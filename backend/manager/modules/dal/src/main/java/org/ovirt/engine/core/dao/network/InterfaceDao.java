@@ -46,6 +46,15 @@ public interface InterfaceDao extends Dao {
      */
     void massUpdateStatisticsForVds(Collection<VdsNetworkStatistics> statistics);
 
+    /**
+     * Same as {@link #massUpdateStatisticsForVds(Collection)} but writes all the statistics in a single round-trip
+     * using a bulk copy.
+     *
+     * @param statistics
+     *            The collection of statistics to update.
+     */
+    void massUpdateStatisticsForVdsInBulk(Collection<VdsNetworkStatistics> statistics);
+
     /**
      * Updates the specified VDS interface.
      *
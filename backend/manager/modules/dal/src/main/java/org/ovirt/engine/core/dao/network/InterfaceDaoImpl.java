@@ -26,6 +26,7 @@ import org.ovirt.engine.core.common.businessentities.network.Vlan;
 import org.ovirt.engine.core.common.network.SwitchType;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dal.dbbroker.CopyBatchDefinition;
 import org.ovirt.engine.core.dal.dbbroker.CustomMapSqlParameterSource;
 import org.ovirt.engine.core.dal.dbbroker.MapSqlParameterMapper;
 import org.ovirt.engine.core.dao.BaseDao;
@@ -39,6 +40,9 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Singleton
 public class InterfaceDaoImpl extends BaseDao implements InterfaceDao {
 
+    private static final CopyBatchDefinition statisticsCopyBatchDefinition =
+            NetworkStatisticsDaoImpl.createCopyBatchDefinition("vds_interface_statistics", "vds_id");
+
     @Inject
     private NetworkQoSDao networkQosDao;
 
@@ -97,6 +101,16 @@ public class InterfaceDaoImpl extends BaseDao implements InterfaceDao {
         getCallsHandler().executeStoredProcAsBatch("Updatevds_interface_statistics", executions);
     }
 
+    @Override
+    public void massUpdateStatisticsForVdsInBulk(Collection<VdsNetworkStatistics> statistics) {
+        if (statistics.isEmpty()) {
+            return;
+        }
+        getCallsHandler().executeCopyAsBatch(statisticsCopyBatchDefinition,
+                statistics,
+                this::createStatisticsParametersMapper);
+    }
+
     /**
      * Update the {@link VdsNetworkStatistics} in the DB
      *
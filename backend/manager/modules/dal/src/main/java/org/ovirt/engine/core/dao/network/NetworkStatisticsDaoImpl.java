@@ -8,6 +8,7 @@ import java.util.Map;
 import org.ovirt.engine.core.common.businessentities.network.InterfaceStatus;
 import org.ovirt.engine.core.common.businessentities.network.NetworkStatistics;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dal.dbbroker.CopyBatchDefinition;
 import org.ovirt.engine.core.dao.MassOperationsGenericDao;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -29,6 +30,28 @@ public abstract class NetworkStatisticsDaoImpl<T extends NetworkStatistics> exte
         return getCustomMapSqlParameterSource().addValue("id", id);
     }
 
+    /**
+     * Creates the definition of the bulk copy of the statistics, the owner column is the column referencing the
+     * entity the interface belongs to
+     */
+    protected static CopyBatchDefinition createCopyBatchDefinition(String tableName, String ownerColumn) {
+        return new CopyBatchDefinition(tableName + "_copy",
+                "Update" + tableName + "FromCopy",
+                "Update" + tableName)
+                .addColumn("id", "UUID")
+                .addColumn("rx_drop", "DECIMAL(18, 4)")
+                .addColumn("rx_rate", "DECIMAL(18, 4)")
+                .addColumn("rx_total", "BIGINT")
+                .addColumn("rx_offset", "BIGINT")
+                .addColumn("tx_drop", "DECIMAL(18, 4)")
+                .addColumn("tx_rate", "DECIMAL(18, 4)")
+                .addColumn("tx_total", "BIGINT")
+                .addColumn("tx_offset", "BIGINT")
+                .addColumn("iface_status", "INT")
+                .addColumn("sample_time", "FLOAT")
+                .addColumn(ownerColumn, "UUID");
+    }
+
     public static class NetworkStatisticsParametersMapper<T extends NetworkStatistics> {
 
         public Map<String, Object> createParametersMap(T stats) {
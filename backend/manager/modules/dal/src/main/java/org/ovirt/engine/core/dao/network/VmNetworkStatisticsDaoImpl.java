@@ -6,6 +6,7 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.dal.dbbroker.CopyBatchDefinition;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -14,6 +15,9 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 public class VmNetworkStatisticsDaoImpl extends NetworkStatisticsDaoImpl<VmNetworkStatistics>
         implements VmNetworkStatisticsDao {
 
+    private static final CopyBatchDefinition copyBatchDefinition =
+            createCopyBatchDefinition("vm_interface_statistics", "vm_id");
+
     public VmNetworkStatisticsDaoImpl() {
         super("vm_interface_statistics");
         setProcedureNameForGet("Getvm_interface_statisticsById");
@@ -30,6 +34,11 @@ public class VmNetworkStatisticsDaoImpl extends NetworkStatisticsDaoImpl<VmNetwo
                 .addValue("vm_id", stats.getVmId());
     }
 
+    @Override
+    protected CopyBatchDefinition getCopyBatchDefinition() {
+        return copyBatchDefinition;
+    }
+
     @Override
     protected RowMapper<VmNetworkStatistics> createEntityRowMapper() {
         return VmNetworkStatisticsRowMapper.INSTANCE;
@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.dao.scheduling;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -37,6 +38,13 @@ public class AffinityGroupDaoImpl extends DefaultGenericDao<AffinityGroup, Guid>
                 getCustomMapSqlParameterSource().addValue("vm_id", vmId));
     }
 
+    @Override
+    public List<AffinityGroup> getAllAffinityGroupsByVmIds(Collection<Guid> vmIds) {
+        return getCallsHandler().executeReadList("getAllAffinityGroupsByVmIds",
+                createEntityRowMapper(),
+                getCustomMapSqlParameterSource().addValue("vm_ids", createArrayOfUUIDs(vmIds)));
+    }
+
     @Override
     public AffinityGroup getByName(String str) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
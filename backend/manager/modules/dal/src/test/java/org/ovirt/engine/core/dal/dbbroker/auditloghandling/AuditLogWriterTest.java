@@ -0,0 +1,166 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.dao.AuditLogDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.MockedConfig;
+
+@ExtendWith({MockitoExtension.class, MockConfigExtension.class})
+public class AuditLogWriterTest {
+
+    @Mock
+    private AuditLogDao auditLogDao;
+
+    @Mock
+    private ManagedScheduledExecutorService executor;
+
+    @Spy
+    @InjectMocks
+    private AuditLogWriter auditLogWriter;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.AuditLogQueueSize, 2));
+    }
+
+    public static Stream<MockConfigDescriptor<?>> synchronousWrites() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.AuditLogQueueSize, 0));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        doAnswer(invocation -> {
+            List<AuditLog> auditLogs = invocation.getArgument(0);
+            auditLogs.forEach(auditLogDao::save);
+            return null;
+        }).when(auditLogWriter).saveInNewTransaction(any());
+    }
+
+    @Test
+    public void testEventsAreWrittenOnFlush() {
+        AuditLog first = createAuditLog("first");
+        AuditLog second = createAuditLog("second");
+        auditLogWriter.write(first, false);
+        auditLogWriter.write(second, false);
+
+        verify(auditLogDao, never()).save(any());
+        verify(executor).scheduleWithFixedDelay(any(), anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        assertEquals(2, auditLogWriter.getQueueDepth());
+
+        auditLogWriter.flush();
+
+        verify(auditLogDao).save(first);
+        verify(auditLogDao).save(second);
+        verify(auditLogWriter, times(1)).saveInNewTransaction(any());
+        assertEquals(0, auditLogWriter.getQueueDepth());
+        assertEquals(2, auditLogWriter.getWrittenCount());
+    }
+
+    @Test
+    public void testSynchronousEventIsWrittenImmediately() {
+        AuditLog auditLog = createAuditLog("synchronous");
+        auditLogWriter.write(auditLog, true);
+
+        verify(auditLogDao).save(auditLog);
+        assertEquals(0, auditLogWriter.getQueueDepth());
+    }
+
+    @Test
+    @MockedConfig("synchronousWrites")
+    public void testEventsAreWrittenImmediatelyWithoutQueue() {
+        AuditLog auditLog = createAuditLog("synchronous");
+        auditLogWriter.write(auditLog, false);
+
+        verify(auditLogDao).save(auditLog);
+        verify(executor, never()).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void testEventIsWrittenAfterQueuedEventsWhenQueueIsFull() {
+        AuditLog first = createAuditLog("first");
+        AuditLog second = createAuditLog("second");
+        auditLogWriter.write(first, false);
+        auditLogWriter.write(second, false);
+        AuditLog overflow = createAuditLog("overflow");
+        auditLogWriter.write(overflow, false);
+
+        InOrder inOrder = inOrder(auditLogDao);
+        inOrder.verify(auditLogDao).save(first);
+        inOrder.verify(auditLogDao).save(second);
+        inOrder.verify(auditLogDao).save(overflow);
+        assertEquals(0, auditLogWriter.getQueueDepth());
+        assertEquals(1, auditLogWriter.getOverflowCount());
+        assertEquals(3, auditLogWriter.getWrittenCount());
+    }
+
+    @Test
+    public void testSynchronousEventIsWrittenAfterQueuedEvents() {
+        AuditLog queued = createAuditLog("queued");
+        AuditLog synchronous = createAuditLog("synchronous");
+        auditLogWriter.write(queued, false);
+        auditLogWriter.write(synchronous, true);
+
+        InOrder inOrder = inOrder(auditLogDao);
+        inOrder.verify(auditLogDao).save(queued);
+        inOrder.verify(auditLogDao).save(synchronous);
+        assertEquals(0, auditLogWriter.getQueueDepth());
+    }
+
+    @Test
+    public void testFailingEventIsDropped() {
+        AuditLog other = createAuditLog("other");
+        AuditLog failing = createAuditLog("failing");
+        doThrow(new RuntimeException()).when(auditLogDao).save(failing);
+        auditLogWriter.write(other, false);
+        auditLogWriter.write(failing, false);
+
+        auditLogWriter.flush();
+
+        // saved once within the failed batch and once on its own
+        verify(auditLogDao, times(2)).save(other);
+        assertEquals(1, auditLogWriter.getWrittenCount());
+        assertEquals(1, auditLogWriter.getDroppedCount());
+    }
+
+    @Test
+    public void testQueuedEventsAreWrittenOnShutdown() {
+        AuditLog auditLog = createAuditLog("queued");
+        auditLogWriter.write(auditLog, false);
+
+        auditLogWriter.shutdown();
+
+        verify(auditLogDao).save(auditLog);
+    }
+
+    private static AuditLog createAuditLog(String message) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setMessage(message);
+        return auditLog;
+    }
+}
@@ -0,0 +1,117 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.compat.Guid;
+
+public class EventFloodTimeoutsTest {
+
+    private static final long DURATION = 30000;
+
+    private final EventFloodTimeouts timeouts = new EventFloodTimeouts();
+
+    @Test
+    public void testEventIsSuppressedUntilTimeoutEnds() {
+        EventFloodTimeouts.Key key = createKey(Guid.newGuid(), AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED);
+
+        assertTrue(timeouts.startTimeout(key, 0, DURATION));
+        assertFalse(timeouts.startTimeout(key, DURATION - 1, DURATION));
+        assertTrue(timeouts.startTimeout(key, DURATION, DURATION));
+        assertEquals(1, timeouts.getSuppressedCount(AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED));
+        assertEquals(Collections.singletonMap(AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED, 1L),
+                timeouts.getSuppressedCounts());
+    }
+
+    @Test
+    public void testEventsOfDifferentObjectsAreNotSuppressed() {
+        assertTrue(timeouts.startTimeout(createKey(Guid.newGuid(), AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED),
+                0,
+                DURATION));
+        assertTrue(timeouts.startTimeout(createKey(Guid.newGuid(), AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED),
+                0,
+                DURATION));
+        assertEquals(0, timeouts.getSuppressedCount(AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED));
+    }
+
+    @Test
+    public void testEventsOfDifferentTypesAreNotSuppressed() {
+        Guid vdsId = Guid.newGuid();
+
+        assertTrue(timeouts.startTimeout(createKey(vdsId, AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED),
+                0,
+                DURATION));
+        assertTrue(timeouts.startTimeout(createKey(vdsId, AuditLogType.VDS_ALERT_FENCE_TEST_FAILED), 0, DURATION));
+    }
+
+    @Test
+    public void testEmptyIdMatchesMissingId() {
+        assertTrue(timeouts.startTimeout(createKey(Guid.Empty, AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED),
+                0,
+                DURATION));
+        assertFalse(timeouts.startTimeout(createKey(null, AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED),
+                0,
+                DURATION));
+    }
+
+    @Test
+    public void testEvictedEventIsLogged() {
+        Guid vdsId = Guid.newGuid();
+        EventFloodTimeouts.Key key = createKey(vdsId, AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED);
+
+        assertTrue(timeouts.startTimeout(key, 0, DURATION));
+        timeouts.evict(createKey(vdsId, AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED));
+        assertTrue(timeouts.startTimeout(key, 1, DURATION));
+    }
+
+    @Test
+    public void testExpiredTimeoutsArePurged() {
+        timeouts.startTimeout(createKey(Guid.newGuid(), AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED), 0, DURATION);
+        timeouts.startTimeout(createKey(Guid.newGuid(), AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED),
+                0,
+                2 * DURATION);
+        assertEquals(2, timeouts.size());
+
+        // the bucket of the first timeout did not end yet
+        timeouts.startTimeout(createKey(Guid.newGuid(), AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED),
+                DURATION,
+                DURATION);
+        assertEquals(3, timeouts.size());
+
+        timeouts.startTimeout(createKey(Guid.newGuid(), AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED),
+                DURATION + EventFloodTimeouts.BUCKET_IN_MILLIS,
+                DURATION);
+        assertEquals(3, timeouts.size());
+    }
+
+    @Test
+    public void testRestartedTimeoutIsNotPurgedWithItsFormerBucket() {
+        EventFloodTimeouts.Key key = createKey(Guid.newGuid(), AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED);
+
+        assertTrue(timeouts.startTimeout(key, 0, DURATION));
+        assertTrue(timeouts.startTimeout(key, DURATION, DURATION));
+        assertFalse(timeouts.startTimeout(key, DURATION + EventFloodTimeouts.BUCKET_IN_MILLIS, DURATION));
+        assertEquals(1, timeouts.size());
+    }
+
+    @Test
+    public void testPurgedTimeoutIsStartedAgain() {
+        EventFloodTimeouts.Key key = createKey(Guid.newGuid(), AuditLogType.VDS_ALERT_FENCE_IS_NOT_CONFIGURED);
+
+        assertTrue(timeouts.startTimeout(key, 0, DURATION));
+        assertTrue(timeouts.startTimeout(key, 2 * DURATION, DURATION));
+        assertFalse(timeouts.startTimeout(key, 2 * DURATION + 1, DURATION));
+        assertEquals(1, timeouts.size());
+    }
+
+    private static EventFloodTimeouts.Key createKey(Guid vdsId, AuditLogType logType) {
+        AuditLogable event = new AuditLogableImpl();
+        event.setVdsId(vdsId);
+        return new EventFloodTimeouts.Key(event, logType);
+    }
+}
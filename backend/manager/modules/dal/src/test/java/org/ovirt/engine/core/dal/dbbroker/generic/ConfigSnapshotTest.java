@@ -0,0 +1,55 @@
+package org.ovirt.engine.core.dal.dbbroker.generic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.config.ConfigCommon;
+import org.ovirt.engine.core.common.config.ConfigValues;
+
+public class ConfigSnapshotTest {
+
+    private final ConfigSnapshot snapshot = new ConfigSnapshot();
+
+    @Test
+    public void testDefaultVersionValue() {
+        snapshot.put(ConfigValues.AuditLogQueueSize, ConfigCommon.defaultConfigurationVersion, 100);
+
+        assertTrue(snapshot.contains(ConfigValues.AuditLogQueueSize, ConfigCommon.defaultConfigurationVersion));
+        assertEquals(100, snapshot.get(ConfigValues.AuditLogQueueSize, ConfigCommon.defaultConfigurationVersion));
+        assertFalse(snapshot.contains(ConfigValues.AuditLogQueueSize, "4.2"));
+    }
+
+    @Test
+    public void testNullValueIsContained() {
+        snapshot.put(ConfigValues.AuditLogQueueSize, ConfigCommon.defaultConfigurationVersion, null);
+
+        assertTrue(snapshot.contains(ConfigValues.AuditLogQueueSize, ConfigCommon.defaultConfigurationVersion));
+        assertNull(snapshot.get(ConfigValues.AuditLogQueueSize, ConfigCommon.defaultConfigurationVersion));
+    }
+
+    @Test
+    public void testMissingValue() {
+        assertFalse(snapshot.contains(ConfigValues.AuditLogQueueSize, ConfigCommon.defaultConfigurationVersion));
+        assertNull(snapshot.get(ConfigValues.AuditLogQueueSize, ConfigCommon.defaultConfigurationVersion));
+        assertNull(snapshot.get(ConfigValues.AuditLogQueueSize, "4.2"));
+        assertNull(snapshot.getValuesForAllVersions(ConfigValues.AuditLogQueueSize));
+    }
+
+    @Test
+    public void testValuesForAllVersions() {
+        snapshot.put(ConfigValues.AuditLogQueueSize, ConfigCommon.defaultConfigurationVersion, 100);
+        snapshot.put(ConfigValues.AuditLogQueueSize, "4.2", 200);
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put(ConfigCommon.defaultConfigurationVersion, 100);
+        expected.put("4.2", 200);
+        assertEquals(expected, snapshot.getValuesForAllVersions(ConfigValues.AuditLogQueueSize));
+        assertEquals(200, snapshot.get(ConfigValues.AuditLogQueueSize, "4.2"));
+    }
+}
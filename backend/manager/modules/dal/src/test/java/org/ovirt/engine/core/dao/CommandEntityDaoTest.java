@@ -16,6 +16,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.inject.Inject;
+
 import org.junit.jupiter.api.Test;
 import org.ovirt.engine.core.common.VdcObjectType;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
@@ -24,9 +26,13 @@ import org.ovirt.engine.core.common.businessentities.CommandAssociatedEntity;
 import org.ovirt.engine.core.common.businessentities.CommandEntity;
 import org.ovirt.engine.core.compat.CommandStatus;
 import org.ovirt.engine.core.compat.Guid;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 public class CommandEntityDaoTest extends BaseGenericDaoTestCase<Guid, CommandEntity, CommandEntityDao> {
 
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
     @Override
     protected CommandEntity generateNewEntity() {
 
@@ -73,6 +79,39 @@ public class CommandEntityDaoTest extends BaseGenericDaoTestCase<Guid, CommandEn
         assertNull(cmdAfterRemoval);
     }
 
+    @Test
+    public void testSaveOrUpdateWritesChangedPayloads() {
+        CommandEntity cmdEntity = generateNewEntity();
+        dao.saveOrUpdate(cmdEntity);
+
+        Map<String, Serializable> data = new HashMap<>();
+        data.put("NEXT_COMMAND_TYPE", ActionType.RemoveImage);
+        cmdEntity.setData(data);
+        cmdEntity.setCommandStatus(CommandStatus.SUCCEEDED);
+        dao.saveOrUpdate(cmdEntity);
+
+        CommandEntity result = dao.get(cmdEntity.getId());
+        assertEquals(CommandStatus.SUCCEEDED, result.getCommandStatus());
+        assertEquals(data, result.getData());
+        assertNotNull(result.getCommandParameters());
+    }
+
+    @Test
+    public void testSaveOrUpdateInsertsCommandRemovedNotThroughDao() {
+        CommandEntity cmdEntity = generateNewEntity();
+        dao.saveOrUpdate(cmdEntity);
+        jdbcTemplate.update("DELETE FROM command_entities WHERE command_id = ?", cmdEntity.getId().getUuid());
+
+        cmdEntity.setCommandStatus(CommandStatus.SUCCEEDED);
+        dao.saveOrUpdate(cmdEntity);
+
+        CommandEntity result = dao.get(cmdEntity.getId());
+        assertNotNull(result);
+        assertEquals(CommandStatus.SUCCEEDED, result.getCommandStatus());
+        assertEquals(cmdEntity.getData(), result.getData());
+        assertNotNull(result.getCommandParameters());
+    }
+
     @Test
     public void testGetAll() {
         List<CommandEntity> cmds = dao.getAll();
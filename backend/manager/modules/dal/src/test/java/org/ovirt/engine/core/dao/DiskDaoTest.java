@@ -306,4 +306,22 @@ public class DiskDaoTest extends BaseReadDaoTestCase<Guid, Disk, DiskDao> {
                 dao.getAllFromDisksIncludingSnapshotsByDiskId(FixturesTool.IMAGE_GROUP_ID, UNPRIVILEGED_USER_ID, true);
         assertEquals(0, result.size(), "wrong number of returned disks");
     }
+
+    @Test
+    public void testGetAllFromDisksIncludingSnapshotsByDiskIds() {
+        List<Disk> result = dao.getAllFromDisksIncludingSnapshotsByDiskIds(
+                Arrays.asList(FixturesTool.IMAGE_GROUP_ID, FixturesTool.IMAGE_GROUP_ID_2, Guid.newGuid()),
+                null,
+                false);
+        int expected = dao.getAllFromDisksIncludingSnapshotsByDiskId(FixturesTool.IMAGE_GROUP_ID, null, false).size()
+                + dao.getAllFromDisksIncludingSnapshotsByDiskId(FixturesTool.IMAGE_GROUP_ID_2, null, false).size();
+        assertEquals(expected, result.size(), "wrong number of returned disks");
+    }
+
+    @Test
+    public void testGetAllFromDisksIncludingSnapshotsByDiskIdsForUnPrivilegedUserWithFilter() {
+        List<Disk> result = dao.getAllFromDisksIncludingSnapshotsByDiskIds(
+                Collections.singletonList(FixturesTool.IMAGE_GROUP_ID), UNPRIVILEGED_USER_ID, true);
+        assertEquals(0, result.size(), "wrong number of returned disks");
+    }
 }
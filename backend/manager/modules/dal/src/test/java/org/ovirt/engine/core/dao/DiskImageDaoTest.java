@@ -161,6 +161,13 @@ public class DiskImageDaoTest extends BaseReadDaoTestCase<Guid, DiskImage, DiskI
         assertTrue(images.stream().noneMatch(d -> d.getVmEntityType() == VmEntityType.TEMPLATE));
     }
 
+    @Test
+    public void testGetAllSnapshotsForLeaves() {
+        List<DiskImage> images = dao.getAllSnapshotsForLeaves(Arrays.asList(FixturesTool.IMAGE_ID, Guid.newGuid()));
+
+        assertEquals(dao.getAllSnapshotsForLeaf(FixturesTool.IMAGE_ID).size(), images.size());
+    }
+
     @Test
     public void testGetAllSnapshotsForLeafInvalidGuid() {
         List<DiskImage> images = dao.getAllSnapshotsForLeaf(Guid.newGuid());
@@ -94,6 +94,35 @@ public class DiskImageDynamicDaoTest extends BaseGenericDaoTestCase<Guid, DiskIm
         assertEquals(readRate, dao.get(imageId).getReadRate());
     }
 
+    @Test
+    public void updateAllDiskImageDynamicWithDiskIdByVmIdInBulk() {
+        Guid imageId = FixturesTool.IMAGE_ID_2;
+        Guid imageGroupId = FixturesTool.IMAGE_GROUP_ID_2;
+
+        DiskImageDynamic existingEntity2 = dao.get(imageId);
+        assertNotEquals(120, (int) existingEntity2.getReadRate());
+
+        existingEntity2.setId(imageGroupId);
+        Integer readRate = 120;
+        existingEntity2.setReadRate(readRate);
+        existingEntity2.setReadLatency(0.000000001d);
+        existingEntity2.setFlushLatency(null);
+
+        // test that the record is updated when the active disk is attached to the vm
+        dao.updateAllDiskImageDynamicWithDiskIdByVmIdInBulk(Collections.singleton(
+                new Pair<>(FixturesTool.VM_RHEL5_POOL_57, existingEntity2)));
+
+        existingEntity2.setId(imageId);
+        assertEquals(existingEntity2, dao.get(imageId));
+
+        // test that the record is not updated when the disk is not attached to the vm
+        existingEntity2.setId(imageGroupId);
+        existingEntity2.setReadRate(150);
+        dao.updateAllDiskImageDynamicWithDiskIdByVmIdInBulk(Collections.singleton(
+                new Pair<>(FixturesTool.VM_RHEL5_POOL_51, existingEntity2)));
+        assertEquals(readRate, dao.get(imageId).getReadRate());
+    }
+
     @Test
     public void sortDiskImageDynamicForUpdate() {
         Guid firstGuid = Guid.Empty;
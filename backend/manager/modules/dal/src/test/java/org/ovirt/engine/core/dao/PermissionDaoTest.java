@@ -6,13 +6,19 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.inject.Inject;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -46,6 +52,9 @@ public class PermissionDaoTest extends BaseDaoTestCase<PermissionDao> {
     private static final Guid DIRECTORY_ELEMENT_ID_WITH_BASIC_PERMISSIONS =
             new Guid("88D4301A-17AF-496C-A793-584640853D4B");
 
+    @Inject
+    private PermissionChangeNotifier permissionChangeNotifier;
+
     private Permission new_permissions;
 
     @BeforeEach
@@ -394,6 +403,19 @@ public class PermissionDaoTest extends BaseDaoTestCase<PermissionDao> {
         }
     }
 
+    /**
+     * Ensures that all permissions for any of the specified objects are returned.
+     */
+    @Test
+    public void testGetAllForObjectIds() {
+        List<Permission> result = dao.getAllForObjectIds(Arrays.asList(VM_ENTITY_ID, Guid.newGuid()));
+
+        assertFalse(result.isEmpty());
+        for (Permission permission : result) {
+            assertEquals(VM_ENTITY_ID, permission.getObjectId());
+        }
+    }
+
     /**
      * Ensures an empty collection is returned when the entity has no permissions tree.
      */
@@ -613,6 +635,16 @@ public class PermissionDaoTest extends BaseDaoTestCase<PermissionDao> {
         assertNull(result);
     }
 
+    /**
+     * Ensures that removing a permission notifies the permission change listeners.
+     */
+    @Test
+    public void testRemoveNotifiesPermissionChange() {
+        List<Guid> removedIds = getRemovedPermissionIds(() -> dao.remove(EXISTING_PERMISSION_ID));
+
+        assertEquals(Collections.singletonList(EXISTING_PERMISSION_ID), removedIds);
+    }
+
     /**
      * Ensures that all permissions for the specified entity are removed.
      */
@@ -630,6 +662,43 @@ public class PermissionDaoTest extends BaseDaoTestCase<PermissionDao> {
         assertTrue(after.isEmpty());
     }
 
+    /**
+     * Ensures that removing the permissions of an entity notifies the permission change listeners of each of them.
+     */
+    @Test
+    public void testRemoveForEntityNotifiesPermissionChange() {
+        Set<Guid> before = dao.getAllForEntity(VM_ENTITY_ID).stream().map(Permission::getId).collect(Collectors.toSet());
+
+        List<Guid> removedIds = getRemovedPermissionIds(() -> dao.removeForEntity(VM_ENTITY_ID));
+
+        assertEquals(before, new HashSet<>(removedIds));
+    }
+
+    private List<Guid> getRemovedPermissionIds(Runnable removal) {
+        List<Guid> removedIds = new ArrayList<>();
+        PermissionChangeNotifier.Listener listener = new PermissionChangeNotifier.Listener() {
+            @Override
+            public void permissionsRemoved(Collection<Guid> permissionIds) {
+                removedIds.addAll(permissionIds);
+            }
+
+            @Override
+            public void actionGroupRemoved(ActionGroup actionGroup) {
+            }
+
+            @Override
+            public void permissionsChanged() {
+            }
+        };
+        permissionChangeNotifier.addListener(listener);
+        try {
+            removal.run();
+        } finally {
+            permissionChangeNotifier.removeListener(listener);
+        }
+        return removedIds;
+    }
+
     @Test
     public void creationTimestampIsInThePast() {
         List<Permission> vmPermissions = dao.getAllForEntity(VM_ENTITY_ID);
@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -203,6 +204,15 @@ public class SnapshotDaoTest extends BaseGenericDaoTestCase<Guid, Snapshot, Snap
         }
     }
 
+    @Test
+    public void getAllByVmsWithConfiguration() {
+        List<Snapshot> snapshots = dao.getAllWithConfiguration(
+                Arrays.asList(FixturesTool.VM_RHEL5_POOL_50, Guid.newGuid()));
+        assertEquals(1, snapshots.size(), "VM should have a snapshot");
+        assertEquals(FixturesTool.VM_RHEL5_POOL_50, snapshots.get(0).getVmId());
+        assertEquals("test!", snapshots.get(0).getVmConfiguration(), "Snapshot should have configuration");
+    }
+
     @Test
     public void getAllByVm() {
         List<Snapshot> snapshots = dao.getAll(FixturesTool.VM_RHEL5_POOL_57);
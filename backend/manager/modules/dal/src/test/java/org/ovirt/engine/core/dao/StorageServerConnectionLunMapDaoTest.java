@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Disabled;
@@ -61,4 +62,12 @@ public class StorageServerConnectionLunMapDaoTest extends BaseGenericDaoTestCase
             assertEquals(existingEntity.getId().lunId, mapping.getId().lunId);
         }
     }
+
+    @Test
+    public void testGetAllForLuns() {
+        List<LUNStorageServerConnectionMap> result =
+                dao.getAllForLuns(Arrays.asList(existingEntity.getId().lunId, "nonexistent"));
+
+        assertEquals(dao.getAll(existingEntity.getId().lunId).size(), result.size());
+    }
 }
@@ -4,9 +4,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+
+import javax.inject.Inject;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -27,6 +31,9 @@ public class VdsDynamicDaoTest extends BaseGenericDaoTestCase<Guid, VdsDynamic,
                     FixturesTool.GLUSTER_BRICK_SERVER1,
                     FixturesTool.VDS_GLUSTER_SERVER2);
 
+    @Inject
+    private VdsChangeNotifier vdsChangeNotifier;
+
     @Override
     protected VdsDynamic generateNewEntity() {
         VdsDynamic newDynamicVds = new VdsDynamic();
@@ -105,6 +112,42 @@ public class VdsDynamicDaoTest extends BaseGenericDaoTestCase<Guid, VdsDynamic,
         assertEquals(before, after);
     }
 
+    /**
+     * Ensures that changing the host notifies the host change listeners.
+     */
+    @Test
+    public void testUpdateNetConfigDirtyNotifiesVdsChange() {
+        List<Guid> changedVdsIds = new ArrayList<>();
+        Consumer<Guid> listener = changedVdsIds::add;
+        vdsChangeNotifier.addListener(listener);
+        try {
+            dao.updateNetConfigDirty(FixturesTool.VDS_GLUSTER_SERVER2, true);
+        } finally {
+            vdsChangeNotifier.removeListener(listener);
+        }
+
+        assertEquals(Collections.singletonList(FixturesTool.VDS_GLUSTER_SERVER2), changedVdsIds);
+    }
+
+    /**
+     * Ensures that the owner of the cached host can write it without notifying the host change listeners.
+     */
+    @Test
+    public void testUpdateStatusWithoutNotification() {
+        List<Guid> changedVdsIds = new ArrayList<>();
+        Consumer<Guid> listener = changedVdsIds::add;
+        vdsChangeNotifier.addListener(listener);
+        try {
+            vdsChangeNotifier.runWithoutNotification(
+                    () -> dao.updateStatus(FixturesTool.VDS_GLUSTER_SERVER2, VDSStatus.Down));
+        } finally {
+            vdsChangeNotifier.removeListener(listener);
+        }
+
+        assertTrue(changedVdsIds.isEmpty());
+        assertEquals(VDSStatus.Down, dao.get(FixturesTool.VDS_GLUSTER_SERVER2).getStatus());
+    }
+
     @Test
     public void testGetIdsOfHostsWithStatus() {
         List<Guid> hostIds = dao.getIdsOfHostsWithStatus(VDSStatus.Up);
@@ -63,4 +63,19 @@ public class VmStatisticsDaoTest extends BaseGenericDaoTestCase<Guid, VmStatisti
         assertEquals(existingVm, dao.get(existingVm.getId()));
         assertEquals(existingVm2, dao.get(existingVm2.getId()));
     }
+
+    @Test
+    public void testUpdateAllInBulk() {
+        VmStatistics existingVm = dao.get(FixturesTool.VM_RHEL5_POOL_57);
+        VmStatistics existingVm2 = dao.get(FixturesTool.VM_RHEL5_POOL_51);
+        existingVm.setCpuSys(50.0);
+        existingVm.setDisksUsage("[{\"path\": \"/\"}]");
+        existingVm2.setCpuUser(50.0);
+        existingVm2.setDisksUsage(null);
+
+        dao.updateAllInBulk(Arrays.asList(existingVm, existingVm2));
+
+        assertEquals(existingVm, dao.get(existingVm.getId()));
+        assertEquals(existingVm2, dao.get(existingVm2.getId()));
+    }
 }
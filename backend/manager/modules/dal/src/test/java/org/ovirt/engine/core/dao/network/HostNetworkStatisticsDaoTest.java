@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao.network;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,8 @@ import org.ovirt.engine.core.dao.FixturesTool;
 
 public class HostNetworkStatisticsDaoTest extends NetworkStatisticsDaoTest<InterfaceDao, VdsNetworkStatistics> {
 
+    private boolean inBulk;
+
     @Override
     protected List<? extends NetworkInterface<VdsNetworkStatistics>> getAllInterfaces() {
         return dao.getAllInterfacesForVds(FixturesTool.VDS_RHEL6_NFS_SPM);
@@ -16,7 +19,11 @@ public class HostNetworkStatisticsDaoTest extends NetworkStatisticsDaoTest<Inter
 
     @Override
     protected void updateStatistics(VdsNetworkStatistics stats) {
-        dao.updateStatisticsForVds(stats);
+        if (inBulk) {
+            dao.massUpdateStatisticsForVdsInBulk(Collections.singletonList(stats));
+        } else {
+            dao.updateStatisticsForVds(stats);
+        }
     }
 
     @Test
@@ -28,4 +35,16 @@ public class HostNetworkStatisticsDaoTest extends NetworkStatisticsDaoTest<Inter
     public void testUpdateStatisticsNullValues() {
         testUpdateStatistics(null, null);
     }
+
+    @Test
+    public void testUpdateStatisticsInBulkWithValues() {
+        inBulk = true;
+        testUpdateStatistics(999.0, 999L);
+    }
+
+    @Test
+    public void testUpdateStatisticsInBulkNullValues() {
+        inBulk = true;
+        testUpdateStatistics(null, null);
+    }
 }
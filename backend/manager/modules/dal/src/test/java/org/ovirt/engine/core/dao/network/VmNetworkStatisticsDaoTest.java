@@ -130,4 +130,23 @@ public class VmNetworkStatisticsDaoTest extends NetworkStatisticsDaoTest<VmNetwo
         assertEquals(existingStats.getReceiveDropRate(), dao.get(existingStats.getId()).getReceiveDropRate());
         assertEquals(existingStats2.getStatus(), dao.get(existingStats2.getId()).getStatus());
     }
+
+    @Test
+    public void testUpdateAllInBulk() {
+        VmNetworkStatistics existingStats = dao.get(FixturesTool.VM_NETWORK_INTERFACE);
+        VmNetworkStatistics existingStats2 = dao.get(new Guid("e2817b12-f873-4046-b0da-0098293c0000"));
+        existingStats.setReceiveDropRate(10.0);
+        existingStats.setReceivedBytes(null);
+        existingStats2.setStatus(InterfaceStatus.DOWN);
+        existingStats2.setSampleTime(null);
+
+        dao.updateAllInBulk(Arrays.asList(existingStats, existingStats2));
+
+        VmNetworkStatistics updatedStats = dao.get(existingStats.getId());
+        VmNetworkStatistics updatedStats2 = dao.get(existingStats2.getId());
+        assertEquals(existingStats.getReceiveDropRate(), updatedStats.getReceiveDropRate());
+        assertNull(updatedStats.getReceivedBytes());
+        assertEquals(existingStats2.getStatus(), updatedStats2.getStatus());
+        assertNull(updatedStats2.getSampleTime());
+    }
 }
@@ -0,0 +1,100 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ovirt.engine.core.common.action.ActionParametersBase;
+import org.ovirt.engine.core.common.action.AddVmParameters;
+import org.ovirt.engine.core.common.action.RunVmParams;
+import org.ovirt.engine.core.common.businessentities.VmStatic;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.serialization.json.JsonObjectDeserializer;
+import org.ovirt.engine.core.utils.serialization.json.JsonObjectSerializer;
+
+/**
+ * <p> Benchmarks serializing and deserializing the parameters of commands, the way they are written to and read from
+ * the <code>command_entities</code> table.</p>
+ * <p> The <b>formatted</b> benchmarks use the indented JSON the parameters used to be written with, as a baseline for
+ * the <b>compact</b> benchmarks.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CommandPayloadSerializationBenchmark {
+
+    private static final JsonObjectSerializer serializer = new JsonObjectSerializer();
+    private static final JsonObjectDeserializer deserializer = new JsonObjectDeserializer();
+
+    @Benchmark
+    public String serializeFormatted(BenchmarkState state) {
+        return serializer.serialize(state.parameters);
+    }
+
+    @Benchmark
+    public String serializeCompact(BenchmarkState state) {
+        return serializer.serializeCompact(state.parameters);
+    }
+
+    @Benchmark
+    public ActionParametersBase deserializeFormatted(BenchmarkState state) {
+        return deserializer.deserialize(state.formatted, state.parameters.getClass());
+    }
+
+    @Benchmark
+    public ActionParametersBase deserializeCompact(BenchmarkState state) {
+        return deserializer.deserialize(state.compact, state.parameters.getClass());
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({"RunVmParams", "AddVmParameters"})
+        private String type;
+
+        private ActionParametersBase parameters;
+        private String formatted;
+        private String compact;
+
+        @Setup
+        public void setup() {
+            parameters = "RunVmParams".equals(type) ? createRunVmParams() : createAddVmParameters();
+            formatted = serializer.serialize(parameters);
+            compact = serializer.serializeCompact(parameters);
+        }
+
+        private static RunVmParams createRunVmParams() {
+            RunVmParams params = new RunVmParams(Guid.newGuid());
+            params.setRunAsStateless(false);
+            params.setRunAndPause(false);
+            params.setBalloonEnabled(true);
+            params.setCorrelationId("benchmark");
+            return params;
+        }
+
+        private static AddVmParameters createAddVmParameters() {
+            VmStatic vmStatic = new VmStatic();
+            vmStatic.setId(Guid.newGuid());
+            vmStatic.setName("benchmark");
+            vmStatic.setDescription("A VM added by the benchmark");
+            vmStatic.setClusterId(Guid.newGuid());
+            vmStatic.setMemSizeMb(4096);
+            vmStatic.setNumOfSockets(2);
+            vmStatic.setCustomProperties("sap_agent=true;viodiskcache=writethrough");
+            AddVmParameters params = new AddVmParameters(vmStatic);
+            params.setConsoleEnabled(true);
+            params.setSoundDeviceEnabled(true);
+            params.setCorrelationId("benchmark");
+            return params;
+        }
+    }
+}
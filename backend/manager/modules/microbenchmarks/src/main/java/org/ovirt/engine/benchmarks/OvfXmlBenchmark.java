@@ -0,0 +1,135 @@
+package org.ovirt.engine.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
+import org.ovirt.engine.core.utils.ovf.xml.XmlNamespaceManager;
+import org.ovirt.engine.core.utils.ovf.xml.XmlNode;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+/**
+ * <p> Benchmarks reading an OVF with {@link XmlDocument}, the way the OVF readers do it: the devices are selected from
+ * the document and their properties are looked up one by one.</p>
+ * <p> The <b>xpath</b> benchmark does the same lookups by creating an XPath factory for each of them, which is how
+ * {@link XmlDocument} used to evaluate them, as a baseline.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OvfXmlBenchmark {
+
+    private static final String OVF_URI = "http://schemas.dmtf.org/ovf/envelope/1/";
+    private static final String RASD_URI =
+            "http://schemas.dmtf.org/wbem/wscim/1/cim-schema/2/CIM_ResourceAllocationSettingData";
+
+    private static final String[] ITEM_PROPERTIES = {
+            "rasd:InstanceId", "rasd:ResourceType", "rasd:Caption", "rasd:HostResource", "rasd:Parent",
+            "rasd:Template", "rasd:ApplicationList", "rasd:StorageId", "rasd:StoragePoolId", "rasd:CreationDate",
+            "rasd:LastModified", "rasd:last_modified_date", "BootOrder", "IsReadOnly", "Alias" };
+
+    @Benchmark
+    public void xmlDocument(BenchmarkState state, Blackhole blackhole) throws Exception {
+        XmlDocument document = new XmlDocument(state.ovf);
+        blackhole.consume(document.selectSingleNode("//*/Content/Name"));
+        for (XmlNode item : document.selectNodes("//*/Content/Section/Item")) {
+            for (String property : ITEM_PROPERTIES) {
+                blackhole.consume(item.selectSingleNode(property, state.xmlns));
+            }
+        }
+        for (XmlNode disk : document.selectNodes("//*/Section/Disk")) {
+            blackhole.consume(disk);
+        }
+    }
+
+    @Benchmark
+    public void xpath(BenchmarkState state, Blackhole blackhole) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(state.ovf)));
+        blackhole.consume(newXPath(state).evaluate("//*/Content/Name", document, XPathConstants.NODE));
+        NodeList items = (NodeList) newXPath(state).evaluate("//*/Content/Section/Item",
+                document,
+                XPathConstants.NODESET);
+        for (int i = 0; i < items.getLength(); i++) {
+            Node item = items.item(i);
+            for (String property : ITEM_PROPERTIES) {
+                blackhole.consume(newXPath(state).evaluate(property, item, XPathConstants.NODE));
+            }
+        }
+        blackhole.consume(newXPath(state).evaluate("//*/Section/Disk", document, XPathConstants.NODESET));
+    }
+
+    private static XPath newXPath(BenchmarkState state) {
+        XPath xPath = XPathFactory.newInstance().newXPath();
+        xPath.setNamespaceContext(state.xmlns);
+        return xPath;
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({"10", "100"})
+        private int disks;
+
+        private String ovf;
+        private XmlNamespaceManager xmlns;
+
+        @Setup
+        public void setup() {
+            xmlns = new XmlNamespaceManager();
+            xmlns.addNamespace("ovf", OVF_URI);
+            xmlns.addNamespace("rasd", RASD_URI);
+            ovf = createOvf(disks);
+        }
+
+        private static String createOvf(int disks) {
+            StringBuilder ovf = new StringBuilder()
+                    .append("<?xml version='1.0' encoding='UTF-8'?>")
+                    .append("<ovf:Envelope xmlns:ovf=\"").append(OVF_URI)
+                    .append("\" xmlns:rasd=\"").append(RASD_URI).append("\">")
+                    .append("<References>");
+            for (int i = 0; i < disks; i++) {
+                ovf.append("<File ovf:href=\"disk").append(i).append("\" ovf:id=\"disk").append(i).append("\"/>");
+            }
+            ovf.append("</References><Section><Info>List of Virtual Disks</Info>");
+            for (int i = 0; i < disks; i++) {
+                ovf.append("<Disk ovf:diskId=\"disk").append(i).append("\" ovf:size=\"10\"/>");
+            }
+            ovf.append("</Section><Content><Name>vm</Name><Section><Info>Hardware</Info>");
+            for (int i = 0; i < disks; i++) {
+                ovf.append("<Item><rasd:Caption>disk").append(i).append("</rasd:Caption>")
+                        .append("<rasd:InstanceId>disk").append(i).append("</rasd:InstanceId>")
+                        .append("<rasd:ResourceType>17</rasd:ResourceType>")
+                        .append("<rasd:HostResource>disk").append(i).append("</rasd:HostResource>")
+                        .append("<rasd:Parent>00000000-0000-0000-0000-000000000000</rasd:Parent>")
+                        .append("<rasd:StorageId>storage</rasd:StorageId>")
+                        .append("<rasd:CreationDate>2020/01/01 00:00:00</rasd:CreationDate>")
+                        .append("<BootOrder>").append(i).append("</BootOrder>")
+                        .append("<IsReadOnly>false</IsReadOnly>")
+                        .append("</Item>");
+            }
+            return ovf.append("</Section></Content></ovf:Envelope>").toString();
+        }
+    }
+}
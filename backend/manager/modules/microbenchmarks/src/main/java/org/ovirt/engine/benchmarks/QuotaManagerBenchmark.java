@@ -0,0 +1,155 @@
+package org.ovirt.engine.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ovirt.engine.core.bll.CommandBase;
+import org.ovirt.engine.core.bll.context.CommandContext;
+import org.ovirt.engine.core.bll.quota.QuotaClusterConsumptionParameter;
+import org.ovirt.engine.core.bll.quota.QuotaConsumptionParameter;
+import org.ovirt.engine.core.bll.quota.QuotaManager;
+import org.ovirt.engine.core.bll.utils.PermissionSubject;
+import org.ovirt.engine.core.common.action.ActionParametersBase;
+import org.ovirt.engine.core.common.businessentities.Quota;
+import org.ovirt.engine.core.common.businessentities.QuotaCluster;
+import org.ovirt.engine.core.common.businessentities.QuotaEnforcementTypeEnum;
+import org.ovirt.engine.core.common.businessentities.StoragePool;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.QuotaDao;
+
+/**
+ * <p> Benchmarks concurrent consumption of cluster quota by many threads through the {@link QuotaManager}.</p>
+ * <p> Every invocation consumes cpu and memory of a quota and releases it back, like a VM which is run and stopped.
+ * The threads are spread over <b>numberOfQuotas</b> quotas, so with a single quota all of them consume from the
+ * same quota limit.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QuotaManagerBenchmark {
+
+    private static final Guid CLUSTER_ID = Guid.newGuid();
+
+    @Benchmark
+    @Threads(16)
+    public boolean consumeAndRelease(QuotaManagerState quotaManagerState, CommandState commandState) {
+        QuotaManager quotaManager = quotaManagerState.quotaManager;
+        return quotaManager.consume(commandState.command, commandState.consumeParameters)
+                & quotaManager.consume(commandState.command, commandState.releaseParameters);
+    }
+
+    @State(Scope.Benchmark)
+    public static class QuotaManagerState {
+
+        @Param({"1", "16"})
+        private int numberOfQuotas;
+
+        private final StoragePool storagePool = new StoragePool();
+        private final List<Guid> quotaIds = new ArrayList<>();
+        private final AtomicInteger threadCount = new AtomicInteger();
+        private QuotaManager quotaManager;
+
+        @Setup
+        public void setup() {
+            storagePool.setId(Guid.newGuid());
+            storagePool.setQuotaEnforcementType(QuotaEnforcementTypeEnum.HARD_ENFORCEMENT);
+
+            Map<Guid, Quota> quotas = new ConcurrentHashMap<>();
+            for (int i = 0; i < numberOfQuotas; i++) {
+                Quota quota = createQuota(i == 0);
+                quotas.put(quota.getId(), quota);
+                quotaIds.add(quota.getId());
+            }
+
+            QuotaDao quotaDao = (QuotaDao) Proxy.newProxyInstance(QuotaDao.class.getClassLoader(),
+                    new Class<?>[] { QuotaDao.class },
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getById":
+                                return quotas.get(args[0]);
+                            case "getDefaultQuotaForStoragePool":
+                                return quotas.get(quotaIds.get(0));
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+
+            quotaManager = new QuotaManager() {
+                @Override
+                protected QuotaDao getQuotaDao() {
+                    return quotaDao;
+                }
+            };
+        }
+
+        private Quota createQuota(boolean isDefault) {
+            Quota quota = new Quota();
+            quota.setId(Guid.newGuid());
+            quota.setStoragePoolId(storagePool.getId());
+            quota.setQuotaName("quota");
+            quota.setDefault(isDefault);
+            quota.setThresholdClusterPercentage(80);
+            quota.setGraceClusterPercentage(20);
+
+            // large enough for all the threads to consume at the same time, below the threshold
+            QuotaCluster quotaCluster = new QuotaCluster();
+            quotaCluster.setClusterId(CLUSTER_ID);
+            quotaCluster.setVirtualCpu(1000000);
+            quotaCluster.setVirtualCpuUsage(0);
+            quotaCluster.setMemSizeMB(1000000000L);
+            quotaCluster.setMemSizeMBUsage(0L);
+            quota.setGlobalQuotaCluster(quotaCluster);
+            return quota;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CommandState {
+
+        private CommandBase<?> command;
+        private List<QuotaConsumptionParameter> consumeParameters;
+        private List<QuotaConsumptionParameter> releaseParameters;
+
+        @Setup
+        public void setup(QuotaManagerState quotaManagerState) {
+            ActionParametersBase parameters = new ActionParametersBase();
+            command = new CommandBase<ActionParametersBase>(parameters,
+                    CommandContext.createContext(parameters.getSessionId())) {
+                @Override
+                protected void executeCommand() {
+                }
+
+                @Override
+                public List<PermissionSubject> getPermissionCheckSubjects() {
+                    return null;
+                }
+            };
+            command.setStoragePool(quotaManagerState.storagePool);
+
+            List<Guid> quotaIds = quotaManagerState.quotaIds;
+            Guid quotaId = quotaIds.get(quotaManagerState.threadCount.getAndIncrement() % quotaIds.size());
+            consumeParameters = Collections.singletonList(new QuotaClusterConsumptionParameter(quotaId,
+                    QuotaConsumptionParameter.QuotaAction.CONSUME, CLUSTER_ID, 4, 4096));
+            releaseParameters = Collections.singletonList(new QuotaClusterConsumptionParameter(quotaId,
+                    QuotaConsumptionParameter.QuotaAction.RELEASE, CLUSTER_ID, 4, 4096));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.ovirt.engine.core.bll.network.macpool;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.math.LongRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * <p> Benchmarks the {@link MacsStorage} backing the MAC pools.</p>
+ * <p> <b>bulkAllocateAndFree</b> allocates and frees back a bulk of MACs from a pool which is mostly used,
+ * <b>rebuild</b> creates the storage and registers all the MACs used in the system, like it is done when the pool is
+ * initialized on engine startup.</p>
+ * <p> The benchmark lives in the package of {@link MacsStorage} since the storage is not public.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MacsStorageBenchmark {
+
+    private static final long RANGE_START = 0x001a4a000000L;
+    private static final int RANGE_SIZE = 1 << 18;
+    private static final int BULK_SIZE = 1000;
+
+    @Benchmark
+    public void bulkAllocateAndFree(AllocationState state, Blackhole blackhole) {
+        List<Long> macs = state.macsStorage.allocateAvailableMacs(BULK_SIZE);
+        for (Long mac : macs) {
+            state.macsStorage.freeMac(mac);
+        }
+        blackhole.consume(macs);
+    }
+
+    @Benchmark
+    public MacsStorage rebuild(RebuildState state) {
+        MacsStorage macsStorage = createMacsStorage();
+        for (long mac : state.usedMacs) {
+            macsStorage.useMac(mac);
+        }
+        return macsStorage;
+    }
+
+    private static MacsStorage createMacsStorage() {
+        MacsStorage macsStorage = new MacsStorage(true);
+        macsStorage.addRange(new Range(new LongRange(RANGE_START, RANGE_START + RANGE_SIZE - 1)));
+        return macsStorage;
+    }
+
+    /**
+     * MACs used by the vNICs in the system, a tenth of them are custom MACs outside of the range of the pool.
+     */
+    private static long[] createUsedMacs(int numberOfMacs) {
+        Random random = new Random(0);
+        long[] macs = new long[numberOfMacs];
+        for (int i = 0; i < numberOfMacs; i++) {
+            macs[i] = i % 10 == 0
+                    ? RANGE_START + RANGE_SIZE + random.nextInt(Integer.MAX_VALUE)
+                    : RANGE_START + random.nextInt(RANGE_SIZE);
+        }
+        return macs;
+    }
+
+    @State(Scope.Thread)
+    public static class AllocationState {
+
+        @Param({"100000", "200000"})
+        private int numberOfUsedMacs;
+
+        private MacsStorage macsStorage;
+
+        @Setup
+        public void setup() {
+            macsStorage = createMacsStorage();
+            for (long mac : createUsedMacs(numberOfUsedMacs)) {
+                macsStorage.useMac(mac);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RebuildState {
+
+        @Param({"100000", "200000"})
+        private int numberOfUsedMacs;
+
+        private long[] usedMacs;
+
+        @Setup
+        public void setup() {
+            usedMacs = createUsedMacs(numberOfUsedMacs);
+        }
+    }
+}
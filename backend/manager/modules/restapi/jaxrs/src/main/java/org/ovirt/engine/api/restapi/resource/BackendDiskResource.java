@@ -187,6 +187,13 @@ public class BackendDiskResource
         return performGet(QueryType.GetDiskAndSnapshotsByDiskId, new IdQueryParameters(guid));
     }
 
+    /**
+     * Maps the disk the same way {@link #get()} does, for disks which were already loaded.
+     */
+    Disk mapDisk(org.ovirt.engine.core.common.businessentities.storage.Disk entity) {
+        return addLinks(populate(map(entity, null), entity));
+    }
+
     @Override
     protected Disk doPopulate(Disk model, org.ovirt.engine.core.common.businessentities.storage.Disk entity) {
         // Populate the references to the VMs that are using this disk:
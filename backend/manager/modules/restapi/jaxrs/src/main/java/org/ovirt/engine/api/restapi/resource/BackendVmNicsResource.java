@@ -28,11 +28,15 @@ public class BackendVmNicsResource extends AbstractBackendNicsResource implement
 
     @Override
     public Nics list() {
-        Nics nics = new Nics();
         List<VmNetworkInterface> entities = getBackendCollection(
             QueryType.GetVmInterfacesByVmId,
             new IdQueryParameters(vmId)
         );
+        return mapCollection(entities);
+    }
+
+    Nics mapCollection(List<VmNetworkInterface> entities) {
+        Nics nics = new Nics();
         for (VmNetworkInterface entity : entities) {
             Nic nic = populate(map(entity), entity);
             nics.getNics().add(addLinks(nic));
@@ -17,6 +17,7 @@ limitations under the License.
 package org.ovirt.engine.api.restapi.resource;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -32,6 +33,7 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 
 import org.ovirt.engine.api.common.util.DetailHelper;
+import org.ovirt.engine.api.model.ActionableResource;
 import org.ovirt.engine.api.model.Configuration;
 import org.ovirt.engine.api.model.ConfigurationType;
 import org.ovirt.engine.api.model.Disk;
@@ -51,6 +53,7 @@ import org.ovirt.engine.api.model.Vms;
 import org.ovirt.engine.api.resource.VmResource;
 import org.ovirt.engine.api.resource.VmsResource;
 import org.ovirt.engine.api.restapi.logging.Messages;
+import org.ovirt.engine.api.restapi.resource.utils.LinksTreeNode;
 import org.ovirt.engine.api.restapi.types.DiskMapper;
 import org.ovirt.engine.api.restapi.types.RngDeviceMapper;
 import org.ovirt.engine.api.restapi.types.VmMapper;
@@ -76,8 +79,10 @@ import org.ovirt.engine.core.common.businessentities.VmPayload;
 import org.ovirt.engine.core.common.businessentities.VmRngDevice;
 import org.ovirt.engine.core.common.businessentities.VmStatic;
 import org.ovirt.engine.core.common.businessentities.VmTemplate;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
 import org.ovirt.engine.core.common.businessentities.storage.BaseDisk;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
+import org.ovirt.engine.core.common.businessentities.storage.DiskVmElement;
 import org.ovirt.engine.core.common.interfaces.SearchType;
 import org.ovirt.engine.core.common.osinfo.OsRepository;
 import org.ovirt.engine.core.common.queries.GetFilteredAndSortedParameters;
@@ -645,6 +650,77 @@ public class BackendVmsResource extends
         return collection;
     }
 
+    /**
+     * Follows the disk attachments, their disks and the nics of all the VMs of the collection using a single query for
+     * each link, instead of a query per VM or per disk attachment.
+     */
+    @Override
+    public void follow(ActionableResource entity, LinksTreeNode linksTree) {
+        if (!(entity instanceof Vms)) {
+            return;
+        }
+        List<Vm> vms = ((Vms) entity).getVms();
+        if (vms.isEmpty()) {
+            return;
+        }
+        List<Guid> vmIds = vms.stream().map(vm -> asGuid(vm.getId())).collect(Collectors.toList());
+        if (linksTree.pathExists("disk_attachments")) {
+            Map<Guid, List<DiskVmElement>> diskVmElements = getBackendCollection(DiskVmElement.class,
+                    QueryType.GetDiskVmElementsByVmIds,
+                    new IdsQueryParameters(vmIds)).stream().collect(Collectors.groupingBy(DiskVmElement::getVmId));
+            for (Vm vm : vms) {
+                Guid vmId = asGuid(vm.getId());
+                BackendDiskAttachmentsResource resource = inject(new BackendDiskAttachmentsResource(vmId));
+                vm.setDiskAttachments(resource.mapCollection(
+                        diskVmElements.getOrDefault(vmId, Collections.emptyList())));
+            }
+            linksTree.markAsFollowed("disk_attachments");
+            if (linksTree.pathExists("disk_attachments.disk")) {
+                followDisks(vms);
+                linksTree.markAsFollowed("disk_attachments.disk");
+            }
+        }
+        if (linksTree.pathExists("nics")) {
+            Map<Guid, List<VmNetworkInterface>> interfaces = getBackendCollection(VmNetworkInterface.class,
+                    QueryType.GetVmInterfacesByVmIds,
+                    new IdsQueryParameters(vmIds)).stream().collect(Collectors.groupingBy(VmNetworkInterface::getVmId));
+            for (Vm vm : vms) {
+                Guid vmId = asGuid(vm.getId());
+                BackendVmNicsResource resource = inject(new BackendVmNicsResource(vmId));
+                vm.setNics(resource.mapCollection(interfaces.getOrDefault(vmId, Collections.emptyList())));
+            }
+            linksTree.markAsFollowed("nics");
+        }
+    }
+
+    private void followDisks(List<Vm> vms) {
+        List<DiskAttachment> attachments = vms.stream()
+                .filter(Vm::isSetDiskAttachments)
+                .flatMap(vm -> vm.getDiskAttachments().getDiskAttachments().stream())
+                .filter(DiskAttachment::isSetDisk)
+                .collect(Collectors.toList());
+        if (attachments.isEmpty()) {
+            return;
+        }
+        List<Guid> diskIds = attachments.stream()
+                .map(attachment -> asGuid(attachment.getDisk().getId()))
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Guid, org.ovirt.engine.core.common.businessentities.storage.Disk> disks = getBackendCollection(
+                org.ovirt.engine.core.common.businessentities.storage.Disk.class,
+                QueryType.GetDisksAndSnapshotsByDiskIds,
+                new IdsQueryParameters(diskIds)).stream()
+                .collect(Collectors.toMap(BaseDisk::getId, Function.identity()));
+        for (DiskAttachment attachment : attachments) {
+            org.ovirt.engine.core.common.businessentities.storage.Disk disk =
+                    disks.get(asGuid(attachment.getDisk().getId()));
+            if (disk != null) {
+                BackendDiskResource resource = inject(new BackendDiskResource(disk.getId().toString()));
+                attachment.setDisk(resource.mapDisk(disk));
+            }
+        }
+    }
+
     protected InstanceType lookupInstance(Template template) {
         return getEntity(InstanceType.class,
                 QueryType.GetInstanceType,
@@ -120,7 +120,7 @@ public class LinksTreeNode {
 
     private boolean pathExists(LinksTreeNode node, Iterator<String> iterator) {
         while(iterator.hasNext()) {
-            Optional<LinksTreeNode> child = getChild(iterator.next());
+            Optional<LinksTreeNode> child = node.getChild(iterator.next());
             if (!child.isPresent()) {
                 return false;
             } else {
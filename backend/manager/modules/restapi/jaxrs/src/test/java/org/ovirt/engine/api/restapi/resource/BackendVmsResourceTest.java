@@ -7,8 +7,10 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
@@ -41,6 +43,9 @@ import org.ovirt.engine.api.model.StorageDomain;
 import org.ovirt.engine.api.model.Template;
 import org.ovirt.engine.api.model.Vm;
 import org.ovirt.engine.api.model.VmPlacementPolicy;
+import org.ovirt.engine.api.model.Vms;
+import org.ovirt.engine.api.restapi.resource.utils.LinkFollower;
+import org.ovirt.engine.api.restapi.resource.utils.LinksTreeNode;
 import org.ovirt.engine.api.restapi.utils.OsTypeMockUtils;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.AddVmFromSnapshotParameters;
@@ -62,7 +67,13 @@ import org.ovirt.engine.core.common.businessentities.VmInit;
 import org.ovirt.engine.core.common.businessentities.VmPayload;
 import org.ovirt.engine.core.common.businessentities.VmStatistics;
 import org.ovirt.engine.core.common.businessentities.VmType;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
+import org.ovirt.engine.core.common.businessentities.storage.DiskVmElement;
+import org.ovirt.engine.core.common.businessentities.storage.ImageStatus;
+import org.ovirt.engine.core.common.businessentities.storage.PropagateErrors;
+import org.ovirt.engine.core.common.businessentities.storage.VolumeFormat;
+import org.ovirt.engine.core.common.businessentities.storage.VolumeType;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.interfaces.SearchType;
 import org.ovirt.engine.core.common.osinfo.OsRepository;
@@ -1258,6 +1269,70 @@ public class BackendVmsResourceTest
         verifyCollection(getCollection());
     }
 
+    @Test
+    public void testFollowRunsSingleQueryPerLink() {
+        collection.setUriInfo(setUpBasicUriExpectations());
+        List<Guid> vmIds = Arrays.asList(GUIDS[0], GUIDS[1]);
+        setUpEntityQueryExpectations(QueryType.GetDiskVmElementsByVmIds,
+                IdsQueryParameters.class,
+                new String[] { "Ids" },
+                new Object[] { vmIds },
+                Arrays.asList(new DiskVmElement(GUIDS[2], GUIDS[0]), new DiskVmElement(GUIDS[3], GUIDS[1])));
+        setUpEntityQueryExpectations(QueryType.GetDisksAndSnapshotsByDiskIds,
+                IdsQueryParameters.class,
+                new String[] { "Ids" },
+                new Object[] { Arrays.asList(GUIDS[2], GUIDS[3]) },
+                Arrays.asList(getDiskEntity(2), getDiskEntity(3)));
+        setUpEntityQueryExpectations(QueryType.GetVmInterfacesByVmIds,
+                IdsQueryParameters.class,
+                new String[] { "Ids" },
+                new Object[] { vmIds },
+                Arrays.asList(getNicEntity(0, GUIDS[0]), getNicEntity(1, GUIDS[1])));
+        Vms vms = new Vms();
+        for (Guid vmId : vmIds) {
+            Vm vm = new Vm();
+            vm.setId(vmId.toString());
+            vms.getVms().add(vm);
+        }
+        LinksTreeNode linksTree = new LinkFollower().createLinksTree(Vms.class, "disk_attachments.disk,nics");
+
+        collection.follow(vms, linksTree);
+
+        verify(backend).runQuery(eq(QueryType.GetDiskVmElementsByVmIds), any());
+        verify(backend).runQuery(eq(QueryType.GetDisksAndSnapshotsByDiskIds), any());
+        verify(backend).runQuery(eq(QueryType.GetVmInterfacesByVmIds), any());
+        for (int i = 0; i < vmIds.size(); i++) {
+            Vm vm = vms.getVms().get(i);
+            assertEquals(1, vm.getDiskAttachments().getDiskAttachments().size());
+            Disk disk = vm.getDiskAttachments().getDiskAttachments().get(0).getDisk();
+            assertEquals(GUIDS[i + 2].toString(), disk.getId());
+            assertNotNull(disk.getFormat());
+            assertEquals(1, vm.getNics().getNics().size());
+            assertEquals(GUIDS[i].toString(), vm.getNics().getNics().get(0).getId());
+        }
+        assertTrue(linksTree.getChild("disk_attachments").get().isFollowed());
+        assertTrue(linksTree.getChild("disk_attachments").get().getChild("disk").get().isFollowed());
+        assertTrue(linksTree.getChild("nics").get().isFollowed());
+    }
+
+    private org.ovirt.engine.core.common.businessentities.storage.Disk getDiskEntity(int index) {
+        DiskImage entity = new DiskImage();
+        entity.setId(GUIDS[index]);
+        entity.setVolumeFormat(VolumeFormat.RAW);
+        entity.setImageStatus(ImageStatus.OK);
+        entity.setVolumeType(VolumeType.Sparse);
+        entity.setPropagateErrors(PropagateErrors.On);
+        return entity;
+    }
+
+    private VmNetworkInterface getNicEntity(int index, Guid vmId) {
+        VmNetworkInterface entity = new VmNetworkInterface();
+        entity.setId(GUIDS[index]);
+        entity.setVmId(vmId);
+        entity.setName(NAMES[index]);
+        return entity;
+    }
+
     private void doTestBadAdd(boolean valid, boolean success, String detail) {
         setUpEntityQueryExpectations(QueryType.GetVmTemplate,
                                      GetVmTemplateParameters.class,
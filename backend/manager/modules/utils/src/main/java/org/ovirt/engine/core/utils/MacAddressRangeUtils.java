@@ -19,6 +19,10 @@ public class MacAddressRangeUtils {
 
     private static final int HEX_RADIX = 16;
 
+    private static final int MAC_ADDRESS_BYTES = 6;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     public static final long MAC_ADDRESS_MULTICAST_BIT = 0x010000000000L;
 
     private MacAddressRangeUtils() {
@@ -106,18 +110,18 @@ public class MacAddressRangeUtils {
     }
 
     public static String macToString(long macAddress) {
-        String value = String.format("%012x", macAddress);
-        char[] chars = value.toCharArray();
-
-        final StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append(chars[0]).append(chars[1]);
-        for (int pos = 2; pos < value.length(); pos += 2) {
-            stringBuilder.append(":")
-                    .append(chars[pos])
-                    .append(chars[pos + 1]);
+        final char[] chars = new char[MAC_ADDRESS_BYTES * 3 - 1];
+        for (int i = 0; i < MAC_ADDRESS_BYTES; i++) {
+            int octet = (int) (macAddress >>> (8 * (MAC_ADDRESS_BYTES - 1 - i))) & 0xff;
+            int pos = i * 3;
+            if (i > 0) {
+                chars[pos - 1] = ':';
+            }
+            chars[pos] = HEX_DIGITS[octet >>> 4];
+            chars[pos + 1] = HEX_DIGITS[octet & 0xf];
         }
 
-        return stringBuilder.toString();
+        return new String(chars);
     }
 
     public static long macToLong(String mac) {
@@ -1,24 +1,32 @@
 package org.ovirt.engine.core.utils.ovf.xml;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
+import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 public class XmlNodeList implements Iterable<XmlNode> {
 
-    private NodeList nodeList;
+    private List<Node> nodes;
 
     public XmlNodeList(NodeList nodeList) {
-        this.nodeList = nodeList;
+        nodes = new ArrayList<>(nodeList.getLength());
+        for (int i = 0; i < nodeList.getLength(); i++) {
+            nodes.add(nodeList.item(i));
+        }
+    }
+
+    public XmlNodeList(List<Node> nodes) {
+        this.nodes = nodes;
     }
 
     @Override
     public Iterator<XmlNode> iterator() {
-        List<XmlNode> list = new LinkedList<>();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            list.add(new XmlNode(nodeList.item(i)));
+        List<XmlNode> list = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            list.add(new XmlNode(node));
         }
         return list.iterator();
     }
@@ -0,0 +1,206 @@
+package org.ovirt.engine.core.utils.ovf.xml;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Evaluates the XPath expressions used to read the OVFs. The simple location paths, made of element names separated
+ * by '/' and optionally starting with '//' (e.g. <code>rasd:InstanceId</code>, <code>Section/Disk</code> or
+ * <code>//*&#47;Content</code>), are evaluated by walking the DOM directly, which is much cheaper than creating an
+ * XPath factory and compiling the expression for each of the many lookups done while reading an OVF. Other
+ * expressions, like ones with predicates, are evaluated by XPath.
+ */
+final class XmlPath {
+
+    private static final Pattern SIMPLE_PATH = Pattern.compile(
+            "(//)?(\\*|[A-Za-z_][\\w.\\-]*(:[A-Za-z_][\\w.\\-]*)?)(/(\\*|[A-Za-z_][\\w.\\-]*(:[A-Za-z_][\\w.\\-]*)?))*");
+
+    private static final String ANY = "*";
+
+    private static final int MAX_CACHED_PATHS = 1000;
+
+    private static final Map<String, XmlPath> paths = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<XPathFactory> xPathFactory = ThreadLocal.withInitial(XPathFactory::newInstance);
+
+    private final boolean absolute;
+    private final String[] prefixes;
+    private final String[] localNames;
+
+    private XmlPath(boolean absolute, String[] prefixes, String[] localNames) {
+        this.absolute = absolute;
+        this.prefixes = prefixes;
+        this.localNames = localNames;
+    }
+
+    public static Node selectSingleNode(Node context, String expression, NamespaceContext namespaceContext) {
+        try {
+            XmlPath path = parse(expression);
+            if (path != null && path.canEvaluate(context, namespaceContext)) {
+                List<Node> result = path.evaluate(context, namespaceContext, true);
+                return result.isEmpty() ? null : result.get(0);
+            }
+            return (Node) newXPath(namespaceContext).evaluate(expression, context, XPathConstants.NODE);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to evaluate xpath: " + expression, e);
+        }
+    }
+
+    public static List<Node> selectNodes(Node context, String expression, NamespaceContext namespaceContext) {
+        try {
+            XmlPath path = parse(expression);
+            if (path != null && path.canEvaluate(context, namespaceContext)) {
+                return path.evaluate(context, namespaceContext, false);
+            }
+            NodeList nodeList =
+                    (NodeList) newXPath(namespaceContext).evaluate(expression, context, XPathConstants.NODESET);
+            List<Node> result = new ArrayList<>(nodeList.getLength());
+            for (int i = 0; i < nodeList.getLength(); i++) {
+                result.add(nodeList.item(i));
+            }
+            return result;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to evaluate xpath: " + expression, e);
+        }
+    }
+
+    private static XPath newXPath(NamespaceContext namespaceContext) {
+        XPath xPath = xPathFactory.get().newXPath();
+        if (namespaceContext != null) {
+            xPath.setNamespaceContext(namespaceContext);
+        }
+        return xPath;
+    }
+
+    /**
+     * @return the parsed path, <code>null</code> if the expression is not a simple location path
+     */
+    static XmlPath parse(String expression) {
+        XmlPath path = paths.get(expression);
+        if (path != null) {
+            return path;
+        }
+        if (!SIMPLE_PATH.matcher(expression).matches()) {
+            return null;
+        }
+
+        boolean absolute = expression.startsWith("//");
+        String[] steps = (absolute ? expression.substring(2) : expression).split("/");
+        String[] prefixes = new String[steps.length];
+        String[] localNames = new String[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            int colon = steps[i].indexOf(':');
+            prefixes[i] = colon < 0 ? null : steps[i].substring(0, colon);
+            localNames[i] = colon < 0 ? steps[i] : steps[i].substring(colon + 1);
+        }
+        path = new XmlPath(absolute, prefixes, localNames);
+        if (paths.size() < MAX_CACHED_PATHS) {
+            paths.put(expression, path);
+        }
+        return path;
+    }
+
+    /**
+     * The path is evaluated directly only when all its prefixes are bound and the document was parsed with namespaces
+     * awareness, otherwise XPath is left to handle (or to fail) the expression.
+     */
+    private boolean canEvaluate(Node context, NamespaceContext namespaceContext) {
+        for (String prefix : prefixes) {
+            if (prefix != null) {
+                if (namespaceContext == null) {
+                    return false;
+                }
+                String uri = namespaceContext.getNamespaceURI(prefix);
+                if (uri == null || uri.isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        Document document =
+                context.getNodeType() == Node.DOCUMENT_NODE ? (Document) context : context.getOwnerDocument();
+        return document != null
+                && (document.getDocumentElement() == null || document.getDocumentElement().getLocalName() != null);
+    }
+
+    List<Node> evaluate(Node context, NamespaceContext namespaceContext, boolean first) {
+        String[] namespaceUris = new String[prefixes.length];
+        for (int i = 0; i < prefixes.length; i++) {
+            namespaceUris[i] = prefixes[i] == null ? null : namespaceContext.getNamespaceURI(prefixes[i]);
+        }
+
+        List<Node> result = first ? new ArrayList<>(1) : new ArrayList<>();
+        if (absolute) {
+            Node root = context.getNodeType() == Node.DOCUMENT_NODE ? context : context.getOwnerDocument();
+            collect(root, null, Integer.MAX_VALUE, namespaceUris, result, first);
+        } else {
+            collect(context, context, localNames.length, namespaceUris, result, first);
+        }
+        return result;
+    }
+
+    /**
+     * Visits the elements below the given node in document order, so the result is ordered like XPath orders it, and
+     * adds the ones which are the last step of a chain of elements matching the path.
+     */
+    private boolean collect(Node node,
+            Node context,
+            int depth,
+            String[] namespaceUris,
+            List<Node> result,
+            boolean first) {
+        if (depth == 0) {
+            return false;
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+            if (matchesChain(child, context, namespaceUris)) {
+                result.add(child);
+                if (first) {
+                    return true;
+                }
+            }
+            if (collect(child, context, depth - 1, namespaceUris, result, first)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesChain(Node element, Node context, String[] namespaceUris) {
+        Node current = element;
+        for (int step = localNames.length - 1; step >= 0; step--) {
+            if (current == null || current.getNodeType() != Node.ELEMENT_NODE
+                    || !matches(current, step, namespaceUris)) {
+                return false;
+            }
+            current = current.getParentNode();
+        }
+        // a relative path starts at the children of the context node
+        return context == null || current == context;
+    }
+
+    private boolean matches(Node element, int step, String[] namespaceUris) {
+        if (ANY.equals(localNames[step])) {
+            return true;
+        }
+        if (!localNames[step].equals(element.getLocalName())) {
+            return false;
+        }
+        String namespaceUri = element.getNamespaceURI();
+        return namespaceUris[step] == null ? namespaceUri == null : namespaceUris[step].equals(namespaceUri);
+    }
+}
@@ -32,30 +32,33 @@ import org.ovirt.engine.core.utils.Serializer;
 public class JsonObjectSerializer implements Serializer {
 
     private static final ObjectMapper unformattedMapper = new ObjectMapper();
-    private static final ObjectMapper formattedMapper;
-    static {
-        formattedMapper = new ObjectMapper();
-        formattedMapper.getSerializationConfig().addMixInAnnotations(Guid.class, JsonGuidMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(ActionParametersBase.class,
+    private static final ObjectMapper formattedMapper = createMapper(true);
+    private static final ObjectMapper compactMapper = createMapper(false);
+
+    private static ObjectMapper createMapper(boolean indent) {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.getSerializationConfig().addMixInAnnotations(Guid.class, JsonGuidMixIn.class);
+        mapper.getSerializationConfig().addMixInAnnotations(ActionParametersBase.class,
                 JsonActionParametersBaseMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(Queryable.class, JsonQueryableMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(VM.class, JsonVmMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(AddVmTemplateParameters.class,
+        mapper.getSerializationConfig().addMixInAnnotations(Queryable.class, JsonQueryableMixIn.class);
+        mapper.getSerializationConfig().addMixInAnnotations(VM.class, JsonVmMixIn.class);
+        mapper.getSerializationConfig().addMixInAnnotations(AddVmTemplateParameters.class,
                 JsonAddVmTemplateParametersMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(VmManagementParametersBase.class,
+        mapper.getSerializationConfig().addMixInAnnotations(VmManagementParametersBase.class,
                 JsonVmManagementParametersBaseMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(VmBase.class, JsonVmBaseMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(VmStatic.class, JsonVmStaticMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(VmPayload.class, JsonVmPayloadMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(RunVmParams.class, JsonRunVmParamsMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(EngineFault.class, JsonEngineFaultMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(Collection.class, JsonCollectionMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(Map.class, JsonMapMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(Cluster.class, JsonClusterMixIn.class);
-        formattedMapper.getSerializationConfig().addMixInAnnotations(VdsDynamic.class, JsonVdsDynamicMixIn.class);
+        mapper.getSerializationConfig().addMixInAnnotations(VmBase.class, JsonVmBaseMixIn.class);
+        mapper.getSerializationConfig().addMixInAnnotations(VmStatic.class, JsonVmStaticMixIn.class);
+        mapper.getSerializationConfig().addMixInAnnotations(VmPayload.class, JsonVmPayloadMixIn.class);
+        mapper.getSerializationConfig().addMixInAnnotations(RunVmParams.class, JsonRunVmParamsMixIn.class);
+        mapper.getSerializationConfig().addMixInAnnotations(EngineFault.class, JsonEngineFaultMixIn.class);
+        mapper.getSerializationConfig().addMixInAnnotations(Collection.class, JsonCollectionMixIn.class);
+        mapper.getSerializationConfig().addMixInAnnotations(Map.class, JsonMapMixIn.class);
+        mapper.getSerializationConfig().addMixInAnnotations(Cluster.class, JsonClusterMixIn.class);
+        mapper.getSerializationConfig().addMixInAnnotations(VdsDynamic.class, JsonVdsDynamicMixIn.class);
 
-        formattedMapper.configure(Feature.INDENT_OUTPUT, true);
-        formattedMapper.enableDefaultTyping();
+        mapper.configure(Feature.INDENT_OUTPUT, indent);
+        mapper.enableDefaultTyping();
+        return mapper;
     }
 
     @Override
@@ -67,6 +70,22 @@ public class JsonObjectSerializer implements Serializer {
         }
     }
 
+    /**
+     * Serializes the payload like {@link #serialize(Object)}, without indentation. The result is read by the same
+     * {@link JsonObjectDeserializer}, it is meant for payloads which are written often, where the indentation only
+     * makes them larger.
+     *
+     * @param payload
+     *            - The payload to be serialized.
+     * @return The serialized payload, <code>null</code> if the payload is <code>null</code>.
+     */
+    public String serializeCompact(Object payload) throws SerializationException {
+        if (payload == null) {
+            return null;
+        }
+        return writeJsonAsString(payload, compactMapper);
+    }
+
     /**
      * Use the ObjectMapper to parse the payload to String.
      *
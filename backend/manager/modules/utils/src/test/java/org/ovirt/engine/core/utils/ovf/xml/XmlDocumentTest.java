@@ -0,0 +1,160 @@
+package org.ovirt.engine.core.utils.ovf.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+public class XmlDocumentTest {
+
+    private static final String OVF_URI = "http://schemas.dmtf.org/ovf/envelope/1/";
+    private static final String RASD_URI =
+            "http://schemas.dmtf.org/wbem/wscim/1/cim-schema/2/CIM_ResourceAllocationSettingData";
+
+    private static final String OVF = "<?xml version='1.0' encoding='UTF-8'?>"
+            + "<ovf:Envelope xmlns:ovf=\"" + OVF_URI + "\" xmlns:rasd=\"" + RASD_URI + "\">"
+            + "<References><File ovf:href=\"disk1\"/><File ovf:href=\"disk2\"/></References>"
+            + "<Section><Disk ovf:diskId=\"disk1\"/><Disk ovf:diskId=\"disk2\"/></Section>"
+            + "<Content>"
+            + "<Name>vm</Name>"
+            + "<Section><Item><rasd:Name>cpu</rasd:Name><rasd:ResourceType>3</rasd:ResourceType></Item>"
+            + "<Item><rasd:Name>disk</rasd:Name><rasd:ResourceType>17</rasd:ResourceType></Item></Section>"
+            + "<Section><Snapshot><Content><Name>snapshot</Name></Content></Snapshot></Section>"
+            + "</Content>"
+            + "</ovf:Envelope>";
+
+    private XmlDocument document;
+    private Document expectedDocument;
+    private XmlNamespaceManager xmlns;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        document = new XmlDocument(OVF);
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        expectedDocument = factory.newDocumentBuilder().parse(new InputSource(new StringReader(OVF)));
+        xmlns = new XmlNamespaceManager();
+        xmlns.addNamespace("ovf", OVF_URI);
+        xmlns.addNamespace("rasd", RASD_URI);
+    }
+
+    @Test
+    public void testAbsolutePaths() throws Exception {
+        assertSameAsXPath("//*/Content");
+        assertSameAsXPath("//Content/Name");
+        assertSameAsXPath("//Name");
+        assertSameAsXPath("//*/Section/Disk");
+        assertSameAsXPath("//*/Item");
+        assertSameAsXPath("//ovf:Envelope/References/File");
+    }
+
+    @Test
+    public void testRelativePaths() throws Exception {
+        assertSameAsXPath("ovf:Envelope/Content/Section");
+        assertSameAsXPath("ovf:Envelope/*");
+        assertSameAsXPath("*");
+    }
+
+    @Test
+    public void testPathsWithPredicates() throws Exception {
+        assertSameAsXPath("//*/Item[rasd:ResourceType=17]");
+        assertSameAsXPath("//*/Section/Disk[@ovf:diskId='disk2']");
+    }
+
+    @Test
+    public void testUnprefixedNameDoesNotMatchNamespacedElement() {
+        assertNull(document.selectSingleNode("//Envelope", xmlns));
+        assertNotNull(document.selectSingleNode("//ovf:Envelope", xmlns));
+    }
+
+    @Test
+    public void testPathsRelativeToNode() throws Exception {
+        XmlNode content = document.selectSingleNode("//*/Content");
+        Node expectedContent = (Node) newXPath().evaluate("//*/Content", expectedDocument, XPathConstants.NODE);
+
+        assertSameAsXPath(content, expectedContent, "Name");
+        assertSameAsXPath(content, expectedContent, "Section/Item");
+        assertSameAsXPath(content, expectedContent, "Section/Item/rasd:Name");
+        assertSameAsXPath(content, expectedContent, "Section/Snapshot/Content/Name");
+        assertSameAsXPath(content, expectedContent, "//Name");
+        assertEquals("cpu", content.selectSingleNode("Section/Item/rasd:Name", xmlns).innerText);
+    }
+
+    @Test
+    public void testMissingNode() {
+        assertNull(document.selectSingleNode("//*/Missing"));
+        assertEquals(0, toPaths(document.selectNodes("//*/Content/Missing")).size());
+    }
+
+    @Test
+    public void testInvalidExpression() {
+        assertThrows(RuntimeException.class, () -> document.selectNodes("//*/Item["));
+    }
+
+    private void assertSameAsXPath(String expression) throws Exception {
+        NodeList expected = (NodeList) newXPath().evaluate(expression, expectedDocument, XPathConstants.NODESET);
+        assertEquals(toPaths(expected), toPaths(document.selectNodes(expression, xmlns)), expression);
+        XmlNode first = document.selectSingleNode(expression, xmlns);
+        assertEquals(expected.getLength() == 0 ? null : toPath(expected.item(0)),
+                first == null ? null : toPath(first.node),
+                expression);
+    }
+
+    private void assertSameAsXPath(XmlNode context, Node expectedContext, String expression) throws Exception {
+        NodeList expected = (NodeList) newXPath().evaluate(expression, expectedContext, XPathConstants.NODESET);
+        assertEquals(toPaths(expected), toPaths(context.selectNodes(expression, xmlns)), expression);
+    }
+
+    private XPath newXPath() {
+        XPath xPath = XPathFactory.newInstance().newXPath();
+        xPath.setNamespaceContext(xmlns);
+        return xPath;
+    }
+
+    private static List<String> toPaths(NodeList nodes) {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            paths.add(toPath(nodes.item(i)));
+        }
+        return paths;
+    }
+
+    private static List<String> toPaths(XmlNodeList nodes) {
+        List<String> paths = new ArrayList<>();
+        for (XmlNode node : nodes) {
+            paths.add(toPath(node.node));
+        }
+        return paths;
+    }
+
+    /**
+     * Identifies the node by its position in the document, so nodes of the two parsed documents can be compared.
+     */
+    private static String toPath(Node node) {
+        StringBuilder path = new StringBuilder();
+        for (Node current = node; current.getParentNode() != null; current = current.getParentNode()) {
+            int index = 0;
+            for (Node sibling = current.getPreviousSibling(); sibling != null; sibling = sibling.getPreviousSibling()) {
+                index++;
+            }
+            path.insert(0, "/" + current.getNodeName() + "[" + index + "]");
+        }
+        return path.toString();
+    }
+}
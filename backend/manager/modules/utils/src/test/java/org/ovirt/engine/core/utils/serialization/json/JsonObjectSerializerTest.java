@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.utils.serialization.json;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -39,6 +40,38 @@ public class JsonObjectSerializerTest {
                 new JsonObjectSerializer().serialize(serializablePojo).replaceAll("\\s", ""));
     }
 
+    @Test
+    public void testSerializeCompact() {
+        JsonSerializablePojo serializablePojo = new JsonSerializablePojo();
+        JsonObjectSerializer serializer = new JsonObjectSerializer();
+
+        String json = serializer.serializeCompact(serializablePojo);
+        assertFalse(json.contains("\n"));
+        assertEquals(serializer.serialize(serializablePojo).replaceAll("\\s", ""), json.replaceAll("\\s", ""));
+    }
+
+    @Test
+    public void testCompactAndFormattedAreDeserializedAlike() {
+        Map<Guid, Guid> diskToImageIds = new HashMap<>();
+        diskToImageIds.put(Guid.newGuid(), Guid.newGuid());
+        CreateSnapshotForVmParameters params = new CreateSnapshotForVmParameters(
+                Guid.newGuid(),
+                "Test",
+                false,
+                new TreeSet<>(diskToImageIds.keySet()));
+        params.setDiskToImageIds(diskToImageIds);
+
+        JsonObjectSerializer serializer = new JsonObjectSerializer();
+        JsonObjectDeserializer deserializer = new JsonObjectDeserializer();
+        CreateSnapshotForVmParameters fromFormatted =
+                deserializer.deserialize(serializer.serialize(params), CreateSnapshotForVmParameters.class);
+        CreateSnapshotForVmParameters fromCompact =
+                deserializer.deserialize(serializer.serializeCompact(params), CreateSnapshotForVmParameters.class);
+        assertEquals(fromFormatted.getDiskIds(), fromCompact.getDiskIds());
+        assertEquals(fromFormatted.getDiskToImageIds(), fromCompact.getDiskToImageIds());
+        assertEquals(fromFormatted.getDescription(), fromCompact.getDescription());
+    }
+
     @Test
     public void serializeNetwork() {
         Network net = new Network();
@@ -46,6 +46,7 @@ import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogable;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogableImpl;
+import org.ovirt.engine.core.dao.VdsChangeNotifier;
 import org.ovirt.engine.core.dao.VdsDao;
 import org.ovirt.engine.core.dao.VmDynamicDao;
 import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
@@ -96,10 +97,14 @@ public class ResourceManager implements BackendService {
     @Inject
     private VdsManagerFactory vdsManagerFactory;
 
+    @Inject
+    private VdsChangeNotifier vdsChangeNotifier;
+
     @PostConstruct
     private void init() {
         log.info("Start initializing {}", getClass().getSimpleName());
         populateVdsAndVmsList();
+        vdsChangeNotifier.addListener(this::invalidateCachedVds);
 
         // Populate the VDS dictionary
         final List<VDS> allVdsList = hostDao.getAll();
@@ -112,10 +117,12 @@ public class ResourceManager implements BackendService {
 
     private void populateVdsAndVmsList() {
         final List<VmDynamic> vms = vmDynamicDao.getAll();
+        // the VMs of a host are removed from its set concurrently, by the analysis of the VMs
         vdsAndVmsList.putAll(vms.stream()
                 .filter(vm -> !vm.getStatus().isNotRunning() && vm.getRunOnVds() != null)
                 .collect(Collectors.groupingBy(VmDynamic::getRunOnVds,
-                        Collectors.mapping(VmDynamic::getId, Collectors.toSet()))));
+                        Collectors.mapping(VmDynamic::getId,
+                                Collectors.toCollection(ConcurrentHashMap::newKeySet)))));
     }
 
     public boolean addAsyncRunningVm(Guid vmId) {
@@ -231,6 +238,24 @@ public class ResourceManager implements BackendService {
         return vdsManger;
     }
 
+    /**
+     * Makes the monitoring of the hosts reload them from the DB, should be called after the hosts are changed in the
+     * DB not through their {@link VdsManager}. Changes of the static and dynamic data of the hosts through the DAOs
+     * invalidate the hosts by themselves.
+     */
+    public void invalidateCachedVds(Iterable<Guid> vdsIds) {
+        for (Guid vdsId : vdsIds) {
+            VdsManager vdsManager = vdsManagersDict.get(vdsId);
+            if (vdsManager != null) {
+                vdsManager.invalidateCachedVds();
+            }
+        }
+    }
+
+    public void invalidateCachedVds(Guid vdsId) {
+        invalidateCachedVds(Collections.singletonList(vdsId));
+    }
+
     /**
      * Set vm status to Unknown and save to DB.
      */
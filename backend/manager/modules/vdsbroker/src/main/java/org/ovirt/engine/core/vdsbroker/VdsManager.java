@@ -49,6 +49,7 @@ import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogable;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogableImpl;
 import org.ovirt.engine.core.dao.ClusterDao;
 import org.ovirt.engine.core.dao.SupportedHostFeatureDao;
+import org.ovirt.engine.core.dao.VdsChangeNotifier;
 import org.ovirt.engine.core.dao.VdsDao;
 import org.ovirt.engine.core.dao.VdsDynamicDao;
 import org.ovirt.engine.core.dao.VdsNumaNodeDao;
@@ -62,10 +63,12 @@ import org.ovirt.engine.core.utils.crypt.EngineEncryptionUtils;
 import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.lock.LockManager;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
+import org.ovirt.engine.core.utils.transaction.TransactionCompletionListener;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.ovirt.engine.core.vdsbroker.irsbroker.IRSErrorException;
 import org.ovirt.engine.core.vdsbroker.irsbroker.IrsProxy;
 import org.ovirt.engine.core.vdsbroker.irsbroker.IrsProxyManager;
+import org.ovirt.engine.core.vdsbroker.monitoring.DashboardSummaryAggregator;
 import org.ovirt.engine.core.vdsbroker.monitoring.HostMonitoring;
 import org.ovirt.engine.core.vdsbroker.monitoring.MonitoringStrategy;
 import org.ovirt.engine.core.vdsbroker.monitoring.MonitoringStrategyFactory;
@@ -109,6 +112,12 @@ public class VdsManager {
     @Inject
     private VdsDynamicDao vdsDynamicDao;
 
+    @Inject
+    private VdsChangeNotifier vdsChangeNotifier;
+
+    @Inject
+    private DashboardSummaryAggregator dashboardSummaryAggregator;
+
     @Inject
     private VmDynamicDao vmDynamicDao;
 
@@ -140,6 +149,8 @@ public class VdsManager {
     private final Guid vdsId;
     private final VdsMonitor vdsMonitor = new VdsMonitor();
     private VDS cachedVds;
+    private long cachedVdsLoadTime;
+    private volatile boolean cachedVdsInvalidated = true;
     private long lastUpdate;
     private long updateStartTime;
     private long nextMaintenanceAttemptTime;
@@ -290,17 +301,21 @@ public class VdsManager {
                             hostMonitoring.refresh();
                         }
                     } catch (VDSNetworkException e) {
+                        cachedVdsInvalidated = true;
                         logNetworkException(e);
                         releaseLock = true;
                     } catch (VDSRecoveringException ex) {
+                        cachedVdsInvalidated = true;
                         handleVdsRecoveringException(ex);
                         releaseLock = true;
                     } catch (RuntimeException ex) {
+                        cachedVdsInvalidated = true;
                         logFailureMessage(ex);
                         releaseLock = true;
                     }
                 }
             } catch (Throwable t) {
+                cachedVdsInvalidated = true;
                 releaseLock = true;
                 throw t;
             } finally {
@@ -314,6 +329,8 @@ public class VdsManager {
     public void afterRefreshTreatment(boolean succeeded) {
 
         if (!succeeded) {
+            // the cached host may hold changes of the failed cycle which were not saved
+            cachedVdsInvalidated = true;
             lockManager.releaseLock(monitoringLock);
             return;
         }
@@ -339,11 +356,13 @@ public class VdsManager {
 
                     hostMonitoring = null;
                 } catch (IRSErrorException ex) {
+                    cachedVdsInvalidated = true;
                     logAfterRefreshFailureMessage(ex);
                     if (log.isDebugEnabled()) {
                         logException(ex);
                     }
                 } catch (RuntimeException ex) {
+                    cachedVdsInvalidated = true;
                     logAfterRefreshFailureMessage(ex);
                     logException(ex);
                 }
@@ -374,10 +393,50 @@ public class VdsManager {
     }
 
     private void refreshCachedVds() {
-        cachedVds = vdsDao.get(getVdsId());
+        reloadCachedVdsIfNeeded();
         setMonitoringNeeded();
     }
 
+    /**
+     * The host is changed by the monitoring only through this manager, which writes the changes both to the cached
+     * host and to the DB, so the cached host is reloaded from the DB only when it was invalidated or once the verify
+     * interval elapses, in order to pick up changes which were not invalidated.
+     */
+    void reloadCachedVdsIfNeeded() {
+        long now = System.currentTimeMillis();
+        long verifyInterval = Config.<Integer> getValue(ConfigValues.VdsCacheVerifyIntervalInSeconds) * 1000L;
+        if (cachedVdsInvalidated || cachedVds == null || now - cachedVdsLoadTime >= verifyInterval) {
+            cachedVdsInvalidated = false;
+            cachedVds = vdsDao.get(getVdsId());
+            cachedVdsLoadTime = now;
+        } else {
+            // the interfaces are loaded by the monitoring when missing, they are reloaded to pick up network changes
+            cachedVds.getInterfaces().clear();
+        }
+    }
+
+    /**
+     * Makes the next monitoring cycle reload the host from the DB. Should be called after the host is changed in the
+     * DB not through this manager. When called within a transaction, the host is invalidated again once the
+     * transaction completes, so it is not reloaded before the change is committed.
+     */
+    public void invalidateCachedVds() {
+        cachedVdsInvalidated = true;
+        if (TransactionSupport.current() != null) {
+            TransactionSupport.registerRollbackHandler(new TransactionCompletionListener() {
+                @Override
+                public void onSuccess() {
+                    cachedVdsInvalidated = true;
+                }
+
+                @Override
+                public void onRollback() {
+                    cachedVdsInvalidated = true;
+                }
+            });
+        }
+    }
+
     /**
      * @return a safe copy of the internal VDS. mutating it must not affect internal.
      */
@@ -437,7 +496,7 @@ public class VdsManager {
     private void handleVdsRecoveringException(VDSRecoveringException ex) {
         if (cachedVds.getStatus() != VDSStatus.Initializing && cachedVds.getStatus() != VDSStatus.NonOperational) {
             setStatus(VDSStatus.Initializing, cachedVds);
-            vdsDynamicDao.updateStatus(cachedVds.getId(), VDSStatus.Initializing);
+            saveStatus(VDSStatus.Initializing);
             AuditLogable logable = createAuditLogableForHost(cachedVds);
             logable.addCustomValue("ErrorMessage", ex.getMessage());
             logable.updateCallStackFromThrowable(ex);
@@ -482,19 +541,35 @@ public class VdsManager {
      * Save dynamic data to cache and DB.
      */
     public void updateDynamicData(VdsDynamic dynamicData) {
-        vdsDynamicDao.updateIfNeeded(dynamicData);
+        writeCachedVds(() -> vdsDynamicDao.updateIfNeeded(dynamicData));
         cachedVds.setDynamicData(dynamicData);
+        dashboardSummaryAggregator.updateHost(cachedVds);
     }
 
     public void updatePartialDynamicData(NonOperationalReason nonOperationalReason, String maintenanceReason) {
         cachedVds.getDynamicData().setNonOperationalReason(nonOperationalReason);
         cachedVds.getDynamicData().setMaintenanceReason(maintenanceReason);
-        vdsDynamicDao.updateStatusAndReasons(cachedVds.getDynamicData());
+        writeCachedVds(() -> vdsDynamicDao.updateStatusAndReasons(cachedVds.getDynamicData()));
     }
 
     public void updateUpdateAvailable(boolean updatesAvailable) {
         cachedVds.getDynamicData().setUpdateAvailable(updatesAvailable);
-        vdsDynamicDao.updateUpdateAvailable(cachedVds.getId(), updatesAvailable);
+        writeCachedVds(() -> vdsDynamicDao.updateUpdateAvailable(cachedVds.getId(), updatesAvailable));
+    }
+
+    /**
+     * Saves the status, which was set to the cached host, to the DB.
+     */
+    public void saveStatus(VDSStatus status) {
+        writeCachedVds(() -> vdsDynamicDao.updateStatus(getVdsId(), status));
+        dashboardSummaryAggregator.updateHost(cachedVds);
+    }
+
+    /**
+     * Writes changes of the cached host to the DB without invalidating it, since the cached host has them already.
+     */
+    private void writeCachedVds(Runnable writes) {
+        vdsChangeNotifier.runWithoutNotification(writes);
     }
 
     /**
@@ -503,6 +578,7 @@ public class VdsManager {
     public void updateStatisticsData(VdsStatistics statisticsData) {
         vdsStatisticsDao.update(statisticsData);
         cachedVds.setStatisticsData(statisticsData);
+        dashboardSummaryAggregator.updateHost(cachedVds);
     }
 
     /**
@@ -761,7 +837,7 @@ public class VdsManager {
          */
         if (vds != null && vds.getStatus() == VDSStatus.Error) {
             setStatus(VDSStatus.Up, vds);
-            vdsDynamicDao.updateStatus(getVdsId(), VDSStatus.Up);
+            saveStatus(VDSStatus.Up);
             log.info("Settings host '{}' to up after {} failed attempts to run a VM",
                     vds.getName(),
                     failedToRunVmAttempts);
@@ -824,7 +900,7 @@ public class VdsManager {
             if (oldStatus != VDSStatus.Up) {
                 // persist to db the host's cpu_flags.
                 // TODO this needs to be revisited - either all the logic is in-memory or based on db
-                vdsDynamicDao.updateCpuFlags(vds.getId(), vds.getCpuFlags());
+                writeCachedVds(() -> vdsDynamicDao.updateCpuFlags(vds.getId(), vds.getCpuFlags()));
                 processHostFeaturesReported(vds);
                 monitoringStrategy.processHardwareCapabilities(vds);
             }
@@ -871,6 +947,21 @@ public class VdsManager {
         return hostNetworkTopologyPersister;
     }
 
+    /**
+     * The VM count and the SPM status are changed outside of the host monitoring, by the VMs monitoring and by the SPM
+     * election, so the cached host may not be up to date and they are read from the DB. It is done only when the host
+     * fails to respond, so it does not add to the cost of the monitoring.
+     */
+    long calcTimeoutToFence() {
+        VDS vds = getVdsForFencing();
+        return calcTimeoutToFence(vds.getVmCount(), vds.getSpmStatus());
+    }
+
+    private VDS getVdsForFencing() {
+        VDS vds = vdsDao.get(getVdsId());
+        return vds != null ? vds : cachedVds;
+    }
+
     private long calcTimeoutToFence(int vmCount, VdsSpmStatus spmStatus) {
         int spmIndicator = spmStatus == VdsSpmStatus.None ? 0 : 1;
         int secToFence = (int) (
@@ -964,7 +1055,7 @@ public class VdsManager {
      * @return <code>true</code> if host is still in grace period, otherwise <code>false</code>
      */
     public boolean isHostInGracePeriod(boolean sshSoftFencingExecuted) {
-        long timeoutToFence = calcTimeoutToFence(cachedVds.getVmCount(), cachedVds.getSpmStatus());
+        long timeoutToFence = calcTimeoutToFence();
         int unrespondedAttemptsBarrier = Config.<Integer>getValue(ConfigValues.VDSAttemptsToResetCount);
 
         if (sshSoftFencingExecuted) {
@@ -978,11 +1069,12 @@ public class VdsManager {
     }
 
     private void logHostFailToRespond(VDSNetworkException ex) {
-        long timeoutToFence = calcTimeoutToFence(cachedVds.getVmCount(), cachedVds.getSpmStatus());
+        VDS vds = getVdsForFencing();
+        long timeoutToFence = calcTimeoutToFence(vds.getVmCount(), vds.getSpmStatus());
         log.info(
                 "Server failed to respond, vds_id='{}', vds_name='{}', vm_count={}, " +
                         "spm_status='{}', non-responsive_timeout (seconds)={}, error: {}",
-                cachedVds.getId(), cachedVds.getName(), cachedVds.getVmCount(), cachedVds.getSpmStatus(),
+                cachedVds.getId(), cachedVds.getName(), vds.getVmCount(), vds.getSpmStatus(),
                 TimeUnit.MILLISECONDS.toSeconds(timeoutToFence), ex.getMessage());
 
         AuditLogable logable = createAuditLogableForHost(cachedVds);
@@ -995,7 +1087,7 @@ public class VdsManager {
     }
 
     private void logChangeStatusToConnecting() {
-        long timeoutToFence = calcTimeoutToFence(cachedVds.getVmCount(), cachedVds.getSpmStatus());
+        long timeoutToFence = calcTimeoutToFence();
         String msg;
         AuditLogType auditLogType;
 
@@ -27,6 +27,7 @@ import org.ovirt.engine.core.dao.VmStaticDao;
 import org.ovirt.engine.core.dao.VmStatisticsDao;
 import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
 import org.ovirt.engine.core.vdsbroker.monitoring.VdsmVm;
+import org.ovirt.engine.core.vdsbroker.monitoring.VmStatisticsPersistenceFilter;
 
 public class VmManager {
 
@@ -79,6 +80,8 @@ public class VmManager {
     private ClusterDao clusterDao;
     @Inject
     private VmOverheadCalculator vmOverheadCalculator;
+    @Inject
+    private VmStatisticsPersistenceFilter vmStatisticsPersistenceFilter;
 
     VmManager(Guid vmId) {
         this.vmId = vmId;
@@ -145,11 +148,13 @@ public class VmManager {
 
     public void update(VmStatistics statistics) {
         vmStatisticsDao.update(statistics);
+        vmStatisticsPersistenceFilter.invalidateVmStatistics(statistics.getId());
         setStatistics(statistics);
     }
 
     public void update(VmNetworkStatistics networkStatistics) {
         vmNetworkStatisticsDao.update(networkStatistics);
+        vmStatisticsPersistenceFilter.invalidateInterfaceStatistics(networkStatistics.getId());
     }
 
     public void update(VmStatic vmStatic) {
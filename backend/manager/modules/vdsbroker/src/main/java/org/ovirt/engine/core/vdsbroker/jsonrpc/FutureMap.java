@@ -12,6 +12,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
+import org.codehaus.jackson.JsonNode;
 import org.ovirt.engine.core.vdsbroker.TransportRunTimeException;
 import org.ovirt.vdsm.jsonrpc.client.ClientConnectionException;
 import org.ovirt.vdsm.jsonrpc.client.JsonRpcClient;
@@ -54,6 +55,7 @@ public class FutureMap implements Map<String, Object> {
     private Class<?> clazz = STATUS_DONE.getClass();
     private Class<?> subTypeClazz;
     private boolean ignoreResponseKey = false;
+    private boolean lazyDecoding = false;
     private long timeout = 0;
     private TimeUnit unit = TimeUnit.MILLISECONDS;
     private boolean cleanOnTimeout;
@@ -134,12 +136,20 @@ public class FutureMap implements Map<String, Object> {
                 && this.subTypeClazz != null) {
             Object[] array = (Object[]) decomposer.decomposeResponse(this.clazz);
             updateResponse(decomposer.decomposeTypedArray(array, this.subTypeClazz, subtypeKey));
+        } else if (lazyDecoding && isLazilyDecodable(response.getResult())) {
+            updateResponse(JsonNodeMap.toValue(response.getResult()));
         } else {
             updateResponse(decomposer.decomposeResponse(this.clazz));
         }
         checkAndUpdateStatus();
     }
 
+    private boolean isLazilyDecodable(JsonNode result) {
+        return result != null
+                && (Map.class.isAssignableFrom(clazz) && result.isObject()
+                        || Object[].class.equals(clazz) && result.isArray());
+    }
+
     /**
      * Whenever any method is executed to obtain value of response during the first invocation it gets real response
      * from the <code>Future</code> and decompose it to object of provided type and structure.
@@ -290,6 +300,18 @@ public class FutureMap implements Map<String, Object> {
         return this;
     }
 
+    /**
+     * The response is not decomposed to maps, the maps in the result are views of the JSON response whose values are
+     * converted only when accessed, see {@link JsonNodeMap}. Meant for large responses which are only read to build
+     * business entities.
+     *
+     * @return this <code>FutureMap</code>.
+     */
+    public FutureMap withLazyDecoding() {
+        this.lazyDecoding = true;
+        return this;
+    }
+
     /**
      * @param subTypeKey - Key which is used to put subtype to result map.
      * @return this <code>FutureMap</code>.
@@ -0,0 +1,164 @@
+package org.ovirt.engine.core.vdsbroker.jsonrpc;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.jackson.JsonNode;
+
+/**
+ * <code>Map</code> view of a JSON object node of a response. The values are converted from the nodes only when they
+ * are accessed, to the same types the response is decomposed to: nested objects are views as well, arrays are
+ * <code>Object[]</code>, and numbers, strings and booleans are boxed. This way a large response, like the statistics
+ * of all the VMs of a host, is not copied into a tree of maps which are thrown away right after the business entities
+ * are built from them.
+ *
+ * The converted nested objects and arrays are kept per key, so the same view is returned every time and changes made
+ * to it are not lost. The map is copied on the first modification, the node of the response is never modified.
+ */
+public class JsonNodeMap extends AbstractMap<String, Object> {
+
+    private final JsonNode node;
+    private Map<String, Object> copy;
+    private Map<String, Object> values;
+
+    public JsonNodeMap(JsonNode node) {
+        this.node = node;
+    }
+
+    /**
+     * Converts the node to the type it is decomposed to in a response.
+     */
+    public static Object toValue(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (node.isObject()) {
+            return new JsonNodeMap(node);
+        }
+        if (node.isArray()) {
+            Object[] array = new Object[node.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = toValue(node.get(i));
+            }
+            return array;
+        }
+        if (node.isTextual()) {
+            return node.getTextValue();
+        }
+        if (node.isBoolean()) {
+            return node.getBooleanValue();
+        }
+        if (node.isInt()) {
+            return node.getIntValue();
+        }
+        if (node.isLong()) {
+            return node.getLongValue();
+        }
+        if (node.isBigInteger()) {
+            return node.getBigIntegerValue();
+        }
+        if (node.isNumber()) {
+            return node.getDoubleValue();
+        }
+        return node.getValueAsText();
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (copy != null) {
+            return copy.get(key);
+        }
+        if (!(key instanceof String)) {
+            return null;
+        }
+        JsonNode valueNode = node.get((String) key);
+        return valueNode != null ? getValue((String) key, valueNode) : null;
+    }
+
+    /**
+     * Converts the node of the value of the key, keeping the converted objects and arrays. Numbers, strings and
+     * booleans are immutable and cheap to convert, so they are not kept.
+     */
+    private Object getValue(String key, JsonNode valueNode) {
+        if (!valueNode.isContainerNode()) {
+            return toValue(valueNode);
+        }
+        if (values == null) {
+            values = new HashMap<>();
+        }
+        return values.computeIfAbsent(key, k -> toValue(valueNode));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (copy != null) {
+            return copy.containsKey(key);
+        }
+        return key instanceof String && node.has((String) key);
+    }
+
+    @Override
+    public int size() {
+        return copy != null ? copy.size() : node.size();
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return modifiableCopy().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return modifiableCopy().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        modifiableCopy().clear();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (copy != null) {
+            return copy.entrySet();
+        }
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                Iterator<Map.Entry<String, JsonNode>> fields = node.getFields();
+                return new Iterator<Map.Entry<String, Object>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return fields.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<String, Object> next() {
+                        Map.Entry<String, JsonNode> field = fields.next();
+                        return new SimpleImmutableEntry<>(field.getKey(), getValue(field.getKey(), field.getValue()));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return node.size();
+            }
+        };
+    }
+
+    private Map<String, Object> modifiableCopy() {
+        if (copy == null) {
+            Map<String, Object> newCopy = new HashMap<>(node.size() * 4 / 3 + 1);
+            for (Map.Entry<String, Object> entry : entrySet()) {
+                newCopy.put(entry.getKey(), entry.getValue());
+            }
+            copy = newCopy;
+        }
+        return copy;
+    }
+}
@@ -285,7 +285,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public VDSInfoReturn getCapabilities() {
         JsonRpcRequest request = new RequestBuilder("Host.getCapabilities").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("info");
+                new FutureMap(this.client, request).withResponseKey("info").withLazyDecoding();
         return new VDSInfoReturn(response);
     }
 
@@ -321,7 +321,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public VDSInfoReturn getVdsStats() {
         JsonRpcRequest request = new RequestBuilder("Host.getStats").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("info");
+                new FutureMap(this.client, request).withResponseKey("info").withLazyDecoding();
         return new VDSInfoReturn(response);
     }
 
@@ -378,7 +378,8 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request = new RequestBuilder("Host.getAllVmStats").build();
         Map<String, Object> response =
                 new FutureMap(this.client, request).withResponseKey("statsList")
-                        .withResponseType(Object[].class);
+                        .withResponseType(Object[].class)
+                        .withLazyDecoding();
         return new VMInfoListReturn(response);
     }
 
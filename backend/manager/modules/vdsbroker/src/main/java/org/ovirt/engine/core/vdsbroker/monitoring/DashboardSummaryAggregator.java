@@ -0,0 +1,306 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.businessentities.DashboardClusterUtilization;
+import org.ovirt.engine.core.common.businessentities.DashboardSummary;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.qualifiers.VmDeleted;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VdsChangeNotifier;
+import org.ovirt.engine.core.dao.VdsDao;
+import org.ovirt.engine.core.dao.VmDynamicDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Maintains the inventory counts and the cluster utilization shown by the dashboard from the updates of the
+ * monitoring, so the dashboard is answered without scanning the hosts and VMs.
+ *
+ * Each update replaces the contribution of the updated host or VM to the counts and the sums of the utilization. The
+ * hosts changed outside of the monitoring are reloaded before the next summary is returned, and the whole summary is
+ * reloaded periodically to pick up the VMs added or changed by the commands.
+ */
+@Singleton
+public class DashboardSummaryAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardSummaryAggregator.class);
+
+    @Inject
+    private VdsDao vdsDao;
+
+    @Inject
+    private VmDynamicDao vmDynamicDao;
+
+    @Inject
+    private VdsChangeNotifier vdsChangeNotifier;
+
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
+    private ManagedScheduledExecutorService schedulerService;
+
+    private final Map<Guid, HostUtilization> hosts = new HashMap<>();
+    private final Map<Guid, VMStatus> vmStatuses = new HashMap<>();
+
+    private final Map<VDSStatus, Integer> hostCountsByStatus = new EnumMap<>(VDSStatus.class);
+    private final Map<VMStatus, Integer> vmCountsByStatus = new EnumMap<>(VMStatus.class);
+    private final Map<Guid, ClusterUtilization> clusters = new HashMap<>();
+
+    /**
+     * The hosts changed outside of the monitoring, reloaded before the next summary is returned
+     */
+    private final Set<Guid> changedHosts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The hosts and VMs updated while the summary is reloaded, their state is newer than the reloaded one. null when
+     * the summary is not reloaded.
+     */
+    private Set<Guid> updatedWhileReloading;
+
+    private final Object reloadLock = new Object();
+
+    private volatile boolean loaded;
+
+    @PostConstruct
+    void init() {
+        vdsChangeNotifier.addListener(changedHosts::add);
+        long reloadInterval = Config.<Integer> getValue(ConfigValues.DashboardSummaryReloadIntervalInMinutes);
+        schedulerService.scheduleWithFixedDelay(this::scheduledReload,
+                reloadInterval,
+                reloadInterval,
+                TimeUnit.MINUTES);
+    }
+
+    /**
+     * @return a copy of the current summary, its size depends on the number of clusters only
+     */
+    public DashboardSummary getSummary() {
+        if (!loaded) {
+            reload();
+        }
+        reloadChangedHosts();
+        synchronized (this) {
+            DashboardSummary summary = new DashboardSummary();
+            summary.getHostCountsByStatus().putAll(hostCountsByStatus);
+            summary.getVmCountsByStatus().putAll(vmCountsByStatus);
+            clusters.forEach((clusterId, cluster) -> summary.getClusterUtilization()
+                    .add(new DashboardClusterUtilization(clusterId,
+                            cluster.name,
+                            cluster.cpuCores,
+                            cluster.cpuUsedCores,
+                            cluster.physicalMemMb,
+                            cluster.memUsedMb)));
+            return summary;
+        }
+    }
+
+    public synchronized void updateHost(VDS vds) {
+        updated(vds.getId());
+        HostUtilization host = new HostUtilization(vds);
+        subtract(hosts.put(vds.getId(), host));
+        add(host);
+    }
+
+    public synchronized void removeHost(Guid vdsId) {
+        updated(vdsId);
+        subtract(hosts.remove(vdsId));
+    }
+
+    public synchronized void updateVms(Collection<VmDynamic> vms) {
+        for (VmDynamic vm : vms) {
+            updated(vm.getId());
+            VMStatus previousStatus = vmStatuses.put(vm.getId(), vm.getStatus());
+            if (previousStatus != null) {
+                count(vmCountsByStatus, previousStatus, -1);
+            }
+            count(vmCountsByStatus, vm.getStatus(), 1);
+        }
+    }
+
+    synchronized void onVmDelete(@Observes @VmDeleted Guid vmId) {
+        updated(vmId);
+        VMStatus previousStatus = vmStatuses.remove(vmId);
+        if (previousStatus != null) {
+            count(vmCountsByStatus, previousStatus, -1);
+        }
+    }
+
+    private void scheduledReload() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Failed to reload the dashboard summary: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    /**
+     * Replaces the summary with the hosts and VMs in the DB, except for the ones updated while they are loaded.
+     */
+    void reload() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                updatedWhileReloading = new HashSet<>();
+            }
+            List<VDS> loadedHosts;
+            List<VmDynamic> loadedVms;
+            try {
+                loadedHosts = vdsDao.getAll();
+                loadedVms = vmDynamicDao.getAll();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    updatedWhileReloading = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                Map<Guid, HostUtilization> reloadedHosts = new HashMap<>();
+                loadedHosts.forEach(vds -> reloadedHosts.put(vds.getId(), new HostUtilization(vds)));
+                Map<Guid, VMStatus> reloadedVmStatuses = new HashMap<>();
+                loadedVms.forEach(vm -> reloadedVmStatuses.put(vm.getId(), vm.getStatus()));
+                for (Guid id : updatedWhileReloading) {
+                    keepUpdated(id, hosts, reloadedHosts);
+                    keepUpdated(id, vmStatuses, reloadedVmStatuses);
+                }
+                updatedWhileReloading = null;
+
+                hosts.clear();
+                hostCountsByStatus.clear();
+                clusters.clear();
+                reloadedHosts.forEach((vdsId, host) -> {
+                    hosts.put(vdsId, host);
+                    add(host);
+                });
+                vmStatuses.clear();
+                vmCountsByStatus.clear();
+                vmStatuses.putAll(reloadedVmStatuses);
+                vmStatuses.values().forEach(status -> count(vmCountsByStatus, status, 1));
+                loaded = true;
+            }
+        }
+    }
+
+    private void reloadChangedHosts() {
+        Iterator<Guid> iterator = changedHosts.iterator();
+        while (iterator.hasNext()) {
+            Guid vdsId = iterator.next();
+            iterator.remove();
+            VDS vds = vdsDao.get(vdsId);
+            if (vds == null) {
+                removeHost(vdsId);
+            } else {
+                updateHost(vds);
+            }
+        }
+    }
+
+    private static <T> void keepUpdated(Guid id, Map<Guid, T> current, Map<Guid, T> reloaded) {
+        T value = current.get(id);
+        if (value != null) {
+            reloaded.put(id, value);
+        } else {
+            reloaded.remove(id);
+        }
+    }
+
+    private void updated(Guid id) {
+        if (updatedWhileReloading != null) {
+            updatedWhileReloading.add(id);
+        }
+    }
+
+    private void add(HostUtilization host) {
+        count(hostCountsByStatus, host.status, 1);
+        if (host.status == VDSStatus.Up && host.clusterId != null) {
+            ClusterUtilization cluster = clusters.computeIfAbsent(host.clusterId, id -> new ClusterUtilization());
+            cluster.name = host.clusterName;
+            cluster.upHosts++;
+            cluster.cpuCores += host.cpuCores;
+            cluster.cpuUsedCores += host.cpuUsedCores;
+            cluster.physicalMemMb += host.physicalMemMb;
+            cluster.memUsedMb += host.memUsedMb;
+        }
+    }
+
+    private void subtract(HostUtilization host) {
+        if (host == null) {
+            return;
+        }
+        count(hostCountsByStatus, host.status, -1);
+        ClusterUtilization cluster = host.status == VDSStatus.Up ? clusters.get(host.clusterId) : null;
+        if (cluster != null) {
+            if (--cluster.upHosts == 0) {
+                clusters.remove(host.clusterId);
+                return;
+            }
+            cluster.cpuCores -= host.cpuCores;
+            cluster.cpuUsedCores -= host.cpuUsedCores;
+            cluster.physicalMemMb -= host.physicalMemMb;
+            cluster.memUsedMb -= host.memUsedMb;
+        }
+    }
+
+    private static <K> void count(Map<K, Integer> counts, K key, int delta) {
+        counts.merge(key, delta, (count, change) -> count + change == 0 ? null : count + change);
+    }
+
+    /**
+     * The contribution of a host to the summary
+     */
+    private static class HostUtilization {
+        private final Guid clusterId;
+        private final String clusterName;
+        private final VDSStatus status;
+        private final int cpuCores;
+        private final double cpuUsedCores;
+        private final long physicalMemMb;
+        private final double memUsedMb;
+
+        HostUtilization(VDS vds) {
+            clusterId = vds.getClusterId();
+            clusterName = vds.getClusterName();
+            status = vds.getStatus();
+            cpuCores = valueOf(vds.getCpuCores());
+            cpuUsedCores = cpuCores * valueOf(vds.getUsageCpuPercent()) / 100.0;
+            physicalMemMb = valueOf(vds.getPhysicalMemMb());
+            memUsedMb = physicalMemMb * valueOf(vds.getUsageMemPercent()) / 100.0;
+        }
+
+        private static int valueOf(Integer value) {
+            return value == null ? 0 : value;
+        }
+    }
+
+    /**
+     * The sums of the utilization of the hosts which are up in a cluster
+     */
+    private static class ClusterUtilization {
+        private String name;
+        private int upHosts;
+        private int cpuCores;
+        private double cpuUsedCores;
+        private long physicalMemMb;
+        private double memUsedMb;
+    }
+}
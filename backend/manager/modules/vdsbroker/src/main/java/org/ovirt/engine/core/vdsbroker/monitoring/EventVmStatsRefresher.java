@@ -31,12 +31,13 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
     private VdsBrokerObjectsBuilder vdsBrokerObjectsBuilder;
     private final ResourceManager resourceManager;
     private final PollVmStatsRefresher allVmStatsOnlyRefresher;
+    private final VmStatusEventsTracker eventsTracker = new VmStatusEventsTracker();
 
     @SuppressWarnings("deprecation")
     public EventVmStatsRefresher(VdsManager manager, ResourceManager resourceManager) {
         super(manager);
-        // we still want to fetch GetAllVmStats as we did before
-        allVmStatsOnlyRefresher = Injector.injectMembers(new PollVmStatsRefresher(vdsManager));
+        // we still want to fetch GetAllVmStats as we did before, unless the events are trusted by adaptive monitoring
+        allVmStatsOnlyRefresher = Injector.injectMembers(new PollVmStatsRefresher(vdsManager, eventsTracker));
         this.resourceManager = resourceManager;
     }
 
@@ -63,6 +64,7 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
                         processDevices(vms.stream().map(Pair::getSecond), fetchTime);
                     }
                 } catch (Throwable t) {
+                    eventsTracker.invalidate();
                     log.error("Error processing VM stats monitoring event: {}", ExceptionUtils.getRootCauseMessage(t));
                     log.debug("Exception", t);
                 } finally {
@@ -83,6 +85,7 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
             @SuppressWarnings("unchecked")
             private List<Pair<VmDynamic, VdsmVm>> convertEvent(Map<String, Object> map) {
                 Double notifyTime = vdsBrokerObjectsBuilder.removeNotifyTimeFromVmStatusEvent(map);
+                eventsTracker.eventReceived(notifyTime);
                 return map.entrySet().stream()
                         .map(idToMap -> toMonitoredVm(
                                 new Guid(idToMap.getKey()),
@@ -116,6 +119,8 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
 
             @Override
             public void onError(Throwable t) {
+                // events might have been lost while communication was broken
+                eventsTracker.invalidate();
                 // communication issue is delivered as a message so we need to request for more
                 subscription.request(1);
             }
@@ -113,7 +113,7 @@ public class HostMonitoring {
                     // calling UpEvent in a time
                     vdsManager.cancelRecoveryJob();
                     if (saveVdsDynamic) {
-                        vdsDynamicDao.updateStatus(vds.getId(), vds.getStatus());
+                        vdsManager.saveStatus(vds.getStatus());
                     }
                     log.debug("Host '{}' ({}) firing up event.", vds.getName(), vds.getId());
                     vdsManager.setIsSetNonOperationalExecuted(!getVdsEventListener().vdsUpEvent(vds));
@@ -123,6 +123,7 @@ public class HostMonitoring {
                 saveDataToDb();
             }
         } catch (Throwable t) {
+            vdsManager.invalidateCachedVds();
             logFailureMessage("ResourceManager::refreshVdsRunTimeInfo:", t);
             log.debug("Exception", t);
         }  finally {
@@ -278,7 +279,12 @@ public class HostMonitoring {
             if (!statistics.isEmpty()) {
                 TransactionSupport.executeInScope(TransactionScopeOption.Required,
                         () -> {
-                            interfaceDao.massUpdateStatisticsForVds(statistics);
+                            int bulkUpdateMinRows = Config.<Integer>getValue(ConfigValues.StatisticsBulkUpdateMinRows);
+                            if (bulkUpdateMinRows > 0 && statistics.size() >= bulkUpdateMinRows) {
+                                interfaceDao.massUpdateStatisticsForVdsInBulk(statistics);
+                            } else {
+                                interfaceDao.massUpdateStatisticsForVds(statistics);
+                            }
                             return null;
                         });
             }
@@ -30,14 +30,35 @@ public class PollVmStatsRefresher extends VmStatsRefresher {
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     private ManagedScheduledExecutorService schedulerService;
     private ScheduledFuture vmsMonitoringJob;
+    private final VmStatusEventsTracker eventsTracker;
 
     public PollVmStatsRefresher(VdsManager vdsManager) {
+        this(vdsManager, null);
+    }
+
+    /**
+     * @param eventsTracker
+     *            tracks the VM status events of the host, when adaptive VM monitoring is enabled the full VM list is
+     *            fetched only when the events can not be trusted. null to always fetch the full list.
+     */
+    PollVmStatsRefresher(VdsManager vdsManager, VmStatusEventsTracker eventsTracker) {
         super(vdsManager);
+        this.eventsTracker = eventsTracker;
     }
 
     @OnTimerMethodAnnotation("poll")
     public void poll() {
         if (isMonitoringNeeded(vdsManager.getStatus())) {
+            long pollTime = System.currentTimeMillis();
+            if (!isFullPollNeeded(pollTime)) {
+                log.debug("Skipping fetching all vms of host '{}', relying on VM status events.",
+                        vdsManager.getVdsName());
+                return;
+            }
+            if (eventsTracker != null) {
+                eventsTracker.fullPollStarted();
+            }
+
             VmsListFetcher fetcher = new VmsStatisticsFetcher(vdsManager);
 
             long fetchTime = System.nanoTime();
@@ -45,10 +66,25 @@ public class PollVmStatsRefresher extends VmStatsRefresher {
                 getVmsMonitoring().perform(fetcher.getChangedVms(), fetchTime, vdsManager, true);
                 Stream<VdsmVm> vdsmVmsToMonitor = filterVmsToDevicesMonitoring(fetcher.getChangedVms());
                 processDevices(vdsmVmsToMonitor, fetchTime);
+                if (eventsTracker != null) {
+                    eventsTracker.fullPollDone(pollTime);
+                }
             } else {
                 log.info("Failed to fetch vms info for host '{}' - skipping VMs monitoring.", vdsManager.getVdsName());
             }
+        } else if (eventsTracker != null) {
+            // the events received while the host is not monitored are not trusted
+            eventsTracker.invalidate();
+        }
+    }
+
+    private boolean isFullPollNeeded(long now) {
+        if (eventsTracker == null || !Config.<Boolean> getValue(ConfigValues.AdaptiveVmMonitoringEnabled)) {
+            return true;
         }
+        long safetyInterval = TimeUnit.SECONDS.toMillis(
+                Config.<Integer> getValue(ConfigValues.AdaptiveVmMonitoringFullPollIntervalInSeconds));
+        return eventsTracker.isFullPollNeeded(now, safetyInterval);
     }
 
     private Stream<VdsmVm> filterVmsToDevicesMonitoring(List<Pair<VmDynamic, VdsmVm>> polledVms) {
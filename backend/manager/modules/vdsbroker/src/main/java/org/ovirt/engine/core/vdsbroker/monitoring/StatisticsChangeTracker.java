@@ -0,0 +1,155 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Remembers the values of the statistics entities which were last persisted and tells which entities moved enough
+ * since then to be worth persisting again.
+ *
+ * @param <K>
+ *            the type of the key identifying the row of the entity
+ * @param <T>
+ *            the type of the statistics entity
+ */
+class StatisticsChangeTracker<K, T> {
+
+    /**
+     * The way a change of a field is detected
+     */
+    enum ChangeType {
+        /** Any change of the value */
+        EXACT,
+        /** A change of a percentage value by more than the configured number of percentage points */
+        PERCENTAGE_POINTS,
+        /** A change by more than the configured percent of the persisted value */
+        RELATIVE,
+        /** A decrease of the value, used for values which grow all the time like uptime */
+        DECREASE
+    }
+
+    static class TrackedField<T> {
+        private final Function<T, Object> extractor;
+        private final ChangeType changeType;
+
+        TrackedField(Function<T, Object> extractor, ChangeType changeType) {
+            this.extractor = extractor;
+            this.changeType = changeType;
+        }
+    }
+
+    private static class Snapshot {
+        private final Object[] values;
+        private final long persistedTime;
+
+        private Snapshot(Object[] values, long persistedTime) {
+            this.values = values;
+            this.persistedTime = persistedTime;
+        }
+    }
+
+    private final Function<T, K> keyExtractor;
+    private final List<TrackedField<T>> fields;
+    private final ConcurrentMap<K, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    StatisticsChangeTracker(Function<T, K> keyExtractor, List<TrackedField<T>> fields) {
+        this.keyExtractor = keyExtractor;
+        this.fields = fields;
+    }
+
+    /**
+     * Returns the entities which should be persisted: the ones which were not persisted yet, the ones whose last
+     * persisted values are older than the full flush interval and the ones with a field that changed beyond its
+     * threshold.
+     */
+    List<T> filterChanged(Collection<T> entities,
+            long now,
+            long fullFlushIntervalInMillis,
+            double percentagePointsThreshold,
+            double relativeThresholdPercent) {
+        List<T> changed = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            Snapshot snapshot = snapshots.get(keyExtractor.apply(entity));
+            if (snapshot == null
+                    || now - snapshot.persistedTime >= fullFlushIntervalInMillis
+                    || hasChanged(entity, snapshot, percentagePointsThreshold, relativeThresholdPercent)) {
+                changed.add(entity);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Records the values of the given entities as the persisted ones
+     */
+    void persisted(Collection<T> entities, long now) {
+        for (T entity : entities) {
+            Object[] values = new Object[fields.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = fields.get(i).extractor.apply(entity);
+            }
+            snapshots.put(keyExtractor.apply(entity), new Snapshot(values, now));
+        }
+    }
+
+    void invalidate(K key) {
+        snapshots.remove(key);
+    }
+
+    /**
+     * Drops the snapshots of entities which were not persisted since the given time, e.g. of VMs which are not
+     * monitored anymore
+     */
+    void removePersistedBefore(long time) {
+        snapshots.values().removeIf(snapshot -> snapshot.persistedTime < time);
+    }
+
+    int size() {
+        return snapshots.size();
+    }
+
+    private boolean hasChanged(T entity,
+            Snapshot snapshot,
+            double percentagePointsThreshold,
+            double relativeThresholdPercent) {
+        for (int i = 0; i < fields.size(); i++) {
+            TrackedField<T> field = fields.get(i);
+            Object persisted = snapshot.values[i];
+            Object current = field.extractor.apply(entity);
+            if (Objects.equals(persisted, current)) {
+                continue;
+            }
+            if (persisted == null || current == null || field.changeType == ChangeType.EXACT) {
+                return true;
+            }
+            double persistedValue = ((Number) persisted).doubleValue();
+            double currentValue = ((Number) current).doubleValue();
+            switch (field.changeType) {
+                case PERCENTAGE_POINTS:
+                    if (Math.abs(currentValue - persistedValue) > percentagePointsThreshold) {
+                        return true;
+                    }
+                    break;
+                case RELATIVE:
+                    if (Math.abs(currentValue - persistedValue)
+                            > Math.max(Math.abs(persistedValue), Math.abs(currentValue)) * relativeThresholdPercent / 100) {
+                        return true;
+                    }
+                    break;
+                case DECREASE:
+                    if (currentValue < persistedValue) {
+                        return true;
+                    }
+                    break;
+                default:
+                    return true;
+            }
+        }
+        return false;
+    }
+}
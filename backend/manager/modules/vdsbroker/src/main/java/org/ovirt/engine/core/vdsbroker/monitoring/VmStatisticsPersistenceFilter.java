@@ -0,0 +1,148 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.ovirt.engine.core.vdsbroker.monitoring.StatisticsChangeTracker.ChangeType.DECREASE;
+import static org.ovirt.engine.core.vdsbroker.monitoring.StatisticsChangeTracker.ChangeType.EXACT;
+import static org.ovirt.engine.core.vdsbroker.monitoring.StatisticsChangeTracker.ChangeType.PERCENTAGE_POINTS;
+import static org.ovirt.engine.core.vdsbroker.monitoring.StatisticsChangeTracker.ChangeType.RELATIVE;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.vdsbroker.monitoring.StatisticsChangeTracker.TrackedField;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Filters the VM statistics reported by the monitoring down to the ones which moved enough since they were last
+ * persisted, so unchanged VMs do not cost a database write on every monitoring cycle. Statistics which did not move
+ * are still persisted once per {@link ConfigValues#VmStatisticsFullFlushIntervalInSeconds} to keep the database
+ * consistent with the in-memory data.
+ *
+ * The usage history lists and the sample times of the interface counters are not tracked, they are persisted along
+ * with the next change or full flush.
+ */
+@Singleton
+public class VmStatisticsPersistenceFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(VmStatisticsPersistenceFilter.class);
+
+    private final StatisticsChangeTracker<Guid, VmStatistics> vmStatistics =
+            new StatisticsChangeTracker<>(VmStatistics::getId, Arrays.asList(
+                    new TrackedField<>(VmStatistics::getUsageCpuPercent, PERCENTAGE_POINTS),
+                    new TrackedField<>(VmStatistics::getCpuSys, PERCENTAGE_POINTS),
+                    new TrackedField<>(VmStatistics::getCpuUser, PERCENTAGE_POINTS),
+                    new TrackedField<>(VmStatistics::getUsageMemPercent, PERCENTAGE_POINTS),
+                    new TrackedField<>(VmStatistics::getUsageNetworkPercent, PERCENTAGE_POINTS),
+                    new TrackedField<>(VmStatistics::getMigrationProgressPercent, EXACT),
+                    new TrackedField<>(VmStatistics::getDisksUsage, EXACT),
+                    new TrackedField<>(VmStatistics::getGuestMemoryFree, RELATIVE),
+                    new TrackedField<>(VmStatistics::getGuestMemoryBuffered, RELATIVE),
+                    new TrackedField<>(VmStatistics::getGuestMemoryCached, RELATIVE),
+                    new TrackedField<>(VmStatistics::getElapsedTime, DECREASE)));
+
+    private final StatisticsChangeTracker<Guid, VmNetworkStatistics> interfaceStatistics =
+            new StatisticsChangeTracker<>(VmNetworkStatistics::getId, Arrays.asList(
+                    new TrackedField<>(VmNetworkStatistics::getStatus, EXACT),
+                    new TrackedField<>(VmNetworkStatistics::getReceiveRate, PERCENTAGE_POINTS),
+                    new TrackedField<>(VmNetworkStatistics::getTransmitRate, PERCENTAGE_POINTS),
+                    new TrackedField<>(VmNetworkStatistics::getReceiveDropRate, RELATIVE),
+                    new TrackedField<>(VmNetworkStatistics::getTransmitDropRate, RELATIVE),
+                    new TrackedField<>(VmNetworkStatistics::getReceivedBytes, RELATIVE),
+                    new TrackedField<>(VmNetworkStatistics::getTransmittedBytes, RELATIVE),
+                    new TrackedField<>(VmNetworkStatistics::getReceivedBytesOffset, EXACT),
+                    new TrackedField<>(VmNetworkStatistics::getTransmittedBytesOffset, EXACT)));
+
+    private final StatisticsChangeTracker<Pair<Guid, Guid>, Pair<Guid, DiskImageDynamic>> diskImageDynamics =
+            new StatisticsChangeTracker<>(disk -> new Pair<>(disk.getFirst(), disk.getSecond().getId()),
+                    Arrays.asList(
+                            new TrackedField<>(disk -> disk.getSecond().getActualSize(), EXACT),
+                            new TrackedField<>(disk -> disk.getSecond().getReadRate(), RELATIVE),
+                            new TrackedField<>(disk -> disk.getSecond().getWriteRate(), RELATIVE),
+                            new TrackedField<>(disk -> disk.getSecond().getReadLatency(), RELATIVE),
+                            new TrackedField<>(disk -> disk.getSecond().getWriteLatency(), RELATIVE),
+                            new TrackedField<>(disk -> disk.getSecond().getFlushLatency(), RELATIVE)));
+
+    private volatile long lastCleanupTime = System.currentTimeMillis();
+
+    public List<VmStatistics> filterVmStatistics(List<VmStatistics> statistics) {
+        return filter(vmStatistics, statistics);
+    }
+
+    public void vmStatisticsPersisted(Collection<VmStatistics> statistics) {
+        vmStatistics.persisted(statistics, System.currentTimeMillis());
+    }
+
+    public List<VmNetworkStatistics> filterInterfaceStatistics(List<VmNetworkStatistics> statistics) {
+        return filter(interfaceStatistics, statistics);
+    }
+
+    public void interfaceStatisticsPersisted(Collection<VmNetworkStatistics> statistics) {
+        interfaceStatistics.persisted(statistics, System.currentTimeMillis());
+    }
+
+    public List<Pair<Guid, DiskImageDynamic>> filterDiskImageDynamics(List<Pair<Guid, DiskImageDynamic>> disks) {
+        return filter(diskImageDynamics, disks);
+    }
+
+    public void diskImageDynamicsPersisted(Collection<Pair<Guid, DiskImageDynamic>> disks) {
+        diskImageDynamics.persisted(disks, System.currentTimeMillis());
+        cleanupIfNeeded();
+    }
+
+    /**
+     * Forgets the persisted statistics of the VM, to be called when they are written to the database outside of the
+     * monitoring so the next monitoring cycle persists them again
+     */
+    public void invalidateVmStatistics(Guid vmId) {
+        vmStatistics.invalidate(vmId);
+    }
+
+    public void invalidateInterfaceStatistics(Guid interfaceId) {
+        interfaceStatistics.invalidate(interfaceId);
+    }
+
+    private <K, T> List<T> filter(StatisticsChangeTracker<K, T> tracker, List<T> entities) {
+        if (entities.isEmpty() || !Config.<Boolean>getValue(ConfigValues.VmStatisticsDeltaPersistenceEnabled)) {
+            return entities;
+        }
+        List<T> changed = tracker.filterChanged(entities,
+                System.currentTimeMillis(),
+                getFullFlushIntervalInMillis(),
+                Config.<Integer>getValue(ConfigValues.VmStatisticsPercentageChangeThreshold),
+                Config.<Integer>getValue(ConfigValues.VmStatisticsRelativeChangeThreshold));
+        log.debug("Persisting {} out of {} reported statistics", changed.size(), entities.size());
+        return changed;
+    }
+
+    /**
+     * Drops the snapshots of VMs, interfaces and disks which were not persisted for two full flush intervals, i.e.
+     * which are not monitored anymore
+     */
+    private void cleanupIfNeeded() {
+        long now = System.currentTimeMillis();
+        long fullFlushInterval = getFullFlushIntervalInMillis();
+        if (now - lastCleanupTime < fullFlushInterval) {
+            return;
+        }
+        lastCleanupTime = now;
+        long threshold = now - 2 * fullFlushInterval;
+        vmStatistics.removePersistedBefore(threshold);
+        interfaceStatistics.removePersistedBefore(threshold);
+        diskImageDynamics.removePersistedBefore(threshold);
+    }
+
+    private long getFullFlushIntervalInMillis() {
+        return TimeUnit.SECONDS.toMillis(Config.<Integer>getValue(ConfigValues.VmStatisticsFullFlushIntervalInSeconds));
+    }
+}
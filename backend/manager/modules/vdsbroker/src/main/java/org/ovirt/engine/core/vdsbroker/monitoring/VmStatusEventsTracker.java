@@ -0,0 +1,73 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+/**
+ * Tracks whether the VM status events of a host can be trusted to reflect all the changes of its VMs, so the
+ * periodic fetch of the full VM list can be skipped.
+ *
+ * The events are not trusted until a full list was fetched, and stop being trusted when an event is lost: when the
+ * subscription reports an error, when an event fails to be processed or when the notify time of the events goes
+ * backwards, which happens when VDSM is restarted. A full list is also fetched once the safety interval elapses since
+ * the last one, since VM statistics are not reported by the events.
+ */
+class VmStatusEventsTracker {
+
+    private boolean eventsTrusted;
+    private boolean invalidatedDuringPoll;
+    private long lastFullPollTime;
+    private Double lastNotifyTime;
+
+    /**
+     * Tells whether the full VM list should be fetched now.
+     *
+     * @param now
+     *            the current time in milliseconds
+     * @param safetyIntervalInMillis
+     *            the longest time between fetches of the full list
+     */
+    synchronized boolean isFullPollNeeded(long now, long safetyIntervalInMillis) {
+        return !eventsTrusted || now - lastFullPollTime >= safetyIntervalInMillis;
+    }
+
+    /**
+     * Called before the full VM list is fetched.
+     */
+    synchronized void fullPollStarted() {
+        invalidatedDuringPoll = false;
+    }
+
+    /**
+     * Called after the full VM list was fetched and processed successfully. The events are trusted from now on,
+     * unless they were invalidated while the list was processed.
+     *
+     * @param pollTime
+     *            the time in milliseconds the full list was fetched at
+     */
+    synchronized void fullPollDone(long pollTime) {
+        eventsTrusted = !invalidatedDuringPoll;
+        lastFullPollTime = pollTime;
+    }
+
+    /**
+     * Called for every VM status event received, before it is processed.
+     *
+     * @param notifyTime
+     *            the time VDSM reported the event at, may be null
+     */
+    synchronized void eventReceived(Double notifyTime) {
+        if (notifyTime == null) {
+            return;
+        }
+        if (lastNotifyTime != null && notifyTime < lastNotifyTime) {
+            invalidate();
+        }
+        lastNotifyTime = notifyTime;
+    }
+
+    /**
+     * Called when an event might have been lost or was not processed, the full list is fetched on the next poll.
+     */
+    synchronized void invalidate() {
+        eventsTrusted = false;
+        invalidatedDuringPoll = true;
+    }
+}
@@ -6,6 +6,11 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -14,6 +19,10 @@ import javax.inject.Singleton;
 import org.ovirt.engine.core.common.businessentities.IVdsEventListener;
 import org.ovirt.engine.core.common.businessentities.VmDynamic;
 import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.compat.TransactionScopeOption;
@@ -25,6 +34,7 @@ import org.ovirt.engine.core.dao.VmGuestAgentInterfaceDao;
 import org.ovirt.engine.core.dao.VmStatisticsDao;
 import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
 import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.VdsManager;
@@ -50,6 +60,10 @@ public class VmsMonitoring {
     private LunDisksMonitoring lunDisksMonitoring;
     @Inject
     private VmJobsMonitoring vmJobsMonitoring;
+    @Inject
+    private VmStatisticsPersistenceFilter vmStatisticsPersistenceFilter;
+    @Inject
+    private DashboardSummaryAggregator dashboardSummaryAggregator;
 
     @Inject
     private DiskImageDynamicDao diskImageDynamicDao;
@@ -68,6 +82,12 @@ public class VmsMonitoring {
 
     private static final Logger log = LoggerFactory.getLogger(VmsMonitoring.class);
 
+    /**
+     * The VMs of a host are analyzed by more than one thread only when each thread gets at least this number of VMs,
+     * so the analysis of the few VMs of most of the hosts is not slowed down by handing them over to other threads.
+     */
+    private static final int MIN_VMS_PER_ANALYSIS_THREAD = 20;
+
     /**
      * analyze and react upon changes on the monitoredVms. relevant changes would
      * be persisted and state transitions and internal commands would
@@ -91,12 +111,22 @@ public class VmsMonitoring {
 
         List<VmAnalyzer> vmAnalyzers = Collections.emptyList();
         try {
+            long analyzeStartTime = System.nanoTime();
             vmAnalyzers = analyzeVms(monitoredVms, fetchTime, vdsManager, updateStatistics);
             // It is important to add the unmanaged VMs before flushing the dynamic data into the database
             addUnmanagedVms(vmAnalyzers, vdsManager.getVdsId());
+            long flushStartTime = System.nanoTime();
             flush(vmAnalyzers);
+            long postFlushStartTime = System.nanoTime();
             postFlush(vmAnalyzers, vdsManager, fetchTime);
             vdsManager.vmsMonitoringInitFinished();
+            logDurations(vdsManager,
+                    vmAnalyzers.size(),
+                    fetchTime,
+                    analyzeStartTime,
+                    flushStartTime,
+                    postFlushStartTime,
+                    System.nanoTime());
         } catch (RuntimeException ex) {
             log.error("Failed during vms monitoring on host {} error is: {}", vdsManager.getVdsName(), ex);
             log.error("Exception:", ex);
@@ -127,28 +157,141 @@ public class VmsMonitoring {
             VdsManager vdsManager,
             boolean updateStatistics) {
         VmAnalyzerFactory vmAnalyzerFactory = getVmAnalyzerFactory(vdsManager, updateStatistics);
-        List<VmAnalyzer> vmAnalyzers = new ArrayList<>(monitoredVms.size());
+        List<Pair<VmDynamic, VdsmVm>> lockedVms = new ArrayList<>(monitoredVms.size());
         monitoredVms.forEach(vm -> {
             // TODO filter out migratingTo VMs if no action is taken on them
             if (shouldAnalyzeVm(vm, fetchTime, vdsManager.getVdsId())) {
-                try {
-                    VmAnalyzer vmAnalyzer = vmAnalyzerFactory.getVmAnalyzer(vm);
-                    vmAnalyzer.analyze();
-                    vmAnalyzers.add(vmAnalyzer);
-                } catch (RuntimeException ex) {
-                    Guid vmId = getVmId(vm.getFirst(), vm.getSecond());
-                    VmManager vmManager = getVmManager(vmId);
-                    vmManager.unlock();
-
-                    log.error("Failed during monitoring vm: {} , error is: {}", vmId, ex);
-                    log.error("Exception:", ex);
-                }
+                lockedVms.add(vm);
             }
         });
+
+        int threads = getAnalysisThreads(lockedVms.size());
+        List<VmAnalyzer> vmAnalyzers = threads > 1
+                ? analyzeVmsInParallel(lockedVms, vmAnalyzerFactory, threads)
+                : analyzeLockedVms(lockedVms, vmAnalyzerFactory);
         vmAnalyzers.sort(Comparator.comparing(VmAnalyzer::getVmId));
         return vmAnalyzers;
     }
 
+    private List<VmAnalyzer> analyzeLockedVms(
+            List<Pair<VmDynamic, VdsmVm>> lockedVms,
+            VmAnalyzerFactory vmAnalyzerFactory) {
+        List<VmAnalyzer> vmAnalyzers = new ArrayList<>(lockedVms.size());
+        lockedVms.forEach(vm -> {
+            try {
+                VmAnalyzer vmAnalyzer = vmAnalyzerFactory.getVmAnalyzer(vm);
+                vmAnalyzer.analyze();
+                vmAnalyzers.add(vmAnalyzer);
+            } catch (RuntimeException ex) {
+                Guid vmId = getVmId(vm.getFirst(), vm.getSecond());
+                VmManager vmManager = getVmManager(vmId);
+                vmManager.unlock();
+
+                log.error("Failed during monitoring vm: {} , error is: {}", vmId, ex);
+                log.error("Exception:", ex);
+            }
+        });
+        return vmAnalyzers;
+    }
+
+    private static int getAnalysisThreads(int vms) {
+        int maxThreads = Config.<Integer> getValue(ConfigValues.VmAnalysisThreads);
+        return Math.max(1, Math.min(maxThreads, vms / MIN_VMS_PER_ANALYSIS_THREAD));
+    }
+
+    /**
+     * Splits the VMs into a partition per thread, the first partition is analyzed by the monitoring thread and the
+     * others by the engine thread pool, or by the monitoring thread when the pool rejects them. The analyzers are
+     * returned once all the partitions are analyzed, so no locked VM is left behind.
+     * <p>
+     * The monitoring thread holds the locks of all the VMs while it waits, and the pool threads may be busy running
+     * commands which wait for these locks. So it then analyzes by itself every partition which no pool thread started
+     * yet, and only waits for the ones which are being analyzed.
+     */
+    List<VmAnalyzer> analyzeVmsInParallel(
+            List<Pair<VmDynamic, VdsmVm>> lockedVms,
+            VmAnalyzerFactory vmAnalyzerFactory,
+            int threads) {
+        int partitionSize = (lockedVms.size() + threads - 1) / threads;
+        List<FutureTask<List<VmAnalyzer>>> tasks = new ArrayList<>(threads);
+        for (int from = 0; from < lockedVms.size(); from += partitionSize) {
+            List<Pair<VmDynamic, VdsmVm>> partition =
+                    lockedVms.subList(from, Math.min(from + partitionSize, lockedVms.size()));
+            tasks.add(new FutureTask<>(() -> analyzeLockedVms(partition, vmAnalyzerFactory)));
+        }
+
+        for (FutureTask<List<VmAnalyzer>> task : tasks.subList(1, tasks.size())) {
+            try {
+                ThreadPoolUtil.execute(task);
+            } catch (RejectedExecutionException ex) {
+                task.run();
+            }
+        }
+        // running a task which was already started by the pool does nothing
+        tasks.forEach(FutureTask::run);
+
+        List<VmAnalyzer> vmAnalyzers = new ArrayList<>(lockedVms.size());
+        for (FutureTask<List<VmAnalyzer>> task : tasks) {
+            vmAnalyzers.addAll(getUninterruptibly(task));
+        }
+        return vmAnalyzers;
+    }
+
+    private static <T> T getUninterruptibly(Future<T> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    // the analysis of a single VM handles its runtime exceptions, so only errors get here
+                    throw new RuntimeException(ex.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Logs how long each stage of the monitoring cycle took, as a warning when the cycle took longer than the
+     * refresh rate of the host, so the next cycle was delayed.
+     */
+    private static void logDurations(
+            VdsManager vdsManager,
+            int vms,
+            long fetchTime,
+            long analyzeStartTime,
+            long flushStartTime,
+            long postFlushStartTime,
+            long endTime) {
+        long totalMillis = TimeUnit.NANOSECONDS.toMillis(endTime - fetchTime);
+        boolean delayed = totalMillis > TimeUnit.SECONDS.toMillis(Config.<Long> getValue(ConfigValues.VdsRefreshRate));
+        if (!delayed && !log.isDebugEnabled()) {
+            return;
+        }
+
+        String message = "Monitoring {} VMs of host '{}' took {} ms: fetch {} ms, analyze {} ms, flush {} ms,"
+                + " post flush {} ms";
+        Object[] arguments = {
+                vms,
+                vdsManager.getVdsName(),
+                totalMillis,
+                TimeUnit.NANOSECONDS.toMillis(analyzeStartTime - fetchTime),
+                TimeUnit.NANOSECONDS.toMillis(flushStartTime - analyzeStartTime),
+                TimeUnit.NANOSECONDS.toMillis(postFlushStartTime - flushStartTime),
+                TimeUnit.NANOSECONDS.toMillis(endTime - postFlushStartTime) };
+        if (delayed) {
+            log.warn(message, arguments);
+        } else {
+            log.debug(message, arguments);
+        }
+    }
+
     protected VmAnalyzerFactory getVmAnalyzerFactory(VdsManager vdsManager, boolean statistics) {
         return new VmAnalyzerFactory(
                 vdsManager,
@@ -289,24 +432,40 @@ public class VmsMonitoring {
     }
 
     private void saveVmDiskImageStatistics(List<VmAnalyzer> vmAnalyzers) {
-        diskImageDynamicDao.updateAllDiskImageDynamicWithDiskIdByVmId(vmAnalyzers.stream()
-                .map(VmAnalyzer::getVmDiskImageDynamicToSave)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList()));
+        List<Pair<Guid, DiskImageDynamic>> diskImageDynamics =
+                vmStatisticsPersistenceFilter.filterDiskImageDynamics(vmAnalyzers.stream()
+                        .map(VmAnalyzer::getVmDiskImageDynamicToSave)
+                        .flatMap(Collection::stream)
+                        .collect(Collectors.toList()));
+        if (isBulkUpdate(diskImageDynamics)) {
+            diskImageDynamicDao.updateAllDiskImageDynamicWithDiskIdByVmIdInBulk(diskImageDynamics);
+        } else {
+            diskImageDynamicDao.updateAllDiskImageDynamicWithDiskIdByVmId(diskImageDynamics);
+        }
+        vmStatisticsPersistenceFilter.diskImageDynamicsPersisted(diskImageDynamics);
     }
 
     private void saveVmDynamic(List<VmAnalyzer> vmAnalyzers) {
-        vmDynamicDao.updateAllInBatch(vmAnalyzers.stream()
+        List<VmDynamic> vmDynamics = vmAnalyzers.stream()
                 .map(VmAnalyzer::getVmDynamicToSave)
                 .filter(Objects::nonNull)
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList());
+        vmDynamicDao.updateAllInBatch(vmDynamics);
+        dashboardSummaryAggregator.updateVms(vmDynamics);
     }
 
     private void saveVmInterfaceStatistics(List<VmAnalyzer> vmAnalyzers) {
-        vmNetworkStatisticsDao.updateAllInBatch(vmAnalyzers.stream()
-                .map(VmAnalyzer::getVmNetworkStatistics)
-                .flatMap(List::stream)
-                .collect(Collectors.toList()));
+        List<VmNetworkStatistics> interfaceStatistics =
+                vmStatisticsPersistenceFilter.filterInterfaceStatistics(vmAnalyzers.stream()
+                        .map(VmAnalyzer::getVmNetworkStatistics)
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList()));
+        if (isBulkUpdate(interfaceStatistics)) {
+            vmNetworkStatisticsDao.updateAllInBulk(interfaceStatistics);
+        } else {
+            vmNetworkStatisticsDao.updateAllInBatch(interfaceStatistics);
+        }
+        vmStatisticsPersistenceFilter.interfaceStatisticsPersisted(interfaceStatistics);
     }
 
     private void saveVmStatistics(List<VmAnalyzer> vmAnalyzers) {
@@ -314,10 +473,24 @@ public class VmsMonitoring {
                 .map(VmAnalyzer::getVmStatisticsToSave)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-        vmStatisticsDao.updateAllInBatch(statistics);
+        List<VmStatistics> changedStatistics = vmStatisticsPersistenceFilter.filterVmStatistics(statistics);
+        if (isBulkUpdate(changedStatistics)) {
+            vmStatisticsDao.updateAllInBulk(changedStatistics);
+        } else {
+            vmStatisticsDao.updateAllInBatch(changedStatistics);
+        }
+        vmStatisticsPersistenceFilter.vmStatisticsPersisted(changedStatistics);
         statistics.forEach(stats -> getVmManager(stats.getId()).setStatistics(stats));
     }
 
+    /**
+     * Large hosts write their statistics with a bulk copy, in a single round-trip to the database
+     */
+    private static boolean isBulkUpdate(Collection<?> rows) {
+        int minRows = Config.<Integer>getValue(ConfigValues.StatisticsBulkUpdateMinRows);
+        return minRows > 0 && rows.size() >= minRows;
+    }
+
     protected void addUnmanagedVms(List<VmAnalyzer> vmAnalyzers, Guid vdsId) {
         List<Guid> unmanagedVmIds = vmAnalyzers.stream()
                 .filter(VmAnalyzer::isUnmanagedVm)
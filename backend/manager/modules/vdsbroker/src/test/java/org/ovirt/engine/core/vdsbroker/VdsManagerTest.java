@@ -0,0 +1,195 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.transaction.TransactionManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VdsDynamic;
+import org.ovirt.engine.core.common.businessentities.VdsSpmStatus;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VdsChangeNotifier;
+import org.ovirt.engine.core.dao.VdsDao;
+import org.ovirt.engine.core.dao.VdsDynamicDao;
+import org.ovirt.engine.core.utils.InjectedMock;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.MockedConfig;
+import org.ovirt.engine.core.vdsbroker.monitoring.DashboardSummaryAggregator;
+
+@ExtendWith({ MockConfigExtension.class, InjectorExtension.class })
+public class VdsManagerTest {
+
+    private static final Guid VDS_ID = Guid.newGuid();
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return mockConfiguration(60);
+    }
+
+    public static Stream<MockConfigDescriptor<?>> noVerifyIntervalConfiguration() {
+        return mockConfiguration(0);
+    }
+
+    private static Stream<MockConfigDescriptor<?>> mockConfiguration(int verifyInterval) {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.VdsRefreshRate, 3L),
+                MockConfigDescriptor.of(ConfigValues.NumberVmRefreshesBeforeSave, 5),
+                MockConfigDescriptor.of(ConfigValues.VdsCacheVerifyIntervalInSeconds, verifyInterval),
+                MockConfigDescriptor.of(ConfigValues.TimeoutToResetVdsInSeconds, 60),
+                MockConfigDescriptor.of(ConfigValues.DelayResetForSpmInSeconds, 20.0),
+                MockConfigDescriptor.of(ConfigValues.DelayResetPerVmInSeconds, 0.5));
+    }
+
+    @Mock
+    private VdsDao vdsDao;
+
+    @Mock
+    private VdsDynamicDao vdsDynamicDao;
+
+    @Spy
+    private VdsChangeNotifier vdsChangeNotifier = new VdsChangeNotifier();
+
+    @Mock
+    private DashboardSummaryAggregator dashboardSummaryAggregator;
+
+    @InjectedMock
+    public TransactionManager transactionManager = mock(TransactionManager.class);
+
+    @InjectMocks
+    private VdsManager vdsManager;
+
+    private VDS dbVds;
+
+    @BeforeEach
+    public void setUp() {
+        vdsManager = new VdsManager(createVds(VDSStatus.Up, 0, VdsSpmStatus.None), null);
+        initMocks(this);
+
+        dbVds = createVds(VDSStatus.Up, 0, VdsSpmStatus.None);
+        when(vdsDao.get(VDS_ID)).thenAnswer(invocation -> dbVds);
+        // the DAOs notify the changes of the host, as done by the resource manager the host is invalidated
+        doAnswer(invocation -> {
+            vdsChangeNotifier.vdsChanged(VDS_ID);
+            return null;
+        }).when(vdsDynamicDao).updateIfNeeded(any());
+        vdsChangeNotifier.addListener(vdsId -> vdsManager.invalidateCachedVds());
+    }
+
+    @Test
+    public void testFirstRefreshLoadsVds() {
+        dbVds.setStatus(VDSStatus.Maintenance);
+
+        vdsManager.reloadCachedVdsIfNeeded();
+
+        verify(vdsDao, times(1)).get(VDS_ID);
+        assertEquals(VDSStatus.Maintenance, vdsManager.getStatus());
+    }
+
+    @Test
+    public void testRefreshWithinVerifyIntervalUsesCachedVds() {
+        vdsManager.reloadCachedVdsIfNeeded();
+        dbVds = createVds(VDSStatus.Maintenance, 0, VdsSpmStatus.None);
+
+        vdsManager.reloadCachedVdsIfNeeded();
+
+        verify(vdsDao, times(1)).get(VDS_ID);
+        assertEquals(VDSStatus.Up, vdsManager.getStatus());
+    }
+
+    @Test
+    public void testRefreshAfterInvalidationReloadsVds() {
+        vdsManager.reloadCachedVdsIfNeeded();
+        dbVds = createVds(VDSStatus.Maintenance, 0, VdsSpmStatus.None);
+
+        vdsManager.invalidateCachedVds();
+        vdsManager.reloadCachedVdsIfNeeded();
+
+        verify(vdsDao, times(2)).get(VDS_ID);
+        assertEquals(VDSStatus.Maintenance, vdsManager.getStatus());
+    }
+
+    @Test
+    public void testDaoWriteIsNotRevertedByNextRefresh() {
+        vdsManager.reloadCachedVdsIfNeeded();
+        // e.g. a command marks the network configuration of the host as changed
+        dbVds = createVds(VDSStatus.Up, 0, VdsSpmStatus.None);
+        dbVds.setNetConfigDirty(true);
+        vdsChangeNotifier.vdsChanged(VDS_ID);
+
+        vdsManager.reloadCachedVdsIfNeeded();
+        vdsManager.updateDynamicData(vdsManager.getCopyVds().getDynamicData());
+
+        ArgumentCaptor<VdsDynamic> saved = ArgumentCaptor.forClass(VdsDynamic.class);
+        verify(vdsDynamicDao).updateIfNeeded(saved.capture());
+        assertTrue(saved.getValue().getNetConfigDirty());
+    }
+
+    @Test
+    public void testWriteOfCachedVdsDoesNotInvalidateIt() {
+        vdsManager.reloadCachedVdsIfNeeded();
+
+        vdsManager.updateDynamicData(vdsManager.getCopyVds().getDynamicData());
+        vdsManager.reloadCachedVdsIfNeeded();
+
+        verify(vdsDao, times(1)).get(VDS_ID);
+    }
+
+    @Test
+    @MockedConfig("noVerifyIntervalConfiguration")
+    public void testRefreshWithoutVerifyIntervalAlwaysReloadsVds() {
+        vdsManager.reloadCachedVdsIfNeeded();
+        vdsManager.reloadCachedVdsIfNeeded();
+        vdsManager.reloadCachedVdsIfNeeded();
+
+        verify(vdsDao, times(3)).get(VDS_ID);
+    }
+
+    @Test
+    public void testTimeoutToFenceUsesCurrentVmCountAndSpmStatus() {
+        vdsManager.reloadCachedVdsIfNeeded();
+        // changed by the VMs monitoring and the SPM election, without invalidating the cached host
+        dbVds = createVds(VDSStatus.Up, 10, VdsSpmStatus.SPM);
+
+        assertEquals(TimeUnit.SECONDS.toMillis(60 + 20 + 5), vdsManager.calcTimeoutToFence());
+    }
+
+    @Test
+    public void testTimeoutToFenceOfRemovedVdsUsesCachedVds() {
+        dbVds = createVds(VDSStatus.Up, 4, VdsSpmStatus.None);
+        vdsManager.reloadCachedVdsIfNeeded();
+        dbVds = null;
+
+        assertEquals(TimeUnit.SECONDS.toMillis(60 + 2), vdsManager.calcTimeoutToFence());
+    }
+
+    private static VDS createVds(VDSStatus status, int vmCount, VdsSpmStatus spmStatus) {
+        VDS vds = new VDS();
+        vds.setId(VDS_ID);
+        vds.setVdsName("host");
+        vds.setStatus(status);
+        vds.setVmCount(vmCount);
+        vds.setSpmStatus(spmStatus);
+        return vds;
+    }
+}
@@ -0,0 +1,66 @@
+package org.ovirt.engine.core.vdsbroker.jsonrpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Map;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class JsonNodeMapTest {
+
+    private static final String JSON =
+            "{\"name\": \"vm1\", \"memUsage\": 10, \"network\": {\"vnet0\": {\"rxRate\": 1.5}}, "
+                    + "\"disks\": [{\"path\": \"/a\"}, {\"path\": \"/b\"}]}";
+
+    private JsonNodeMap map;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        map = new JsonNodeMap(new ObjectMapper().readTree(JSON));
+    }
+
+    @Test
+    public void testValuesAreConverted() {
+        assertEquals("vm1", map.get("name"));
+        assertEquals(10, map.get("memUsage"));
+        assertEquals(1.5, getMap(getMap(map, "network"), "vnet0").get("rxRate"));
+        assertEquals("/b", ((Map<?, ?>) ((Object[]) map.get("disks"))[1]).get("path"));
+        assertNull(map.get("missing"));
+    }
+
+    @Test
+    public void testNestedValuesAreConvertedOnce() {
+        assertSame(map.get("network"), map.get("network"));
+        assertSame(map.get("disks"), map.get("disks"));
+        assertSame(map.get("network"), map.entrySet().stream()
+                .filter(entry -> entry.getKey().equals("network"))
+                .findFirst()
+                .get()
+                .getValue());
+    }
+
+    @Test
+    public void testChangeOfNestedViewIsKept() {
+        getMap(map, "network").put("vnet1", "added");
+
+        assertEquals("added", getMap(map, "network").get("vnet1"));
+    }
+
+    @Test
+    public void testChangeOfNestedViewIsKeptWhenParentIsCopied() {
+        getMap(map, "network").put("vnet1", "added");
+        map.put("name", "vm2");
+
+        assertEquals("vm2", map.get("name"));
+        assertEquals("added", getMap(map, "network").get("vnet1"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> getMap(Map<String, Object> map, String key) {
+        return (Map<String, Object>) map.get(key);
+    }
+}
@@ -1,6 +1,8 @@
 package org.ovirt.engine.core.vdsbroker.jsonrpc;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -25,6 +27,7 @@ import org.ovirt.engine.core.vdsbroker.vdsbroker.IQNListReturn;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.ServerConnectionStatusReturn;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.Status;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VDSInfoReturn;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VMInfoListReturn;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VMListReturn;
 import org.ovirt.vdsm.jsonrpc.client.JsonRpcClient;
 import org.ovirt.vdsm.jsonrpc.client.JsonRpcRequest;
@@ -426,6 +429,57 @@ public class MarshallingTestCase {
         assertEquals(37, parseFullTargets(list.getIqnList()).size());
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLazilyDecodedVmStats() throws Exception {
+        // Given
+        String json =
+                "{\"jsonrpc\": \"2.0\", \"id\": \"bf2ea5d9-7e04-4c1e-8d26-0e0ad4d1d4a0\", \"result\": [{\"vmId\": "
+                        + "\"e4a0fc02-c5ad-4b35-b2d0-5a4b6557c06b\", \"status\": \"Up\", \"monitorResponse\": 0, \"cpuUser\": \"1.25\", "
+                        + "\"elapsedTime\": 12.5, \"memUsage\": 4294967296, \"acpiEnable\": true, \"guestName\": null, "
+                        + "\"network\": {\"vnet0\": {\"rxErrors\": \"0\"}}, \"disksUsage\": [], \"vcpuCount\": \"2\"}]}";
+        ObjectMapper mapper = new ObjectMapper();
+        JsonRpcResponse response = JsonRpcResponse.fromJsonNode(mapper.readTree(json));
+        Future<JsonRpcResponse> future = mock(Future.class);
+        when(future.get()).thenReturn(response);
+        JsonRpcClient client = mock(JsonRpcClient.class);
+        JsonRpcRequest request = mock(JsonRpcRequest.class);
+        when(client.call(request)).thenReturn(future);
+
+        // When
+        Map<String, Object> map =
+                new FutureMap(client, request).withResponseKey("statsList")
+                        .withResponseType(Object[].class)
+                        .withLazyDecoding();
+
+        // Then
+        VMInfoListReturn vmInfoList = new VMInfoListReturn(map);
+        assertEquals(0, vmInfoList.status.code);
+        assertEquals(1, vmInfoList.infoList.length);
+
+        Map<String, Object> vm = vmInfoList.infoList[0];
+        assertEquals(11, vm.size());
+        assertEquals("Up", vm.get("status"));
+        assertEquals(0, vm.get("monitorResponse"));
+        assertEquals(12.5, vm.get("elapsedTime"));
+        assertEquals(4294967296L, vm.get("memUsage"));
+        assertEquals(true, vm.get("acpiEnable"));
+        assertTrue(vm.containsKey("guestName"));
+        assertNull(vm.get("guestName"));
+        assertFalse(vm.containsKey("guestIPs"));
+        assertEquals(0, ((Object[]) vm.get("disksUsage")).length);
+        Map<String, Object> network = (Map<String, Object>) vm.get("network");
+        assertEquals("0", ((Map<String, Object>) network.get("vnet0")).get("rxErrors"));
+
+        // modifications are done on a copy of the response
+        vm.put("status", "Down");
+        vm.remove("cpuUser");
+        assertEquals("Down", vm.get("status"));
+        assertFalse(vm.containsKey("cpuUser"));
+        assertEquals(10, vm.size());
+        assertEquals("Up", response.getResult().get(0).get("status").getTextValue());
+    }
+
     // copied from DiscoverSendTargetsVDSCommand
     private List<StorageServerConnections> parseFullTargets(List<String> iqnList) {
         ArrayList<StorageServerConnections> connections = new ArrayList<>(iqnList.size());
@@ -0,0 +1,226 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.DashboardClusterUtilization;
+import org.ovirt.engine.core.common.businessentities.DashboardSummary;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VdsChangeNotifier;
+import org.ovirt.engine.core.dao.VdsDao;
+import org.ovirt.engine.core.dao.VmDynamicDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith({MockitoExtension.class, MockConfigExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class DashboardSummaryAggregatorTest {
+
+    private static final Guid CLUSTER_ID = Guid.newGuid();
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.DashboardSummaryReloadIntervalInMinutes, 10));
+    }
+
+    @Mock
+    private VdsDao vdsDao;
+
+    @Mock
+    private VmDynamicDao vmDynamicDao;
+
+    @Mock
+    private ManagedScheduledExecutorService schedulerService;
+
+    @Spy
+    private VdsChangeNotifier vdsChangeNotifier = new VdsChangeNotifier();
+
+    @InjectMocks
+    private DashboardSummaryAggregator aggregator;
+
+    private final List<VDS> hosts = new ArrayList<>();
+    private final List<VmDynamic> vms = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        when(vdsDao.getAll()).thenReturn(hosts);
+        when(vmDynamicDao.getAll()).thenReturn(vms);
+        aggregator.init();
+    }
+
+    @Test
+    public void testSummaryIsLoadedOnce() {
+        hosts.add(createHost(VDSStatus.Up, 8, 50, 1000, 20));
+        hosts.add(createHost(VDSStatus.Up, 24, 10, 3000, 40));
+        hosts.add(createHost(VDSStatus.Maintenance, 8, 0, 1000, 0));
+        vms.add(createVm(VMStatus.Up));
+        vms.add(createVm(VMStatus.Up));
+        vms.add(createVm(VMStatus.Down));
+
+        aggregator.getSummary();
+        DashboardSummary summary = aggregator.getSummary();
+
+        verify(vdsDao, times(1)).getAll();
+        verify(vmDynamicDao, times(1)).getAll();
+        assertEquals(2, (int) summary.getHostCountsByStatus().get(VDSStatus.Up));
+        assertEquals(1, (int) summary.getHostCountsByStatus().get(VDSStatus.Maintenance));
+        assertEquals(2, (int) summary.getVmCountsByStatus().get(VMStatus.Up));
+        assertEquals(1, (int) summary.getVmCountsByStatus().get(VMStatus.Down));
+        // only the hosts which are up are part of the utilization
+        DashboardClusterUtilization cluster = getClusterUtilization(summary);
+        assertEquals(32, cluster.getCpuCores());
+        assertEquals(20, cluster.getCpuUsagePercent(), 0.001);
+        assertEquals(35, cluster.getMemUsagePercent(), 0.001);
+    }
+
+    @Test
+    public void testHostUpdateReplacesItsContribution() {
+        VDS host = createHost(VDSStatus.Up, 8, 50, 1000, 20);
+        hosts.add(host);
+        hosts.add(createHost(VDSStatus.Up, 8, 10, 1000, 40));
+        aggregator.getSummary();
+
+        aggregator.updateHost(createHost(host.getId(), VDSStatus.Up, 8, 90, 1000, 20));
+        assertEquals(50, getClusterUtilization(aggregator.getSummary()).getCpuUsagePercent(), 0.001);
+
+        aggregator.updateHost(createHost(host.getId(), VDSStatus.NonResponsive, 8, 0, 1000, 0));
+        DashboardSummary summary = aggregator.getSummary();
+        assertEquals(1, (int) summary.getHostCountsByStatus().get(VDSStatus.Up));
+        assertEquals(1, (int) summary.getHostCountsByStatus().get(VDSStatus.NonResponsive));
+        assertEquals(10, getClusterUtilization(summary).getCpuUsagePercent(), 0.001);
+        verify(vdsDao, times(1)).getAll();
+    }
+
+    @Test
+    public void testClusterWithoutHostsUpIsRemoved() {
+        VDS host = createHost(VDSStatus.Up, 8, 50, 1000, 20);
+        hosts.add(host);
+        aggregator.getSummary();
+
+        aggregator.updateHost(createHost(host.getId(), VDSStatus.Maintenance, 8, 0, 1000, 0));
+
+        DashboardSummary summary = aggregator.getSummary();
+        assertTrue(summary.getClusterUtilization().isEmpty());
+        assertNull(summary.getHostCountsByStatus().get(VDSStatus.Up));
+    }
+
+    @Test
+    public void testVmUpdatesAndDeletionChangeCounts() {
+        VmDynamic vm = createVm(VMStatus.Down);
+        vms.add(vm);
+        vms.add(createVm(VMStatus.Up));
+        aggregator.getSummary();
+
+        aggregator.updateVms(Collections.singletonList(createVm(vm.getId(), VMStatus.Up)));
+        assertEquals(2, (int) aggregator.getSummary().getVmCountsByStatus().get(VMStatus.Up));
+        assertNull(aggregator.getSummary().getVmCountsByStatus().get(VMStatus.Down));
+
+        aggregator.onVmDelete(vm.getId());
+        assertEquals(1, (int) aggregator.getSummary().getVmCountsByStatus().get(VMStatus.Up));
+    }
+
+    @Test
+    public void testHostChangedOutsideOfMonitoringIsReloaded() {
+        VDS host = createHost(VDSStatus.Up, 8, 50, 1000, 20);
+        hosts.add(host);
+        aggregator.getSummary();
+
+        // e.g. a command moves the host to maintenance
+        when(vdsDao.get(host.getId())).thenReturn(createHost(host.getId(), VDSStatus.Maintenance, 8, 0, 1000, 0));
+        vdsChangeNotifier.vdsChanged(host.getId());
+
+        DashboardSummary summary = aggregator.getSummary();
+        assertEquals(1, (int) summary.getHostCountsByStatus().get(VDSStatus.Maintenance));
+        assertNull(summary.getHostCountsByStatus().get(VDSStatus.Up));
+        verify(vdsDao, times(1)).get(host.getId());
+
+        // the removed host is removed from the summary
+        when(vdsDao.get(host.getId())).thenReturn(null);
+        vdsChangeNotifier.vdsChanged(host.getId());
+        assertTrue(aggregator.getSummary().getHostCountsByStatus().isEmpty());
+    }
+
+    @Test
+    public void testUpdateWhileReloadingIsKept() {
+        VDS host = createHost(VDSStatus.Up, 8, 50, 1000, 20);
+        VmDynamic vm = createVm(VMStatus.Up);
+        hosts.add(host);
+        vms.add(vm);
+        aggregator.getSummary();
+
+        // the monitoring updates the host and the VM after they were loaded by the reload
+        when(vmDynamicDao.getAll()).thenAnswer(invocation -> {
+            aggregator.updateHost(createHost(host.getId(), VDSStatus.NonResponsive, 8, 0, 1000, 0));
+            aggregator.updateVms(Collections.singletonList(createVm(vm.getId(), VMStatus.Unknown)));
+            return Arrays.asList(vm, createVm(VMStatus.Down));
+        });
+        aggregator.reload();
+
+        DashboardSummary summary = aggregator.getSummary();
+        assertEquals(1, (int) summary.getHostCountsByStatus().get(VDSStatus.NonResponsive));
+        assertNull(summary.getHostCountsByStatus().get(VDSStatus.Up));
+        assertEquals(1, (int) summary.getVmCountsByStatus().get(VMStatus.Unknown));
+        assertEquals(1, (int) summary.getVmCountsByStatus().get(VMStatus.Down));
+        assertNull(summary.getVmCountsByStatus().get(VMStatus.Up));
+    }
+
+    private static DashboardClusterUtilization getClusterUtilization(DashboardSummary summary) {
+        assertEquals(1, summary.getClusterUtilization().size());
+        DashboardClusterUtilization cluster = summary.getClusterUtilization().get(0);
+        assertEquals(CLUSTER_ID, cluster.getClusterId());
+        return cluster;
+    }
+
+    private static VDS createHost(VDSStatus status, int cpuCores, int cpuUsage, int memMb, int memUsage) {
+        return createHost(Guid.newGuid(), status, cpuCores, cpuUsage, memMb, memUsage);
+    }
+
+    private static VDS createHost(Guid id, VDSStatus status, int cpuCores, int cpuUsage, int memMb, int memUsage) {
+        VDS vds = new VDS();
+        vds.setId(id);
+        vds.setClusterId(CLUSTER_ID);
+        vds.setClusterName("cluster");
+        vds.setStatus(status);
+        vds.setCpuCores(cpuCores);
+        vds.setUsageCpuPercent(cpuUsage);
+        vds.setPhysicalMemMb(memMb);
+        vds.setUsageMemPercent(memUsage);
+        return vds;
+    }
+
+    private static VmDynamic createVm(VMStatus status) {
+        return createVm(Guid.newGuid(), status);
+    }
+
+    private static VmDynamic createVm(Guid id, VMStatus status) {
+        VmDynamic vm = new VmDynamic();
+        vm.setId(id);
+        vm.setStatus(status);
+        return vm;
+    }
+}
@@ -0,0 +1,99 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.vdsbroker.monitoring.StatisticsChangeTracker.ChangeType;
+import org.ovirt.engine.core.vdsbroker.monitoring.StatisticsChangeTracker.TrackedField;
+
+public class StatisticsChangeTrackerTest {
+
+    private static final long FULL_FLUSH_INTERVAL = 300_000;
+    private static final double PERCENTAGE_POINTS_THRESHOLD = 1;
+    private static final double RELATIVE_THRESHOLD = 5;
+
+    private StatisticsChangeTracker<Guid, VmStatistics> tracker;
+    private VmStatistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        tracker = new StatisticsChangeTracker<>(VmStatistics::getId, Arrays.asList(
+                new TrackedField<>(VmStatistics::getUsageCpuPercent, ChangeType.PERCENTAGE_POINTS),
+                new TrackedField<>(VmStatistics::getGuestMemoryFree, ChangeType.RELATIVE),
+                new TrackedField<>(VmStatistics::getDisksUsage, ChangeType.EXACT),
+                new TrackedField<>(VmStatistics::getElapsedTime, ChangeType.DECREASE)));
+        statistics = new VmStatistics(Guid.newGuid());
+        statistics.setUsageCpuPercent(10);
+        statistics.setGuestMemoryFree(1000L);
+        statistics.setElapsedTime(100.0);
+        tracker.persisted(Collections.singletonList(statistics), 0);
+    }
+
+    @Test
+    public void notPersistedStatisticsAreChanged() {
+        VmStatistics other = new VmStatistics(Guid.newGuid());
+        assertEquals(Collections.singletonList(other), filter(Collections.singletonList(other), 1));
+    }
+
+    @Test
+    public void changesWithinThresholdsAreSkipped() {
+        statistics.setUsageCpuPercent(11);
+        statistics.setGuestMemoryFree(1040L);
+        statistics.setElapsedTime(115.0);
+        assertTrue(filter(Collections.singletonList(statistics), 1).isEmpty());
+    }
+
+    @Test
+    public void percentageChangeBeyondThresholdIsPersisted() {
+        statistics.setUsageCpuPercent(12);
+        assertEquals(1, filter(Collections.singletonList(statistics), 1).size());
+    }
+
+    @Test
+    public void relativeChangeBeyondThresholdIsPersisted() {
+        statistics.setGuestMemoryFree(900L);
+        assertEquals(1, filter(Collections.singletonList(statistics), 1).size());
+    }
+
+    @Test
+    public void exactChangeIsPersisted() {
+        statistics.setDisksUsage("[]");
+        assertEquals(1, filter(Collections.singletonList(statistics), 1).size());
+    }
+
+    @Test
+    public void decreaseIsPersisted() {
+        statistics.setElapsedTime(5.0);
+        assertEquals(1, filter(Collections.singletonList(statistics), 1).size());
+    }
+
+    @Test
+    public void unchangedStatisticsArePersistedAfterFullFlushInterval() {
+        assertEquals(1, filter(Collections.singletonList(statistics), FULL_FLUSH_INTERVAL).size());
+    }
+
+    @Test
+    public void invalidatedStatisticsArePersisted() {
+        tracker.invalidate(statistics.getId());
+        assertEquals(1, filter(Collections.singletonList(statistics), 1).size());
+    }
+
+    @Test
+    public void oldSnapshotsAreRemoved() {
+        tracker.removePersistedBefore(1);
+        assertEquals(0, tracker.size());
+    }
+
+    private List<VmStatistics> filter(List<VmStatistics> entities, long now) {
+        return tracker.filterChanged(entities, now, FULL_FLUSH_INTERVAL, PERCENTAGE_POINTS_THRESHOLD,
+                RELATIVE_THRESHOLD);
+    }
+}
@@ -0,0 +1,74 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class VmStatusEventsTrackerTest {
+
+    private static final long SAFETY_INTERVAL = 60_000;
+
+    private VmStatusEventsTracker tracker;
+
+    @BeforeEach
+    public void setUp() {
+        tracker = new VmStatusEventsTracker();
+    }
+
+    private void fullPoll(long pollTime) {
+        tracker.fullPollStarted();
+        tracker.fullPollDone(pollTime);
+    }
+
+    @Test
+    public void fullPollNeededBeforeFirstPoll() {
+        assertTrue(tracker.isFullPollNeeded(1000, SAFETY_INTERVAL));
+    }
+
+    @Test
+    public void fullPollSkippedWhileEventsAreTrusted() {
+        fullPoll(1000);
+        tracker.eventReceived(10.0);
+        tracker.eventReceived(20.0);
+
+        assertFalse(tracker.isFullPollNeeded(1000 + SAFETY_INTERVAL - 1, SAFETY_INTERVAL));
+    }
+
+    @Test
+    public void fullPollNeededAfterSafetyInterval() {
+        fullPoll(1000);
+
+        assertTrue(tracker.isFullPollNeeded(1000 + SAFETY_INTERVAL, SAFETY_INTERVAL));
+    }
+
+    @Test
+    public void fullPollNeededWhenNotifyTimeGoesBackwards() {
+        fullPoll(1000);
+        tracker.eventReceived(20.0);
+        tracker.eventReceived(10.0);
+
+        assertTrue(tracker.isFullPollNeeded(2000, SAFETY_INTERVAL));
+    }
+
+    @Test
+    public void fullPollNeededAfterInvalidation() {
+        fullPoll(1000);
+        tracker.invalidate();
+
+        assertTrue(tracker.isFullPollNeeded(2000, SAFETY_INTERVAL));
+
+        fullPoll(2000);
+        assertFalse(tracker.isFullPollNeeded(3000, SAFETY_INTERVAL));
+    }
+
+    @Test
+    public void invalidationDuringPollIsKept() {
+        tracker.fullPollStarted();
+        tracker.invalidate();
+        tracker.fullPollDone(1000);
+
+        assertTrue(tracker.isFullPollNeeded(2000, SAFETY_INTERVAL));
+    }
+}
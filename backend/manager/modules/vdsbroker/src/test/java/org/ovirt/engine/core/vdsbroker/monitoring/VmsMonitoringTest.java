@@ -0,0 +1,215 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.ExecutorServiceExtension;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+import org.ovirt.engine.core.vdsbroker.ResourceManager;
+import org.ovirt.engine.core.vdsbroker.VmManager;
+
+/**
+ * Tests the analysis of the VMs of a host by more than one thread.
+ */
+@ExtendWith({ MockitoExtension.class, ExecutorServiceExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class VmsMonitoringTest {
+
+    private static final int VMS = 60;
+    private static final int THREADS = 3;
+
+    @Mock
+    private ResourceManager resourceManager;
+    @Mock
+    private VmAnalyzerFactory vmAnalyzerFactory;
+
+    @InjectMocks
+    private VmsMonitoring vmsMonitoring;
+
+    private List<Pair<VmDynamic, VdsmVm>> lockedVms;
+    private List<Guid> vmIds;
+    private final Map<Guid, VmManager> vmManagers = new ConcurrentHashMap<>();
+    private final Map<Guid, VmAnalyzer> vmAnalyzers = new ConcurrentHashMap<>();
+    /**
+     * The VMs in the order they were analyzed, with the threads which analyzed them
+     */
+    private final List<Pair<Guid, Thread>> analyzedVms = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void setUp() {
+        lockedVms = Stream.generate(VmsMonitoringTest::createVm).limit(VMS).collect(Collectors.toList());
+        vmIds = lockedVms.stream().map(vm -> vm.getFirst().getId()).collect(Collectors.toList());
+
+        vmIds.forEach(vmId -> {
+            vmManagers.put(vmId, mock(VmManager.class));
+            vmAnalyzers.put(vmId, createVmAnalyzer(vmId));
+        });
+
+        when(resourceManager.getVmManager(any())).thenAnswer(invocation -> vmManagers.get(invocation.getArgument(0)));
+        when(vmAnalyzerFactory.getVmAnalyzer(any())).thenAnswer(invocation -> {
+            Pair<VmDynamic, VdsmVm> vm = invocation.getArgument(0);
+            return vmAnalyzers.get(vm.getFirst().getId());
+        });
+    }
+
+    @Test
+    public void testParallelAnalysisReturnsAllVmsInOrder() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS - 1);
+        ThreadPoolUtil.setExecutorService(executor);
+        try {
+            assertEquals(vmIds, getVmIds(analyzeVmsInParallel()));
+            assertEquals(VMS, analyzedVms.size());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testParallelAnalysisSubmitsPartitionPerThread() {
+        QueuingExecutor executor = new QueuingExecutor();
+        ThreadPoolUtil.setExecutorService(executor);
+
+        analyzeVmsInParallel();
+
+        // the first partition is analyzed by the monitoring thread
+        assertEquals(THREADS - 1, executor.queued.size());
+    }
+
+    @Test
+    public void testParallelAnalysisDoesNotWaitForSaturatedPool() {
+        QueuingExecutor executor = new QueuingExecutor();
+        ThreadPoolUtil.setExecutorService(executor);
+
+        List<VmAnalyzer> result = analyzeVmsInParallel();
+
+        // the pool never started the partitions, so the monitoring thread analyzed them all
+        assertEquals(vmIds, getVmIds(result));
+        assertTrue(analyzedVms.stream().allMatch(vm -> vm.getSecond() == Thread.currentThread()));
+
+        // the partitions are not analyzed again once the pool gets to them
+        executor.queued.forEach(Runnable::run);
+        assertEquals(VMS, analyzedVms.size());
+    }
+
+    @Test
+    public void testParallelAnalysisFallsBackToMonitoringThreadWhenPoolRejects() {
+        QueuingExecutor executor = new QueuingExecutor();
+        executor.shutdown();
+        ThreadPoolUtil.setExecutorService(executor);
+
+        assertEquals(vmIds, getVmIds(analyzeVmsInParallel()));
+        assertTrue(analyzedVms.stream().allMatch(vm -> vm.getSecond() == Thread.currentThread()));
+    }
+
+    @Test
+    public void testParallelAnalysisUnlocksVmWhoseAnalysisFailed() {
+        ThreadPoolUtil.setExecutorService(new QueuingExecutor());
+        Guid failedVmId = vmIds.get(VMS - 1);
+        doThrow(new IllegalStateException()).when(vmAnalyzers.get(failedVmId)).analyze();
+
+        List<Guid> analyzedVmIds = getVmIds(analyzeVmsInParallel());
+
+        assertEquals(vmIds.subList(0, VMS - 1), analyzedVmIds);
+        verify(vmManagers.get(failedVmId)).unlock();
+        vmIds.subList(0, VMS - 1).forEach(vmId -> verify(vmManagers.get(vmId), never()).unlock());
+    }
+
+    private List<VmAnalyzer> analyzeVmsInParallel() {
+        return vmsMonitoring.analyzeVmsInParallel(lockedVms, vmAnalyzerFactory, THREADS);
+    }
+
+    private VmAnalyzer createVmAnalyzer(Guid vmId) {
+        VmAnalyzer vmAnalyzer = mock(VmAnalyzer.class);
+        when(vmAnalyzer.getVmId()).thenReturn(vmId);
+        doAnswer(invocation -> {
+            analyzedVms.add(new Pair<>(vmId, Thread.currentThread()));
+            return null;
+        }).when(vmAnalyzer).analyze();
+        return vmAnalyzer;
+    }
+
+    private static List<Guid> getVmIds(List<VmAnalyzer> vmAnalyzers) {
+        return vmAnalyzers.stream().map(VmAnalyzer::getVmId).collect(Collectors.toList());
+    }
+
+    private static Pair<VmDynamic, VdsmVm> createVm() {
+        VmDynamic vmDynamic = new VmDynamic();
+        vmDynamic.setId(Guid.newGuid());
+        return new Pair<>(vmDynamic, null);
+    }
+
+    /**
+     * A saturated pool, which queues the tasks without running them, or rejects them once shut down.
+     */
+    private static class QueuingExecutor extends AbstractExecutorService {
+
+        private final List<Runnable> queued = new ArrayList<>();
+        private boolean shutdown;
+
+        @Override
+        public void execute(Runnable command) {
+            if (shutdown) {
+                throw new RejectedExecutionException();
+            }
+            queued.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return new ArrayList<>(queued);
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
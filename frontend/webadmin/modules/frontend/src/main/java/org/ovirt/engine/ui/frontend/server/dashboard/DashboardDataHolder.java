@@ -0,0 +1,118 @@
+package org.ovirt.engine.ui.frontend.server.dashboard;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the last loaded value of a part of the dashboard. Requests get the held value without waiting for its
+ * queries, a value older than the refresh interval is replaced by a single refresh running in the background. Only the
+ * requests arriving before the first value is loaded wait for it.
+ *
+ * @param <T> the type of the held value
+ */
+class DashboardDataHolder<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardDataHolder.class);
+
+    /**
+     * Loads the value from the database.
+     */
+    interface Loader<T> {
+        T load() throws DashboardDataException;
+    }
+
+    private final String name;
+    private final Loader<T> loader;
+    private final long refreshIntervalMillis;
+    private final Executor executor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile T value;
+    private volatile long loadTime;
+
+    /**
+     * @param name
+     *            the name of the value, for the log
+     * @param loader
+     *            loads the value
+     * @param refreshIntervalMillis
+     *            the age after which the value is refreshed
+     * @param executor
+     *            runs the refreshes triggered by the requests
+     */
+    DashboardDataHolder(String name, Loader<T> loader, long refreshIntervalMillis, Executor executor) {
+        this.name = name;
+        this.loader = loader;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.executor = executor;
+    }
+
+    /**
+     * @return the held value, the value is loaded if it was never loaded
+     * @throws DashboardDataException
+     *             if the value was never loaded and loading it fails
+     */
+    T get() throws DashboardDataException {
+        T current = value;
+        if (current == null) {
+            return loadFirst();
+        }
+        if (System.currentTimeMillis() - loadTime >= refreshIntervalMillis) {
+            refreshInBackground();
+        }
+        return current;
+    }
+
+    private synchronized T loadFirst() throws DashboardDataException {
+        if (value == null) {
+            load();
+        }
+        return value;
+    }
+
+    /**
+     * Loads the value on the calling thread, unless it is being refreshed.
+     */
+    void refresh() throws DashboardDataException {
+        if (refreshing.compareAndSet(false, true)) {
+            try {
+                load();
+            } finally {
+                refreshing.set(false);
+            }
+        }
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    load();
+                } catch (DashboardDataException e) {
+                    log.error("Could not refresh the dashboard {} data: {}", name, e.getMessage(), e); //$NON-NLS-1$
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+            log.debug("Could not schedule the refresh of the dashboard {} data: {}", name, e.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    private void load() throws DashboardDataException {
+        long startTime = System.currentTimeMillis();
+        T loaded = loader.load();
+        long endTime = System.currentTimeMillis();
+        loadTime = endTime;
+        value = loaded;
+        log.debug("Dashboard {} data loaded in {}ms", name, endTime - startTime); //$NON-NLS-1$
+    }
+}
@@ -5,6 +5,7 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Random;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -12,6 +13,7 @@ import java.util.concurrent.TimeUnit;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import javax.ejb.EJB;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -21,8 +23,12 @@ import javax.sql.DataSource;
 
 import org.apache.commons.lang.StringUtils;
 import org.codehaus.jackson.map.ObjectMapper;
-import org.infinispan.Cache;
-import org.infinispan.manager.CacheContainer;
+import org.ovirt.engine.core.common.businessentities.DashboardSummary;
+import org.ovirt.engine.core.common.constants.SessionConstants;
+import org.ovirt.engine.core.common.interfaces.BackendLocal;
+import org.ovirt.engine.core.common.queries.QueryParametersBase;
+import org.ovirt.engine.core.common.queries.QueryReturnValue;
+import org.ovirt.engine.core.common.queries.QueryType;
 import org.ovirt.engine.core.utils.EngineLocalConfig;
 import org.ovirt.engine.ui.frontend.server.dashboard.fake.FakeDataGenerator;
 import org.slf4j.Logger;
@@ -38,11 +44,8 @@ public class DashboardDataServlet extends HttpServlet {
 
     private static final String CONTENT_TYPE = "application/json"; //$NON-NLS-1$
     private static final String ENCODING = "UTF-8"; //$NON-NLS-1$
-    private static final String DASHBOARD = "dashboard"; //$NON-NLS-1$
+    private static final String UTILIZATION = "utilization"; //$NON-NLS-1$
     private static final String INVENTORY = "inventory"; //$NON-NLS-1$
-    private static final String UTILIZATION_KEY = "utilization_key"; //$NON-NLS-1$
-    private static final String INVENTORY_KEY = "inventory_key"; //$NON-NLS-1$
-    private static final Object UTILIZATION_LOCK = new Object();
 
     private static final String ENABLE_CACHE_UPDATE_KEY = "DASHBOARD_CACHE_UPDATE"; //$NON-NLS-1$
     private static final String UTILIZATION_CACHE_UPDATE_INTERVAL_KEY = "DASHBOARD_UTILIZATION_CACHE_UPDATE_INTERVAL"; //$NON-NLS-1$
@@ -61,26 +64,33 @@ public class DashboardDataServlet extends HttpServlet {
     @Resource(mappedName = "java:/ENGINEDataSource")
     private DataSource engineDataSource;
 
+    private BackendLocal backend;
+
     private boolean dwhAvailable = false;
     private boolean enableBackgroundCacheUpdate = false;
 
-    @Resource(lookup = "java:jboss/infinispan/container/ovirt-engine")
-    private CacheContainer cacheContainer;
-
-    private Cache<String, Dashboard> dashboardCache;
-    private Cache<String, Inventory> inventoryCache;
+    /**
+     * The last utilization and inventory data, the requests are answered from them without querying the databases.
+     * The hosts and VMs are not part of them, they are taken from the dashboard summary maintained by the engine from
+     * the monitoring, which is current and is returned without scanning the hosts and VMs.
+     */
+    private DashboardDataHolder<Dashboard> utilizationHolder;
+    private DashboardDataHolder<Inventory> inventoryHolder;
 
     @Resource
     private ManagedScheduledExecutorService scheduledExecutor;
 
+    @EJB(beanInterface = BackendLocal.class,
+            mappedName = "java:global/engine/bll/Backend!org.ovirt.engine.core.common.interfaces.BackendLocal")
+    public void setBackend(BackendLocal backend) {
+        this.backend = backend;
+    }
+
     private ScheduledFuture<?> utilizationCacheUpdate = null;
     private ScheduledFuture<?> inventoryCacheUpdate = null;
 
     @PostConstruct
     private void initCache() {
-        dashboardCache = cacheContainer.getCache(DASHBOARD);
-        inventoryCache = cacheContainer.getCache(INVENTORY);
-
         dwhAvailable = checkDwhConfigInEngine() && checkDwhDataSource();
 
         EngineLocalConfig config = EngineLocalConfig.getInstance();
@@ -90,20 +100,40 @@ public class DashboardDataServlet extends HttpServlet {
             log.error("Missing/Invalid key \"{}\", using default value of 'false'", ENABLE_CACHE_UPDATE_KEY, e); //$NON-NLS-1$
             enableBackgroundCacheUpdate = false;
         }
+        try {
+            UTILIZATION_CACHE_UPDATE_INTERVAL = config.getLong(UTILIZATION_CACHE_UPDATE_INTERVAL_KEY);
+        } catch (IllegalArgumentException e) {
+            log.error("Missing/Invalid key \"{}\", using default value of 300", UTILIZATION_CACHE_UPDATE_INTERVAL_KEY, e); //$NON-NLS-1$
+            UTILIZATION_CACHE_UPDATE_INTERVAL = 300;
+        }
+        try {
+            INVENTORY_CACHE_UPDATE_INTERVAL = config.getLong(INVENTORY_CACHE_UPDATE_INTERVAL_KEY);
+        } catch (IllegalArgumentException e) {
+            log.error("Missing/Invalid key \"{}\", using default value of 60", INVENTORY_CACHE_UPDATE_INTERVAL_KEY, e); //$NON-NLS-1$
+            INVENTORY_CACHE_UPDATE_INTERVAL = 60;
+        }
+
+        /*
+         * Without the background updates, the data older than the update interval is refreshed in the background by
+         * the first request which finds it, that request and the following ones get the older data meanwhile.
+         */
+        utilizationHolder = new DashboardDataHolder<>(UTILIZATION,
+                this::getDashboard,
+                TimeUnit.SECONDS.toMillis(UTILIZATION_CACHE_UPDATE_INTERVAL),
+                scheduledExecutor);
+        inventoryHolder = new DashboardDataHolder<>(INVENTORY,
+                this::lookupInventory,
+                TimeUnit.SECONDS.toMillis(INVENTORY_CACHE_UPDATE_INTERVAL),
+                scheduledExecutor);
+
         if (!enableBackgroundCacheUpdate || !dwhAvailable) {
-            log.info("Dashboard DB query cache has been disabled."); //$NON-NLS-1$
+            log.info("Dashboard DB query cache background updates have been disabled."); //$NON-NLS-1$
             return;
         }
 
         /*
          * Update the utilization cache now and every 5 minutes (by default) thereafter, but never run 2 updates simultaneously.
          */
-        try {
-            UTILIZATION_CACHE_UPDATE_INTERVAL = config.getLong(UTILIZATION_CACHE_UPDATE_INTERVAL_KEY);
-        } catch (IllegalArgumentException e) {
-            log.error("Missing/Invalid key \"{}\", using default value of 300", UTILIZATION_CACHE_UPDATE_INTERVAL_KEY, e); //$NON-NLS-1$
-            UTILIZATION_CACHE_UPDATE_INTERVAL = 300;
-        }
         utilizationCacheUpdate = scheduledExecutor.scheduleWithFixedDelay(new Runnable() {
             Logger log = LoggerFactory.getLogger(DashboardDataServlet.class.getName() + ".CacheUpdate.Utilization"); //$NON-NLS-1$
 
@@ -111,7 +141,7 @@ public class DashboardDataServlet extends HttpServlet {
             public void run() {
                 log.trace("Attempting to update the Utilization cache"); //$NON-NLS-1$
                 try {
-                    populateUtilizationCache();
+                    utilizationHolder.refresh();
                 } catch (DashboardDataException e) {
                     log.error("Could not update the Utilization Cache: {}", e.getMessage(), e); //$NON-NLS-1$
                 }
@@ -122,12 +152,6 @@ public class DashboardDataServlet extends HttpServlet {
         /*
          * Update the inventory cache now and every 60 seconds (by default) thereafter, but never run 2 updates simultaneously.
          */
-        try {
-            INVENTORY_CACHE_UPDATE_INTERVAL = config.getLong(INVENTORY_CACHE_UPDATE_INTERVAL_KEY);
-        } catch (IllegalArgumentException e) {
-            log.error("Missing/Invalid key \"{}\", using default value of 60", INVENTORY_CACHE_UPDATE_INTERVAL_KEY, e); //$NON-NLS-1$
-            INVENTORY_CACHE_UPDATE_INTERVAL = 60;
-        }
         inventoryCacheUpdate = scheduledExecutor.scheduleWithFixedDelay(new Runnable() {
             Logger log = LoggerFactory.getLogger(DashboardDataServlet.class.getName() + ".CacheUpdate.Inventory"); //$NON-NLS-1$
 
@@ -135,7 +159,7 @@ public class DashboardDataServlet extends HttpServlet {
             public void run() {
                 log.trace("Attempting to update the Inventory cache"); //$NON-NLS-1$
                 try {
-                    populateInventoryCache();
+                    inventoryHolder.refresh();
                 } catch (DashboardDataException e) {
                     log.error("Could not update the Inventory Cache: {}", e.getMessage(), e); //$NON-NLS-1$
                 }
@@ -251,15 +275,14 @@ public class DashboardDataServlet extends HttpServlet {
             } else if (preferFake) {
                 log.debug("client requested fake data"); //$NON-NLS-1$
                 dashboard = getFakeDashboard();
-            } else if (!dwhAvailable) {
-                log.debug("client request cannot be fulfilled, DWH is not available"); //$NON-NLS-1$
-                throw new ServletException("Dashboard data is not available."); //$NON-NLS-1$
             } else if (preferNoCache) {
                 log.debug("client requested non-cache direct query data"); //$NON-NLS-1$
                 dashboard = getDashboard();
                 dashboard.setInventory(lookupInventory());
+                setDashboardSummary(dashboard, getDashboardSummary(request));
             } else {
                 dashboard = getDashboardFromCache();
+                setDashboardSummary(dashboard, getDashboardSummary(request));
             }
 
             ObjectMapper mapper = new ObjectMapper();
@@ -274,55 +297,59 @@ public class DashboardDataServlet extends HttpServlet {
     }
 
     private Dashboard getDashboardFromCache() throws DashboardDataException {
-        Dashboard dashboard;
-        Inventory inventory;
-
-        synchronized (UTILIZATION_LOCK) {
-            // Get the dashboard from the cache if we can. If not, query the database.
-            dashboard = dashboardCache.get(UTILIZATION_KEY);
-            if (dashboard == null) {
-                dashboard = populateUtilizationCache();
-            }
-
-            // Inventory is in a different cache. Get the data from the cache if we can. If not, query
-            // the database. Since this is potentially modifying the dashboard object, we need to have
-            // this inside the synchronized block of the dashboard.
-            inventory = inventoryCache.get(INVENTORY_KEY);
-            if (inventory == null) {
-                inventory = populateInventoryCache();
-            }
-        }
-
-        dashboard.setInventory(inventory);
+        // the held data is shared by the requests, so the inventory and the dashboard summary are set on copies
+        Dashboard utilization = utilizationHolder.get();
+        Dashboard dashboard = new Dashboard();
+        dashboard.setGlobalUtilization(copyOf(utilization.getGlobalUtilization()));
+        dashboard.setHeatMapData(copyOf(utilization.getHeatMapData()));
+        dashboard.setInventory(new Inventory(inventoryHolder.get()));
         return dashboard;
     }
 
-    private Dashboard populateUtilizationCache() throws DashboardDataException {
-        long startTime = System.currentTimeMillis();
-        Dashboard dashboard = getDashboard();
-        long endTime = System.currentTimeMillis();
+    private static GlobalUtilization copyOf(GlobalUtilization utilization) {
+        GlobalUtilization copy = new GlobalUtilization();
+        copy.setCpu(utilization.getCpu());
+        copy.setMemory(utilization.getMemory());
+        copy.setStorage(utilization.getStorage());
+        return copy;
+    }
 
-        if (enableBackgroundCacheUpdate) {
-            dashboardCache.put(UTILIZATION_KEY, dashboard);
-        } else {
-            dashboardCache.put(UTILIZATION_KEY, dashboard, UTILIZATION_CACHE_UPDATE_INTERVAL, TimeUnit.SECONDS);
-        }
-        log.debug("Dashboard utilization cache updated in {}ms", endTime-startTime); //$NON-NLS-1$
-        return dashboard;
+    private static HeatMapData copyOf(HeatMapData utilization) {
+        HeatMapData copy = new HeatMapData();
+        copy.setCpu(utilization.getCpu());
+        copy.setMemory(utilization.getMemory());
+        copy.setStorage(utilization.getStorage());
+        copy.setVdoSavings(utilization.getVdoSavings());
+        return copy;
     }
 
-    private Inventory populateInventoryCache() throws DashboardDataException {
-        long startTime = System.currentTimeMillis();
-        Inventory inventory = lookupInventory();
-        long endTime = System.currentTimeMillis();
+    /**
+     * Get the dashboard summary maintained by the engine from the monitoring of the hosts and VMs, it is returned in
+     * constant time.
+     */
+    private DashboardSummary getDashboardSummary(HttpServletRequest request) throws DashboardDataException {
+        QueryParametersBase params = new QueryParametersBase();
+        params.setSessionId((String) request.getSession().getAttribute(
+                SessionConstants.HTTP_SESSION_ENGINE_SESSION_ID_KEY));
+        QueryReturnValue result = backend.runQuery(QueryType.GetDashboardSummary, params);
+        if (result == null || !result.getSucceeded()) {
+            throw new DashboardDataException("Could not get the dashboard summary: " //$NON-NLS-1$
+                    + (result == null ? null : result.getExceptionString()));
+        }
+        return result.getReturnValue();
+    }
 
-        if (enableBackgroundCacheUpdate) {
-            inventoryCache.put(INVENTORY_KEY, inventory);
-        } else {
-            inventoryCache.put(INVENTORY_KEY, inventory, INVENTORY_CACHE_UPDATE_INTERVAL, TimeUnit.SECONDS);
+    /**
+     * Set the hosts and VMs of the dashboard summary to the inventory. Without DWH, the current CPU and memory usage
+     * of the summary is set to the utilization too, instead of the history kept by DWH.
+     */
+    private void setDashboardSummary(Dashboard dashboard, DashboardSummary summary) {
+        dashboard.getInventory().setHost(DashboardSummaryHelper.getHostInventoryStatus(summary));
+        dashboard.getInventory().setVm(DashboardSummaryHelper.getVmInventoryStatus(summary));
+        if (!dwhAvailable) {
+            DashboardSummaryHelper.getCpuMemSummary(dashboard.getGlobalUtilization(), summary);
+            DashboardSummaryHelper.getCpuAndMemory(dashboard.getHeatMapData(), summary);
         }
-        log.debug("Dashboard inventoy cache updated in {}ms", endTime-startTime); //$NON-NLS-1$
-        return inventory;
     }
 
     private Dashboard getFakeDashboard() {
@@ -336,18 +363,30 @@ public class DashboardDataServlet extends HttpServlet {
 
     private Dashboard getDashboard() throws DashboardDataException {
         Dashboard dashboard = new Dashboard();
-        dashboard.setGlobalUtilization(lookupGlobalUtilization());
-        dashboard.setHeatMapData(lookupClusterUtilization());
+        if (dwhAvailable) {
+            dashboard.setGlobalUtilization(lookupGlobalUtilization());
+            dashboard.setHeatMapData(lookupClusterUtilization());
+        } else {
+            // the CPU and memory usage are set from the dashboard summary, the storage usage is kept by DWH only
+            GlobalUtilization utilization = new GlobalUtilization();
+            utilization.setStorage(new GlobalUtilizationResourceSummary(new StorageUtilization()));
+            dashboard.setGlobalUtilization(utilization);
+            HeatMapData heatMapData = new HeatMapData();
+            heatMapData.setStorage(new ArrayList<>());
+            heatMapData.setVdoSavings(HeatMapHelper.getVdoSavings(engineDataSource));
+            dashboard.setHeatMapData(heatMapData);
+        }
         return dashboard;
     }
 
+    /**
+     * The hosts and VMs are set from the dashboard summary.
+     */
     private Inventory lookupInventory() throws DashboardDataException {
         Inventory inventory = new Inventory();
         inventory.setDc(InventoryHelper.getDcInventoryStatus(engineDataSource));
         inventory.setCluster(InventoryHelper.getClusterInventoryStatus(engineDataSource));
-        inventory.setHost(InventoryHelper.getHostInventoryStatus(engineDataSource));
         inventory.setStorage(InventoryHelper.getStorageInventoryStatus(engineDataSource));
-        inventory.setVm(InventoryHelper.getVmInventorySummary(engineDataSource));
         inventory.setVolume(InventoryHelper.getGlusterVolumeInventorySummary(engineDataSource));
         inventory.setEvent(EventHelper.getEventStatus(engineDataSource));
         return inventory;
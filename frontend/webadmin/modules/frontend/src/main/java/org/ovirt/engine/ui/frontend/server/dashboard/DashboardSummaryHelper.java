@@ -0,0 +1,109 @@
+package org.ovirt.engine.ui.frontend.server.dashboard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ovirt.engine.core.common.businessentities.DashboardClusterUtilization;
+import org.ovirt.engine.core.common.businessentities.DashboardSummary;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.ui.frontend.server.dashboard.maps.HostStatusMap;
+import org.ovirt.engine.ui.frontend.server.dashboard.maps.VmStatusMap;
+
+/**
+ * Converts the dashboard summary maintained by the engine from the monitoring to the dashboard data.
+ */
+public class DashboardSummaryHelper {
+
+    /**
+     * Get the status information for the hosts.
+     * @param summary The dashboard summary of the engine.
+     * @return An {@code InventoryStatus} object containing the status counts mapped from the original status to
+     * the Up/Down/Error status.
+     */
+    public static InventoryStatus getHostInventoryStatus(DashboardSummary summary) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<VDSStatus, Integer> entry : summary.getHostCountsByStatus().entrySet()) {
+            int status = entry.getKey().getValue();
+            HostStatusMap type = HostStatusMap.UP;
+            if (HostStatusMap.WARNING.isType(status)) {
+                type = HostStatusMap.WARNING;
+            } else if (HostStatusMap.DOWN.isType(status)) {
+                type = HostStatusMap.DOWN;
+            }
+            counts.merge(type.name().toLowerCase(), entry.getValue(), Integer::sum);
+        }
+        return createInventoryStatus(counts);
+    }
+
+    /**
+     * Get the status information for the VMs.
+     * @param summary The dashboard summary of the engine.
+     * @return An {@code InventoryStatus} object containing the status counts mapped from the original status to
+     * the Up/Down/Error status.
+     */
+    public static InventoryStatus getVmInventoryStatus(DashboardSummary summary) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<VMStatus, Integer> entry : summary.getVmCountsByStatus().entrySet()) {
+            int status = entry.getKey().getValue();
+            VmStatusMap type = VmStatusMap.UP;
+            if (VmStatusMap.WARNING.isType(status)) {
+                type = VmStatusMap.WARNING;
+            } else if (VmStatusMap.DOWN.isType(status)) {
+                type = VmStatusMap.DOWN;
+            }
+            counts.merge(type.name().toLowerCase(), entry.getValue(), Integer::sum);
+        }
+        return createInventoryStatus(counts);
+    }
+
+    private static InventoryStatus createInventoryStatus(Map<String, Integer> counts) {
+        InventoryStatus result = new InventoryStatus();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            result.setStatusCount(entry.getKey(), entry.getValue());
+            result.setTotalCount(result.getTotalCount() + entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Set the current CPU and memory usage of the clusters to the heat maps.
+     */
+    public static void getCpuAndMemory(HeatMapData utilization, DashboardSummary summary) {
+        List<HeatMapBlock> cpu = new ArrayList<>();
+        List<HeatMapBlock> memory = new ArrayList<>();
+        for (DashboardClusterUtilization cluster : summary.getClusterUtilization()) {
+            cpu.add(new HeatMapBlock(cluster.getClusterName(), cluster.getCpuUsagePercent()));
+            memory.add(new HeatMapBlock(cluster.getClusterName(), cluster.getMemUsagePercent()));
+        }
+        utilization.setCpu(cpu);
+        utilization.setMemory(memory);
+    }
+
+    /**
+     * Set the current CPU and memory usage of the hosts which are up to the global utilization, without history.
+     */
+    public static void getCpuMemSummary(GlobalUtilization utilization, DashboardSummary summary) {
+        GlobalUtilizationResourceSummary cpuSummary = new GlobalUtilizationCpuSummary();
+        GlobalUtilizationResourceSummary memSummary = new GlobalUtilizationResourceSummary();
+        int cpuCores = 0;
+        double cpuUsedCores = 0;
+        long physicalMemMb = 0;
+        double memUsedMb = 0;
+        for (DashboardClusterUtilization cluster : summary.getClusterUtilization()) {
+            cpuCores += cluster.getCpuCores();
+            cpuUsedCores += cluster.getCpuUsedCores();
+            physicalMemMb += cluster.getPhysicalMemMb();
+            memUsedMb += cluster.getMemUsedMb();
+        }
+        cpuSummary.setPhysicalTotal(cpuCores);
+        cpuSummary.setUsed(cpuCores == 0 ? 0 : cpuUsedCores * 100 / cpuCores);
+        //Transform MB to GB.
+        memSummary.setPhysicalTotal(physicalMemMb / 1024.0);
+        memSummary.setUsed(memUsedMb / 1024);
+        utilization.setCpu(cpuSummary);
+        utilization.setMemory(memSummary);
+    }
+}
@@ -19,6 +19,23 @@ public class Inventory {
     private InventoryStatus event;
     private InventoryStatus volume;
 
+    public Inventory() {
+    }
+
+    /**
+     * Copy constructor, the status information is shared with the copied inventory.
+     * @param inventory The inventory to copy.
+     */
+    public Inventory(Inventory inventory) {
+        dc = inventory.dc;
+        cluster = inventory.cluster;
+        host = inventory.host;
+        storage = inventory.storage;
+        vm = inventory.vm;
+        event = inventory.event;
+        volume = inventory.volume;
+    }
+
     public InventoryStatus getDc() {
         return dc;
     }
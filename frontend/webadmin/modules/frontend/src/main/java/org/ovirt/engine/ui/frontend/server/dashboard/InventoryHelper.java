@@ -5,9 +5,7 @@ import javax.sql.DataSource;
 import org.ovirt.engine.ui.frontend.server.dashboard.dao.ClusterEngineDao;
 import org.ovirt.engine.ui.frontend.server.dashboard.dao.DataCenterDao;
 import org.ovirt.engine.ui.frontend.server.dashboard.dao.GlusterVolumeEngineDao;
-import org.ovirt.engine.ui.frontend.server.dashboard.dao.HostEngineDao;
 import org.ovirt.engine.ui.frontend.server.dashboard.dao.StorageDomainEngineDao;
-import org.ovirt.engine.ui.frontend.server.dashboard.dao.VmEngineDao;
 
 public class InventoryHelper {
     /**
@@ -33,18 +31,6 @@ public class InventoryHelper {
         return dao.getClusterInventorySummary();
     }
 
-    /**
-     * Get the status information for the hosts.
-     * @param engineDataSource The data source to use.
-     * @return An {@code InventoryStatus} object containing the status counts mapped from the original status to
-     * the Up/Down/Error status.
-     * @throws DashboardDataException If there is a problem reading the query properties
-     */
-    public static InventoryStatus getHostInventoryStatus(DataSource engineDataSource) throws DashboardDataException {
-        HostEngineDao dao = new HostEngineDao(engineDataSource);
-        return dao.getHostInventoryStatus();
-    }
-
     /**
      * Get the status information for the storage domains.
      * @param engineDataSource The data source to use.
@@ -57,18 +43,6 @@ public class InventoryHelper {
         return dao.getStorageInventoryStatus();
     }
 
-    /**
-     * Get the status information for the VMs.
-     * @param engineDataSource The data source to use.
-     * @return An {@code InventoryStatus} object containing the status counts mapped from the original status to
-     * the Up/Down/Error status.
-     * @throws DashboardDataException If there is a problem reading the query properties
-     */
-    public static InventoryStatus getVmInventorySummary(DataSource engineDataSource) throws DashboardDataException {
-        VmEngineDao dao = new VmEngineDao(engineDataSource);
-        return dao.getVmInventoryStatus();
-    }
-
     /**
      * Get the status information for Gluster Volumes.
      * @param engineDataSource
@@ -2,16 +2,29 @@ package org.ovirt.engine.ui.frontend.server.gwt;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import org.apache.commons.lang.SerializationUtils;
 import org.apache.commons.lang.StringUtils;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.ActionReturnValue;
@@ -39,8 +52,19 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
     private static final String CORRELATION_ID_HEADER = "Correlation-Id"; //$NON-NLS-1$
     private static final Pattern INVALID_CORRELATION_ID_CHARACTERS_RE = Pattern.compile("[^0-9a-zA-Z_-]+"); //$NON-NLS-1$
 
+    /**
+     * Maximal number of threads borrowed from the executor to run the queries of a session in parallel with the
+     * request threads of the session.
+     */
+    private static final int MAX_QUERY_HELPERS_PER_SESSION = 3;
+
+    private static final String QUERY_HELPER_PERMITS_ATTRIBUTE =
+            GenericApiGWTServiceImpl.class.getName() + ".queryHelperPermits"; //$NON-NLS-1$
+
     private BackendLocal backend;
 
+    private ManagedExecutorService executor;
+
     @EJB(beanInterface = BackendLocal.class,
             mappedName = "java:global/engine/bll/Backend!org.ovirt.engine.core.common.interfaces.BackendLocal")
     public void setBackend(BackendLocal backend) {
@@ -51,6 +75,11 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
         return backend;
     }
 
+    @Resource
+    public void setExecutor(ManagedExecutorService executor) {
+        this.executor = executor;
+    }
+
     private static String filterCorrelationIdCharacters(String correlationId) {
         if (StringUtils.isNotEmpty(correlationId)) {
             correlationId = INVALID_CORRELATION_ID_CHARACTERS_RE.matcher(correlationId).replaceAll("");
@@ -113,12 +142,31 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
                 && queryParamsList != null
                 && queryTypeList.size() == queryParamsList.size()) {
             String correlationId = CorrelationIdTracker.getCorrelationId();
-            for (int i = 0; i < queryTypeList.size(); i++) {
-                if (queryParamsList.get(i).getCorrelationId() == null) {
-                    queryParamsList.get(i).setCorrelationId(correlationId);
+            String engineSessionId = getEngineSessionId();
+            // the index of the first occurrence of each query, the identical queries are run once
+            Map<QueryKey, Integer> firstIndexes = new HashMap<>();
+            int[] resultIndexes = new int[size];
+            List<Integer> distinctIndexes = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                QueryParametersBase params = queryParamsList.get(i);
+                if (params.getCorrelationId() == null) {
+                    params.setCorrelationId(correlationId);
                 }
-                debugQuery(queryTypeList.get(i), queryParamsList.get(i));
-                ret.add(runQuery(queryTypeList.get(i), queryParamsList.get(i)));
+                params.setSessionId(engineSessionId);
+                debugQuery(queryTypeList.get(i), params);
+
+                QueryKey key = QueryKey.of(queryTypeList.get(i), params);
+                Integer firstIndex = key == null ? null : firstIndexes.putIfAbsent(key, i);
+                resultIndexes[i] = firstIndex == null ? i : firstIndex;
+                if (firstIndex == null) {
+                    distinctIndexes.add(i);
+                }
+            }
+
+            QueryReturnValue[] results = new QueryReturnValue[size];
+            runQueries(queryTypeList, queryParamsList, distinctIndexes, results);
+            for (int i = 0; i < size; i++) {
+                ret.add(results[resultIndexes[i]]);
             }
         } else {
             log.error(
@@ -138,6 +186,84 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
         return ret;
     }
 
+    /**
+     * Runs the queries on the request thread and on up to {@link #MAX_QUERY_HELPERS_PER_SESSION} threads of the
+     * executor, less when other requests of the session already borrowed threads, so a batch takes about as long as
+     * its slowest queries instead of the sum of all of them.
+     *
+     * @param indexes
+     *            the indexes of the queries to run
+     * @param results
+     *            receives the return value of each query, at its index
+     */
+    private void runQueries(List<QueryType> queryTypes,
+            List<QueryParametersBase> queryParams,
+            List<Integer> indexes,
+            QueryReturnValue[] results) {
+        AtomicInteger next = new AtomicInteger();
+        Runnable runner = () -> {
+            for (int i = next.getAndIncrement(); i < indexes.size(); i = next.getAndIncrement()) {
+                int index = indexes.get(i);
+                results[index] = getBackend().runQuery(queryTypes.get(index), queryParams.get(index));
+            }
+        };
+
+        List<Future<?>> helpers = startQueryHelpers(runner, indexes.size() - 1);
+        runner.run();
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+        }
+    }
+
+    private List<Future<?>> startQueryHelpers(Runnable runner, int maxHelpers) {
+        if (executor == null || maxHelpers <= 0) {
+            return Collections.emptyList();
+        }
+
+        Semaphore permits = getQueryHelperPermits();
+        List<Future<?>> helpers = new ArrayList<>();
+        while (helpers.size() < maxHelpers && permits.tryAcquire()) {
+            try {
+                helpers.add(executor.submit(() -> {
+                    try {
+                        runner.run();
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                break;
+            }
+        }
+        return helpers;
+    }
+
+    private Semaphore getQueryHelperPermits() {
+        HttpSession session = getSession();
+        Semaphore permits = (Semaphore) session.getAttribute(QUERY_HELPER_PERMITS_ATTRIBUTE);
+        if (permits == null) {
+            synchronized (this) {
+                permits = (Semaphore) session.getAttribute(QUERY_HELPER_PERMITS_ATTRIBUTE);
+                if (permits == null) {
+                    permits = new Semaphore(MAX_QUERY_HELPERS_PER_SESSION);
+                    session.setAttribute(QUERY_HELPER_PERMITS_ATTRIBUTE, permits);
+                }
+            }
+        }
+        return permits;
+    }
+
     @Override
     public List<ActionReturnValue> runMultipleActions(ActionType actionType,
             ArrayList<ActionParametersBase> multipleParams, boolean isRunOnlyIfAllValidationPass) {
@@ -220,4 +346,51 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
         log.debug("Action type '{}', Parameters '{}'", actionType, params); //$NON-NLS-1$
     }
 
+    /**
+     * Identifies a query by its type and the serialized form of its parameters, as the parameters classes do not
+     * implement <code>equals</code>.
+     */
+    private static final class QueryKey {
+        private final QueryType queryType;
+        private final byte[] params;
+        private final int hashCode;
+
+        private QueryKey(QueryType queryType, byte[] params) {
+            this.queryType = queryType;
+            this.params = params;
+            hashCode = Objects.hash(queryType, Arrays.hashCode(params));
+        }
+
+        /**
+         * @return the key of the query, <code>null</code> if its parameters cannot be serialized
+         */
+        static QueryKey of(QueryType queryType, QueryParametersBase params) {
+            try {
+                return new QueryKey(queryType, SerializationUtils.serialize(params));
+            } catch (org.apache.commons.lang.SerializationException e) {
+                log.debug("Failed to serialize the parameters of query '{}': {}", queryType, e.getMessage()); //$NON-NLS-1$
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof QueryKey)) {
+                return false;
+            }
+            QueryKey other = (QueryKey) obj;
+            return hashCode == other.hashCode
+                    && queryType == other.queryType
+                    && Arrays.equals(params, other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
 }
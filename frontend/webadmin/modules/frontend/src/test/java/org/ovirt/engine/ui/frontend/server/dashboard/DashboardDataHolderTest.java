@@ -0,0 +1,65 @@
+package org.ovirt.engine.ui.frontend.server.dashboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class DashboardDataHolderTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+
+    @Test
+    public void testValueIsLoadedOnce() throws DashboardDataException {
+        DashboardDataHolder<Integer> holder = createHolder(Long.MAX_VALUE);
+
+        assertEquals(1, (int) holder.get());
+        assertEquals(1, (int) holder.get());
+        assertEquals(1, loads.get());
+        assertEquals(0, backgroundTasks.size());
+    }
+
+    @Test
+    public void testOldValueIsReturnedWhileRefreshing() throws DashboardDataException {
+        DashboardDataHolder<Integer> holder = createHolder(0);
+        holder.get();
+
+        assertEquals(1, (int) holder.get());
+        assertEquals(1, (int) holder.get());
+        // a single refresh is scheduled while the value is being refreshed
+        assertEquals(1, backgroundTasks.size());
+
+        backgroundTasks.remove(0).run();
+
+        assertEquals(2, (int) holder.get());
+    }
+
+    @Test
+    public void testRefreshLoadsValue() throws DashboardDataException {
+        DashboardDataHolder<Integer> holder = createHolder(Long.MAX_VALUE);
+        holder.get();
+
+        holder.refresh();
+
+        assertEquals(2, (int) holder.get());
+    }
+
+    @Test
+    public void testFailedFirstLoadIsThrown() {
+        DashboardDataHolder<Integer> holder = new DashboardDataHolder<>("test", () -> { //$NON-NLS-1$
+            throw new DashboardDataException("failure"); //$NON-NLS-1$
+        }, 0, backgroundTasks::add);
+
+        assertThrows(DashboardDataException.class, holder::get);
+    }
+
+    private DashboardDataHolder<Integer> createHolder(long refreshIntervalMillis) {
+        return new DashboardDataHolder<>("test", loads::incrementAndGet, refreshIntervalMillis, backgroundTasks::add); //$NON-NLS-1$
+    }
+}
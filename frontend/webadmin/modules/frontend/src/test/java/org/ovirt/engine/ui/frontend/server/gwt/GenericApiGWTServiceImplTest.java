@@ -1,5 +1,7 @@
 package org.ovirt.engine.ui.frontend.server.gwt;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -9,7 +11,10 @@ import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.FutureTask;
 
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
@@ -21,8 +26,11 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.ovirt.engine.core.common.interfaces.BackendLocal;
+import org.ovirt.engine.core.common.queries.IdQueryParameters;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
+import org.ovirt.engine.core.common.queries.QueryReturnValue;
 import org.ovirt.engine.core.common.queries.QueryType;
+import org.ovirt.engine.core.compat.Guid;
 
 @ExtendWith(MockitoExtension.class)
 public class GenericApiGWTServiceImplTest {
@@ -31,6 +39,8 @@ public class GenericApiGWTServiceImplTest {
     private BackendLocal backendLocal;
     @Mock
     private HttpSession session;
+    @Mock
+    private ManagedExecutorService executor;
 
     private HttpServletRequest request;
     private HttpServletResponse response;
@@ -79,12 +89,56 @@ public class GenericApiGWTServiceImplTest {
                 QueryType.Search,
                 QueryType.Search));
         ArrayList<QueryParametersBase> queryParamsList = new ArrayList<>(Arrays.asList(
-                new QueryParametersBase(),
-                new QueryParametersBase()));
+                new IdQueryParameters(Guid.newGuid()),
+                new IdQueryParameters(Guid.newGuid())));
 
         underTest.runMultipleQueries(queryTypeList, queryParamsList);
 
         verify(backendLocal, times(2)).runQuery(any(), any());
     }
 
+    @Test
+    public void multiQueryRunsIdenticalQueriesOnce() {
+        Guid id = Guid.newGuid();
+        ArrayList<QueryType> queryTypeList = new ArrayList<>(Arrays.asList(
+                QueryType.GetVmByVmId,
+                QueryType.GetVdsByVdsId,
+                QueryType.GetVmByVmId));
+        ArrayList<QueryParametersBase> queryParamsList = new ArrayList<>(Arrays.asList(
+                new IdQueryParameters(id),
+                new IdQueryParameters(id),
+                new IdQueryParameters(id)));
+        when(backendLocal.runQuery(any(), any())).thenAnswer(invocation -> new QueryReturnValue());
+
+        List<QueryReturnValue> results = underTest.runMultipleQueries(queryTypeList, queryParamsList);
+
+        verify(backendLocal, times(2)).runQuery(any(), any());
+        assertEquals(3, results.size());
+        assertSame(results.get(0), results.get(2));
+    }
+
+    @Test
+    public void multiQueryRunsQueriesOnExecutor() {
+        underTest.setExecutor(executor);
+        when(executor.submit(any(Runnable.class))).thenAnswer(invocation -> {
+            FutureTask<Void> task = new FutureTask<>(invocation.getArgument(0), null);
+            task.run();
+            return task;
+        });
+        ArrayList<QueryType> queryTypeList = new ArrayList<>(Arrays.asList(
+                QueryType.GetVmByVmId,
+                QueryType.GetVmByVmId,
+                QueryType.GetVmByVmId));
+        ArrayList<QueryParametersBase> queryParamsList = new ArrayList<>(Arrays.asList(
+                new IdQueryParameters(Guid.newGuid()),
+                new IdQueryParameters(Guid.newGuid()),
+                new IdQueryParameters(Guid.newGuid())));
+
+        List<QueryReturnValue> results = underTest.runMultipleQueries(queryTypeList, queryParamsList);
+
+        verify(executor, times(2)).submit(any(Runnable.class));
+        verify(backendLocal, times(3)).runQuery(any(), any());
+        assertEquals(3, results.size());
+    }
+
 }
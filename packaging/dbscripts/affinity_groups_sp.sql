@@ -15,6 +15,23 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+-- get All Affinity Groups with members by vm ids
+CREATE OR REPLACE FUNCTION getAllAffinityGroupsByVmIds (v_vm_ids UUID[])
+RETURNS SETOF affinity_groups_view STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT affinity_groups_view.*
+    FROM affinity_groups_view
+    WHERE EXISTS (
+            SELECT 1
+            FROM affinity_group_members
+            WHERE affinity_group_members.affinity_group_id = affinity_groups_view.id
+                AND affinity_group_members.vm_id = ANY(v_vm_ids)
+            );
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 -- get All Affinity Groups with members by cluster id
 CREATE OR REPLACE FUNCTION getAllAffinityGroupsByClusterId (v_cluster_id UUID)
 RETURNS SETOF affinity_groups_view STABLE AS $PROCEDURE$
@@ -99,6 +99,57 @@ END;$PROCEDURE$
 
 LANGUAGE plpgsql;
 
+-- Updates the command, writing only the payloads which changed since they were last written, the others are
+-- passed as NULL and kept, so they are not written again on every status change of a long running command
+CREATE OR REPLACE FUNCTION UpdateCommandEntityChangedPayloads (
+    v_user_id uuid,
+    v_engine_session_seq_id BIGINT,
+    v_command_id uuid,
+    v_command_type INT,
+    v_parent_command_id uuid,
+    v_root_command_id uuid,
+    v_command_context TEXT,
+    v_command_context_changed boolean,
+    v_command_parameters TEXT,
+    v_command_parameters_changed boolean,
+    v_command_params_class VARCHAR(256),
+    v_status VARCHAR(20),
+    v_executed boolean,
+    v_callback_enabled boolean,
+    v_return_value TEXT,
+    v_return_value_changed boolean,
+    v_return_value_class VARCHAR(256),
+    v_data TEXT,
+    v_data_changed boolean
+    )
+RETURNS INT AS $PROCEDURE$
+DECLARE updated_rows INT;
+
+BEGIN
+    UPDATE command_entities
+    SET command_type = v_command_type,
+        user_id = v_user_id,
+        engine_session_seq_id = v_engine_session_seq_id,
+        parent_command_id = v_parent_command_id,
+        root_command_id = v_root_command_id,
+        command_context = CASE WHEN v_command_context_changed THEN v_command_context ELSE command_context END,
+        command_parameters = CASE WHEN v_command_parameters_changed THEN v_command_parameters ELSE command_parameters END,
+        command_params_class = v_command_params_class,
+        status = v_status,
+        executed = v_executed,
+        callback_enabled = v_callback_enabled,
+        return_value = CASE WHEN v_return_value_changed THEN v_return_value ELSE return_value END,
+        return_value_class = v_return_value_class,
+        data = CASE WHEN v_data_changed THEN v_data ELSE data END
+    WHERE command_id = v_command_id;
+
+    GET DIAGNOSTICS updated_rows = ROW_COUNT;
+
+    RETURN updated_rows;
+END;$PROCEDURE$
+
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION UpdateCommandEntityStatus (
     v_command_id uuid,
     v_status VARCHAR(20)
@@ -98,6 +98,33 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+-- Merges the rows copied to the disk_image_dynamic_copy session table by the engine
+CREATE OR REPLACE FUNCTION Updatedisk_image_dynamic_by_disk_id_and_vm_idFromCopy ()
+RETURNS VOID AS $PROCEDURE$
+BEGIN
+    UPDATE disk_image_dynamic
+    SET read_rate = c.read_rate,
+        write_rate = c.write_rate,
+        actual_size = c.actual_size,
+        read_latency_seconds = c.read_latency_seconds,
+        write_latency_seconds = c.write_latency_seconds,
+        flush_latency_seconds = c.flush_latency_seconds,
+        _update_date = LOCALTIMESTAMP
+    FROM disk_image_dynamic_copy c
+    INNER JOIN images i
+        ON i.image_group_id = c.image_group_id
+            AND i.active = true
+    WHERE disk_image_dynamic.image_id = i.image_guid
+        AND EXISTS (
+            SELECT 1
+            FROM vm_device vmd
+            WHERE vmd.vm_id = c.vm_id
+                AND vmd.device_id = c.image_group_id
+                AND vmd.snapshot_id IS NULL
+            );
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION Deletedisk_image_dynamic (v_image_id UUID)
 RETURNS VOID AS $PROCEDURE$
 BEGIN
@@ -113,6 +113,26 @@ BEGIN
 END; $procedure$
 LANGUAGE plpgsql;
 
+Create or replace FUNCTION GetSnapshotsByLeafGuids(v_image_guids UUID[])
+RETURNS SETOF images_storage_domain_view STABLE
+   AS $procedure$
+BEGIN
+     RETURN QUERY WITH RECURSIVE image_list AS (
+          SELECT *
+          FROM   images_storage_domain_view
+          WHERE  image_guid = ANY(v_image_guids)
+          UNION ALL
+          SELECT images_storage_domain_view.*
+          FROM   images_storage_domain_view
+          JOIN   image_list ON
+                 image_list.parentid = images_storage_domain_view.image_guid AND
+                 image_list.image_group_id = images_storage_domain_view.image_group_id
+      )
+      SELECT *
+      FROM image_list;
+END; $procedure$
+LANGUAGE plpgsql;
+
 
 
 
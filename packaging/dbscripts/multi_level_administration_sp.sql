@@ -789,3 +789,13 @@ BEGIN
         AND object_id = v_object_id;
 END; $procedure$
 LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION GetPermissionsByObjectIds(v_object_ids UUID[])
+RETURNS SETOF permissions_view STABLE
+    AS $procedure$
+BEGIN
+    RETURN QUERY SELECT *
+    FROM permissions_view
+    WHERE object_id = ANY(v_object_ids);
+END; $procedure$
+LANGUAGE plpgsql;
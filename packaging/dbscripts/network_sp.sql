@@ -1045,6 +1045,30 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetVmNetworkInterfaceViewByVmIds (
+    v_vm_ids UUID[],
+    v_user_id UUID,
+    v_is_filtered BOOLEAN
+    )
+RETURNS SETOF vm_interface_view STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT vm_interface_view.*
+    FROM vm_interface_view
+    WHERE vm_guid = ANY(v_vm_ids)
+        AND (
+            NOT v_is_filtered
+            OR EXISTS (
+                SELECT 1
+                FROM user_vm_permissions_view
+                WHERE user_id = v_user_id
+                    AND entity_id = vm_interface_view.vm_guid
+                )
+            );
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION GetVmNetworkInterfaceToMonitorByVmId (v_vm_id UUID)
 RETURNS SETOF vm_interface_monitoring_view STABLE AS $PROCEDURE$
 BEGIN
@@ -1204,6 +1228,28 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+-- Merges the rows copied to the vm_interface_statistics_copy session table by the engine
+CREATE OR REPLACE FUNCTION Updatevm_interface_statisticsFromCopy ()
+RETURNS VOID AS $PROCEDURE$
+BEGIN
+    UPDATE vm_interface_statistics
+    SET rx_drop = c.rx_drop,
+        rx_rate = c.rx_rate,
+        rx_total = c.rx_total,
+        rx_offset = c.rx_offset,
+        tx_drop = c.tx_drop,
+        tx_rate = c.tx_rate,
+        tx_total = c.tx_total,
+        tx_offset = c.tx_offset,
+        vm_id = c.vm_id,
+        iface_status = c.iface_status,
+        sample_time = c.sample_time,
+        _update_date = LOCALTIMESTAMP
+    FROM vm_interface_statistics_copy c
+    WHERE vm_interface_statistics.id = c.id;
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION Deletevm_interface_statistics (v_id UUID)
 RETURNS VOID AS $PROCEDURE$
 DECLARE v_val UUID;
@@ -1372,6 +1418,28 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+-- Merges the rows copied to the vds_interface_statistics_copy session table by the engine
+CREATE OR REPLACE FUNCTION Updatevds_interface_statisticsFromCopy ()
+RETURNS VOID AS $PROCEDURE$
+BEGIN
+    UPDATE vds_interface_statistics
+    SET rx_drop = c.rx_drop,
+        rx_rate = c.rx_rate,
+        rx_total = c.rx_total,
+        rx_offset = c.rx_offset,
+        tx_drop = c.tx_drop,
+        tx_rate = c.tx_rate,
+        tx_total = c.tx_total,
+        tx_offset = c.tx_offset,
+        vds_id = c.vds_id,
+        iface_status = c.iface_status,
+        sample_time = c.sample_time,
+        _update_date = LOCALTIMESTAMP
+    FROM vds_interface_statistics_copy c
+    WHERE vds_interface_statistics.id = c.id;
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION Deletevds_interface_statistics (v_id UUID)
 RETURNS VOID AS $PROCEDURE$
 DECLARE v_val UUID;
@@ -716,6 +716,17 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetLUN_storage_server_connection_mapByLUNs (v_LUN_ids VARCHAR(255) [])
+RETURNS SETOF LUN_storage_server_connection_map STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT *
+    FROM LUN_storage_server_connection_map lUN_storage_server_connection_map
+    WHERE LUN_id = ANY (v_LUN_ids);
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 
 CREATE OR REPLACE FUNCTION GetLUN_storage_server_connection_mapByLUNBystorage_server_conn (
     v_LUN_id VARCHAR(255),
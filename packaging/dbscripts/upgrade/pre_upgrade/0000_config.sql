@@ -57,6 +57,8 @@ select fn_db_add_config_value('AllowClusterWithVirtGlusterEnabled','true','gener
 select fn_db_add_config_value('ApplicationMode','255','general');
 select fn_db_add_config_value('AsyncCommandPollingLoopInSeconds','1','general');
 select fn_db_add_config_value('AsyncCommandPollingRateInSeconds','10','general');
+select fn_db_add_config_value('AsyncCommandParallelCallbacksEnabled','false','general');
+select fn_db_add_config_value('AsyncCommandMaxParallelCallbacks','10','general');
 select fn_db_add_config_value('AsyncTaskPollingRate','10','general');
 select fn_db_add_config_value('AsyncTaskStatusCacheRefreshRateInSeconds','30','general');
 select fn_db_add_config_value('AsyncTaskStatusCachingTimeInMinutes','1','general');
@@ -84,6 +86,7 @@ select fn_db_add_config_value_for_versions_up_to('ClusterEmulatedMachines','pc-i
 select fn_db_add_config_value('ClusterEmulatedMachines','pc-i440fx-rhel7.6.0,pc-i440fx-2.12,pseries-rhel7.6.0-sxxm,s390-ccw-virtio-2.12','4.3');
 select fn_db_add_config_value('ClusterEmulatedMachines','pc-i440fx-rhel7.6.0,pc-i440fx-2.12,pseries-rhel7.6.0-sxxm,s390-ccw-virtio-2.12','4.4');
 select fn_db_add_config_value('CpuOverCommitDurationMinutes','2','general');
+select fn_db_add_config_value('DashboardSummaryReloadIntervalInMinutes','10','general');
 --Handling Data directory for ENGINE
 select fn_db_add_config_value('DataDir','/usr/share/engine','general');
 select fn_db_add_config_value('DBEngine','Postgres','general');
@@ -417,6 +420,8 @@ select fn_db_add_config_value('QuotaThresholdCluster','80','general');
 select fn_db_add_config_value('RhevhLocalFSPath','/data/images/','general');
 select fn_db_add_config_value('SANWipeAfterDelete','false','general');
 --Handling SASL QOP
+select fn_db_add_config_value('SearchQueryCacheMaxSize','1000','general');
+select fn_db_add_config_value('SearchQueryCacheTimeToLiveInMinutes','1440','general');
 select fn_db_add_config_value('SearchResultsLimit','100','general');
 select fn_db_add_config_value('SendSMPOnRunVm','true','general');
 
@@ -594,6 +599,20 @@ select fn_db_add_config_value('vdsTimeout','180','general');
 select fn_db_add_config_value_for_versions_up_to('VM32BitMaxMemorySizeInMB','20480','4.4');
 select fn_db_add_config_value_for_versions_up_to('VM64BitMaxMemorySizeInMB','4194304','4.4');
 select fn_db_add_config_value_for_versions_up_to('VMPpc64BitMaxMemorySizeInMB', '1048576', '4.4');
+select fn_db_add_config_value('VmStatisticsDeltaPersistenceEnabled','true','general');
+select fn_db_add_config_value('VmStatisticsFullFlushIntervalInSeconds','300','general');
+select fn_db_add_config_value('VmStatisticsPercentageChangeThreshold','1','general');
+select fn_db_add_config_value('VmStatisticsRelativeChangeThreshold','5','general');
+select fn_db_add_config_value('StatisticsBulkUpdateMinRows','100','general');
+select fn_db_add_config_value('AdaptiveVmMonitoringEnabled','false','general');
+select fn_db_add_config_value('AdaptiveVmMonitoringFullPollIntervalInSeconds','60','general');
+select fn_db_add_config_value('VdsCacheVerifyIntervalInSeconds','60','general');
+select fn_db_add_config_value('PermissionCacheTimeToLiveInSeconds','10','general');
+select fn_db_add_config_value('AuditLogQueueSize','10000','general');
+select fn_db_add_config_value('VmAnalysisThreads','4','general');
+select fn_db_add_config_value('GlusterRefreshThreads','4','general');
+select fn_db_add_config_value('GlusterRefreshClusterTimeoutInSecs','60','general');
+select fn_db_add_config_value('AsyncTaskMaxPollingRate','60','general');
 select fn_db_add_config_value('VmGracefulShutdownMessage','System Administrator has initiated shutdown of this Virtual Machine. Virtual Machine is shutting down.','general');
 select fn_db_add_config_value('VmGracefulShutdownTimeout','30','general');
 --Number of subsequent failures in VM creation in a pool before giving up and stop creating new VMs
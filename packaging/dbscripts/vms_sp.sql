@@ -225,6 +225,26 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+-- Merges the rows copied to the vm_statistics_copy session table by the engine
+CREATE OR REPLACE FUNCTION UpdateVmStatisticsFromCopy ()
+RETURNS VOID AS $PROCEDURE$
+BEGIN
+    UPDATE vm_statistics
+    SET cpu_sys = c.cpu_sys,
+        cpu_user = c.cpu_user,
+        elapsed_time = c.elapsed_time,
+        usage_cpu_percent = c.usage_cpu_percent,
+        usage_mem_percent = c.usage_mem_percent,
+        usage_network_percent = c.usage_network_percent,
+        disks_usage = c.disks_usage,
+        guest_mem_buffered = c.guest_mem_buffered,
+        guest_mem_cached = c.guest_mem_cached,
+        _update_date = LOCALTIMESTAMP
+    FROM vm_statistics_copy c
+    WHERE vm_statistics.vm_guid = c.vm_guid;
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION DeleteVmStatistics (v_vm_guid UUID)
 RETURNS VOID AS $PROCEDURE$
 BEGIN
@@ -954,6 +974,22 @@ BEGIN
 END; $procedure$
 LANGUAGE plpgsql;
 
+DROP TYPE IF EXISTS GetDbGenerations_rs CASCADE;
+CREATE TYPE GetDbGenerations_rs AS (
+        vm_guid UUID,
+        db_generation BIGINT
+        );
+
+Create or replace FUNCTION GetDbGenerations(v_vm_guids UUID[])
+RETURNS SETOF GetDbGenerations_rs STABLE
+   AS $procedure$
+BEGIN
+      RETURN QUERY SELECT vm_guid, db_generation
+      FROM vm_static
+      WHERE vm_guid = ANY(v_vm_guids);
+END; $procedure$
+LANGUAGE plpgsql;
+
 
 
 